@@ -14,6 +14,8 @@ import android.app.DatePickerDialog;
 import android.content.Intent;
 import android.os.Bundle;
 import android.view.View;
+import android.widget.ArrayAdapter;
+import android.widget.AutoCompleteTextView;
 import android.widget.Button;
 import android.widget.DatePicker;
 import android.widget.EditText;
@@ -23,17 +25,20 @@ import android.widget.Toast;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.Locale;
 
 public class AddItemActivity extends AppCompatActivity {
     // UI控件
-    private EditText mEtItemName;
+    private AutoCompleteTextView mEtItemName;
     private Spinner mSpCategory;
-    private Spinner mSpSubCategory;
     private Spinner mSpLocation;
     private EditText mEtQuantity;
+    private EditText mEtBarcode;
     private EditText mEtExpiryDate;
     private Button mBtnSelectDate;
     private Button mBtnSubmit;
@@ -55,6 +60,8 @@ public class AddItemActivity extends AppCompatActivity {
     // 编辑模式标记
     private boolean isEditMode = false;
     private Item mEditItem; // 待编辑的物品
+    // 已确认仍要新增的疑似重复名称（名称再被修改后需重新确认）
+    private String mConfirmedDuplicateName;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -81,9 +88,9 @@ public class AddItemActivity extends AppCompatActivity {
         mTvPageTitle = findViewById(R.id.tv_page_title); // 直接获取标题
         mEtItemName = findViewById(R.id.et_item_name);
         mSpCategory = findViewById(R.id.sp_category);
-        mSpSubCategory = findViewById(R.id.sp_sub_category);
         mSpLocation = findViewById(R.id.sp_location);
         mEtQuantity = findViewById(R.id.et_quantity);
+        mEtBarcode = findViewById(R.id.et_barcode);
         mEtExpiryDate = findViewById(R.id.et_expiry_date);
         mBtnSelectDate = findViewById(R.id.btn_select_date);
         mBtnSubmit = findViewById(R.id.btn_submit);
@@ -102,6 +109,39 @@ public class AddItemActivity extends AppCompatActivity {
      */
     private void initViewModel() {
         mViewModel = new ViewModelProvider(this).get(InventoryViewModel.class);
+        // 名称输入联想（已有物品名称、分类、位置，支持拼音首字母）
+        mEtItemName.setAdapter(new NameSuggestionAdapter(this, mViewModel.getNameSuggestions()));
+        // 分类选项：默认分类 + 分类树中的全部分类（按完整路径，如"食品/乳制品"）
+        mViewModel.getAllCategories().observe(this, new Observer<List<Category>>() {
+            @Override
+            public void onChanged(List<Category> categories) {
+                bindCategoryOptions(categories);
+            }
+        });
+    }
+
+    /**
+     * 刷新分类Spinner选项，保留当前选中项（编辑模式下优先选中物品的分类）
+     */
+    private void bindCategoryOptions(List<Category> categories) {
+        String selected = mSpCategory.getSelectedItem() != null ? mSpCategory.getSelectedItem().toString() : null;
+        if (mEditItem != null && mEditItem.getCategory() != null && !mEditItem.getCategory().isEmpty()
+                && (selected == null || selected.equals("未分类"))) {
+            selected = mEditItem.getCategory();
+        }
+        Set<String> options = new LinkedHashSet<>(Arrays.asList(getResources().getStringArray(R.array.default_category)));
+        if (categories != null) {
+            for (Category category : categories) {
+                options.add(category.getFullName());
+            }
+        }
+        ArrayAdapter<String> adapter = new ArrayAdapter<>(this, android.R.layout.simple_spinner_item,
+                new ArrayList<>(options));
+        adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        mSpCategory.setAdapter(adapter);
+        if (selected != null) {
+            setSpinnerSelection(mSpCategory, selected);
+        }
     }
 
     /**
@@ -138,16 +178,13 @@ public class AddItemActivity extends AppCompatActivity {
      */
     private void fillFormData(Item item) {
         // 物品名称
-        mEtItemName.setText(item.getName() != null ? item.getName() : "");
+        // 回填时不触发联想下拉
+        mEtItemName.setText(item.getName() != null ? item.getName() : "", false);
 
-        // 分类（匹配Spinner选项，兼容空值）
+        // 分类（完整路径，匹配Spinner选项，兼容空值）
         String category = item.getCategory() == null || item.getCategory().isEmpty() ? "未分类" : item.getCategory();
         setSpinnerSelection(mSpCategory, category);
 
-        // 子分类
-        String subCategory = item.getSubCategory() == null || item.getSubCategory().isEmpty() ? "未指定" : item.getSubCategory();
-        setSpinnerSelection(mSpSubCategory, subCategory);
-
         // 位置
         String location = item.getLocation() == null || item.getLocation().isEmpty() ? "未指定" : item.getLocation();
         setSpinnerSelection(mSpLocation, location);
@@ -155,6 +192,9 @@ public class AddItemActivity extends AppCompatActivity {
         // 数量
         mEtQuantity.setText(String.valueOf(item.getQuantity()));
 
+        // 条码
+        mEtBarcode.setText(item.getBarcode() != null ? item.getBarcode() : "");
+
         // 有效期
         mEtExpiryDate.setText(item.getExpiryDate() != null ? item.getExpiryDate() : "");
 
@@ -293,21 +333,30 @@ public class AddItemActivity extends AppCompatActivity {
             return;
         }
 
+        // 新增前检查疑似重复的物品名称（忽略大小写与空白）
+        if (!isEditMode && !itemName.equals(mConfirmedDuplicateName)) {
+            NameSuggestionIndex.Suggestion duplicate = mViewModel.getNameSuggestions().findDuplicate(itemName);
+            if (duplicate != null) {
+                showDuplicateDialog(duplicate, itemName);
+                return;
+            }
+        }
+
         // 2. 收集表单数据
         String category = mSpCategory.getSelectedItem().toString();
-        String subCategory = mSpSubCategory.getSelectedItem().toString();
         String location = mSpLocation.getSelectedItem().toString();
         String expiryDate = mEtExpiryDate.getText().toString().trim();
         String description = mEtDescription.getText().toString().trim();
+        String barcode = Barcodes.normalize(mEtBarcode.getText().toString());
 
         // 3. 区分新增/编辑模式（核心修复）
         if (isEditMode && mEditItem != null) {
             // 编辑模式：更新原有物品（复用ID，只改字段）
             mEditItem.setName(itemName);
             mEditItem.setCategory(category.equals("未分类") ? "" : category);
-            mEditItem.setSubCategory(subCategory.equals("未指定") ? "" : subCategory);
             mEditItem.setLocation(location.equals("未指定") ? "" : location);
             mEditItem.setQuantity(quantity);
+            mEditItem.setBarcode(barcode);
             mEditItem.setExpiryDate(expiryDate);
             mEditItem.setDescription(description);
 
@@ -324,9 +373,9 @@ public class AddItemActivity extends AppCompatActivity {
             Item item = new Item();
             item.setName(itemName);
             item.setCategory(category.equals("未分类") ? "" : category);
-            item.setSubCategory(subCategory.equals("未指定") ? "" : subCategory);
             item.setLocation(location.equals("未指定") ? "" : location);
             item.setQuantity(quantity);
+            item.setBarcode(barcode);
             item.setExpiryDate(expiryDate);
             item.setDescription(description);
 
@@ -344,6 +393,21 @@ public class AddItemActivity extends AppCompatActivity {
         finish();
     }
 
+    /**
+     * 疑似重复提醒：确认后按原表单继续新增（只对确认时的名称生效）
+     */
+    private void showDuplicateDialog(NameSuggestionIndex.Suggestion duplicate, String itemName) {
+        new AlertDialog.Builder(this)
+                .setTitle("物品可能重复")
+                .setMessage("已有" + duplicate.getCount() + "件名为「" + duplicate.text + "」的物品，仍要新增吗？")
+                .setPositiveButton("仍要新增", (dialog, which) -> {
+                    mConfirmedDuplicateName = itemName;
+                    submitItem();
+                })
+                .setNegativeButton("取消", null)
+                .show();
+    }
+
     /**
      * 权限申请结果回调
      */
@@ -0,0 +1,19 @@
+package com.example.inventory;
+
+/**
+ * 条码工具（不依赖Android，模型类与基准测试模块共用）
+ */
+public final class Barcodes {
+    private Barcodes() {}
+
+    /**
+     * 规范化条码：去掉首尾空白（扫码枪附带的回车换行等），空串视为未录入
+     */
+    public static String normalize(String barcode) {
+        if (barcode == null) {
+            return null;
+        }
+        String trimmed = barcode.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+}
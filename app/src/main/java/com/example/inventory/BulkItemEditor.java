@@ -0,0 +1,132 @@
+package com.example.inventory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 物品批量修改（首页多选后移动位置、修改分类、调整数量、删除），仅限子线程调用
+ *
+ * 每次操作整体在一个事务中执行：物品ID按CHUNK_SIZE分块（SQLite单条语句最多999个参数），
+ * 每块一条集合式UPDATE/DELETE，修改记录在改写之前用INSERT ... SELECT在同一事务中写入（只记实际变化的物品）；
+ * 事务提交后列表等观察者只收到一次失效通知
+ */
+final class BulkItemEditor {
+    // 每条语句绑定的物品ID数
+    static final int CHUNK_SIZE = 500;
+
+    private interface ChunkWriter {
+        int write(List<String> chunk);
+    }
+
+    private final InventoryDatabase database;
+    private final ItemDao itemDao;
+    private final ItemLotDao itemLotDao;
+    private final UsageRecordDao usageRecordDao;
+
+    BulkItemEditor(InventoryDatabase database) {
+        this.database = database;
+        this.itemDao = database.itemDao();
+        this.itemLotDao = database.itemLotDao();
+        this.usageRecordDao = database.usageRecordDao();
+    }
+
+    /**
+     * 移动到指定位置
+     * @param locationId 目标位置ID，为空时清除位置
+     * @return 位置实际变化的物品数
+     */
+    int moveToLocation(List<String> itemIds, Long locationId, String updateTime) {
+        return inChunks(itemIds, chunk -> {
+            usageRecordDao.insertLocationChanges(chunk, locationId, updateTime);
+            return itemDao.moveToLocation(chunk, locationId, updateTime);
+        });
+    }
+
+    /**
+     * 修改为指定分类
+     * @param categoryId 目标分类ID，为空时改为未分类
+     * @return 分类实际变化的物品数
+     */
+    int recategorize(List<String> itemIds, Long categoryId, String updateTime) {
+        return inChunks(itemIds, chunk -> {
+            usageRecordDao.insertCategoryChanges(chunk, categoryId, updateTime);
+            return itemDao.recategorize(chunk, categoryId, updateTime);
+        });
+    }
+
+    /**
+     * 调整数量：增加的数量合并到各物品的无有效期批次（集合式写入），
+     * 减少的数量按先进先出逐个物品扣减（库存不足时扣完为止）
+     * @return 数量实际变化的物品数
+     */
+    int adjustQuantity(List<String> itemIds, int delta, String updateTime) {
+        if (delta == 0) {
+            return 0;
+        }
+        if (delta > 0) {
+            return inChunks(itemIds, chunk -> {
+                usageRecordDao.insertQuantityChanges(chunk, updateTime);
+                itemLotDao.addToUndatedLots(chunk, delta);
+                itemLotDao.insertUndatedLots(chunk, delta, updateTime);
+                return itemDao.touchAll(chunk, updateTime);
+            });
+        }
+        return inChunks(itemIds, chunk -> {
+            List<String> changedItemIds = new ArrayList<>();
+            List<UsageRecord> records = new ArrayList<>();
+            for (String itemId : chunk) {
+                int modifiedFields = consume(itemDao, itemLotDao, itemId, -delta);
+                if (modifiedFields != 0) {
+                    changedItemIds.add(itemId);
+                    records.add(new UsageRecord(itemId, UsageRecord.TYPE_UPDATE, updateTime, modifiedFields));
+                }
+            }
+            if (!changedItemIds.isEmpty()) {
+                itemDao.touchAll(changedItemIds, updateTime);
+                usageRecordDao.insertAll(records);
+            }
+            return changedItemIds.size();
+        });
+    }
+
+    /**
+     * 删除物品（批次、使用记录、检索键随外键级联删除）
+     * @return 被删除物品的名称（用于更新输入联想索引）
+     */
+    List<String> delete(List<String> itemIds) {
+        List<String> names = new ArrayList<>();
+        inChunks(itemIds, chunk -> {
+            names.addAll(itemDao.getNamesSync(chunk));
+            return itemDao.deleteByIds(chunk);
+        });
+        return names;
+    }
+
+    /**
+     * 先进先出扣减一个物品，返回修改字段位掩码（未扣减时为0；扣完最早到期的批次时包含有效期）
+     */
+    static int consume(ItemDao itemDao, ItemLotDao itemLotDao, String itemId, int amount) {
+        String oldExpiry = itemDao.getExpiryDateSync(itemId);
+        if (itemLotDao.consume(itemId, amount) == 0) {
+            return 0;
+        }
+        int modifiedFields = UsageRecord.FIELD_QUANTITY;
+        if (!Objects.equals(oldExpiry, itemDao.getExpiryDateSync(itemId))) {
+            modifiedFields |= UsageRecord.FIELD_EXPIRY_DATE;
+        }
+        return modifiedFields;
+    }
+
+    // 分块执行，全部分块在同一事务中
+    private int inChunks(List<String> itemIds, ChunkWriter writer) {
+        MainThreadGuard.assertNotMainThread("BulkItemEditor");
+        return database.runInTransaction(() -> {
+            int total = 0;
+            for (int from = 0; from < itemIds.size(); from += CHUNK_SIZE) {
+                total += writer.write(itemIds.subList(from, Math.min(from + CHUNK_SIZE, itemIds.size())));
+            }
+            return total;
+        });
+    }
+}
@@ -2,23 +2,48 @@ package com.example.inventory;
 
 import androidx.annotation.NonNull;
 import androidx.room.Entity;
+import androidx.room.ForeignKey;
 import androidx.room.Ignore; // 导入Ignore注解
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 /**
  * 分类实体类
- * 对应Room数据库的category表
+ * 对应Room数据库的category表，分类可任意层级嵌套（食品 → 乳制品 → 酸奶），以物化路径存储：
+ * path为从顶层到自身的ID路径（"/1/5/12/"），“食品/乳制品/*”下的全部分类是path索引上的一段前缀范围；
+ * fullName为名称路径（"食品/乳制品/酸奶"），供界面展示与按名称定位
+ *
+ * path与fullName由category表上的触发器维护（见 {@link CategoryTriggers}）：新增时按上级分类生成；改名或移动时
+ * 用一条按path前缀范围的UPDATE改写整棵子树，物品行不受影响
+ * 本类只含Room注解，不依赖Android，基准测试模块直接编译
  */
-@Entity(tableName = "category")
+@Entity(tableName = "category",
+        foreignKeys = @ForeignKey(entity = Category.class, parentColumns = "id", childColumns = "parentId",
+                onDelete = ForeignKey.CASCADE),
+        indices = {@Index(value = {"path"}, unique = true), @Index(value = {"parentId", "name"})})
 public class Category {
+    // 名称路径的分隔符（分类名称中不应包含）
+    public static final String PATH_SEPARATOR = "/";
+
     // 自增主键（long类型本身非空，无需@NonNull）
     @PrimaryKey(autoGenerate = true)
     private long id;
 
-    // 分类名称（唯一，必填，标记非空）
+    // 分类名称（同一上级下唯一，必填，标记非空）
     @NonNull
     private String name;
 
+    // 上级分类ID（顶层分类为空；删除分类时下级分类级联删除）
+    private Long parentId;
+
+    // ID路径（由触发器生成，写入时的取值会被覆盖）
+    @NonNull
+    private String path = "";
+
+    // 名称路径（由触发器生成）
+    @NonNull
+    private String fullName = "";
+
     // 空构造函数（Room要求，保留）
     public Category() {}
 
@@ -28,6 +53,12 @@ public class Category {
         this.name = name;
     }
 
+    @Ignore
+    public Category(@NonNull String name, Long parentId) {
+        this.name = name;
+        this.parentId = parentId;
+    }
+
     // ==================== Getter/Setter方法（完整且规范） ====================
     public long getId() {
         return id;
@@ -45,4 +76,41 @@ public class Category {
     public void setName(@NonNull String name) {
         this.name = name;
     }
-}
\ No newline at end of file
+
+    public Long getParentId() {
+        return parentId;
+    }
+
+    public void setParentId(Long parentId) {
+        this.parentId = parentId;
+    }
+
+    @NonNull
+    public String getPath() {
+        return path;
+    }
+
+    public void setPath(@NonNull String path) {
+        this.path = path;
+    }
+
+    @NonNull
+    public String getFullName() {
+        return fullName;
+    }
+
+    public void setFullName(@NonNull String fullName) {
+        this.fullName = fullName;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return fullName;
+    }
+
+    // ==================== 路径范围 ====================
+
+    // path只含数字和'/'，前缀范围的上界取比它们都大的字符
+    static final String PATH_END = "~";
+}
@@ -5,27 +5,60 @@ import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.Query;
-import androidx.room.Update;
 
 import java.util.List;
 
 /**
  * 分类数据访问接口
+ * path/fullName由触发器维护，改名与移动只通过rename/moveTo/renameAndMove修改name、parentId两列，不整行覆盖
  */
 @Dao
 public interface CategoryDao {
     @Insert
-    void insert(Category category);
+    long insert(Category category);
 
-    @Update
-    void update(Category category);
+    // 改名（整棵子树的名称路径由触发器同步）
+    @Query("UPDATE category SET name = :name WHERE id = :id")
+    void rename(long id, String name);
 
+    // 移动分类（连同整棵子树）到新的上级分类下，parentId为空时移到顶层
+    @Query("UPDATE category SET parentId = :parentId WHERE id = :id")
+    void moveTo(long id, Long parentId);
+
+    // 编辑分类：改名与移动在同一条语句中完成，子树的路径只由触发器重写一次；移到自身子树下时整条语句被拒绝
+    @Query("UPDATE category SET name = :name, parentId = :parentId WHERE id = :id")
+    void renameAndMove(long id, String name, Long parentId);
+
+    // 删除分类（下级分类级联删除，物品的分类置空）
     @Delete
     void delete(Category category);
 
-    @Query("SELECT * FROM category ORDER BY name ASC")
+    // 全部分类（按名称路径排序，上级分类紧接着其下级分类）
+    @Query("SELECT * FROM category ORDER BY fullName ASC")
     LiveData<List<Category>> getAllCategories();
 
-    @Query("SELECT * FROM category WHERE name = :name LIMIT 1")
+    @Query("SELECT * FROM category WHERE id = :id LIMIT 1")
+    Category getCategoryById(long id);
+
+    // 顶层分类中按名称查找
+    @Query("SELECT * FROM category WHERE parentId IS NULL AND name = :name LIMIT 1")
     Category getCategoryByName(String name);
-}
\ No newline at end of file
+
+    // 指定上级分类下按名称查找（走 (parentId, name) 索引，仅限子线程调用）
+    @Query("SELECT * FROM category WHERE parentId = :parentId AND name = :name LIMIT 1")
+    Category getChildByName(long parentId, String name);
+
+    // 直接下级分类
+    @Query("SELECT * FROM category WHERE parentId = :parentId ORDER BY name ASC")
+    LiveData<List<Category>> getChildren(long parentId);
+
+    // 分类自身及全部下级分类（path索引上的一段前缀范围）
+    @Query("SELECT d.* FROM category a JOIN category d "
+            + "ON d.path >= a.path AND d.path < a.path || '" + Category.PATH_END + "' "
+            + "WHERE a.id = :id ORDER BY d.path")
+    List<Category> getSubtreeSync(long id);
+
+    // 全部分类名称（输入联想索引用，仅限子线程调用）
+    @Query("SELECT name FROM category")
+    List<String> getAllNamesSync();
+}
@@ -0,0 +1,41 @@
+package com.example.inventory;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * category表上维护path/fullName的触发器
+ * 与实体类 {@link Category} 分开存放，实体类保持不依赖Android SQLite接口
+ */
+final class CategoryTriggers {
+    private CategoryTriggers() {}
+
+    /**
+     * 创建维护path/fullName的触发器（建库及迁移时调用）
+     */
+    static void create(SupportSQLiteDatabase db) {
+        db.execSQL("DROP TRIGGER IF EXISTS category_path_after_insert");
+        db.execSQL("DROP TRIGGER IF EXISTS category_path_before_move");
+        db.execSQL("DROP TRIGGER IF EXISTS category_path_after_update");
+        // 新分类：上级分类的路径 + 自身
+        db.execSQL("CREATE TRIGGER category_path_after_insert AFTER INSERT ON category BEGIN "
+                + "UPDATE category SET "
+                + "path = IFNULL((SELECT path FROM category WHERE id = NEW.parentId), '/') || NEW.id || '/', "
+                + "fullName = IFNULL((SELECT fullName || '" + Category.PATH_SEPARATOR + "' FROM category "
+                + "WHERE id = NEW.parentId), '') || NEW.name "
+                + "WHERE id = NEW.id; END");
+        // 不允许移动到自身或自己的下级分类下
+        db.execSQL("CREATE TRIGGER category_path_before_move BEFORE UPDATE OF parentId ON category "
+                + "WHEN NEW.parentId IS NOT NULL AND NEW.parentId IS NOT OLD.parentId AND "
+                + "(SELECT substr(path, 1, length(OLD.path)) FROM category WHERE id = NEW.parentId) = OLD.path BEGIN "
+                + "SELECT RAISE(ABORT, 'category cannot be moved into its own subtree'); END");
+        // 改名/移动：一条按旧path前缀范围的UPDATE改写整棵子树的路径
+        db.execSQL("CREATE TRIGGER category_path_after_update AFTER UPDATE OF name, parentId ON category "
+                + "WHEN NEW.name IS NOT OLD.name OR NEW.parentId IS NOT OLD.parentId BEGIN "
+                + "UPDATE category SET "
+                + "path = IFNULL((SELECT path FROM category WHERE id = NEW.parentId), '/') || NEW.id || '/' "
+                + "|| substr(path, length(OLD.path) + 1), "
+                + "fullName = IFNULL((SELECT fullName || '" + Category.PATH_SEPARATOR + "' FROM category "
+                + "WHERE id = NEW.parentId), '') || NEW.name || substr(fullName, length(OLD.fullName) + 1) "
+                + "WHERE path >= OLD.path AND path < OLD.path || '" + Category.PATH_END + "'; END");
+    }
+}
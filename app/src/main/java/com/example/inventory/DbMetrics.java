@@ -0,0 +1,202 @@
+package com.example.inventory;
+
+import android.content.Context;
+import android.os.Looper;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * 数据库性能统计（可选开启）
+ * 记录每条SQL语句的耗时直方图、返回行数与执行线程，事务耗时，以及仓库写任务的排队等待、执行耗时与写队列深度
+ * 关闭时所有记录方法首行即返回，开销可忽略；开关在下次启动进程时生效
+ */
+public final class DbMetrics {
+    private static final String PREFS_NAME = "debug_settings";
+    private static final String KEY_ENABLED = "db_metrics_enabled";
+    // IN (?, ?, ?) 展开后的参数列表统一归并为同一条语句
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static volatile boolean sEnabled;
+
+    private static final Map<String, StatementStats> sStatements = new ConcurrentHashMap<>();
+    private static final LatencyHistogram sTransactions = new LatencyHistogram();
+    private static final LatencyHistogram sWrites = new LatencyHistogram();
+    private static final LatencyHistogram sWriteWaits = new LatencyHistogram();
+    private static final AtomicInteger sWriteQueueDepth = new AtomicInteger();
+    private static final AtomicInteger sMaxWriteQueueDepth = new AtomicInteger();
+
+    private DbMetrics() {}
+
+    /**
+     * 单条语句的统计
+     */
+    static final class StatementStats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final AtomicLong rows = new AtomicLong();
+        final AtomicLong mainThreadCount = new AtomicLong();
+        final Map<String, AtomicLong> threads = new ConcurrentHashMap<>();
+    }
+
+    // ==================== 开关 ====================
+
+    /**
+     * 读取持久化的开关并生效（建库前调用）
+     */
+    public static boolean loadEnabled(Context context) {
+        sEnabled = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).getBoolean(KEY_ENABLED, false);
+        return sEnabled;
+    }
+
+    /**
+     * 修改持久化的开关（下次启动进程后对SQL统计生效）
+     */
+    public static void setEnabled(Context context, boolean enabled) {
+        context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).edit()
+                .putBoolean(KEY_ENABLED, enabled).apply();
+    }
+
+    public static boolean isEnabled() {
+        return sEnabled;
+    }
+
+    // ==================== 记录 ====================
+
+    /**
+     * 记录一次SQL执行
+     * @param sql 语句
+     * @param nanos 耗时（查询为从执行到游标关闭）
+     * @param rows 返回行数（非查询为-1）
+     */
+    static void recordStatement(String sql, long nanos, int rows) {
+        if (!sEnabled) {
+            return;
+        }
+        StatementStats stats = sStatements.get(sql);
+        if (stats == null) {
+            String key = normalize(sql);
+            stats = sStatements.get(key);
+            if (stats == null) {
+                StatementStats created = new StatementStats();
+                stats = sStatements.putIfAbsent(key, created);
+                if (stats == null) {
+                    stats = created;
+                }
+            }
+        }
+        stats.latency.record(nanos);
+        if (rows > 0) {
+            stats.rows.addAndGet(rows);
+        }
+        Thread thread = Thread.currentThread();
+        if (Looper.getMainLooper().getThread() == thread) {
+            stats.mainThreadCount.incrementAndGet();
+        }
+        AtomicLong counter = stats.threads.get(thread.getName());
+        if (counter == null) {
+            stats.threads.putIfAbsent(thread.getName(), new AtomicLong());
+            counter = stats.threads.get(thread.getName());
+        }
+        counter.incrementAndGet();
+    }
+
+    static void recordTransaction(long nanos) {
+        if (sEnabled) {
+            sTransactions.record(nanos);
+        }
+    }
+
+    /**
+     * 仓库写任务入队（主线程）
+     * @return 入队时间（传给onWriteStarted），未开启时返回0
+     */
+    public static long onWriteEnqueued() {
+        if (!sEnabled) {
+            return 0;
+        }
+        int depth = sWriteQueueDepth.incrementAndGet();
+        int max;
+        while (depth > (max = sMaxWriteQueueDepth.get()) && !sMaxWriteQueueDepth.compareAndSet(max, depth)) {
+            // 重试直到更新成功
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * 仓库写任务开始执行（后台线程）：记录在写队列中的等待时间
+     * @param enqueuedNanos onWriteEnqueued返回的入队时间
+     * @return 开始执行的时间（传给onWriteFinished）
+     */
+    public static long onWriteStarted(long enqueuedNanos) {
+        long startNanos = System.nanoTime();
+        // 入队时未开启（入队时间为0）则不记录
+        if (sEnabled && enqueuedNanos != 0) {
+            sWriteWaits.record(startNanos - enqueuedNanos);
+        }
+        return startNanos;
+    }
+
+    /**
+     * 仓库写任务执行完成（后台线程）
+     * @param startNanos 开始执行的时间
+     */
+    public static void onWriteFinished(long startNanos) {
+        if (!sEnabled) {
+            return;
+        }
+        sWriteQueueDepth.decrementAndGet();
+        sWrites.record(System.nanoTime() - startNanos);
+    }
+
+    public static void reset() {
+        sStatements.clear();
+        sTransactions.reset();
+        sWrites.reset();
+        sWriteWaits.reset();
+        sMaxWriteQueueDepth.set(sWriteQueueDepth.get());
+    }
+
+    // ==================== 报告 ====================
+
+    /**
+     * 输出文本报告（调试页面展示，或通过 adb shell dumpsys activity 导出）
+     */
+    public static void dump(PrintWriter writer) {
+        writer.println("== 数据库统计 ==" + (sEnabled ? "" : "（未开启）"));
+        writer.println("事务: " + sTransactions.summary());
+        writer.println("写任务排队: " + sWriteWaits.summary());
+        writer.println("写任务执行: " + sWrites.summary());
+        writer.println(String.format(Locale.US, "写队列深度: 当前=%d 最大=%d",
+                sWriteQueueDepth.get(), sMaxWriteQueueDepth.get()));
+
+        // 按总耗时倒序输出各语句
+        List<Map.Entry<String, StatementStats>> entries = new ArrayList<>(sStatements.entrySet());
+        Collections.sort(entries, (a, b) -> Double.compare(
+                b.getValue().latency.getMeanMillis() * b.getValue().latency.getCount(),
+                a.getValue().latency.getMeanMillis() * a.getValue().latency.getCount()));
+        for (Map.Entry<String, StatementStats> entry : entries) {
+            StatementStats stats = entry.getValue();
+            long count = stats.latency.getCount();
+            writer.println();
+            writer.println(entry.getKey());
+            writer.println("  " + stats.latency.summary());
+            writer.println(String.format(Locale.US, "  行数: 合计=%d 平均=%.1f  主线程执行=%d  线程=%s",
+                    stats.rows.get(), count == 0 ? 0 : stats.rows.get() / (double) count,
+                    stats.mainThreadCount.get(), stats.threads));
+        }
+        writer.flush();
+    }
+
+    private static String normalize(String sql) {
+        return IN_LIST.matcher(WHITESPACE.matcher(sql.trim()).replaceAll(" ")).replaceAll("(?...)");
+    }
+}
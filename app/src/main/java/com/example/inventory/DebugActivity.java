@@ -0,0 +1,120 @@
+package com.example.inventory;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.widget.Button;
+import android.widget.Switch;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 调试工具页（仅调试包可进入：主页面长按标题）
+ * 展示数据库统计报告，并可开关统计
+ */
+public class DebugActivity extends AppCompatActivity {
+    // 模拟数据的固定种子（每次生成相同的数据，便于复现问题）
+    private static final long SEED = 20240101L;
+    // 生成数据的后台线程（串行，避免重复点击并发写入）
+    private static final ExecutorService SEED_EXECUTOR = Executors.newSingleThreadExecutor();
+
+    // UI控件
+    private Switch mSwDbMetrics;
+    private Switch mSwUiMetrics;
+    private Button mBtnRefresh;
+    private Button mBtnReset;
+    private Button mBtnSeedDemo;
+    private Button mBtnSeedProduction;
+    private TextView mTvReport;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_debug);
+
+        // 初始化UI控件
+        initView();
+
+        // 设置点击事件
+        setClickEvents();
+
+        // 显示报告
+        refreshReport();
+    }
+
+    /**
+     * 初始化UI控件
+     */
+    private void initView() {
+        mSwDbMetrics = findViewById(R.id.sw_db_metrics);
+        mBtnRefresh = findViewById(R.id.btn_refresh_report);
+        mBtnReset = findViewById(R.id.btn_reset_report);
+        mTvReport = findViewById(R.id.tv_report);
+        mBtnSeedDemo = findViewById(R.id.btn_seed_demo);
+        mBtnSeedProduction = findViewById(R.id.btn_seed_production);
+        mSwUiMetrics = findViewById(R.id.sw_ui_metrics);
+        mSwDbMetrics.setChecked(DbMetrics.isEnabled());
+        mSwUiMetrics.setChecked(UiMetrics.isEnabled());
+    }
+
+    /**
+     * 设置点击事件
+     */
+    private void setClickEvents() {
+        mSwDbMetrics.setOnCheckedChangeListener((buttonView, isChecked) ->
+                DbMetrics.setEnabled(this, isChecked));
+        mSwUiMetrics.setOnCheckedChangeListener((buttonView, isChecked) ->
+                UiMetrics.setEnabled(this, isChecked));
+        mBtnRefresh.setOnClickListener(v -> refreshReport());
+        mBtnSeedDemo.setOnClickListener(v -> seedData(InventoryDataGenerator.Config.DEMO));
+        mBtnSeedProduction.setOnClickListener(v -> seedData(InventoryDataGenerator.Config.PRODUCTION));
+        mBtnReset.setOnClickListener(v -> {
+            DbMetrics.reset();
+            UiMetrics.reset();
+            MainThreadGuard.reset();
+            refreshReport();
+        });
+    }
+
+    /**
+     * 后台生成模拟数据并写入数据库
+     */
+    private void seedData(InventoryDataGenerator.Config config) {
+        Toast.makeText(this, "开始生成" + config.itemCount + "条物品…", Toast.LENGTH_SHORT).show();
+        Context appContext = getApplicationContext();
+        SEED_EXECUTOR.execute(() -> {
+            long start = System.currentTimeMillis();
+            int count = InventoryDataSeeder.seedAppDatabase(appContext, config, SEED);
+            long elapsed = System.currentTimeMillis() - start;
+            runOnUiThread(() -> Toast.makeText(appContext,
+                    "已生成" + count + "条物品，耗时" + elapsed + "ms", Toast.LENGTH_LONG).show());
+        });
+    }
+
+    /**
+     * 刷新统计报告
+     */
+    private void refreshReport() {
+        StringWriter report = new StringWriter();
+        PrintWriter writer = new PrintWriter(report);
+        dumpReports(writer);
+        mTvReport.setText(report.toString());
+    }
+
+    /**
+     * 输出所有调试报告（调试页与dumpsys共用）
+     */
+    static void dumpReports(PrintWriter writer) {
+        DbMetrics.dump(writer);
+        writer.println();
+        UiMetrics.dump(writer);
+        writer.println();
+        MainThreadGuard.dump(writer);
+    }
+}
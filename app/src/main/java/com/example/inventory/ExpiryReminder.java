@@ -0,0 +1,194 @@
+package com.example.inventory;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 临期/过期提醒的调度逻辑（纯Java实现，不依赖Android，可在JVM上用假时钟测试）
+ *
+ * 每个批次记录已提醒到的阶段（item_lot.notifiedStage）：进入临期窗口时提醒一次，过期后再提醒一次。
+ * 每次唤醒只按 (notifiedStage, expiryEpochDay) 索引取出“到期且未提醒”的批次，通知实际发出后才推进阶段
+ * （通知被关闭或未授予权限时保持原阶段，下次唤醒或授权后重试），
+ * 再取下一个阶段边界（最早一个将进入临期窗口或将过期的批次）作为下次唤醒时间，没有待提醒批次时不再唤醒；
+ * 新写入的批次边界早于已排定的唤醒时间时提前唤醒（见 {@link #onLotWritten(Long)}）
+ */
+public final class ExpiryReminder {
+    // ==================== 提醒阶段 ====================
+    public static final int STAGE_NONE = 0;    // 未提醒
+    public static final int STAGE_NEAR = 1;    // 已提醒临期
+    public static final int STAGE_EXPIRED = 2; // 已提醒过期
+
+    // 每天提醒的时刻（本地时间）
+    public static final int REMIND_HOUR = 9;
+    // 每批读取的批次数
+    static final int BATCH_SIZE = 200;
+    // 每条通知最多列出的物品名称
+    static final int MAX_LISTED = 5;
+
+    /**
+     * 到期待提醒的批次（Room查询结果）
+     */
+    public static class DueLot {
+        public long lotId;
+        public String itemId;
+        public String name;
+        public long expiryEpochDay;
+        public int quantity;
+    }
+
+    /**
+     * 待提醒批次的读取与标记（由ItemLotDao实现）
+     */
+    public interface Store {
+        // 已过期（expiryEpochDay < today）且未提醒过期的批次，按(expiryEpochDay, lotId)排在after之后（after为null时从头取）
+        List<DueLot> getExpiredLots(long today, DueLot after, int limit);
+
+        // 进入临期窗口（today <= expiryEpochDay <= horizon）且未提醒过的批次，分页方式同上
+        List<DueLot> getNearLots(long today, long horizon, DueLot after, int limit);
+
+        void markNotified(List<Long> lotIds, int stage);
+
+        // 临期窗口之外最早的未提醒有效期，没有时返回null
+        Long getNextNearExpiry(long horizon);
+
+        // 已提醒临期、尚未过期的最早有效期，没有时返回null
+        Long getNextExpiry(long today);
+    }
+
+    /**
+     * 发出分组通知
+     */
+    public interface Notifier {
+        /**
+         * @param stage STAGE_NEAR或STAGE_EXPIRED
+         * @param names 前几个物品名称（最多MAX_LISTED个，已去重）
+         * @param total 本次提醒的批次总数
+         * @return 通知实际发出时返回true（通知被关闭、无权限时返回false，批次不推进阶段）
+         */
+        boolean notifyDue(int stage, List<String> names, int total);
+    }
+
+    /**
+     * 唤醒闹钟
+     */
+    public interface Alarm {
+        // 已排定的唤醒时间（毫秒），未排定时返回0
+        long getScheduledAt();
+
+        void schedule(long atMillis);
+
+        void cancel();
+    }
+
+    private final Clock clock;
+    private final Store store;
+    private final Notifier notifier;
+    private final Alarm alarm;
+    private final int nearDays;
+
+    public ExpiryReminder(Clock clock, Store store, Notifier notifier, Alarm alarm) {
+        this(clock, store, notifier, alarm, ExpiryStatus.NEAR_EXPIRE_DAYS);
+    }
+
+    ExpiryReminder(Clock clock, Store store, Notifier notifier, Alarm alarm, int nearDays) {
+        this.clock = clock;
+        this.store = store;
+        this.notifier = notifier;
+        this.alarm = alarm;
+        this.nearDays = nearDays;
+    }
+
+    /**
+     * 唤醒时执行：提醒所有到期批次，并排定下次唤醒（仅限子线程调用）
+     * @return 本次提醒（通知已发出）的批次数
+     */
+    public int runOnce() {
+        long today = today();
+        long horizon = today + nearDays;
+        // 先处理过期：从未提醒过的已过期批次直接进入过期阶段，不再补发临期提醒
+        int notified = drain(STAGE_EXPIRED, after -> store.getExpiredLots(today, after, BATCH_SIZE));
+        notified += drain(STAGE_NEAR, after -> store.getNearLots(today, horizon, after, BATCH_SIZE));
+        scheduleNext(today, horizon);
+        return notified;
+    }
+
+    /**
+     * 批次写入（入库、表单修改有效期）后调用：其提醒边界早于已排定的唤醒时间时提前唤醒
+     * @param expiryEpochDay 批次有效期（纪元日，无有效期为null）
+     */
+    public void onLotWritten(Long expiryEpochDay) {
+        if (expiryEpochDay == null) {
+            return;
+        }
+        long wakeAt = Math.max(clock.millis(), remindTimeOf(expiryEpochDay - nearDays));
+        long scheduledAt = alarm.getScheduledAt();
+        if (scheduledAt == 0 || wakeAt < scheduledAt) {
+            alarm.schedule(wakeAt);
+        }
+    }
+
+    // ==================== 内部实现 ====================
+
+    private interface BatchSource {
+        List<DueLot> next(DueLot after);
+    }
+
+    // 按键集分批取出某阶段的全部到期批次，发一条分组通知，通知发出后再分批标记
+    private int drain(int stage, BatchSource source) {
+        List<String> names = new ArrayList<>();
+        List<Long> lotIds = new ArrayList<>();
+        DueLot last = null;
+        List<DueLot> batch;
+        do {
+            batch = source.next(last);
+            for (DueLot lot : batch) {
+                lotIds.add(lot.lotId);
+                if (names.size() < MAX_LISTED && !names.contains(lot.name)) {
+                    names.add(lot.name);
+                }
+            }
+            if (!batch.isEmpty()) {
+                last = batch.get(batch.size() - 1);
+            }
+        } while (batch.size() >= BATCH_SIZE);
+        if (lotIds.isEmpty() || !notifier.notifyDue(stage, names, lotIds.size())) {
+            return 0;
+        }
+        // 每次标记不超过BATCH_SIZE个id（SQLite参数个数上限）
+        for (int start = 0; start < lotIds.size(); start += BATCH_SIZE) {
+            store.markNotified(lotIds.subList(start, Math.min(start + BATCH_SIZE, lotIds.size())), stage);
+        }
+        return lotIds.size();
+    }
+
+    // 下次唤醒：最早进入临期窗口的未提醒批次，或最早过期的已提醒临期批次
+    private void scheduleNext(long today, long horizon) {
+        long next = Long.MAX_VALUE;
+        Long nextNear = store.getNextNearExpiry(horizon);
+        if (nextNear != null) {
+            next = Math.min(next, remindTimeOf(nextNear - nearDays));
+        }
+        Long nextExpiry = store.getNextExpiry(today);
+        if (nextExpiry != null) {
+            next = Math.min(next, remindTimeOf(nextExpiry + 1));
+        }
+        if (next == Long.MAX_VALUE) {
+            alarm.cancel();
+        } else {
+            alarm.schedule(Math.max(next, clock.millis()));
+        }
+    }
+
+    private long today() {
+        return Instant.ofEpochMilli(clock.millis()).atZone(clock.getZone()).toLocalDate().toEpochDay();
+    }
+
+    // 指定纪元日的提醒时刻
+    private long remindTimeOf(long epochDay) {
+        return LocalDate.ofEpochDay(epochDay).atTime(REMIND_HOUR, 0)
+                .atZone(clock.getZone()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.inventory;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+
+/**
+ * 临期提醒闹钟与开机广播（开机后闹钟会被清除，需重新执行一次以排定下次唤醒）
+ */
+public class ExpiryReminderReceiver extends BroadcastReceiver {
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        String action = intent.getAction();
+        if (!ExpiryReminderScheduler.ACTION_REMIND.equals(action)
+                && !Intent.ACTION_BOOT_COMPLETED.equals(action)) {
+            return;
+        }
+        // 查询在后台线程执行，完成前保持广播存活
+        PendingResult result = goAsync();
+        ExpiryReminderScheduler.getInstance(context).runAsync(result::finish);
+    }
+}
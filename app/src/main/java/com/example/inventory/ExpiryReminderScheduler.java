@@ -0,0 +1,227 @@
+package com.example.inventory;
+
+import android.app.AlarmManager;
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.os.Process;
+import android.util.Log;
+
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.NotificationManagerCompat;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 临期/过期提醒的Android接入：用AlarmManager在 {@link ExpiryReminder} 排定的时间唤醒，
+ * 在后台线程执行一次提醒并按阶段发出分组通知（临期一条、过期一条）
+ *
+ * 应用启动时初始化；批次写入后由仓库调用 {@link #onLotWritten(Long)}，未初始化时（如单元测试）忽略
+ */
+public final class ExpiryReminderScheduler {
+    private static final String TAG = "ExpiryReminder";
+    private static final String PREFS_NAME = "expiry_reminder";
+    private static final String KEY_SCHEDULED_AT = "scheduled_at_millis";
+    static final String ACTION_REMIND = "com.example.inventory.action.EXPIRY_REMIND";
+
+    private static final String CHANNEL_ID = "expiry_reminder";
+    private static final String GROUP_KEY = "com.example.inventory.EXPIRY";
+    private static final int NOTIFICATION_ID_NEAR = 1001;
+    private static final int NOTIFICATION_ID_EXPIRED = 1002;
+
+    private static volatile ExpiryReminderScheduler sInstance;
+
+    // 提醒与批次写入后的重新排定都在同一后台线程串行执行
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(() -> {
+            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+            r.run();
+        }, "expiry-reminder");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Context context;
+    private final ExpiryReminder reminder;
+
+    private ExpiryReminderScheduler(Context context) {
+        this.context = context.getApplicationContext();
+        ItemLotDao itemLotDao = InventoryDatabase.getInstance(this.context).itemLotDao();
+        this.reminder = new ExpiryReminder(Clock.systemDefaultZone(), new LotStore(itemLotDao),
+                this::notifyDue, new SystemAlarm());
+    }
+
+    /**
+     * 应用启动、用户授予通知权限后调用：创建通知渠道，并在后台执行一次提醒
+     * （补上应用未运行期间错过的唤醒，以及因无权限未发出、仍停留在原阶段的提醒）
+     */
+    public static void init(Context context) {
+        getInstance(context).runAsync(null);
+    }
+
+    /**
+     * 批次写入后调用（仅在应用已初始化时生效）
+     */
+    public static void onLotWritten(Long expiryEpochDay) {
+        ExpiryReminderScheduler scheduler = sInstance;
+        if (scheduler != null && expiryEpochDay != null) {
+            scheduler.executor.execute(() -> scheduler.reminder.onLotWritten(expiryEpochDay));
+        }
+    }
+
+    /**
+     * 闹钟或开机广播到达时执行一次提醒
+     * @param onDone 执行完成后回调（广播接收器借此结束goAsync）
+     */
+    void runAsync(Runnable onDone) {
+        executor.execute(() -> {
+            try {
+                int notified = reminder.runOnce();
+                Log.d(TAG, "提醒执行完成，提醒批次数：" + notified);
+            } catch (RuntimeException e) {
+                Log.e(TAG, "临期提醒执行失败：" + e.getMessage());
+            } finally {
+                if (onDone != null) {
+                    onDone.run();
+                }
+            }
+        });
+    }
+
+    static ExpiryReminderScheduler getInstance(Context context) {
+        if (sInstance == null) {
+            synchronized (ExpiryReminderScheduler.class) {
+                if (sInstance == null) {
+                    ExpiryReminderScheduler scheduler = new ExpiryReminderScheduler(context);
+                    scheduler.createChannel();
+                    sInstance = scheduler;
+                }
+            }
+        }
+        return sInstance;
+    }
+
+    // ==================== 通知 ====================
+
+    private void createChannel() {
+        NotificationChannel channel = new NotificationChannel(CHANNEL_ID, "临期提醒",
+                NotificationManager.IMPORTANCE_DEFAULT);
+        channel.setDescription("物品临期、过期时提醒");
+        context.getSystemService(NotificationManager.class).createNotificationChannel(channel);
+    }
+
+    // 每个阶段一条通知：标题为数量，正文列出前几个物品名称，点击打开首页；未发出时返回false
+    private boolean notifyDue(int stage, List<String> names, int total) {
+        NotificationManagerCompat manager = NotificationManagerCompat.from(context);
+        // Android 13+ 未授予POST_NOTIFICATIONS时同样返回false
+        if (!manager.areNotificationsEnabled()) {
+            Log.d(TAG, "通知未开启，保留待提醒批次");
+            return false;
+        }
+        boolean expired = stage == ExpiryReminder.STAGE_EXPIRED;
+        String title = total + (expired ? "件物品已过期" : "件物品即将过期");
+        NotificationCompat.InboxStyle style = new NotificationCompat.InboxStyle();
+        for (String name : names) {
+            style.addLine(name);
+        }
+        if (total > names.size()) {
+            style.setSummaryText("等" + total + "件");
+        }
+        PendingIntent contentIntent = PendingIntent.getActivity(context, 0,
+                new Intent(context, MainActivity.class).addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP),
+                PendingIntent.FLAG_IMMUTABLE | PendingIntent.FLAG_UPDATE_CURRENT);
+        NotificationCompat.Builder builder = new NotificationCompat.Builder(context, CHANNEL_ID)
+                .setSmallIcon(R.mipmap.ic_launcher)
+                .setContentTitle(title)
+                .setContentText(String.join("、", names))
+                .setStyle(style)
+                .setGroup(GROUP_KEY)
+                .setContentIntent(contentIntent)
+                .setAutoCancel(true);
+        try {
+            manager.notify(expired ? NOTIFICATION_ID_EXPIRED : NOTIFICATION_ID_NEAR, builder.build());
+            return true;
+        } catch (SecurityException e) {
+            // Android 13+ 未授予通知权限
+            Log.w(TAG, "无通知权限：" + e.getMessage());
+            return false;
+        }
+    }
+
+    // ==================== 闹钟 ====================
+
+    private final class SystemAlarm implements ExpiryReminder.Alarm {
+        private final SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+
+        @Override
+        public long getScheduledAt() {
+            return prefs.getLong(KEY_SCHEDULED_AT, 0);
+        }
+
+        // 非精确闹钟即可（提醒按天），允许在低电耗模式下唤醒
+        @Override
+        public void schedule(long atMillis) {
+            context.getSystemService(AlarmManager.class)
+                    .setAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, atMillis, pendingIntent());
+            prefs.edit().putLong(KEY_SCHEDULED_AT, atMillis).apply();
+        }
+
+        @Override
+        public void cancel() {
+            context.getSystemService(AlarmManager.class).cancel(pendingIntent());
+            prefs.edit().remove(KEY_SCHEDULED_AT).apply();
+        }
+
+        private PendingIntent pendingIntent() {
+            Intent intent = new Intent(context, ExpiryReminderReceiver.class).setAction(ACTION_REMIND);
+            return PendingIntent.getBroadcast(context, 0, intent,
+                    PendingIntent.FLAG_IMMUTABLE | PendingIntent.FLAG_UPDATE_CURRENT);
+        }
+    }
+
+    // ==================== 数据 ====================
+
+    private static final class LotStore implements ExpiryReminder.Store {
+        private final ItemLotDao itemLotDao;
+
+        LotStore(ItemLotDao itemLotDao) {
+            this.itemLotDao = itemLotDao;
+        }
+
+        // 第一页从最小键开始
+        @Override
+        public List<ExpiryReminder.DueLot> getExpiredLots(long today, ExpiryReminder.DueLot after, int limit) {
+            return after == null
+                    ? itemLotDao.getExpiredLotsSync(today, Long.MIN_VALUE, Long.MIN_VALUE, limit)
+                    : itemLotDao.getExpiredLotsSync(today, after.expiryEpochDay, after.lotId, limit);
+        }
+
+        @Override
+        public List<ExpiryReminder.DueLot> getNearLots(long today, long horizon, ExpiryReminder.DueLot after,
+                                                       int limit) {
+            return after == null
+                    ? itemLotDao.getNearLotsSync(today, horizon, Long.MIN_VALUE, Long.MIN_VALUE, limit)
+                    : itemLotDao.getNearLotsSync(today, horizon, after.expiryEpochDay, after.lotId, limit);
+        }
+
+        @Override
+        public void markNotified(List<Long> lotIds, int stage) {
+            itemLotDao.markNotified(lotIds, stage);
+        }
+
+        @Override
+        public Long getNextNearExpiry(long horizon) {
+            return itemLotDao.getNextNearExpirySync(horizon);
+        }
+
+        @Override
+        public Long getNextExpiry(long today) {
+            return itemLotDao.getNextExpirySync(today);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.inventory;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * 有效期状态判断（物品列表与详情页共用）
+ * 纯Java实现，不依赖Android，可在JVM上直接测试和基准测试
+ */
+public final class ExpiryStatus {
+    public static final int NONE = 0;        // 无有效期
+    public static final int NORMAL = 1;      // 正常
+    public static final int NEAR_EXPIRE = 2; // 临期
+    public static final int EXPIRED = 3;     // 过期
+    public static final int INVALID = 4;     // 有效期格式无法解析
+
+    // 临期天数阈值（7天内算临期）
+    public static final int NEAR_EXPIRE_DAYS = 7;
+
+    private static final long DAY_MILLIS = 1000L * 60 * 60 * 24;
+
+    // SimpleDateFormat非线程安全，每个线程各持一份
+    private static final ThreadLocal<SimpleDateFormat> EXPIRY_FORMAT =
+            ThreadLocal.withInitial(() -> new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault()));
+    private static final ThreadLocal<SimpleDateFormat> DISPLAY_FORMAT =
+            ThreadLocal.withInitial(() -> new SimpleDateFormat("yyyy.MM.dd", Locale.getDefault()));
+
+    private final int status;
+    private final String displayDate;
+
+    private ExpiryStatus(int status, String displayDate) {
+        this.status = status;
+        this.displayDate = displayDate;
+    }
+
+    /**
+     * 判断有效期状态
+     * @param expiryDate 有效期（yyyy-MM-dd，可空）
+     * @param nowMillis 当前时间
+     */
+    public static ExpiryStatus of(String expiryDate, long nowMillis) {
+        if (expiryDate == null || expiryDate.isEmpty()) {
+            return new ExpiryStatus(NONE, "无");
+        }
+        try {
+            // 格式化有效期显示（yyyy-MM-dd → yyyy.MM.dd）
+            Date expiryDateObj = EXPIRY_FORMAT.get().parse(expiryDate);
+            String display = DISPLAY_FORMAT.get().format(expiryDateObj);
+
+            Calendar expiryCal = Calendar.getInstance();
+            expiryCal.setTime(expiryDateObj);
+            long diffDays = (expiryCal.getTimeInMillis() - nowMillis) / DAY_MILLIS;
+
+            if (diffDays < 0) {
+                return new ExpiryStatus(EXPIRED, display);
+            } else if (diffDays <= NEAR_EXPIRE_DAYS) {
+                return new ExpiryStatus(NEAR_EXPIRE, display);
+            }
+            return new ExpiryStatus(NORMAL, display);
+        } catch (ParseException e) {
+            return new ExpiryStatus(INVALID, expiryDate);
+        }
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    // 用于展示的有效期（无法解析时原样返回）
+    public String getDisplayDate() {
+        return displayDate;
+    }
+}
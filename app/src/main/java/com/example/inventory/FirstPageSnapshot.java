@@ -0,0 +1,176 @@
+package com.example.inventory;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 首页快照：把列表第一页的展示字段持久化为一个小文件
+ * 冷启动时在数据库打开之前先展示快照，实时查询返回后再用真实数据替换
+ * 读写都在单独的后台线程中执行，内容未变化时不重复写文件
+ */
+public class FirstPageSnapshot {
+    private static final String TAG = "FirstPageSnapshot";
+    private static final String FILE_NAME = "first_page_snapshot.bin";
+    // 格式版本，展示字段变化时递增（旧版本文件直接忽略）
+    private static final int FORMAT_VERSION = 1;
+
+    private static volatile FirstPageSnapshot sInstance;
+
+    private final File file;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "first-page-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final MutableLiveData<List<Item>> snapshot = new MutableLiveData<>();
+    // 最近一次读到/写入的文件内容（仅在后台线程访问）
+    private byte[] lastBytes;
+
+    private FirstPageSnapshot(Context context) {
+        file = new File(context.getFilesDir(), FILE_NAME);
+    }
+
+    public static FirstPageSnapshot getInstance(Context context) {
+        if (sInstance == null) {
+            synchronized (FirstPageSnapshot.class) {
+                if (sInstance == null) {
+                    sInstance = new FirstPageSnapshot(context.getApplicationContext());
+                }
+            }
+        }
+        return sInstance;
+    }
+
+    /**
+     * 后台读取快照（Application.onCreate 中调用，尽早开始）
+     */
+    public void preload() {
+        executor.execute(() -> {
+            try {
+                if (!file.exists()) {
+                    return;
+                }
+                byte[] bytes = readFully(file);
+                List<Item> items = decode(bytes);
+                lastBytes = bytes;
+                snapshot.postValue(items);
+            } catch (IOException e) {
+                // 快照损坏或格式过旧：忽略，等待实时数据
+                Log.w(TAG, "读取首页快照失败：" + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 快照数据（无快照时不会回调）
+     */
+    public LiveData<List<Item>> getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * 保存第一页数据（内容未变化时跳过）
+     */
+    public void save(List<Item> firstPage) {
+        final List<Item> items = new ArrayList<>(firstPage);
+        executor.execute(() -> {
+            try {
+                byte[] bytes = encode(items);
+                if (Arrays.equals(bytes, lastBytes)) {
+                    return;
+                }
+                // 先写临时文件再改名，避免进程被杀时留下半个文件
+                File temp = new File(file.getPath() + ".tmp");
+                try (FileOutputStream fos = new FileOutputStream(temp)) {
+                    fos.write(bytes);
+                    fos.getFD().sync();
+                }
+                if (!temp.renameTo(file)) {
+                    throw new IOException("重命名失败：" + temp);
+                }
+                lastBytes = bytes;
+            } catch (IOException e) {
+                Log.w(TAG, "保存首页快照失败：" + e.getMessage());
+            }
+        });
+    }
+
+    // ==================== 编解码（仅包含列表展示的字段） ====================
+
+    static byte[] encode(List<Item> items) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(items.size() * 128);
+        DataOutputStream out = new DataOutputStream(bos);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(items.size());
+        for (Item item : items) {
+            out.writeUTF(item.getId());
+            out.writeUTF(item.getName());
+            writeNullable(out, item.getCategory());
+            writeNullable(out, item.getLocation());
+            out.writeInt(item.getQuantity());
+            writeNullable(out, item.getExpiryDate());
+            writeNullable(out, item.getCreateTime());
+            writeNullable(out, item.getUpdateTime());
+        }
+        out.flush();
+        return bos.toByteArray();
+    }
+
+    static List<Item> decode(byte[] bytes) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (in.readInt() != FORMAT_VERSION) {
+            throw new IOException("快照版本不匹配");
+        }
+        int count = in.readInt();
+        List<Item> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Item item = new Item();
+            item.setId(in.readUTF());
+            item.setName(in.readUTF());
+            item.setCategory(readNullable(in));
+            item.setLocation(readNullable(in));
+            item.setQuantity(in.readInt());
+            item.setExpiryDate(readNullable(in));
+            item.setCreateTime(readNullable(in));
+            item.setUpdateTime(readNullable(in));
+            items.add(item);
+        }
+        return items;
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static byte[] readFully(File file) throws IOException {
+        byte[] bytes = new byte[(int) file.length()];
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            in.readFully(bytes);
+        }
+        return bytes;
+    }
+}
@@ -29,7 +29,12 @@ public class ImagePagerAdapter extends PagerAdapter {
         View view = LayoutInflater.from(mContext).inflate(R.layout.item_image_pager, container, false);
         ImageView ivImage = view.findViewById(R.id.iv_image);
         // 加载原图（压缩避免OOM）
-        ivImage.setImageBitmap(ImageUtils.loadImage(mImagePaths.get(position), 1080, 1920));
+        long start = UiMetrics.beginSection(UiMetrics.SECTION_PAGER_DECODE);
+        try {
+            ivImage.setImageBitmap(ImageUtils.loadImage(mImagePaths.get(position), 1080, 1920));
+        } finally {
+            UiMetrics.endSection(UiMetrics.SECTION_PAGER_DECODE, start);
+        }
         container.addView(view);
         return view;
     }
@@ -5,6 +5,7 @@ import androidx.viewpager.widget.ViewPager;
 
 import android.os.Bundle;
 import android.view.View;
+import android.view.Window;
 import android.widget.Toast;
 
 import java.util.List;
@@ -12,11 +13,16 @@ import java.util.List;
 public class ImagePreviewActivity extends AppCompatActivity {
     private ViewPager mViewPager;
     private List<String> mImagePaths;
+    // 帧统计监听（调试包开启界面统计时）
+    private Window.OnFrameMetricsAvailableListener mFrameListener;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_image_preview);
+        if (BuildConfig.DEBUG) {
+            mFrameListener = UiMetrics.startFrameTracking(this);
+        }
 
         // 获取图片路径列表
         mImagePaths = getIntent().getStringArrayListExtra("imagePaths");
@@ -37,4 +43,10 @@ public class ImagePreviewActivity extends AppCompatActivity {
         // 点击图片关闭预览
         mViewPager.setOnClickListener(v -> finish());
     }
+
+    @Override
+    protected void onDestroy() {
+        UiMetrics.stopFrameTracking(this, mFrameListener);
+        super.onDestroy();
+    }
 }
\ No newline at end of file
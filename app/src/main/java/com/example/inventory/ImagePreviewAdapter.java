@@ -54,7 +54,12 @@ public class ImagePreviewAdapter extends RecyclerView.Adapter<ImagePreviewAdapte
     public void onBindViewHolder(@NonNull ImageViewHolder holder, int position) {
         String path = mImagePaths.get(position);
         // 加载图片（压缩）
-        holder.ivImage.setImageBitmap(ImageUtils.loadImage(path, 200, 200));
+        long start = UiMetrics.beginSection(UiMetrics.SECTION_THUMBNAIL_DECODE);
+        try {
+            holder.ivImage.setImageBitmap(ImageUtils.loadImage(path, 200, 200));
+        } finally {
+            UiMetrics.endSection(UiMetrics.SECTION_THUMBNAIL_DECODE, start);
+        }
 
         // 点击图片
         holder.ivImage.setOnClickListener(v -> {
@@ -0,0 +1,26 @@
+package com.example.inventory;
+
+/**
+ * 图片采样率计算（纯Java实现，与BitmapFactory解耦以便在JVM上测试）
+ */
+public final class ImageSampling {
+    private ImageSampling() {}
+
+    /**
+     * 计算图片压缩比例（2的幂，保证采样后宽高均不小于目标尺寸）
+     */
+    public static int calculateInSampleSize(int width, int height, int reqWidth, int reqHeight) {
+        int inSampleSize = 1;
+
+        if (height > reqHeight || width > reqWidth) {
+            final int halfHeight = height / 2;
+            final int halfWidth = width / 2;
+
+            while ((halfHeight / inSampleSize) >= reqHeight
+                    && (halfWidth / inSampleSize) >= reqWidth) {
+                inSampleSize *= 2;
+            }
+        }
+        return inSampleSize;
+    }
+}
@@ -94,6 +94,7 @@ public class ImageUtils {
      * 处理图库返回结果，保存图片到本地并返回路径
      */
     public static String handleGalleryResult(Activity activity, Uri uri) {
+        MainThreadGuard.assertNotMainThread("ImageUtils.handleGalleryResult");
         try {
             // 从Uri获取Bitmap
             Bitmap bitmap = MediaStore.Images.Media.getBitmap(activity.getContentResolver(), uri);
@@ -118,6 +119,7 @@ public class ImageUtils {
      * 根据路径加载图片（压缩，避免OOM）
      */
     public static Bitmap loadImage(String path, int reqWidth, int reqHeight) {
+        MainThreadGuard.assertNotMainThread("ImageUtils.loadImage");
         // 先获取图片尺寸
         BitmapFactory.Options options = new BitmapFactory.Options();
         options.inJustDecodeBounds = true;
@@ -133,19 +135,6 @@ public class ImageUtils {
      * 计算图片压缩比例
      */
     private static int calculateInSampleSize(BitmapFactory.Options options, int reqWidth, int reqHeight) {
-        final int height = options.outHeight;
-        final int width = options.outWidth;
-        int inSampleSize = 1;
-
-        if (height > reqHeight || width > reqWidth) {
-            final int halfHeight = height / 2;
-            final int halfWidth = width / 2;
-
-            while ((halfHeight / inSampleSize) >= reqHeight
-                    && (halfWidth / inSampleSize) >= reqWidth) {
-                inSampleSize *= 2;
-            }
-        }
-        return inSampleSize;
+        return ImageSampling.calculateInSampleSize(options.outWidth, options.outHeight, reqWidth, reqHeight);
     }
 }
\ No newline at end of file
@@ -0,0 +1,149 @@
+package com.example.inventory;
+
+import android.database.Cursor;
+import android.database.CursorWrapper;
+
+import androidx.annotation.NonNull;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteOpenHelper;
+import androidx.sqlite.db.SupportSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * 为Room的SQLite连接加上耗时统计（仅在DbMetrics开启时使用）
+ * 通过动态代理包装SupportSQLiteOpenHelper/Database/Statement，只拦截查询、执行与事务方法，
+ * 其余方法原样转发，不受androidx.sqlite接口版本变化影响
+ */
+class InstrumentedOpenHelperFactory implements SupportSQLiteOpenHelper.Factory {
+    private final SupportSQLiteOpenHelper.Factory delegate;
+
+    InstrumentedOpenHelperFactory(SupportSQLiteOpenHelper.Factory delegate) {
+        this.delegate = delegate;
+    }
+
+    @NonNull
+    @Override
+    public SupportSQLiteOpenHelper create(@NonNull SupportSQLiteOpenHelper.Configuration configuration) {
+        SupportSQLiteOpenHelper helper = delegate.create(configuration);
+        return proxy(SupportSQLiteOpenHelper.class, helper, (target, method, args) -> {
+            Object result = method.invoke(target, args);
+            if (result instanceof SupportSQLiteDatabase) {
+                return wrapDatabase((SupportSQLiteDatabase) result);
+            }
+            return result;
+        });
+    }
+
+    // 同一线程上嵌套事务的开始时间
+    private static final ThreadLocal<Deque<Long>> sTransactionStarts = new ThreadLocal<Deque<Long>>() {
+        @Override
+        protected Deque<Long> initialValue() {
+            return new ArrayDeque<>();
+        }
+    };
+
+    private static SupportSQLiteDatabase wrapDatabase(SupportSQLiteDatabase db) {
+        return proxy(SupportSQLiteDatabase.class, db, (target, method, args) -> {
+            String name = method.getName();
+            if (name.startsWith("beginTransaction")) {
+                Object result = method.invoke(target, args);
+                sTransactionStarts.get().push(System.nanoTime());
+                return result;
+            }
+            if (name.equals("endTransaction")) {
+                Deque<Long> starts = sTransactionStarts.get();
+                try {
+                    return method.invoke(target, args);
+                } finally {
+                    if (!starts.isEmpty()) {
+                        DbMetrics.recordTransaction(System.nanoTime() - starts.pop());
+                    }
+                }
+            }
+            if (name.equals("query") && args != null && args.length > 0) {
+                String sql = args[0] instanceof SupportSQLiteQuery
+                        ? ((SupportSQLiteQuery) args[0]).getSql() : String.valueOf(args[0]);
+                long start = System.nanoTime();
+                Cursor cursor = (Cursor) method.invoke(target, args);
+                return new TimedCursor(cursor, sql, start);
+            }
+            if (name.equals("execSQL") && args != null && args.length > 0) {
+                long start = System.nanoTime();
+                try {
+                    return method.invoke(target, args);
+                } finally {
+                    DbMetrics.recordStatement((String) args[0], System.nanoTime() - start, -1);
+                }
+            }
+            if (name.equals("compileStatement") && args != null && args.length == 1) {
+                SupportSQLiteStatement statement = (SupportSQLiteStatement) method.invoke(target, args);
+                return wrapStatement(statement, (String) args[0]);
+            }
+            return method.invoke(target, args);
+        });
+    }
+
+    private static SupportSQLiteStatement wrapStatement(SupportSQLiteStatement statement, String sql) {
+        return proxy(SupportSQLiteStatement.class, statement, (target, method, args) -> {
+            if (!method.getName().startsWith("execute") && !method.getName().startsWith("simpleQuery")) {
+                return method.invoke(target, args);
+            }
+            long start = System.nanoTime();
+            Object result = method.invoke(target, args);
+            int rows = method.getName().equals("executeUpdateDelete") ? (Integer) result : -1;
+            DbMetrics.recordStatement(sql, System.nanoTime() - start, rows);
+            return result;
+        });
+    }
+
+    /**
+     * 游标关闭时记录耗时（SQLite游标在首次移动时才真正执行查询，因此包含执行与取数时间）
+     */
+    private static final class TimedCursor extends CursorWrapper {
+        private final String sql;
+        private final long startNanos;
+        private boolean recorded;
+
+        TimedCursor(Cursor cursor, String sql, long startNanos) {
+            super(cursor);
+            this.sql = sql;
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public void close() {
+            if (!recorded) {
+                recorded = true;
+                int rows = isClosed() ? -1 : getCount();
+                DbMetrics.recordStatement(sql, System.nanoTime() - startNanos, rows);
+            }
+            super.close();
+        }
+    }
+
+    // ==================== 动态代理 ====================
+
+    private interface Interceptor {
+        Object invoke(Object target, Method method, Object[] args) throws Throwable;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, Interceptor interceptor) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            try {
+                return interceptor.invoke(target, method, args);
+            } catch (InvocationTargetException e) {
+                // 还原被反射包装的原始异常（如SQLiteException）
+                throw e.getCause();
+            }
+        };
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+}
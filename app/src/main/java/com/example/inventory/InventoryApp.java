@@ -0,0 +1,21 @@
+package com.example.inventory;
+
+import android.app.Application;
+
+/**
+ * 应用入口
+ */
+public class InventoryApp extends Application {
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        // 尽早在后台读取首页快照，数据库打开前即可展示列表
+        FirstPageSnapshot.getInstance(this).preload();
+        // 临期/过期提醒：补跑错过的唤醒并排定下一次
+        ExpiryReminderScheduler.init(this);
+        // 调试包：开启主线程I/O检测
+        if (BuildConfig.DEBUG) {
+            MainThreadGuard.installStrictMode();
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.example.inventory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * 模拟库存数据生成器（纯Java，可在调试包、JVM测试与基准测试中复用）
+ * 同一 seed + nowMillis 生成完全相同的数据：分类/子分类/位置树、带中文名称的物品、有效期分布、
+ * 使用记录历史与占位图片路径，通过 {@link Sink} 输出，由调用方决定写入数据库或内存
+ */
+public class InventoryDataGenerator {
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    // 物品创建时间分布在过去两年内
+    private static final int HISTORY_DAYS = 730;
+
+    // 分类目录：{分类, "子分类:商品1,商品2,..."...}
+    private static final String[][] CATALOG = {
+            {"食品", "乳制品:纯牛奶,酸奶,奶酪,奶粉", "零食:薯片,饼干,坚果,巧克力", "饮料:矿泉水,橙汁,可乐,绿茶",
+                    "粮油:大米,食用油,挂面,面粉", "调味品:酱油,陈醋,食盐,蚝油"},
+            {"日用品", "洗护用品:洗发水,沐浴露,牙膏,洗面奶", "清洁用品:洗衣液,洗洁精,消毒液,洗衣凝珠",
+                    "纸品:抽纸,卷纸,湿巾,厨房用纸"},
+            {"药品", "常用药:感冒灵,布洛芬,创可贴,碘伏", "保健品:维生素C,钙片,鱼油,蛋白粉"},
+            {"办公用品", "文具:签字笔,笔记本,便利贴,修正带", "耗材:A4纸,墨盒,订书钉,档案袋"},
+            {"电子产品", "配件:数据线,充电器,耳机,转接头", "电池:五号电池,七号电池,纽扣电池,充电宝"},
+            {"厨具", "餐具:碗,盘子,筷子,保鲜盒", "小家电:电热水壶,榨汁机,电饭煲,空气炸锅"},
+            {"宠物用品", "主粮:猫粮,狗粮,冻干,罐头", "清洁:猫砂,尿垫,宠物湿巾,除臭剂"},
+    };
+    private static final String[] BRANDS = {"", "", "蒙牛", "伊利", "农夫山泉", "三只松鼠", "蓝月亮", "清风",
+            "晨光", "得力", "小米", "南孚", "云南白药", "苏泊尔", "无印良品", "京东京造"};
+    private static final String[] SPECS = {"", "", "500ml", "1L", "250g", "1kg", "6只装", "家庭装", "大包装", "组合装"};
+    private static final String[] DESCRIPTIONS = {"囤货", "备用", "促销时购买", "开封后冷藏", "送人用",
+            "快用完了记得补", "办公室公用", "需避光保存"};
+    // 位置树：房间 → 家具 → 层
+    private static final String[] ROOMS = {"厨房", "客厅", "卧室", "书房", "阳台", "储物间", "卫生间", "办公室"};
+    private static final String[] FURNITURE = {"吊柜", "抽屉", "置物架", "冰箱", "收纳箱", "书柜"};
+
+    /**
+     * 生成规模配置
+     */
+    public static final class Config {
+        // 演示用：几百条数据
+        public static final Config DEMO = new Config(300, 10, 4, 16, 3, 0.3, 8);
+        // 贴近线上规模：数万物品、数百分类、大量修改历史
+        public static final Config PRODUCTION = new Config(50_000, 300, 6, 120, 20, 0.2, 32);
+
+        public final int itemCount;
+        public final int categoryCount;
+        public final int subCategoriesPerCategory;
+        public final int locationCount;
+        // 每个物品的平均修改记录数（实际在0~2倍之间均匀分布）
+        public final int updatesPerItem;
+        // 带图片的物品比例
+        public final double imageRatio;
+        // 占位图片数量（物品图片从中选取）
+        public final int placeholderImageCount;
+
+        public Config(int itemCount, int categoryCount, int subCategoriesPerCategory, int locationCount,
+                      int updatesPerItem, double imageRatio, int placeholderImageCount) {
+            this.itemCount = itemCount;
+            this.categoryCount = categoryCount;
+            this.subCategoriesPerCategory = subCategoriesPerCategory;
+            this.locationCount = locationCount;
+            this.updatesPerItem = updatesPerItem;
+            this.imageRatio = imageRatio;
+            this.placeholderImageCount = placeholderImageCount;
+        }
+    }
+
+    /**
+     * 生成结果的接收方（按 分类 → 子分类 → 位置 → 物品及其使用记录 的顺序回调）
+     */
+    public interface Sink {
+        void onCategory(long id, String name);
+
+        void onSubCategory(long id, long categoryId, String name);
+
+        // parentId为上级位置ID，顶层位置为0
+        void onLocation(long id, long parentId, String name);
+
+        void onItem(Item item);
+
+        void onUsageRecord(UsageRecord record);
+    }
+
+    private final Config config;
+    private final long seed;
+    private final long nowMillis;
+    private final String imageDir;
+
+    /**
+     * @param imageDir 占位图片所在目录，为null时不生成图片路径
+     */
+    public InventoryDataGenerator(Config config, long seed, long nowMillis, String imageDir) {
+        this.config = config;
+        this.seed = seed;
+        this.nowMillis = nowMillis;
+        this.imageDir = imageDir;
+    }
+
+    /**
+     * 占位图片路径（调用方负责在该路径生成图片文件）
+     */
+    public List<String> getPlaceholderImagePaths() {
+        List<String> paths = new ArrayList<>();
+        if (imageDir != null) {
+            for (int i = 0; i < config.placeholderImageCount; i++) {
+                paths.add(imageDir + "/placeholder_" + i + ".jpg");
+            }
+        }
+        return paths;
+    }
+
+    public void generate(Sink sink) {
+        Random random = new Random(seed);
+
+        // 分类与子分类（超出目录的分类按目录循环并编号）
+        List<String> categories = new ArrayList<>();
+        List<List<String>> subCategories = new ArrayList<>();
+        List<List<String[]>> products = new ArrayList<>();
+        long subCategoryId = 1;
+        for (int c = 0; c < config.categoryCount; c++) {
+            String[] entry = CATALOG[c % CATALOG.length];
+            int round = c / CATALOG.length;
+            String category = round == 0 ? entry[0] : entry[0] + (round + 1);
+            categories.add(category);
+            sink.onCategory(c + 1, category);
+
+            List<String> subs = new ArrayList<>();
+            List<String[]> subProducts = new ArrayList<>();
+            for (int s = 0; s < config.subCategoriesPerCategory; s++) {
+                String[] parts = entry[1 + s % (entry.length - 1)].split(":");
+                int subRound = s / (entry.length - 1);
+                String sub = subRound == 0 ? parts[0] : parts[0] + (subRound + 1);
+                subs.add(sub);
+                subProducts.add(parts[1].split(","));
+                sink.onSubCategory(subCategoryId++, c + 1, sub);
+            }
+            subCategories.add(subs);
+            products.add(subProducts);
+        }
+
+        // 位置：先房间，再 房间-家具，再 房间-家具-第N层
+        List<String> locations = new ArrayList<>();
+        for (int i = 0; i < config.locationCount; i++) {
+            String room = ROOMS[i % ROOMS.length];
+            String name;
+            long parentId;
+            if (i < ROOMS.length) {
+                name = room;
+                parentId = 0;
+            } else {
+                int nested = i - ROOMS.length;
+                String furniture = FURNITURE[(nested / ROOMS.length) % FURNITURE.length];
+                int layer = nested / (ROOMS.length * FURNITURE.length);
+                name = room + "-" + furniture + (layer == 0 ? "" : "-第" + layer + "层");
+                // 家具挂在房间下，各层挂在对应家具下（上级位置总是先生成）
+                parentId = layer == 0 ? i % ROOMS.length + 1
+                        : ROOMS.length + nested % (ROOMS.length * FURNITURE.length) + 1;
+            }
+            locations.add(name);
+            sink.onLocation(i + 1, parentId, name);
+        }
+
+        List<String> placeholders = getPlaceholderImagePaths();
+        for (int i = 0; i < config.itemCount; i++) {
+            generateItem(random, sink, categories, subCategories, products, locations, placeholders);
+        }
+    }
+
+    private void generateItem(Random random, Sink sink, List<String> categories, List<List<String>> subCategories,
+                              List<List<String[]>> products, List<String> locations, List<String> placeholders) {
+        // 少数分类/位置占大多数物品
+        String category = "";
+        String subCategory = "";
+        String product = "物品";
+        if (!categories.isEmpty() && random.nextInt(20) != 0) {
+            int c = skewedIndex(random, categories.size());
+            category = categories.get(c);
+            if (!subCategories.get(c).isEmpty()) {
+                int s = skewedIndex(random, subCategories.get(c).size());
+                subCategory = subCategories.get(c).get(s);
+                String[] candidates = products.get(c).get(s);
+                product = candidates[random.nextInt(candidates.length)];
+            }
+        }
+        String location = locations.isEmpty() || random.nextInt(20) == 0
+                ? "" : locations.get(skewedIndex(random, locations.size()));
+
+        String name = BRANDS[random.nextInt(BRANDS.length)] + product;
+        String spec = SPECS[random.nextInt(SPECS.length)];
+        if (!spec.isEmpty()) {
+            name = name + " " + spec;
+        }
+
+        long created = nowMillis - (long) (random.nextDouble() * HISTORY_DAYS * DAY_MILLIS);
+        long updated = created + (long) (random.nextDouble() * (nowMillis - created));
+        String description = random.nextInt(5) == 0 ? DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)] : "";
+        String imagePaths = "";
+        if (!placeholders.isEmpty() && random.nextDouble() < config.imageRatio) {
+            List<String> images = new ArrayList<>();
+            for (int k = 1 + random.nextInt(3); k > 0; k--) {
+                images.add(placeholders.get(random.nextInt(placeholders.size())));
+            }
+            imagePaths = Item.ImagePathConverter.fromList(images);
+        }
+
+        String id = new UUID(random.nextLong(), random.nextLong()).toString();
+        // 子分类作为下级分类，物品记录完整的分类路径
+        String categoryPath = subCategory.isEmpty() ? category : category + Category.PATH_SEPARATOR + subCategory;
+        Item item = new Item(id, name, categoryPath, location,
+                1 + (int) Math.abs(random.nextGaussian() * 5), randomExpiry(random), description, imagePaths,
+                InventoryTime.formatRecordTime(created), InventoryTime.formatRecordTime(updated));
+        sink.onItem(item);
+
+        // 使用记录：1条创建记录 + 0~2倍平均数的修改记录，时间递增
+        sink.onUsageRecord(new UsageRecord(id, UsageRecord.TYPE_CREATE, item.getCreateTime(), 0));
+        int updates = config.updatesPerItem == 0 ? 0 : random.nextInt(2 * config.updatesPerItem + 1);
+        long[] times = new long[updates];
+        for (int u = 0; u < updates; u++) {
+            times[u] = created + (long) (random.nextDouble() * (nowMillis - created));
+        }
+        Arrays.sort(times);
+        for (long time : times) {
+            int fields = UsageRecord.FIELD_BITS[random.nextInt(UsageRecord.FIELD_BITS.length)];
+            if (random.nextInt(4) == 0) {
+                fields |= UsageRecord.FIELD_QUANTITY;
+            }
+            sink.onUsageRecord(new UsageRecord(id, UsageRecord.TYPE_UPDATE,
+                    InventoryTime.formatRecordTime(time), fields));
+        }
+    }
+
+    /**
+     * 有效期分布：30%无有效期，10%已过期，10%两周内到期，其余分布在两年内
+     */
+    private String randomExpiry(Random random) {
+        int bucket = random.nextInt(10);
+        if (bucket < 3) {
+            return "";
+        } else if (bucket < 4) {
+            return InventoryTime.formatExpiryDate(nowMillis - (1 + random.nextInt(365)) * DAY_MILLIS);
+        } else if (bucket < 5) {
+            return InventoryTime.formatExpiryDate(nowMillis + random.nextInt(14) * DAY_MILLIS);
+        }
+        return InventoryTime.formatExpiryDate(nowMillis + (15 + random.nextInt(700)) * DAY_MILLIS);
+    }
+
+    /**
+     * 偏斜分布的下标：越靠前的下标越常见
+     */
+    private static int skewedIndex(Random random, int size) {
+        return Math.min(size - 1, (int) (size * Math.pow(random.nextDouble(), 2.5)));
+    }
+}
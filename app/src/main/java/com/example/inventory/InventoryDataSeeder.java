@@ -0,0 +1,247 @@
+package com.example.inventory;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.os.Environment;
+import android.util.Log;
+
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 将 {@link InventoryDataGenerator} 的输出批量写入数据库
+ * 使用预编译语句 + 分批事务，绕开DAO逐条插入的开销；item_stat 由触发器照常维护，
+ * 拼音检索键随物品一并写入（按名称缓存，同名物品只转写一次）；
+ * 每个物品写入一个批次，物品行的数量与有效期由批次触发器填入
+ */
+public class InventoryDataSeeder implements InventoryDataGenerator.Sink {
+    private static final String TAG = "InventoryDataSeeder";
+    // 每个事务提交的物品数
+    private static final int ITEMS_PER_TRANSACTION = 2000;
+    private static final int PLACEHOLDER_SIZE = 480;
+
+    private final SupportSQLiteDatabase db;
+    private final boolean includeUsageRecords;
+    private final SupportSQLiteStatement insertCategory;
+    private final SupportSQLiteStatement insertLocation;
+    private final SupportSQLiteStatement insertItem;
+    private final SupportSQLiteStatement insertRecord;
+    private final SupportSQLiteStatement insertSearchKey;
+    private final SupportSQLiteStatement insertLot;
+    // 生成器中的分类ID → 数据库中的分类ID（同名分类复用已有记录）
+    private final Map<Long, Long> categoryIds = new HashMap<>();
+    // 生成器中的位置ID → 数据库中的位置ID
+    private final Map<Long, Long> locationIds = new HashMap<>();
+    // 物品只带名称，写入前按名称换算为外键ID（分类按名称路径，如"食品/饮料"）
+    private final Map<String, Long> categoryIdByName = new HashMap<>();
+    private final Map<Long, String> categoryNames = new HashMap<>();
+    private final Map<String, Long> locationIdByName = new HashMap<>();
+    private final List<String> itemIds = new ArrayList<>();
+    // 名称 → 拼音检索键（生成的名称大量重复）
+    private final Map<String, Set<String>> searchKeysByName = new HashMap<>();
+    private int itemsInTransaction;
+
+    /**
+     * @param includeUsageRecords 是否写入使用记录（性能测试可单独造使用记录）
+     */
+    public InventoryDataSeeder(SupportSQLiteDatabase db, boolean includeUsageRecords) {
+        this.db = db;
+        this.includeUsageRecords = includeUsageRecords;
+        // path/fullName由触发器生成
+        insertCategory = db.compileStatement("INSERT INTO category (name, parentId, path, fullName) "
+                + "VALUES (?, ?, '', '')");
+        insertLocation = db.compileStatement("INSERT INTO location (name, parentId) VALUES (?, ?)");
+        insertItem = db.compileStatement("INSERT INTO item (id, name, categoryId, locationId, quantity, "
+                + "expiryDate, description, imagePaths, createTime, updateTime, nameSortKey) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        insertRecord = db.compileStatement("INSERT INTO usage_record (itemId, type, time, modifiedFields, editCount) "
+                + "VALUES (?, ?, ?, ?, ?)");
+        insertSearchKey = db.compileStatement("INSERT OR IGNORE INTO item_search_key (searchKey, itemId) "
+                + "VALUES (?, ?)");
+        insertLot = db.compileStatement("INSERT INTO item_lot (itemId, quantity, expiryEpochDay, receivedTime) "
+                + "VALUES (?, ?, ?, ?)");
+    }
+
+    /**
+     * 生成并写入全部数据
+     * @return 写入的物品ID（按生成顺序）
+     */
+    public List<String> seed(InventoryDataGenerator generator) {
+        db.beginTransaction();
+        try {
+            generator.generate(this);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        return itemIds;
+    }
+
+    /**
+     * 调试包入口：生成占位图片并写入应用数据库（需在子线程调用）
+     * @return 写入的物品数量
+     */
+    public static int seedAppDatabase(Context context, InventoryDataGenerator.Config config, long seed) {
+        MainThreadGuard.assertNotMainThread("InventoryDataSeeder.seedAppDatabase");
+        File imageDir = new File(context.getExternalFilesDir(Environment.DIRECTORY_PICTURES), "placeholder");
+        InventoryDataGenerator generator = new InventoryDataGenerator(config, seed, System.currentTimeMillis(),
+                imageDir.getAbsolutePath());
+        writePlaceholderImages(imageDir, generator.getPlaceholderImagePaths());
+
+        InventoryDatabase database = InventoryDatabase.getInstance(context);
+        List<String> ids = new InventoryDataSeeder(database.getOpenHelper().getWritableDatabase(), true)
+                .seed(generator);
+        // 绕过了DAO，需手动通知Room刷新正在观察的LiveData，并让输入联想索引重新加载
+        database.getInvalidationTracker().refreshVersionsAsync();
+        NameSuggestionIndex.getInstance().invalidate();
+        return ids.size();
+    }
+
+    /**
+     * 生成纯色带编号的占位图片（已存在的文件跳过）
+     */
+    static void writePlaceholderImages(File dir, List<String> paths) {
+        if (!dir.exists() && !dir.mkdirs()) {
+            Log.e(TAG, "创建占位图片目录失败：" + dir);
+            return;
+        }
+        Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        textPaint.setColor(Color.WHITE);
+        textPaint.setTextSize(PLACEHOLDER_SIZE / 4f);
+        textPaint.setTextAlign(Paint.Align.CENTER);
+        for (int i = 0; i < paths.size(); i++) {
+            File file = new File(paths.get(i));
+            if (file.exists()) {
+                continue;
+            }
+            Bitmap bitmap = Bitmap.createBitmap(PLACEHOLDER_SIZE, PLACEHOLDER_SIZE, Bitmap.Config.RGB_565);
+            Canvas canvas = new Canvas(bitmap);
+            canvas.drawColor(Color.HSVToColor(new float[]{(i * 47) % 360, 0.5f, 0.8f}));
+            canvas.drawText(String.valueOf(i + 1), PLACEHOLDER_SIZE / 2f, PLACEHOLDER_SIZE * 0.6f, textPaint);
+            try (FileOutputStream fos = new FileOutputStream(file)) {
+                bitmap.compress(Bitmap.CompressFormat.JPEG, 80, fos);
+            } catch (IOException e) {
+                Log.e(TAG, "保存占位图片失败：" + e.getMessage());
+            } finally {
+                bitmap.recycle();
+            }
+        }
+    }
+
+    // ==================== Sink ====================
+
+    @Override
+    public void onCategory(long id, String name) {
+        long dbId = findOrInsert("category", insertCategory, name, null);
+        categoryIds.put(id, dbId);
+        categoryNames.put(id, name);
+        categoryIdByName.put(name, dbId);
+    }
+
+    // 子分类写为其分类的下级分类
+    @Override
+    public void onSubCategory(long id, long categoryId, String name) {
+        long dbId = findOrInsert("category", insertCategory, name, categoryIds.get(categoryId));
+        categoryIdByName.put(categoryNames.get(categoryId) + Category.PATH_SEPARATOR + name, dbId);
+    }
+
+    @Override
+    public void onLocation(long id, long parentId, String name) {
+        long dbId = findOrInsert("location", insertLocation, name, locationIds.get(parentId));
+        locationIds.put(id, dbId);
+        locationIdByName.put(name, dbId);
+    }
+
+    @Override
+    public void onItem(Item item) {
+        insertItem.bindString(1, item.getId());
+        insertItem.bindString(2, item.getName());
+        Long categoryId = categoryIdByName.get(item.getCategory());
+        bindId(insertItem, 3, categoryId);
+        bindId(insertItem, 4, locationIdByName.get(item.getLocation()));
+        // 数量与有效期由下面的批次写入
+        insertItem.bindLong(5, 0);
+        insertItem.bindString(6, "");
+        insertItem.bindString(7, item.getDescription());
+        insertItem.bindString(8, item.getImagePaths());
+        insertItem.bindString(9, item.getCreateTime());
+        insertItem.bindString(10, item.getUpdateTime());
+        insertItem.bindBlob(11, NameSortKey.of(item.getName()));
+        insertItem.executeInsert();
+        itemIds.add(item.getId());
+
+        insertLot.bindString(1, item.getId());
+        insertLot.bindLong(2, item.getQuantity());
+        bindId(insertLot, 3, InventoryTime.toEpochDay(item.getExpiryDate()));
+        insertLot.bindString(4, item.getCreateTime());
+        insertLot.executeInsert();
+
+        Set<String> searchKeys = searchKeysByName.get(item.getName());
+        if (searchKeys == null) {
+            searchKeys = PinyinKeys.of(item.getName());
+            searchKeysByName.put(item.getName(), searchKeys);
+        }
+        for (String key : searchKeys) {
+            insertSearchKey.bindString(1, key);
+            insertSearchKey.bindString(2, item.getId());
+            insertSearchKey.executeInsert();
+        }
+
+        // 分批提交，避免单个事务过大
+        if (++itemsInTransaction >= ITEMS_PER_TRANSACTION) {
+            itemsInTransaction = 0;
+            db.setTransactionSuccessful();
+            db.endTransaction();
+            db.beginTransaction();
+        }
+    }
+
+    @Override
+    public void onUsageRecord(UsageRecord record) {
+        if (!includeUsageRecords) {
+            return;
+        }
+        insertRecord.bindString(1, record.getItemId());
+        insertRecord.bindLong(2, record.getType());
+        insertRecord.bindString(3, record.getTime());
+        insertRecord.bindLong(4, record.getModifiedFields());
+        insertRecord.bindLong(5, record.getEditCount());
+        insertRecord.executeInsert();
+    }
+
+    private static void bindId(SupportSQLiteStatement statement, int index, Long id) {
+        if (id == null) {
+            statement.bindNull(index);
+        } else {
+            statement.bindLong(index, id);
+        }
+    }
+
+    /**
+     * 按“上级 + 名称”查找已有记录，不存在时插入（上级为空表示顶层）
+     */
+    private long findOrInsert(String table, SupportSQLiteStatement insert, String name, Long parentId) {
+        try (Cursor cursor = db.query("SELECT id FROM " + table + " WHERE name = ? AND parentId IS ? LIMIT 1",
+                new Object[]{name, parentId})) {
+            if (cursor.moveToFirst()) {
+                return cursor.getLong(0);
+            }
+        }
+        insert.bindString(1, name);
+        bindId(insert, 2, parentId);
+        return insert.executeInsert();
+    }
+}
@@ -1,17 +1,25 @@
 package com.example.inventory;
 
 import android.content.Context;
+import android.database.Cursor;
 
+import androidx.annotation.NonNull;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+import androidx.sqlite.db.framework.FrameworkSQLiteOpenHelperFactory;
 
 /**
  * 库存管理应用的Room数据库实例
- * 版本号初始为1，后续修改表结构需递增并处理迁移
+ * 修改表结构需递增版本号，并在下方添加对应的Migration
  */
-@Database(entities = {Item.class, Category.class, SubCategory.class, Location.class, UsageRecord.class},
-        version = 1, exportSchema = false)
+@Database(entities = {ItemRecord.class, Category.class, Location.class, UsageRecord.class,
+        ItemStat.class, ItemSearchKey.class, LocationClosure.class, ItemLot.class},
+        views = {Item.class},
+        version = 15, exportSchema = false)
 public abstract class InventoryDatabase extends RoomDatabase {
     // 单例实例
     private static volatile InventoryDatabase INSTANCE;
@@ -19,23 +27,469 @@ public abstract class InventoryDatabase extends RoomDatabase {
     // DAO接口获取方法
     public abstract ItemDao itemDao();
     public abstract CategoryDao categoryDao();
-    public abstract SubCategoryDao subCategoryDao();
     public abstract LocationDao locationDao();
     public abstract UsageRecordDao usageRecordDao();
+    public abstract ItemStatDao itemStatDao();
+    public abstract ItemSearchKeyDao itemSearchKeyDao();
+    public abstract ItemLotDao itemLotDao();
 
     // 获取单例
     public static InventoryDatabase getInstance(Context context) {
         if (INSTANCE == null) {
             synchronized (InventoryDatabase.class) {
                 if (INSTANCE == null) {
-                    INSTANCE = Room.databaseBuilder(
+                    RoomDatabase.Builder<InventoryDatabase> builder = Room.databaseBuilder(
                             context.getApplicationContext(),
                             InventoryDatabase.class,
                             "inventory_database"
-                    ).build();
+                    ).addMigrations(MIGRATION_1_2, MIGRATION_2_3, MIGRATION_3_4, MIGRATION_4_5, MIGRATION_5_6, MIGRATION_6_7,
+                            MIGRATION_7_8, MIGRATION_8_9, MIGRATION_9_10,
+                            MIGRATION_10_11, MIGRATION_11_12, MIGRATION_12_13,
+                            MIGRATION_13_14, MIGRATION_14_15)
+                            .addCallback(CREATE_CALLBACK);
+                    // 调试包中开启了数据库统计时，为SQLite连接加上耗时统计
+                    if (BuildConfig.DEBUG && DbMetrics.loadEnabled(context)) {
+                        builder.openHelperFactory(
+                                new InstrumentedOpenHelperFactory(new FrameworkSQLiteOpenHelperFactory()));
+                    }
+                    INSTANCE = builder.build();
                 }
             }
         }
         return INSTANCE;
     }
-}
\ No newline at end of file
+
+    // 新建数据库时创建触发器等Room实体之外的结构
+    static final Callback CREATE_CALLBACK = new Callback() {
+        @Override
+        public void onCreate(@NonNull SupportSQLiteDatabase db) {
+            ItemStat.rebuild(db);
+            ItemStat.createTriggers(db);
+            ItemSearchKey.createTriggers(db);
+            LocationClosure.createTriggers(db);
+            CategoryTriggers.create(db);
+            ItemLot.createTriggers(db);
+        }
+
+        // 每个连接都显式开启外键约束（SQLite默认关闭），级联删除/置空依赖于此
+        @Override
+        public void onOpen(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("PRAGMA foreign_keys = ON");
+        }
+    };
+
+    // ==================== 数据库迁移 ====================
+
+    // 版本9~11的item_detail视图（迁移需使用当时的表结构，不能引用随实体变化的Item.VIEW_QUERY）
+    private static final String ITEM_DETAIL_V9 = "SELECT item.*, category.name AS category, "
+            + "sub_category.name AS subCategory, location.name AS location FROM item "
+            + "LEFT JOIN category ON category.id = item.categoryId "
+            + "LEFT JOIN sub_category ON sub_category.id = item.subCategoryId "
+            + "LEFT JOIN location ON location.id = item.locationId";
+
+    // 版本4~8的item_stat维度取值表达式（当时item表按名称保存分类/位置，%s为item、NEW或OLD；
+    // 迁移需使用当时的表结构，不能引用随实体变化的ItemStat），下标即维度值
+    private static final String[] ITEM_STAT_KEYS_V4 = {
+            "''", "IFNULL(%s.category, '')", "IFNULL(%s.location, '')", "IFNULL(%s.expiryDate, '')"
+    };
+
+    /**
+     * 1 → 2：usage_record的type改为整数枚举，modifiedFields改为字段位掩码
+     * 旧数据中的中文字段列表按关键字映射到对应的位
+     */
+    static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `usage_record_new` ("
+                    + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`itemId` TEXT NOT NULL, "
+                    + "`type` INTEGER NOT NULL, "
+                    + "`time` TEXT NOT NULL, "
+                    + "`modifiedFields` INTEGER NOT NULL)");
+            db.execSQL("INSERT INTO usage_record_new (id, itemId, type, time, modifiedFields) "
+                    + "SELECT id, itemId, "
+                    + "CASE type WHEN 'create' THEN " + UsageRecord.TYPE_CREATE
+                    + " ELSE " + UsageRecord.TYPE_UPDATE + " END, "
+                    + "time, "
+                    + fieldBitSql("名称", UsageRecord.FIELD_NAME) + " | "
+                    + fieldBitSql("分类", UsageRecord.FIELD_CATEGORY) + " | "
+                    + fieldBitSql("子分类", UsageRecord.FIELD_SUB_CATEGORY) + " | "
+                    + fieldBitSql("位置", UsageRecord.FIELD_LOCATION) + " | "
+                    + fieldBitSql("数量", UsageRecord.FIELD_QUANTITY) + " | "
+                    + fieldBitSql("有效期", UsageRecord.FIELD_EXPIRY_DATE) + " | "
+                    + fieldBitSql("描述", UsageRecord.FIELD_DESCRIPTION) + " | "
+                    + fieldBitSql("图片", UsageRecord.FIELD_IMAGE_PATHS) + " "
+                    + "FROM usage_record");
+            db.execSQL("DROP TABLE usage_record");
+            db.execSQL("ALTER TABLE usage_record_new RENAME TO usage_record");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_usage_record_itemId_time` "
+                    + "ON `usage_record` (`itemId`, `time`)");
+        }
+    };
+
+    /**
+     * 2 → 3：usage_record新增editCount列（按天汇总记录的修改次数），并为保留策略添加type+time索引
+     */
+    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE usage_record ADD COLUMN `editCount` INTEGER NOT NULL DEFAULT 1");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_usage_record_type_time` "
+                    + "ON `usage_record` (`type`, `time`)");
+        }
+    };
+
+    /**
+     * 3 → 4：新增item_stat汇总表（由触发器维护）及item.expiryDate索引
+     */
+    static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `item_stat` ("
+                    + "`dimension` INTEGER NOT NULL, "
+                    + "`statKey` TEXT NOT NULL, "
+                    + "`itemCount` INTEGER NOT NULL, "
+                    + "`totalQuantity` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`dimension`, `statKey`))");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_expiryDate` ON `item` (`expiryDate`)");
+            createItemStatV4(db);
+        }
+    };
+
+    /**
+     * 4 → 5：item.createTime索引（默认列表按创建时间倒序分页，避免全表排序）
+     */
+    static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_createTime` ON `item` (`createTime`)");
+        }
+    };
+
+    // 5 → 6：组合筛选的键集分页索引（排序键 + id），分类/位置等值 + 创建时间排序的组合索引
+    static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("DROP INDEX IF EXISTS `index_item_expiryDate`");
+            db.execSQL("DROP INDEX IF EXISTS `index_item_createTime`");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_expiryDate_id` ON `item` (`expiryDate`, `id`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_createTime_id` ON `item` (`createTime`, `id`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_category_createTime_id` "
+                    + "ON `item` (`category`, `createTime`, `id`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_location_createTime_id` "
+                    + "ON `item` (`location`, `createTime`, `id`)");
+        }
+    };
+
+    // 6 → 7：名称拼音排序键列（Java中用ICU生成后回填），以及各排序方式的键集索引
+    static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `item` ADD COLUMN `nameSortKey` BLOB");
+            SupportSQLiteStatement update = db.compileStatement("UPDATE `item` SET `nameSortKey` = ? WHERE `id` = ?");
+            try (Cursor cursor = db.query("SELECT `id`, `name` FROM `item`")) {
+                while (cursor.moveToNext()) {
+                    update.bindBlob(1, NameSortKey.of(cursor.getString(1)));
+                    update.bindString(2, cursor.getString(0));
+                    update.executeUpdateDelete();
+                }
+            }
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_nameSortKey_id` ON `item` (`nameSortKey`, `id`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_quantity_id` ON `item` (`quantity`, `id`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_updateTime_id` ON `item` (`updateTime`, `id`)");
+        }
+    };
+
+    // 7 → 8：拼音检索键表（只建表和触发器，已有物品的检索键由SearchKeyBackfill在后台回填）
+    static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `item_search_key` ("
+                    + "`searchKey` TEXT NOT NULL, "
+                    + "`itemId` TEXT NOT NULL, "
+                    + "PRIMARY KEY(`searchKey`, `itemId`))");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_search_key_itemId` ON `item_search_key` (`itemId`)");
+            ItemSearchKey.createTriggers(db);
+        }
+    };
+
+    /**
+     * 8 → 9：item表的分类/子分类/位置由名称文本改为外键ID（重建item表）
+     * 旧数据中出现但分类/位置表里没有的名称先补建记录；展示用的名称改由item_detail视图关联读取，
+     * item_stat的分类/位置维度改为按ID统计并重建
+     */
+    static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            // 1. 补建缺失的分类/子分类/位置
+            db.execSQL("INSERT INTO category (name) SELECT DISTINCT category FROM item "
+                    + "WHERE IFNULL(category, '') != '' AND category NOT IN (SELECT name FROM category)");
+            db.execSQL("INSERT INTO location (name) SELECT DISTINCT location FROM item "
+                    + "WHERE IFNULL(location, '') != '' AND location NOT IN (SELECT name FROM location)");
+            db.execSQL("INSERT INTO sub_category (categoryId, name) "
+                    + "SELECT DISTINCT c.id, i.subCategory FROM item i JOIN category c ON c.name = i.category "
+                    + "WHERE IFNULL(i.subCategory, '') != '' AND NOT EXISTS (SELECT 1 FROM sub_category s "
+                    + "WHERE s.categoryId = c.id AND s.name = i.subCategory)");
+            // 迁移期间的临时名称索引，避免逐行关联时反复扫描
+            db.execSQL("CREATE INDEX IF NOT EXISTS `tmp_category_name` ON `category` (`name`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `tmp_location_name` ON `location` (`name`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `tmp_sub_category_name` ON `sub_category` (`categoryId`, `name`)");
+
+            // 2. 新建item表并按名称换算外键
+            db.execSQL("CREATE TABLE IF NOT EXISTS `item_new` ("
+                    + "`id` TEXT NOT NULL, `name` TEXT NOT NULL, "
+                    + "`categoryId` INTEGER, `subCategoryId` INTEGER, `locationId` INTEGER, "
+                    + "`quantity` INTEGER NOT NULL, `expiryDate` TEXT, `description` TEXT, `imagePaths` TEXT, "
+                    + "`createTime` TEXT NOT NULL, `updateTime` TEXT NOT NULL, `nameSortKey` BLOB, "
+                    + "PRIMARY KEY(`id`), "
+                    + "FOREIGN KEY(`categoryId`) REFERENCES `category`(`id`) ON UPDATE CASCADE ON DELETE SET NULL , "
+                    + "FOREIGN KEY(`subCategoryId`) REFERENCES `sub_category`(`id`) ON UPDATE CASCADE ON DELETE SET NULL , "
+                    + "FOREIGN KEY(`locationId`) REFERENCES `location`(`id`) ON UPDATE CASCADE ON DELETE SET NULL )");
+            db.execSQL("INSERT INTO item_new (id, name, categoryId, subCategoryId, locationId, quantity, expiryDate, "
+                    + "description, imagePaths, createTime, updateTime, nameSortKey) "
+                    + "SELECT i.id, i.name, c.id, s.id, l.id, i.quantity, i.expiryDate, "
+                    + "i.description, i.imagePaths, i.createTime, i.updateTime, i.nameSortKey FROM item i "
+                    + "LEFT JOIN category c ON c.name = i.category "
+                    + "LEFT JOIN sub_category s ON s.categoryId = c.id AND s.name = i.subCategory "
+                    + "LEFT JOIN location l ON l.name = i.location");
+            db.execSQL("DROP TABLE item");
+            db.execSQL("ALTER TABLE item_new RENAME TO item");
+            db.execSQL("DROP INDEX IF EXISTS `tmp_category_name`");
+            db.execSQL("DROP INDEX IF EXISTS `tmp_location_name`");
+            db.execSQL("DROP INDEX IF EXISTS `tmp_sub_category_name`");
+
+            // 3. 索引、视图、触发器与汇总
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_expiryDate_id` ON `item` (`expiryDate`, `id`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_createTime_id` ON `item` (`createTime`, `id`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_categoryId_createTime_id` "
+                    + "ON `item` (`categoryId`, `createTime`, `id`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_locationId_createTime_id` "
+                    + "ON `item` (`locationId`, `createTime`, `id`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_subCategoryId` ON `item` (`subCategoryId`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_nameSortKey_id` ON `item` (`nameSortKey`, `id`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_quantity_id` ON `item` (`quantity`, `id`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_updateTime_id` ON `item` (`updateTime`, `id`)");
+            db.execSQL("CREATE VIEW `" + Item.VIEW_NAME + "` AS " + ITEM_DETAIL_V9);
+            ItemStat.rebuild(db);
+            ItemStat.createTriggers(db);
+            ItemSearchKey.createTriggers(db);
+        }
+    };
+
+    /**
+     * 9 → 10：sub_category、usage_record加上外键（分类删除级联删除子分类，物品删除级联删除使用记录）
+     * SQLite不能给已有表追加外键，两张表都需重建；重建前先清理已成孤儿的行，否则外键检查不通过
+     */
+    static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            // 视图引用了sub_category，重建期间先移除
+            db.execSQL("DROP VIEW IF EXISTS `" + Item.VIEW_NAME + "`");
+
+            db.execSQL("DELETE FROM sub_category WHERE categoryId NOT IN (SELECT id FROM category)");
+            db.execSQL("UPDATE item SET subCategoryId = NULL "
+                    + "WHERE subCategoryId IS NOT NULL AND subCategoryId NOT IN (SELECT id FROM sub_category)");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `sub_category_new` ("
+                    + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`categoryId` INTEGER NOT NULL, "
+                    + "`name` TEXT NOT NULL, "
+                    + "FOREIGN KEY(`categoryId`) REFERENCES `category`(`id`) ON UPDATE CASCADE ON DELETE CASCADE )");
+            db.execSQL("INSERT INTO sub_category_new (id, categoryId, name) SELECT id, categoryId, name FROM sub_category");
+            db.execSQL("DROP TABLE sub_category");
+            db.execSQL("ALTER TABLE sub_category_new RENAME TO sub_category");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_sub_category_categoryId` ON `sub_category` (`categoryId`)");
+
+            db.execSQL("DELETE FROM usage_record WHERE itemId NOT IN (SELECT id FROM item)");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `usage_record_new` ("
+                    + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`itemId` TEXT NOT NULL, "
+                    + "`type` INTEGER NOT NULL, "
+                    + "`time` TEXT NOT NULL, "
+                    + "`modifiedFields` INTEGER NOT NULL, "
+                    + "`editCount` INTEGER NOT NULL DEFAULT 1, "
+                    + "FOREIGN KEY(`itemId`) REFERENCES `item`(`id`) ON UPDATE CASCADE ON DELETE CASCADE )");
+            db.execSQL("INSERT INTO usage_record_new (id, itemId, type, time, modifiedFields, editCount) "
+                    + "SELECT id, itemId, type, time, modifiedFields, editCount FROM usage_record");
+            db.execSQL("DROP TABLE usage_record");
+            db.execSQL("ALTER TABLE usage_record_new RENAME TO usage_record");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_usage_record_itemId_time` "
+                    + "ON `usage_record` (`itemId`, `time`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_usage_record_type_time` "
+                    + "ON `usage_record` (`type`, `time`)");
+
+            db.execSQL("CREATE VIEW `" + Item.VIEW_NAME + "` AS " + ITEM_DETAIL_V9);
+        }
+    };
+
+    /**
+     * 10 → 11：位置支持上下级（location.parentId），新增location_closure闭包表及其维护触发器
+     * 已有位置都是顶层位置，闭包只有各自的自身行
+     */
+    static final Migration MIGRATION_10_11 = new Migration(10, 11) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE location ADD COLUMN `parentId` INTEGER "
+                    + "REFERENCES `location`(`id`) ON UPDATE NO ACTION ON DELETE SET NULL");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_location_parentId` ON `location` (`parentId`)");
+            db.execSQL("CREATE TABLE IF NOT EXISTS `location_closure` ("
+                    + "`ancestorId` INTEGER NOT NULL, `descendantId` INTEGER NOT NULL, `depth` INTEGER NOT NULL, "
+                    + "PRIMARY KEY(`ancestorId`, `descendantId`), "
+                    + "FOREIGN KEY(`ancestorId`) REFERENCES `location`(`id`) ON UPDATE CASCADE ON DELETE CASCADE , "
+                    + "FOREIGN KEY(`descendantId`) REFERENCES `location`(`id`) ON UPDATE CASCADE ON DELETE CASCADE )");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_location_closure_descendantId` "
+                    + "ON `location_closure` (`descendantId`)");
+            db.execSQL("INSERT INTO location_closure (ancestorId, descendantId, depth) SELECT id, id, 0 FROM location");
+            LocationClosure.createTriggers(db);
+        }
+    };
+
+    /**
+     * 11 → 12：分类改为任意层级的树（category.parentId + 物化路径path/fullName），取消sub_category表
+     * 原子分类转为其分类的下级分类，新ID = 原分类最大ID + 子分类ID；物品的分类改指向最末一级分类
+     */
+    static final Migration MIGRATION_11_12 = new Migration(11, 12) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            long base;
+            try (Cursor cursor = db.query("SELECT IFNULL(MAX(id), 0) FROM category")) {
+                cursor.moveToFirst();
+                base = cursor.getLong(0);
+            }
+            // 视图引用了category/sub_category，重建期间先移除
+            db.execSQL("DROP VIEW IF EXISTS `" + Item.VIEW_NAME + "`");
+
+            // 1. 分类表：原分类为顶层，原子分类挂到其下
+            db.execSQL("CREATE TABLE IF NOT EXISTS `category_new` ("
+                    + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `name` TEXT NOT NULL, `parentId` INTEGER, "
+                    + "`path` TEXT NOT NULL, `fullName` TEXT NOT NULL, "
+                    + "FOREIGN KEY(`parentId`) REFERENCES `category`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+            db.execSQL("INSERT INTO category_new (id, name, parentId, path, fullName) "
+                    + "SELECT id, name, NULL, '/' || id || '/', name FROM category");
+            db.execSQL("INSERT INTO category_new (id, name, parentId, path, fullName) "
+                    + "SELECT " + base + " + s.id, s.name, s.categoryId, "
+                    + "'/' || s.categoryId || '/' || (" + base + " + s.id) || '/', "
+                    + "c.name || '" + Category.PATH_SEPARATOR + "' || s.name "
+                    + "FROM sub_category s JOIN category c ON c.id = s.categoryId");
+            db.execSQL("DROP TABLE category");
+            db.execSQL("ALTER TABLE category_new RENAME TO category");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_category_path` ON `category` (`path`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_category_parentId_name` ON `category` (`parentId`, `name`)");
+
+            // 2. 物品表去掉subCategoryId，分类指向最末一级
+            db.execSQL("CREATE TABLE IF NOT EXISTS `item_new` ("
+                    + "`id` TEXT NOT NULL, `name` TEXT NOT NULL, `categoryId` INTEGER, `locationId` INTEGER, "
+                    + "`quantity` INTEGER NOT NULL, `expiryDate` TEXT, `description` TEXT, `imagePaths` TEXT, "
+                    + "`createTime` TEXT NOT NULL, `updateTime` TEXT NOT NULL, `nameSortKey` BLOB, "
+                    + "PRIMARY KEY(`id`), "
+                    + "FOREIGN KEY(`categoryId`) REFERENCES `category`(`id`) ON UPDATE CASCADE ON DELETE SET NULL , "
+                    + "FOREIGN KEY(`locationId`) REFERENCES `location`(`id`) ON UPDATE CASCADE ON DELETE SET NULL )");
+            db.execSQL("INSERT INTO item_new (id, name, categoryId, locationId, quantity, expiryDate, "
+                    + "description, imagePaths, createTime, updateTime, nameSortKey) "
+                    + "SELECT id, name, CASE WHEN subCategoryId IS NULL THEN categoryId "
+                    + "ELSE " + base + " + subCategoryId END, locationId, quantity, expiryDate, "
+                    + "description, imagePaths, createTime, updateTime, nameSortKey FROM item");
+            db.execSQL("DROP TABLE item");
+            db.execSQL("ALTER TABLE item_new RENAME TO item");
+            db.execSQL("DROP TABLE sub_category");
+
+            // 3. 索引、视图、触发器与汇总
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_expiryDate_id` ON `item` (`expiryDate`, `id`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_createTime_id` ON `item` (`createTime`, `id`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_categoryId_createTime_id` "
+                    + "ON `item` (`categoryId`, `createTime`, `id`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_locationId_createTime_id` "
+                    + "ON `item` (`locationId`, `createTime`, `id`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_nameSortKey_id` ON `item` (`nameSortKey`, `id`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_quantity_id` ON `item` (`quantity`, `id`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_updateTime_id` ON `item` (`updateTime`, `id`)");
+            db.execSQL("CREATE VIEW `" + Item.VIEW_NAME + "` AS " + Item.VIEW_QUERY);
+            ItemStat.rebuild(db);
+            ItemStat.createTriggers(db);
+            ItemSearchKey.createTriggers(db);
+            CategoryTriggers.create(db);
+        }
+    };
+
+    /**
+     * 12 → 13：新增item_lot批次表，物品的数量与有效期改由批次触发器维护
+     * 已有物品各补建一个批次（数量、有效期取自物品行），补建完成后再创建触发器，物品行不变
+     */
+    static final Migration MIGRATION_12_13 = new Migration(12, 13) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `item_lot` ("
+                    + "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `itemId` TEXT NOT NULL, "
+                    + "`quantity` INTEGER NOT NULL, `expiryEpochDay` INTEGER, `receivedTime` TEXT NOT NULL, "
+                    + "FOREIGN KEY(`itemId`) REFERENCES `item`(`id`) ON UPDATE CASCADE ON DELETE CASCADE )");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_lot_itemId_expiryEpochDay` "
+                    + "ON `item_lot` (`itemId`, `expiryEpochDay`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_lot_expiryEpochDay` ON `item_lot` (`expiryEpochDay`)");
+            ItemLot.backfill(db);
+            ItemLot.createTriggers(db);
+        }
+    };
+
+    /**
+     * 13 → 14：item_lot新增notifiedStage列（临期/过期提醒进度），按 (notifiedStage, expiryEpochDay) 索引
+     */
+    static final Migration MIGRATION_13_14 = new Migration(13, 14) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE item_lot ADD COLUMN `notifiedStage` INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_item_lot_notifiedStage_expiryEpochDay` "
+                    + "ON `item_lot` (`notifiedStage`, `expiryEpochDay`)");
+        }
+    };
+
+    // 物品增加条码列（可空，唯一索引允许多个空值）；item_detail视图按item.*读取，无需重建
+    static final Migration MIGRATION_14_15 = new Migration(14, 15) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE item ADD COLUMN `barcode` TEXT");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_item_barcode` ON `item` (`barcode`)");
+        }
+    };
+
+    // 按版本4的item表重建item_stat并创建维护触发器（8 → 9重建item表后改用ItemStat的当前实现）
+    private static void createItemStatV4(SupportSQLiteDatabase db) {
+        db.execSQL("DELETE FROM item_stat");
+        StringBuilder add = new StringBuilder();
+        StringBuilder remove = new StringBuilder();
+        for (int dimension = 0; dimension < ITEM_STAT_KEYS_V4.length; dimension++) {
+            String key = String.format(ITEM_STAT_KEYS_V4[dimension], "item");
+            db.execSQL("INSERT INTO item_stat (dimension, statKey, itemCount, totalQuantity) "
+                    + "SELECT " + dimension + ", " + key + ", COUNT(*), IFNULL(SUM(quantity), 0) FROM item"
+                    + (dimension == 0 ? "" : " GROUP BY " + key));
+
+            String newKey = String.format(ITEM_STAT_KEYS_V4[dimension], "NEW");
+            String oldKey = String.format(ITEM_STAT_KEYS_V4[dimension], "OLD");
+            add.append("INSERT OR IGNORE INTO item_stat (dimension, statKey, itemCount, totalQuantity) VALUES (")
+                    .append(dimension).append(", ").append(newKey).append(", 0, 0); ")
+                    .append("UPDATE item_stat SET itemCount = itemCount + 1, totalQuantity = totalQuantity + ")
+                    .append("NEW.quantity WHERE dimension = ").append(dimension)
+                    .append(" AND statKey = ").append(newKey).append("; ");
+            remove.append("UPDATE item_stat SET itemCount = itemCount - 1, totalQuantity = totalQuantity - ")
+                    .append("OLD.quantity WHERE dimension = ").append(dimension)
+                    .append(" AND statKey = ").append(oldKey).append("; ");
+            if (dimension != 0) {
+                remove.append("DELETE FROM item_stat WHERE dimension = ").append(dimension)
+                        .append(" AND statKey = ").append(oldKey).append(" AND itemCount <= 0; ");
+            }
+        }
+        db.execSQL("DROP TRIGGER IF EXISTS item_stat_after_insert");
+        db.execSQL("DROP TRIGGER IF EXISTS item_stat_after_delete");
+        db.execSQL("DROP TRIGGER IF EXISTS item_stat_after_update");
+        db.execSQL("CREATE TRIGGER item_stat_after_insert AFTER INSERT ON item BEGIN " + add + " END");
+        db.execSQL("CREATE TRIGGER item_stat_after_delete AFTER DELETE ON item BEGIN " + remove + " END");
+        db.execSQL("CREATE TRIGGER item_stat_after_update "
+                + "AFTER UPDATE OF category, location, expiryDate, quantity ON item BEGIN "
+                + remove + add + " END");
+    }
+
+    // 旧记录的字段列表（以“、”分隔，兼容逗号）中有指定字段名时返回对应位，否则为0；
+    // 按完整字段名匹配，“子分类”不会被当作“分类”
+    private static String fieldBitSql(String label, int bit) {
+        return "(CASE WHEN instr('、' || replace(replace(IFNULL(modifiedFields, ''), '，', '、'), ',', '、') || '、', "
+                + "'、" + label + "、') > 0 THEN " + bit + " ELSE 0 END)";
+    }
+}
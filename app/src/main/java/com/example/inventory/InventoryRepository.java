@@ -1,41 +1,87 @@
 package com.example.inventory;
 
 import android.app.Application;
+import android.database.sqlite.SQLiteConstraintException;
 import android.os.AsyncTask;
+import android.util.Log;
 
 import androidx.lifecycle.LiveData;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
  * 数据仓库：封装所有数据库操作，提供统一API给ViewModel
+ * 进程内单例：各页面共享同一组LiveData，多个页面观察同一数据时只执行一次查询
+ * 写操作统一经由AsyncTask的串行队列执行
  */
 public class InventoryRepository {
+    private static final String TAG = "InventoryRepository";
+    private static volatile InventoryRepository sInstance;
+
+    private InventoryDatabase database;
     // DAO实例（移除重复定义的mItemDao，统一使用itemDao）
     private ItemDao itemDao;
     private CategoryDao categoryDao;
-    private SubCategoryDao subCategoryDao;
     private LocationDao locationDao;
     private UsageRecordDao usageRecordDao;
+    private ItemStatDao itemStatDao;
+    private ItemSearchKeyDao itemSearchKeyDao;
+    private ItemLotDao itemLotDao;
+    // 写入物品前把分类/子分类/位置名称解析为外键ID
+    private ItemReferences itemReferences;
 
-    // 全局可用的LiveData（如所有分类、所有位置）
+    // 全局共享的LiveData（如所有分类、所有位置、库存汇总）
     private LiveData<List<Category>> allCategories;
     private LiveData<List<Location>> allLocations;
+    private LiveData<List<LocationNode>> locationTree;
+    private LiveData<ItemStat> inventoryTotal;
+    private LiveData<Integer> expiredCount;
+    // 带参数的共享LiveData（按参数缓存，仅主线程访问）
+    private final Map<Integer, LiveData<List<ItemStat>>> statsByDimension = new HashMap<>();
+    private final Map<Integer, LiveData<Integer>> expiringCounts = new HashMap<>();
+    // 有效期统计的查询参数依赖当天日期，跨天后重新创建
+    private String expiryCacheDay;
 
-    // 构造函数：初始化数据库和DAO（核心：仅保留一个构造方法，基于Application）
-    public InventoryRepository(Application application) {
+    /**
+     * 获取进程内唯一的仓库实例
+     */
+    public static InventoryRepository getInstance(Application application) {
+        if (sInstance == null) {
+            synchronized (InventoryRepository.class) {
+                if (sInstance == null) {
+                    sInstance = new InventoryRepository(application);
+                }
+            }
+        }
+        return sInstance;
+    }
+
+    // 构造函数：初始化数据库和DAO（通过getInstance获取单例）
+    private InventoryRepository(Application application) {
         // 获取Room数据库实例（适配你的InventoryDatabase）
-        InventoryDatabase database = InventoryDatabase.getInstance(application);
+        database = InventoryDatabase.getInstance(application);
         // 初始化所有DAO
         itemDao = database.itemDao();
         categoryDao = database.categoryDao();
-        subCategoryDao = database.subCategoryDao();
         locationDao = database.locationDao();
         usageRecordDao = database.usageRecordDao();
+        itemStatDao = database.itemStatDao();
+        itemSearchKeyDao = database.itemSearchKeyDao();
+        itemLotDao = database.itemLotDao();
+        itemReferences = new ItemReferences(categoryDao, locationDao);
         // 初始化全局LiveData
         allCategories = categoryDao.getAllCategories();
         allLocations = locationDao.getAllLocations();
+        locationTree = locationDao.getLocationTree();
+        inventoryTotal = itemStatDao.getTotal();
+        // 后台执行使用记录保留策略（每天最多一次）
+        UsageRecordRetention.scheduleIfDue(application);
+        // 后台补齐已有物品的拼音检索键（仅升级后首次）
+        SearchKeyBackfill.scheduleIfNeeded(application);
     }
 
     // ==================== 物品核心操作（适配编辑/新增/删除） ====================
@@ -47,11 +93,13 @@ public class InventoryRepository {
         // 生成UUID作为物品ID
         item.setId(UUID.randomUUID().toString());
         // 生成当前时间（统一格式）
-        String currentTime = new java.text.SimpleDateFormat("yyyy.MM.dd HH:mm", java.util.Locale.getDefault()).format(System.currentTimeMillis());
+        String currentTime = InventoryTime.formatRecordTime(System.currentTimeMillis());
         item.setCreateTime(currentTime);
         item.setUpdateTime(currentTime);
+        NameSortKey.fill(item);
         // 异步插入物品 + 记录
-        new InsertItemAsyncTask(itemDao, usageRecordDao).execute(item, currentTime);
+        new InsertItemAsyncTask(database, itemDao, usageRecordDao, itemSearchKeyDao, itemLotDao, itemReferences)
+                .execute(item, currentTime);
     }
 
     /**
@@ -60,10 +108,12 @@ public class InventoryRepository {
      */
     public void updateItem(Item item) {
         // 更新修改时间
-        String updateTime = new java.text.SimpleDateFormat("yyyy.MM.dd HH:mm", java.util.Locale.getDefault()).format(System.currentTimeMillis());
+        String updateTime = InventoryTime.formatRecordTime(System.currentTimeMillis());
         item.setUpdateTime(updateTime);
-        // 异步更新物品 + 记录（默认修改字段为“全部”，可根据实际需求调整）
-        new UpdateItemAsyncTask(itemDao, usageRecordDao).execute(item, updateTime, "名称、分类、位置、数量、有效期、描述");
+        NameSortKey.fill(item);
+        // 异步更新物品 + 记录（修改字段在子线程中与原数据对比得出）
+        new UpdateItemAsyncTask(database, itemDao, usageRecordDao, itemSearchKeyDao, itemLotDao, itemReferences)
+                .execute(item, updateTime);
     }
 
     /**
@@ -71,7 +121,7 @@ public class InventoryRepository {
      * @param item 待删除的物品对象
      */
     public void deleteItem(Item item) {
-        new DeleteItemAsyncTask(itemDao, usageRecordDao).execute(item);
+        new DeleteItemAsyncTask(itemDao).execute(item);
     }
 
     /**
@@ -83,6 +133,75 @@ public class InventoryRepository {
         return itemDao.getItemById(itemId);
     }
 
+    // ==================== 批次（入库/先进先出消耗） ====================
+    /**
+     * 新批次入库（物品数量与最近有效期由触发器同步）
+     */
+    public void receiveLot(ItemLot lot) {
+        lot.setReceivedTime(InventoryTime.formatRecordTime(System.currentTimeMillis()));
+        new ReceiveLotAsyncTask(database, itemDao, itemLotDao, usageRecordDao).execute(lot);
+    }
+
+    /**
+     * 消耗物品：从最早到期的批次开始扣减
+     * @param amount 消耗数量（超出库存时扣完为止）
+     */
+    public void consumeItem(String itemId, int amount) {
+        String updateTime = InventoryTime.formatRecordTime(System.currentTimeMillis());
+        new ConsumeItemAsyncTask(database, itemDao, itemLotDao, usageRecordDao).execute(itemId, amount, updateTime);
+    }
+
+    // 物品的全部批次（先进先出顺序）
+    public LiveData<List<ItemLot>> getLotsByItemId(String itemId) {
+        return itemLotDao.getLotsByItemId(itemId);
+    }
+
+    // ==================== 批量操作（首页多选） ====================
+    // 每个批量操作是写队列上的一个任务、一个事务：集合式改写物品并在同一事务中写入修改记录
+
+    /**
+     * 批量移动到指定位置
+     * @param location 位置名称（空串表示清除位置，不存在时自动创建）
+     */
+    public void moveItems(List<String> itemIds, String location) {
+        String updateTime = InventoryTime.formatRecordTime(System.currentTimeMillis());
+        new MoveItemsAsyncTask(database, itemReferences).execute(itemIds, location, updateTime);
+    }
+
+    /**
+     * 批量修改分类
+     * @param category 分类名称路径（如"食品/乳制品"，空串表示未分类，不存在时自动创建）
+     */
+    public void recategorizeItems(List<String> itemIds, String category) {
+        String updateTime = InventoryTime.formatRecordTime(System.currentTimeMillis());
+        new RecategorizeItemsAsyncTask(database, itemReferences).execute(itemIds, category, updateTime);
+    }
+
+    /**
+     * 批量调整数量（正数入库到无有效期批次，负数按先进先出扣减）
+     */
+    public void adjustItemQuantities(List<String> itemIds, int delta) {
+        String updateTime = InventoryTime.formatRecordTime(System.currentTimeMillis());
+        new AdjustQuantitiesAsyncTask(database).execute(itemIds, delta, updateTime);
+    }
+
+    /**
+     * 批量删除物品
+     */
+    public void deleteItems(List<String> itemIds) {
+        new DeleteItemsAsyncTask(database).execute(itemIds);
+    }
+
+    // ==================== 连续扫码 ====================
+    /**
+     * 开始连续扫码会话：扫码只在内存中累加，按批在写队列上用一个事务写入批次表
+     * @param mode ScanSession.MODE_RECEIVE（入库）或MODE_CONSUME（出库）
+     * @param listener 每批写入完成的回调（在写线程回调，可为空）
+     */
+    public ScanSession startScanSession(int mode, ScanSession.Listener listener) {
+        return new ScanSession(database, mode, listener, AsyncTask.SERIAL_EXECUTOR);
+    }
+
     // ==================== 物品扩展操作（分页/搜索/过期查询） ====================
     /**
      * 分页查询所有物品
@@ -95,16 +214,36 @@ public class InventoryRepository {
     }
 
     /**
-     * 模糊搜索物品（按名称）
+     * 搜索物品（按名称）
+     * 纯ASCII关键词（如"nn"、"niunai"）按拼音全拼/首字母前缀匹配检索键（主键范围扫描），
+     * 并合并名称子串匹配的结果（如"ml"匹配"蒙牛纯牛奶 500ml"）；
+     * 含汉字的关键词（或检索键尚未回填完成时）只按名称子串模糊匹配
      * @param keyword 搜索关键词
      * @param pageSize 每页数量
      * @param offset 偏移量
      * @return 匹配的物品列表
      */
     public LiveData<List<Item>> searchItemsByName(String keyword, int pageSize, int offset) {
+        String prefix = PinyinKeys.normalizeQuery(keyword);
+        if (prefix != null && SearchKeyBackfill.isDone()) {
+            return itemDao.searchItemsByKeyOrName(prefix, PinyinKeys.upperBound(prefix), keyword.trim(),
+                    pageSize, offset);
+        }
         return itemDao.searchItemsByName("%" + keyword + "%", pageSize, offset);
     }
 
+    /**
+     * 名称输入联想索引（首次调用时在写队列上加载，加载完成前查询结果为空）
+     */
+    public NameSuggestionIndex getNameSuggestions() {
+        NameSuggestionIndex index = NameSuggestionIndex.getInstance();
+        int generation = index.beginLoad();
+        if (generation != NameSuggestionIndex.NO_LOAD) {
+            new LoadNameSuggestionsAsyncTask(itemDao, categoryDao, locationDao, generation).execute();
+        }
+        return index;
+    }
+
     /**
      * 查询临期物品
      * @param days 临期天数（如7天内）
@@ -126,11 +265,104 @@ public class InventoryRepository {
         return itemDao.getExpiredItems(pageSize, offset);
     }
 
+    /**
+     * 按指定排序方式分页查询所有物品（键集分页，每种排序都有对应索引）
+     * @param sort ItemFilter.SORT_*
+     * @param lastItem 上一页的最后一个物品（为空时查询第一页）
+     * @param pageSize 每页数量
+     */
+    public LiveData<List<Item>> getItemsSorted(int sort, Item lastItem, int pageSize) {
+        return filterItems(new ItemFilter().sortBy(sort), lastItem, pageSize);
+    }
+
+    /**
+     * 组合筛选物品（键集分页）
+     * @param filter 筛选/排序条件
+     * @param lastItem 上一页的最后一个物品（为空时查询第一页）
+     * @param pageSize 每页数量
+     */
+    public LiveData<List<Item>> filterItems(ItemFilter filter, Item lastItem, int pageSize) {
+        return itemDao.filterItems(filter.toQuery(lastItem, pageSize, System.currentTimeMillis()));
+    }
+
+    /**
+     * 组合筛选物品中一页的键集范围（窗口化列表重新载入/观察已加载的页）
+     * @param lastItem 上一页的最后一个物品（不含，为空时从第一条开始）
+     * @param upTo 本页的最后一个物品（含）
+     */
+    public LiveData<List<Item>> filterItemsInRange(ItemFilter filter, Item lastItem, Item upTo) {
+        return itemDao.filterItems(filter.toQuery(lastItem, upTo, 0, System.currentTimeMillis()));
+    }
+
+    // ==================== 库存汇总（触发器维护，单行/少量行读取） ====================
+    /**
+     * 全部物品的条数与数量合计
+     */
+    public LiveData<ItemStat> getInventoryTotal() {
+        return inventoryTotal;
+    }
+
+    /**
+     * 某一维度下各分组的统计
+     * @param dimension ItemStat.DIM_CATEGORY / DIM_LOCATION / DIM_EXPIRY_DATE
+     */
+    public LiveData<List<ItemStat>> getStatsByDimension(int dimension) {
+        LiveData<List<ItemStat>> stats = statsByDimension.get(dimension);
+        if (stats == null) {
+            stats = itemStatDao.getStatsByDimension(dimension);
+            statsByDimension.put(dimension, stats);
+        }
+        return stats;
+    }
+
+    /**
+     * 临期物品条数（有效期不晚于days天后，含已过期，与getExpiringItems及ItemFilter.expiringWithinDays一致）
+     */
+    public LiveData<Integer> getExpiringCount(int days) {
+        resetExpiryCachesIfDayChanged();
+        LiveData<Integer> count = expiringCounts.get(days);
+        if (count == null) {
+            count = itemStatDao.countExpiryUpTo(expiryDateAfterDays(days));
+            expiringCounts.put(days, count);
+        }
+        return count;
+    }
+
+    /**
+     * 过期物品条数（有效期早于今天）
+     */
+    public LiveData<Integer> getExpiredCount() {
+        resetExpiryCachesIfDayChanged();
+        if (expiredCount == null) {
+            expiredCount = itemStatDao.countExpiryBefore(expiryCacheDay);
+        }
+        return expiredCount;
+    }
+
+    private void resetExpiryCachesIfDayChanged() {
+        String today = expiryDateAfterDays(0);
+        if (!today.equals(expiryCacheDay)) {
+            expiryCacheDay = today;
+            expiringCounts.clear();
+            expiredCount = null;
+        }
+    }
+
+    // days天后的日期（与Item.expiryDate格式一致：yyyy-MM-dd）
+    private static String expiryDateAfterDays(int days) {
+        java.util.Calendar calendar = java.util.Calendar.getInstance();
+        calendar.add(java.util.Calendar.DAY_OF_MONTH, days);
+        return InventoryTime.formatExpiryDate(calendar.getTimeInMillis());
+    }
+
     // ==================== 分类相关操作 ====================
     public void insertCategory(Category category) {
         new InsertCategoryAsyncTask(categoryDao).execute(category);
     }
 
+    /**
+     * 修改分类的名称与上级分类（改名/移动只改写该分类子树内的分类行，物品通过外键关联读取新名称）
+     */
     public void updateCategory(Category category) {
         new UpdateCategoryAsyncTask(categoryDao).execute(category);
     }
@@ -145,28 +377,18 @@ public class InventoryRepository {
 
     public Category getCategoryByName(String name) {
         // 同步查询需在子线程执行（此处仅返回DAO结果，ViewModel层需处理线程）
+        MainThreadGuard.assertNotMainThread("InventoryRepository.getCategoryByName");
         return categoryDao.getCategoryByName(name);
     }
 
-    // ==================== 子分类相关操作 ====================
-    public void insertSubCategory(SubCategory subCategory) {
-        new InsertSubCategoryAsyncTask(subCategoryDao).execute(subCategory);
+    // 直接下级分类
+    public LiveData<List<Category>> getChildCategories(long parentId) {
+        return categoryDao.getChildren(parentId);
     }
 
-    public void updateSubCategory(SubCategory subCategory) {
-        new UpdateSubCategoryAsyncTask(subCategoryDao).execute(subCategory);
-    }
-
-    public void deleteSubCategory(SubCategory subCategory) {
-        new DeleteSubCategoryAsyncTask(subCategoryDao).execute(subCategory);
-    }
-
-    public LiveData<List<SubCategory>> getSubCategoriesByCategoryId(long categoryId) {
-        return subCategoryDao.getSubCategoriesByCategoryId(categoryId);
-    }
-
-    public SubCategory getSubCategoryByName(long categoryId, String name) {
-        return subCategoryDao.getSubCategoryByName(categoryId, name);
+    // 分类及其全部下级分类中的物品（分页）
+    public LiveData<List<Item>> getItemsUnderCategory(long categoryId, int pageSize, int offset) {
+        return itemDao.getItemsUnderCategory(categoryId, pageSize, offset);
     }
 
     // ==================== 位置相关操作 ====================
@@ -187,181 +409,474 @@ public class InventoryRepository {
     }
 
     public Location getLocationByName(String name) {
+        MainThreadGuard.assertNotMainThread("InventoryRepository.getLocationByName");
         return locationDao.getLocationByName(name);
     }
 
+    /**
+     * 移动位置（连同其下所有位置）到新的上级位置下
+     * @param parentId 新的上级位置ID，为空时移到顶层；不能是该位置自身或其下级位置
+     */
+    public void moveLocation(long locationId, Long parentId) {
+        new MoveLocationAsyncTask(locationDao).execute(locationId, parentId);
+    }
+
+    // 位置树及各位置（含下级位置）的物品汇总
+    public LiveData<List<LocationNode>> getLocationTree() {
+        return locationTree;
+    }
+
+    // 位置及其全部下级位置中的物品（分页）
+    public LiveData<List<Item>> getItemsUnderLocation(long locationId, int pageSize, int offset) {
+        return itemDao.getItemsUnderLocation(locationId, pageSize, offset);
+    }
+
     // ==================== 使用记录相关操作 ====================
     public LiveData<List<UsageRecord>> getRecordsByItemId(String itemId) {
         return usageRecordDao.getRecordsByItemId(itemId);
     }
 
+    /**
+     * 键集分页查询物品的使用记录（按时间倒序）
+     * @param itemId 物品ID
+     * @param lastRecord 上一页的最后一条记录（为空时查询第一页）
+     * @param pageSize 每页数量
+     */
+    public LiveData<List<UsageRecord>> getRecordsPage(String itemId, UsageRecord lastRecord, int pageSize) {
+        if (lastRecord == null) {
+            return usageRecordDao.getRecordsFirstPage(itemId, pageSize);
+        }
+        return usageRecordDao.getRecordsPageBefore(itemId, lastRecord.getTime(), lastRecord.getId(), pageSize);
+    }
+
+    /**
+     * 按修改字段查询记录
+     * @param fieldMask UsageRecord.FIELD_*的按位或（如FIELD_QUANTITY查询所有数量变更）
+     */
+    public LiveData<List<UsageRecord>> getRecordsByModifiedFields(int fieldMask) {
+        return usageRecordDao.getRecordsByModifiedFields(fieldMask);
+    }
+
     // ==================== 异步任务类（AsyncTask，兼容所有操作） ====================
-    // 插入物品 + 插入创建记录
-    private static class InsertItemAsyncTask extends AsyncTask<Object, Void, Void> {
+    // 写操作异步任务基类：统一统计写队列深度、排队等待与写入耗时（DbMetrics开启时）
+    private abstract static class WriteTask<Params> extends AsyncTask<Params, Void, Void> {
+        // 入队时间（onPreExecute在提交到写队列前于主线程调用）
+        private long enqueuedNanos;
+
+        @Override
+        protected void onPreExecute() {
+            enqueuedNanos = DbMetrics.onWriteEnqueued();
+        }
+
+        @SafeVarargs
+        @Override
+        protected final Void doInBackground(Params... params) {
+            long start = DbMetrics.onWriteStarted(enqueuedNanos);
+            try {
+                write(params);
+            } finally {
+                DbMetrics.onWriteFinished(start);
+            }
+            return null;
+        }
+
+        // 在后台线程执行的写操作
+        protected abstract void write(Params[] params);
+    }
+
+    // 分类/位置变化后刷新输入联想索引中的名称（索引未加载时跳过）
+    private static void refreshSuggestionNames(int type, List<String> names) {
+        NameSuggestionIndex index = NameSuggestionIndex.getInstance();
+        if (index.isLoaded()) {
+            index.replaceAll(type, names);
+        }
+    }
+
+    // 加载输入联想索引：与写任务在同一串行队列执行，加载前的写入已落库，之后的写入增量更新
+    private static class LoadNameSuggestionsAsyncTask extends AsyncTask<Void, Void, Void> {
         private ItemDao itemDao;
-        private UsageRecordDao usageRecordDao;
+        private CategoryDao categoryDao;
+        private LocationDao locationDao;
+        private int generation;
+
+        public LoadNameSuggestionsAsyncTask(ItemDao itemDao, CategoryDao categoryDao, LocationDao locationDao,
+                                            int generation) {
+            this.itemDao = itemDao;
+            this.categoryDao = categoryDao;
+            this.locationDao = locationDao;
+            this.generation = generation;
+        }
+
+        @Override
+        protected Void doInBackground(Void... voids) {
+            NameSuggestionIndex.getInstance().finishLoad(generation, itemDao.getNameCountsSync(),
+                    categoryDao.getAllNamesSync(), locationDao.getAllNamesSync());
+            return null;
+        }
+    }
 
-        public InsertItemAsyncTask(ItemDao itemDao, UsageRecordDao usageRecordDao) {
+    // 插入物品 + 插入创建记录（物品、批次、检索键与创建记录在同一事务内写入）
+    private static class InsertItemAsyncTask extends WriteTask<Object> {
+        private InventoryDatabase database;
+        private ItemDao itemDao;
+        private UsageRecordDao usageRecordDao;
+        private ItemSearchKeyDao itemSearchKeyDao;
+        private ItemLotDao itemLotDao;
+        private ItemReferences itemReferences;
+
+        public InsertItemAsyncTask(InventoryDatabase database, ItemDao itemDao, UsageRecordDao usageRecordDao,
+                                   ItemSearchKeyDao itemSearchKeyDao, ItemLotDao itemLotDao,
+                                   ItemReferences itemReferences) {
+            this.database = database;
             this.itemDao = itemDao;
             this.usageRecordDao = usageRecordDao;
+            this.itemSearchKeyDao = itemSearchKeyDao;
+            this.itemLotDao = itemLotDao;
+            this.itemReferences = itemReferences;
         }
 
         @Override
-        protected Void doInBackground(Object... objects) {
+        protected void write(Object[] objects) {
             Item item = (Item) objects[0];
             String createTime = (String) objects[1];
-            // 插入物品
-            itemDao.insert(item);
-            // 插入创建记录
-            UsageRecord record = new UsageRecord(
-                    item.getId(),
-                    "create",
-                    createTime,
-                    "" // 创建记录无修改字段
-            );
-            usageRecordDao.insert(record);
-            return null;
+            ItemLot lot = ItemLot.from(item, createTime);
+            database.runInTransaction(() -> {
+                // 插入物品（分类/位置名称解析为外键ID），数量与有效期随后由首个批次写入
+                itemReferences.resolve(item);
+                ItemRecord itemRecord = ItemRecord.from(item);
+                itemRecord.setQuantity(0);
+                itemRecord.setExpiryDate("");
+                dropTakenBarcode(itemDao, itemRecord);
+                itemDao.insertRecord(itemRecord);
+                itemLotDao.replaceAll(item.getId(), lot);
+                // 生成拼音检索键
+                itemSearchKeyDao.replaceKeys(Collections.singletonList(item));
+                // 插入创建记录
+                UsageRecord record = new UsageRecord(
+                        item.getId(),
+                        UsageRecord.TYPE_CREATE,
+                        createTime,
+                        0 // 创建记录无修改字段
+                );
+                usageRecordDao.insert(record);
+            });
+            // 提交后再更新内存索引与提醒
+            ExpiryReminderScheduler.onLotWritten(lot.getExpiryEpochDay());
+            NameSuggestionIndex.getInstance().onItemNameChanged(null, item.getName());
         }
     }
 
-    // 更新物品 + 插入修改记录
-    private static class UpdateItemAsyncTask extends AsyncTask<Object, Void, Void> {
+    // 更新物品 + 插入修改记录（同一事务内写入）
+    private static class UpdateItemAsyncTask extends WriteTask<Object> {
+        private InventoryDatabase database;
         private ItemDao itemDao;
         private UsageRecordDao usageRecordDao;
-
-        public UpdateItemAsyncTask(ItemDao itemDao, UsageRecordDao usageRecordDao) {
+        private ItemSearchKeyDao itemSearchKeyDao;
+        private ItemLotDao itemLotDao;
+        private ItemReferences itemReferences;
+
+        public UpdateItemAsyncTask(InventoryDatabase database, ItemDao itemDao, UsageRecordDao usageRecordDao,
+                                   ItemSearchKeyDao itemSearchKeyDao, ItemLotDao itemLotDao,
+                                   ItemReferences itemReferences) {
+            this.database = database;
             this.itemDao = itemDao;
             this.usageRecordDao = usageRecordDao;
+            this.itemSearchKeyDao = itemSearchKeyDao;
+            this.itemLotDao = itemLotDao;
+            this.itemReferences = itemReferences;
         }
 
         @Override
-        protected Void doInBackground(Object... objects) {
+        protected void write(Object[] objects) {
             Item newItem = (Item) objects[0];
             String updateTime = (String) objects[1];
-            String modifiedFields = (String) objects[2];
-            // 更新物品
-            itemDao.update(newItem);
-            // 插入修改记录
-            UsageRecord record = new UsageRecord(
-                    newItem.getId(),
-                    "update",
-                    updateTime,
-                    modifiedFields
-            );
-            usageRecordDao.insert(record);
-            return null;
+            Item oldItem = database.runInTransaction(() -> update(newItem, updateTime));
+            if (oldItem != null) {
+                NameSuggestionIndex.getInstance().onItemNameChanged(oldItem.getName(), newItem.getName());
+            }
+        }
+
+        // 在事务内执行，返回修改前的物品（不存在时为null）
+        private Item update(Item newItem, String updateTime) {
+            // 与数据库中的原数据对比，得出修改字段位掩码
+            Item oldItem = itemDao.getItemByIdSync(newItem.getId());
+            int modifiedFields = UsageRecord.diffFields(oldItem, newItem);
+            // 更新物品（分类/位置名称解析为外键ID），数量与有效期保持批次汇总的值
+            itemReferences.resolve(newItem);
+            ItemRecord itemRecord = ItemRecord.from(newItem);
+            if (oldItem != null) {
+                itemRecord.setQuantity(oldItem.getQuantity());
+                itemRecord.setExpiryDate(oldItem.getExpiryDate());
+            }
+            if (dropTakenBarcode(itemDao, itemRecord)) {
+                newItem.setBarcode(oldItem == null ? null : oldItem.getBarcode());
+                itemRecord.setBarcode(Barcodes.normalize(newItem.getBarcode()));
+                modifiedFields &= ~UsageRecord.FIELD_BARCODE;
+            }
+            itemDao.updateRecord(itemRecord);
+            // 表单直接改了数量或有效期：按表单值重置为一个批次
+            if ((modifiedFields & (UsageRecord.FIELD_QUANTITY | UsageRecord.FIELD_EXPIRY_DATE)) != 0) {
+                ItemLot lot = ItemLot.from(newItem, updateTime);
+                itemLotDao.replaceAll(newItem.getId(), lot);
+                ExpiryReminderScheduler.onLotWritten(lot.getExpiryEpochDay());
+            }
+            // 名称变化时重新生成拼音检索键
+            if ((modifiedFields & UsageRecord.FIELD_NAME) != 0) {
+                itemSearchKeyDao.replaceKeys(Collections.singletonList(newItem));
+            }
+            // 无实际修改时不插入记录
+            if (modifiedFields != 0) {
+                // 插入修改记录
+                UsageRecord record = new UsageRecord(
+                        newItem.getId(),
+                        UsageRecord.TYPE_UPDATE,
+                        updateTime,
+                        modifiedFields
+                );
+                usageRecordDao.insert(record);
+            }
+            return oldItem;
         }
     }
 
-    // 删除物品 + 删除关联记录
-    private static class DeleteItemAsyncTask extends AsyncTask<Item, Void, Void> {
+    // 删除物品（使用记录、检索键由数据库在同一语句中级联清理）
+    private static class DeleteItemAsyncTask extends WriteTask<Item> {
         private ItemDao itemDao;
-        private UsageRecordDao usageRecordDao;
 
-        public DeleteItemAsyncTask(ItemDao itemDao, UsageRecordDao usageRecordDao) {
+        public DeleteItemAsyncTask(ItemDao itemDao) {
             this.itemDao = itemDao;
-            this.usageRecordDao = usageRecordDao;
         }
 
         @Override
-        protected Void doInBackground(Item... items) {
+        protected void write(Item[] items) {
             Item item = items[0];
-            // 删除物品
             itemDao.delete(item);
-            // 删除关联的使用记录
-            usageRecordDao.deleteRecordsByItemId(item.getId());
-            return null;
+            NameSuggestionIndex.getInstance().onItemNameChanged(item.getName(), null);
         }
     }
 
-    // 分类异步任务（插入/更新/删除）
-    private static class InsertCategoryAsyncTask extends AsyncTask<Category, Void, Void> {
-        private CategoryDao categoryDao;
+    // 批量移动位置（位置名称在写线程中解析）
+    private static class MoveItemsAsyncTask extends WriteTask<Object> {
+        private InventoryDatabase database;
+        private ItemReferences itemReferences;
 
-        public InsertCategoryAsyncTask(CategoryDao categoryDao) {
-            this.categoryDao = categoryDao;
+        public MoveItemsAsyncTask(InventoryDatabase database, ItemReferences itemReferences) {
+            this.database = database;
+            this.itemReferences = itemReferences;
         }
 
         @Override
-        protected Void doInBackground(Category... categories) {
-            categoryDao.insert(categories[0]);
-            return null;
+        @SuppressWarnings("unchecked")
+        protected void write(Object[] objects) {
+            List<String> itemIds = (List<String>) objects[0];
+            Long locationId = itemReferences.resolveLocation((String) objects[1]);
+            int moved = new BulkItemEditor(database).moveToLocation(itemIds, locationId, (String) objects[2]);
+            Log.d(TAG, "批量移动位置：" + moved + "/" + itemIds.size());
         }
     }
 
-    private static class UpdateCategoryAsyncTask extends AsyncTask<Category, Void, Void> {
-        private CategoryDao categoryDao;
+    // 批量修改分类（分类名称路径在写线程中解析）
+    private static class RecategorizeItemsAsyncTask extends WriteTask<Object> {
+        private InventoryDatabase database;
+        private ItemReferences itemReferences;
 
-        public UpdateCategoryAsyncTask(CategoryDao categoryDao) {
-            this.categoryDao = categoryDao;
+        public RecategorizeItemsAsyncTask(InventoryDatabase database, ItemReferences itemReferences) {
+            this.database = database;
+            this.itemReferences = itemReferences;
         }
 
         @Override
-        protected Void doInBackground(Category... categories) {
-            categoryDao.update(categories[0]);
-            return null;
+        @SuppressWarnings("unchecked")
+        protected void write(Object[] objects) {
+            List<String> itemIds = (List<String>) objects[0];
+            Long categoryId = itemReferences.resolveCategory((String) objects[1]);
+            int changed = new BulkItemEditor(database).recategorize(itemIds, categoryId, (String) objects[2]);
+            Log.d(TAG, "批量修改分类：" + changed + "/" + itemIds.size());
         }
     }
 
-    private static class DeleteCategoryAsyncTask extends AsyncTask<Category, Void, Void> {
-        private CategoryDao categoryDao;
+    // 批量调整数量
+    private static class AdjustQuantitiesAsyncTask extends WriteTask<Object> {
+        private InventoryDatabase database;
 
-        public DeleteCategoryAsyncTask(CategoryDao categoryDao) {
-            this.categoryDao = categoryDao;
+        public AdjustQuantitiesAsyncTask(InventoryDatabase database) {
+            this.database = database;
         }
 
         @Override
-        protected Void doInBackground(Category... categories) {
-            categoryDao.delete(categories[0]);
-            return null;
+        @SuppressWarnings("unchecked")
+        protected void write(Object[] objects) {
+            List<String> itemIds = (List<String>) objects[0];
+            int changed = new BulkItemEditor(database).adjustQuantity(itemIds, (Integer) objects[1], (String) objects[2]);
+            Log.d(TAG, "批量调整数量：" + changed + "/" + itemIds.size());
         }
     }
 
-    // 子分类异步任务（插入/更新/删除）
-    private static class InsertSubCategoryAsyncTask extends AsyncTask<SubCategory, Void, Void> {
-        private SubCategoryDao subCategoryDao;
+    // 批量删除物品
+    private static class DeleteItemsAsyncTask extends WriteTask<List<String>> {
+        private InventoryDatabase database;
 
-        public InsertSubCategoryAsyncTask(SubCategoryDao subCategoryDao) {
-            this.subCategoryDao = subCategoryDao;
+        public DeleteItemsAsyncTask(InventoryDatabase database) {
+            this.database = database;
         }
 
         @Override
-        protected Void doInBackground(SubCategory... subCategories) {
-            subCategoryDao.insert(subCategories[0]);
-            return null;
+        protected void write(List<String>[] params) {
+            for (String name : new BulkItemEditor(database).delete(params[0])) {
+                NameSuggestionIndex.getInstance().onItemNameChanged(name, null);
+            }
         }
     }
 
-    private static class UpdateSubCategoryAsyncTask extends AsyncTask<SubCategory, Void, Void> {
-        private SubCategoryDao subCategoryDao;
+    // 批次入库 + 插入修改记录（同一事务内写入）
+    private static class ReceiveLotAsyncTask extends WriteTask<ItemLot> {
+        private InventoryDatabase database;
+        private ItemDao itemDao;
+        private ItemLotDao itemLotDao;
+        private UsageRecordDao usageRecordDao;
 
-        public UpdateSubCategoryAsyncTask(SubCategoryDao subCategoryDao) {
-            this.subCategoryDao = subCategoryDao;
+        public ReceiveLotAsyncTask(InventoryDatabase database, ItemDao itemDao, ItemLotDao itemLotDao,
+                                   UsageRecordDao usageRecordDao) {
+            this.database = database;
+            this.itemDao = itemDao;
+            this.itemLotDao = itemLotDao;
+            this.usageRecordDao = usageRecordDao;
         }
 
         @Override
-        protected Void doInBackground(SubCategory... subCategories) {
-            subCategoryDao.update(subCategories[0]);
-            return null;
+        protected void write(ItemLot[] lots) {
+            ItemLot lot = lots[0];
+            boolean received = database.runInTransaction(() -> {
+                Item oldItem = itemDao.getItemByIdSync(lot.getItemId());
+                if (oldItem == null) {
+                    return false;
+                }
+                itemLotDao.insert(lot);
+                recordStockChange(itemDao, usageRecordDao, oldItem, lot.getReceivedTime());
+                return true;
+            });
+            if (received) {
+                ExpiryReminderScheduler.onLotWritten(lot.getExpiryEpochDay());
+            }
         }
     }
 
-    private static class DeleteSubCategoryAsyncTask extends AsyncTask<SubCategory, Void, Void> {
-        private SubCategoryDao subCategoryDao;
+    // 先进先出消耗 + 插入修改记录（同一事务内写入）
+    private static class ConsumeItemAsyncTask extends WriteTask<Object> {
+        private InventoryDatabase database;
+        private ItemDao itemDao;
+        private ItemLotDao itemLotDao;
+        private UsageRecordDao usageRecordDao;
 
-        public DeleteSubCategoryAsyncTask(SubCategoryDao subCategoryDao) {
-            this.subCategoryDao = subCategoryDao;
+        public ConsumeItemAsyncTask(InventoryDatabase database, ItemDao itemDao, ItemLotDao itemLotDao,
+                                    UsageRecordDao usageRecordDao) {
+            this.database = database;
+            this.itemDao = itemDao;
+            this.itemLotDao = itemLotDao;
+            this.usageRecordDao = usageRecordDao;
         }
 
         @Override
-        protected Void doInBackground(SubCategory... subCategories) {
-            subCategoryDao.delete(subCategories[0]);
-            return null;
+        protected void write(Object[] objects) {
+            String itemId = (String) objects[0];
+            int amount = (Integer) objects[1];
+            String updateTime = (String) objects[2];
+            database.runInTransaction(() -> {
+                Item oldItem = itemDao.getItemByIdSync(itemId);
+                if (oldItem == null || itemLotDao.consume(itemId, amount) == 0) {
+                    return;
+                }
+                recordStockChange(itemDao, usageRecordDao, oldItem, updateTime);
+            });
+        }
+    }
+
+    // 条码已被其他物品使用时不写入（唯一索引会拒绝整行写入，这里提前拦下避免抛出异常）
+    private static boolean dropTakenBarcode(ItemDao itemDao, ItemRecord record) {
+        if (record.getBarcode() == null) {
+            return false;
+        }
+        String owner = itemDao.getItemIdByBarcodeSync(record.getBarcode());
+        if (owner == null || owner.equals(record.getId())) {
+            return false;
+        }
+        Log.w(TAG, "条码已被其他物品使用：" + record.getBarcode() + "（" + owner + "）");
+        record.setBarcode(null);
+        return true;
+    }
+
+    // 批次变化后：刷新物品修改时间，按数量/有效期的实际变化插入修改记录（须在批次写入的同一事务内调用）
+    private static void recordStockChange(ItemDao itemDao, UsageRecordDao usageRecordDao, Item oldItem,
+                                          String updateTime) {
+        itemDao.touch(oldItem.getId(), updateTime);
+        int modifiedFields = UsageRecord.diffFields(oldItem, itemDao.getItemByIdSync(oldItem.getId()))
+                & (UsageRecord.FIELD_QUANTITY | UsageRecord.FIELD_EXPIRY_DATE);
+        if (modifiedFields != 0) {
+            usageRecordDao.insert(new UsageRecord(oldItem.getId(), UsageRecord.TYPE_UPDATE, updateTime,
+                    modifiedFields));
+        }
+    }
+
+    // 分类异步任务（插入/更新/删除）
+    private static class InsertCategoryAsyncTask extends WriteTask<Category> {
+        private CategoryDao categoryDao;
+
+        public InsertCategoryAsyncTask(CategoryDao categoryDao) {
+            this.categoryDao = categoryDao;
+        }
+
+        @Override
+        protected void write(Category[] categories) {
+            categoryDao.insert(categories[0]);
+            refreshSuggestionNames(NameSuggestionIndex.TYPE_CATEGORY, categoryDao.getAllNamesSync());
+        }
+    }
+
+    private static class UpdateCategoryAsyncTask extends WriteTask<Category> {
+        private CategoryDao categoryDao;
+
+        public UpdateCategoryAsyncTask(CategoryDao categoryDao) {
+            this.categoryDao = categoryDao;
+        }
+
+        @Override
+        protected void write(Category[] categories) {
+            Category category = categories[0];
+            // 移到自身子树下会形成环（触发器也会拒绝，这里提前拦下避免抛出异常）
+            Category parent = category.getParentId() == null ? null : categoryDao.getCategoryById(category.getParentId());
+            Category current = categoryDao.getCategoryById(category.getId());
+            if (parent != null && current != null && parent.getPath().startsWith(current.getPath())) {
+                Log.w(TAG, "不能将分类移动到其自身或下级分类下：" + category.getId() + " → " + category.getParentId());
+                return;
+            }
+            try {
+                // 改名与移动为同一条语句，被触发器拒绝（如检查后上级分类被并发移动）时两者都不生效
+                categoryDao.renameAndMove(category.getId(), category.getName(), category.getParentId());
+            } catch (SQLiteConstraintException e) {
+                Log.w(TAG, "分类修改被拒绝：" + category.getId() + " → " + category.getParentId(), e);
+                return;
+            }
+            refreshSuggestionNames(NameSuggestionIndex.TYPE_CATEGORY, categoryDao.getAllNamesSync());
+        }
+    }
+
+    private static class DeleteCategoryAsyncTask extends WriteTask<Category> {
+        private CategoryDao categoryDao;
+
+        public DeleteCategoryAsyncTask(CategoryDao categoryDao) {
+            this.categoryDao = categoryDao;
+        }
+
+        // 下级分类随外键级联删除，物品的分类置空
+        @Override
+        protected void write(Category[] categories) {
+            categoryDao.delete(categories[0]);
+            refreshSuggestionNames(NameSuggestionIndex.TYPE_CATEGORY, categoryDao.getAllNamesSync());
         }
     }
 
     // 位置异步任务（插入/更新/删除）
-    private static class InsertLocationAsyncTask extends AsyncTask<Location, Void, Void> {
+    private static class InsertLocationAsyncTask extends WriteTask<Location> {
         private LocationDao locationDao;
 
         public InsertLocationAsyncTask(LocationDao locationDao) {
@@ -369,13 +884,13 @@ public class InventoryRepository {
         }
 
         @Override
-        protected Void doInBackground(Location... locations) {
+        protected void write(Location[] locations) {
             locationDao.insert(locations[0]);
-            return null;
+            refreshSuggestionNames(NameSuggestionIndex.TYPE_LOCATION, locationDao.getAllNamesSync());
         }
     }
 
-    private static class UpdateLocationAsyncTask extends AsyncTask<Location, Void, Void> {
+    private static class UpdateLocationAsyncTask extends WriteTask<Location> {
         private LocationDao locationDao;
 
         public UpdateLocationAsyncTask(LocationDao locationDao) {
@@ -383,23 +898,44 @@ public class InventoryRepository {
         }
 
         @Override
-        protected Void doInBackground(Location... locations) {
+        protected void write(Location[] locations) {
             locationDao.update(locations[0]);
-            return null;
+            refreshSuggestionNames(NameSuggestionIndex.TYPE_LOCATION, locationDao.getAllNamesSync());
         }
     }
 
-    private static class DeleteLocationAsyncTask extends AsyncTask<Location, Void, Void> {
+    private static class DeleteLocationAsyncTask extends WriteTask<Location> {
         private LocationDao locationDao;
 
         public DeleteLocationAsyncTask(LocationDao locationDao) {
             this.locationDao = locationDao;
         }
 
+        // 下级位置上移一层，位置中的物品位置置空
         @Override
-        protected Void doInBackground(Location... locations) {
+        protected void write(Location[] locations) {
             locationDao.delete(locations[0]);
-            return null;
+            refreshSuggestionNames(NameSuggestionIndex.TYPE_LOCATION, locationDao.getAllNamesSync());
+        }
+    }
+
+    private static class MoveLocationAsyncTask extends WriteTask<Long> {
+        private LocationDao locationDao;
+
+        public MoveLocationAsyncTask(LocationDao locationDao) {
+            this.locationDao = locationDao;
+        }
+
+        @Override
+        protected void write(Long[] params) {
+            long locationId = params[0];
+            Long parentId = params[1];
+            // 移到自身子树下会形成环（触发器也会拒绝，这里提前拦下避免抛出异常）
+            if (parentId != null && locationDao.isInSubtree(locationId, parentId)) {
+                Log.w(TAG, "不能将位置移动到其自身或下级位置下：" + locationId + " → " + parentId);
+                return;
+            }
+            locationDao.moveTo(locationId, parentId);
         }
     }
-}
\ No newline at end of file
+}
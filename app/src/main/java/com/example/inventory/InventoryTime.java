@@ -0,0 +1,60 @@
+package com.example.inventory;
+
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * 时间格式化工具（纯Java实现）
+ * 统一创建/修改/记录时间与有效期的字符串格式
+ */
+public final class InventoryTime {
+    // 创建/修改/使用记录时间格式
+    public static final String RECORD_TIME_PATTERN = "yyyy.MM.dd HH:mm";
+    // 有效期格式
+    public static final String EXPIRY_DATE_PATTERN = "yyyy-MM-dd";
+
+    // SimpleDateFormat非线程安全，每个线程各持一份，避免每次调用都新建
+    private static final ThreadLocal<SimpleDateFormat> RECORD_TIME_FORMAT =
+            ThreadLocal.withInitial(() -> new SimpleDateFormat(RECORD_TIME_PATTERN, Locale.getDefault()));
+    private static final ThreadLocal<SimpleDateFormat> EXPIRY_DATE_FORMAT =
+            ThreadLocal.withInitial(() -> new SimpleDateFormat(EXPIRY_DATE_PATTERN, Locale.getDefault()));
+
+    private InventoryTime() {}
+
+    /**
+     * 格式化为记录时间（yyyy.MM.dd HH:mm）
+     */
+    public static String formatRecordTime(long millis) {
+        return RECORD_TIME_FORMAT.get().format(millis);
+    }
+
+    /**
+     * 格式化为有效期日期（yyyy-MM-dd）
+     */
+    public static String formatExpiryDate(long millis) {
+        return EXPIRY_DATE_FORMAT.get().format(millis);
+    }
+
+    /**
+     * 有效期日期（yyyy-MM-dd）转为纪元日（1970-01-01起的天数），空值或格式错误返回null
+     */
+    public static Long toEpochDay(String expiryDate) {
+        if (expiryDate == null || expiryDate.isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(expiryDate).toEpochDay();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 纪元日格式化为有效期日期（yyyy-MM-dd）
+     */
+    public static String formatEpochDay(long epochDay) {
+        return LocalDate.ofEpochDay(epochDay).toString();
+    }
+}
@@ -6,11 +6,16 @@ import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Observer;
 
 import java.text.SimpleDateFormat;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
 
 /**
  * 视图模型：管理界面状态，提供数据给UI层
@@ -18,33 +23,60 @@ import java.util.Locale;
 public class InventoryViewModel extends AndroidViewModel {
     // 仓库实例
     private InventoryRepository mRepository;
-    private LiveData<List<Item>> mAllItems;
-
-
-    // 界面状态：物品列表（分页加载）
-    private MutableLiveData<List<Item>> itemListLiveData = new MutableLiveData<>();
+    // 首页快照（冷启动时先展示，实时数据返回后替换）
+    private FirstPageSnapshot mSnapshot;
+    private final Observer<List<Item>> mSnapshotObserver = this::onSnapshotLoaded;
+    // 当前列表是否仍为快照数据
+    private boolean showingSnapshot;
+    // 第一页实时数据是否已返回
+    private boolean firstPageLoaded;
+
+    // 界面状态：物品列表（窗口化，只保留视口附近的页）及其每次修改
+    private final ItemWindow mWindow = new ItemWindow();
+    private MutableLiveData<ItemWindow.Update> itemUpdateLiveData = new MutableLiveData<>();
     // 界面状态：加载中（true=加载中，false=加载完成）
     private MutableLiveData<Boolean> isLoadingLiveData = new MutableLiveData<>();
     // 界面状态：无数据（true=无数据，false=有数据）
     private MutableLiveData<Boolean> isEmptyLiveData = new MutableLiveData<>();
     // 分页参数
     private int pageSize = 20; // 每页20条
-    private int currentPage = 1; // 当前页码（从1开始）
     private boolean hasMoreData = true; // 是否还有更多数据
-
-    // 全局LiveData（分类、位置列表）
-    private LiveData<List<Category>> allCategories;
-    private LiveData<List<Location>> allLocations;
+    // 当前组合筛选条件（为空时为默认列表或临期/过期/搜索）
+    private ItemFilter mFilter;
+    // 当前列表来源，及其是否为默认列表（首页快照只保存默认列表的第一页）
+    private PageSource mSource;
+    private boolean mSourceIsDefault;
+    // 已加载的页的查询（页号 → 查询），以及追加下一页的查询
+    private final Map<Integer, PageQuery> mPageQueries = new HashMap<>();
+    private PageQuery mTailQuery;
 
     // 日期格式化（用于生成创建/修改时间）
     private SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy.MM.dd HH:mm", Locale.getDefault());
 
     public InventoryViewModel(Application application) {
         super(application);
-        // 初始化Repository（传入Application）
-        mRepository = new InventoryRepository(application);
-        // 初始化物品列表（可根据需求替换为分页查询）
-        mAllItems = mRepository.getItemsByPage(20, 0); // 每页20条，第一页
+        // 获取进程内共享的Repository（各页面共用同一组查询）
+        mRepository = InventoryRepository.getInstance(application);
+        // 观察首页快照（后台读取，读到时若实时数据尚未返回则先展示）
+        mSnapshot = FirstPageSnapshot.getInstance(application);
+        mSnapshot.getSnapshot().observeForever(mSnapshotObserver);
+    }
+
+    @Override
+    protected void onCleared() {
+        stopQueries();
+        mSnapshot.getSnapshot().removeObserver(mSnapshotObserver);
+        super.onCleared();
+    }
+
+    private void onSnapshotLoaded(List<Item> items) {
+        if (firstPageLoaded || items == null || items.isEmpty() || !mWindow.isEmpty()) {
+            return;
+        }
+        showingSnapshot = true;
+        isEmptyLiveData.setValue(false);
+        publish(mWindow.reset(Function.identity()));
+        publish(mWindow.append(items));
     }
 
 
@@ -69,134 +101,355 @@ public class InventoryViewModel extends AndroidViewModel {
         mRepository.deleteItem(item);
     }
 
+    // 批量移动位置（空串表示清除位置）
+    public void moveItems(List<String> itemIds, String location) {
+        mRepository.moveItems(itemIds, location);
+    }
+
+    // 批量修改分类（分类名称路径，空串表示未分类）
+    public void recategorizeItems(List<String> itemIds, String category) {
+        mRepository.recategorizeItems(itemIds, category);
+    }
+
+    // 批量调整数量（可为负数）
+    public void adjustItemQuantities(List<String> itemIds, int delta) {
+        mRepository.adjustItemQuantities(itemIds, delta);
+    }
+
+    // 批量删除物品
+    public void deleteItems(List<String> itemIds) {
+        mRepository.deleteItems(itemIds);
+    }
+
     // 根据ID查询物品
     public LiveData<Item> getItemById(String itemId) {
         return mRepository.getItemById(itemId);
     }
 
+    // 新批次入库
+    public void receiveLot(ItemLot lot) {
+        mRepository.receiveLot(lot);
+    }
+
+    // 消耗物品（先进先出，最早到期的批次先扣减）
+    public void consumeItem(String itemId, int amount) {
+        mRepository.consumeItem(itemId, amount);
+    }
+
+    // 开始连续扫码会话（结束时调用ScanSession.close写入剩余扫码）
+    public ScanSession startScanSession(int mode, ScanSession.Listener listener) {
+        return mRepository.startScanSession(mode, listener);
+    }
+
+    // 物品的全部批次
+    public LiveData<List<ItemLot>> getLotsByItemId(String itemId) {
+        return mRepository.getLotsByItemId(itemId);
+    }
+
     // 获取物品使用记录
     public LiveData<List<UsageRecord>> getRecordsByItemId(String itemId) {
         return mRepository.getRecordsByItemId(itemId);
     }
 
+    // 键集分页获取物品使用记录（lastRecord为空时取第一页）
+    public LiveData<List<UsageRecord>> getRecordsPage(String itemId, UsageRecord lastRecord, int pageSize) {
+        return mRepository.getRecordsPage(itemId, lastRecord, pageSize);
+    }
+
+    // 按修改字段查询使用记录（如：UsageRecord.FIELD_QUANTITY）
+    public LiveData<List<UsageRecord>> getRecordsByModifiedFields(int fieldMask) {
+        return mRepository.getRecordsByModifiedFields(fieldMask);
+    }
+
     // ==================== 分页加载相关 ====================
     // 加载第一页数据（初始化/刷新）
     public void loadFirstPage() {
-        currentPage = 1;
-        hasMoreData = true;
-        loadData(currentPage);
+        mFilter = null;
+        startSource(new KeysetSource(new ItemFilter()), true);
     }
 
     // 加载下一页数据（滑动到底部）
     public void loadNextPage() {
+        loadNextPage(pageSize);
+    }
+
+    /**
+     * 预加载下一页（距列表末尾不到预加载距离时）
+     * @param size 本页条数（按滚动速度调整，见ListPrefetcher）
+     */
+    public void loadNextPage(int size) {
         if (isLoadingLiveData.getValue() == null || isLoadingLiveData.getValue()) {
             return; // 正在加载中，不重复请求
         }
-        if (!hasMoreData) {
+        if (!hasMoreData || showingSnapshot) {
             return; // 没有更多数据
         }
-        currentPage++;
-        loadData(currentPage);
+        loadTail(size);
     }
 
-    // 加载数据（通用分页方法）
-    private void loadData(int page) {
-        isLoadingLiveData.setValue(true);
-        int offset = (page - 1) * pageSize; // 计算偏移量（从0开始）
-
-        // 这里先实现"加载所有物品"，后续可扩展筛选/搜索逻辑
-        mRepository.getItemsByPage(pageSize, offset).observeForever(items -> {
-            isLoadingLiveData.setValue(false);
-            if (items == null || items.isEmpty()) {
-                if (page == 1) {
-                    isEmptyLiveData.setValue(true); // 第一页无数据
-                } else {
-                    hasMoreData = false; // 后续页无数据，标记无更多
-                }
-                return;
-            }
-
-            isEmptyLiveData.setValue(false);
-            List<Item> currentList = itemListLiveData.getValue();
-            if (currentList == null || page == 1) {
-                // 第一页：直接赋值
-                itemListLiveData.setValue(items);
-            } else {
-                // 后续页：追加数据
-                currentList.addAll(items);
-                itemListLiveData.setValue(currentList);
+    /**
+     * 视口变化（列表滚动时调用）：丢弃视口附近之外的页，并重新载入滚回视口附近的页
+     * @param firstVisible 第一个可见条目的位置
+     * @param lastVisible 最后一个可见条目的位置
+     */
+    public void onViewportChanged(int firstVisible, int lastVisible) {
+        if (showingSnapshot || mWindow.isEmpty()) {
+            return;
+        }
+        int[] range = mWindow.retainedRange(firstVisible, lastVisible);
+        for (int index : mWindow.evictOutside(range[0], range[1])) {
+            PageQuery query = mPageQueries.remove(index);
+            if (query != null) {
+                query.stop();
             }
-
-            // 如果当前页数据少于pageSize，标记无更多数据
-            if (items.size() < pageSize) {
-                hasMoreData = false;
+        }
+        for (int index = range[0]; index <= range[1]; index++) {
+            if (!mPageQueries.containsKey(index)) {
+                observePage(index);
             }
-        });
+        }
     }
 
-    // 筛选临期物品
-    public void filterExpiringItems(int days) {
-        currentPage = 1;
+    // 切换列表来源：停止旧来源的全部查询，从第一页开始
+    private void startSource(PageSource source, boolean isDefaultList) {
+        stopQueries();
+        mSource = source;
+        mSourceIsDefault = isDefaultList;
         hasMoreData = true;
+        if (!showingSnapshot) {
+            // 快照在第一页实时数据返回时才替换
+            publish(mWindow.reset(source::cursorOf));
+        }
+        loadTail(pageSize);
+    }
+
+    // 追加下一页：观察最后一页之后的limit条；没有更多数据时保持观察，之后新增到末尾的物品再追加
+    private void loadTail(int limit) {
         isLoadingLiveData.setValue(true);
-        int offset = (currentPage - 1) * pageSize;
+        int index = showingSnapshot ? 0 : mWindow.getPageCount();
+        Item after = index == 0 ? null : mWindow.tailCursor();
+        int offset = index == 0 ? 0 : mWindow.size();
+        if (mTailQuery != null) {
+            mTailQuery.stop();
+        }
+        mTailQuery = new PageQuery(mSource.loadAfter(offset, limit, after),
+                items -> onTailLoaded(index, limit, items));
+    }
 
-        mRepository.getExpiringItems(days, pageSize, offset).observeForever(items -> {
-            handleFilterData(items, currentPage);
-        });
+    private void onTailLoaded(int index, int limit, List<Item> items) {
+        List<Item> page = items == null ? Collections.emptyList() : items;
+        isLoadingLiveData.setValue(false);
+        if (index == 0) {
+            firstPageLoaded = true;
+            if (mSourceIsDefault) {
+                // 更新快照文件（内容未变化时不写）
+                mSnapshot.save(page);
+            }
+            if (showingSnapshot) {
+                // 实时数据替换快照
+                showingSnapshot = false;
+                publish(mWindow.reset(mSource::cursorOf));
+            }
+        }
+        if (page.isEmpty()) {
+            hasMoreData = false;
+            if (index == 0) {
+                isEmptyLiveData.setValue(true); // 第一页无数据
+            }
+            return;
+        }
+
+        mTailQuery.stop();
+        mTailQuery = null;
+        isEmptyLiveData.setValue(false);
+        publish(mWindow.append(page));
+        // 当前页数据少于请求的条数，标记无更多数据
+        hasMoreData = page.size() >= limit;
+        // 改为按本页的键集范围观察（首次回调即刚追加的数据，跳过）
+        observePage(index).skipNext = true;
     }
 
-    // 筛选过期物品
-    public void filterExpiredItems() {
-        currentPage = 1;
-        hasMoreData = true;
-        isLoadingLiveData.setValue(true);
-        int offset = (currentPage - 1) * pageSize;
+    // 观察一页的键集范围（页内物品修改、增删时回调）
+    private PageQuery observePage(int index) {
+        PageQuery query = new PageQuery(mSource.loadRange(mWindow.startOf(index), mWindow.sizeOf(index),
+                mWindow.lowerBoundOf(index), mWindow.upperBoundOf(index)), items -> onPageLoaded(index, items));
+        mPageQueries.put(index, query);
+        return query;
+    }
 
-        mRepository.getExpiredItems(pageSize, offset).observeForever(items -> {
-            handleFilterData(items, currentPage);
-        });
+    private void onPageLoaded(int index, List<Item> items) {
+        PageQuery query = mPageQueries.get(index);
+        if (query == null) {
+            return;
+        }
+        if (query.skipNext) {
+            query.skipNext = false;
+            return;
+        }
+        List<Item> page = items == null ? Collections.emptyList() : items;
+        if (index == 0 && mSourceIsDefault) {
+            mSnapshot.save(page);
+        }
+        publish(mWindow.fill(index, page));
+    }
+
+    private void stopQueries() {
+        for (PageQuery query : mPageQueries.values()) {
+            query.stop();
+        }
+        mPageQueries.clear();
+        if (mTailQuery != null) {
+            mTailQuery.stop();
+            mTailQuery = null;
+        }
+    }
+
+    private void publish(ItemWindow.Update update) {
+        itemUpdateLiveData.setValue(update);
+    }
+
+    // 切换排序方式（保留当前组合筛选条件）
+    public void setSortMode(int sort) {
+        applyFilter(mFilter == null ? new ItemFilter().sortBy(sort) : mFilter.withSort(sort));
+    }
+
+    // 组合筛选（分类/位置/有效期/数量/名称任意组合）
+    public void applyFilter(ItemFilter filter) {
+        mFilter = filter;
+        startSource(new KeysetSource(filter), false);
+    }
+
+    // 筛选临期物品（按有效期排序，键集分页）
+    public void filterExpiringItems(int days) {
+        mFilter = null;
+        startSource(new KeysetSource(new ItemFilter().expiringWithinDays(days)
+                .sortBy(ItemFilter.SORT_EXPIRY_DATE_ASC)), false);
+    }
+
+    // 筛选过期物品（按有效期排序，键集分页）
+    public void filterExpiredItems() {
+        mFilter = null;
+        startSource(new KeysetSource(new ItemFilter().expiredOnly()
+                .sortBy(ItemFilter.SORT_EXPIRY_DATE_ASC)), false);
     }
 
     // 搜索物品（按名称模糊查询）
     public void searchItemsByName(String keyword) {
-        currentPage = 1;
-        hasMoreData = true;
-        isLoadingLiveData.setValue(true);
-        int offset = (currentPage - 1) * pageSize;
+        mFilter = null;
+        startSource(new SearchSource(keyword), false);
+    }
+
+    // ==================== 列表来源 ====================
+    /**
+     * 窗口化列表的数据来源
+     */
+    private interface PageSource {
+        // 追加：after之后的limit条（offset为追加位置，供按偏移量分页的来源使用）
+        LiveData<List<Item>> loadAfter(int offset, int limit, Item after);
 
-        mRepository.searchItemsByName(keyword, pageSize, offset).observeForever(items -> {
-            handleFilterData(items, currentPage);
-        });
+        // 已加载过的页：(after, upTo]范围内的物品
+        LiveData<List<Item>> loadRange(int offset, int limit, Item after, Item upTo);
+
+        // 键集游标
+        Item cursorOf(Item item);
     }
 
-    // 处理筛选/搜索结果（通用方法）
-    private void handleFilterData(List<Item> items, int page) {
-        isLoadingLiveData.setValue(false);
-        if (items == null || items.isEmpty()) {
-            if (page == 1) {
-                isEmptyLiveData.setValue(true);
-                itemListLiveData.setValue(null);
-            } else {
-                hasMoreData = false;
-            }
-            return;
+    // 键集分页：默认列表、组合筛选、临期/过期
+    private final class KeysetSource implements PageSource {
+        private final ItemFilter filter;
+
+        KeysetSource(ItemFilter filter) {
+            this.filter = filter;
         }
 
-        isEmptyLiveData.setValue(false);
-        List<Item> currentList = itemListLiveData.getValue();
-        if (currentList == null || page == 1) {
-            itemListLiveData.setValue(items);
-        } else {
-            currentList.addAll(items);
-            itemListLiveData.setValue(currentList);
+        @Override
+        public LiveData<List<Item>> loadAfter(int offset, int limit, Item after) {
+            return mRepository.filterItems(filter, after, limit);
         }
 
-        if (items.size() < pageSize) {
-            hasMoreData = false;
+        @Override
+        public LiveData<List<Item>> loadRange(int offset, int limit, Item after, Item upTo) {
+            return mRepository.filterItemsInRange(filter, after, upTo);
+        }
+
+        @Override
+        public Item cursorOf(Item item) {
+            return filter.cursorOf(item);
+        }
+    }
+
+    // 名称搜索：拼音检索键范围扫描与名称子串匹配的结果没有统一的排序键，仍按偏移量分页
+    private final class SearchSource implements PageSource {
+        private final String keyword;
+
+        SearchSource(String keyword) {
+            this.keyword = keyword;
+        }
+
+        @Override
+        public LiveData<List<Item>> loadAfter(int offset, int limit, Item after) {
+            return mRepository.searchItemsByName(keyword, limit, offset);
+        }
+
+        @Override
+        public LiveData<List<Item>> loadRange(int offset, int limit, Item after, Item upTo) {
+            return mRepository.searchItemsByName(keyword, limit, offset);
+        }
+
+        @Override
+        public Item cursorOf(Item item) {
+            return item;
         }
     }
 
+    // 一页的查询及其观察者（页被丢弃或列表来源切换时移除）
+    private static final class PageQuery {
+        private final LiveData<List<Item>> liveData;
+        private final Observer<List<Item>> observer;
+        // 跳过下一次回调（改为按范围观察时首次回调的数据已在列表中）
+        boolean skipNext;
+
+        PageQuery(LiveData<List<Item>> liveData, Observer<List<Item>> observer) {
+            this.liveData = liveData;
+            this.observer = observer;
+            liveData.observeForever(observer);
+        }
+
+        void stop() {
+            liveData.removeObserver(observer);
+        }
+    }
+
+    // 名称输入联想索引
+    public NameSuggestionIndex getNameSuggestions() {
+        return mRepository.getNameSuggestions();
+    }
+
+    // ==================== 库存汇总（首页统计/角标） ====================
+    public LiveData<ItemStat> getInventoryTotal() {
+        return mRepository.getInventoryTotal();
+    }
+
+    // 各分类的物品统计
+    public LiveData<List<ItemStat>> getCategoryStats() {
+        return mRepository.getStatsByDimension(ItemStat.DIM_CATEGORY);
+    }
+
+    // 各位置的物品统计
+    public LiveData<List<ItemStat>> getLocationStats() {
+        return mRepository.getStatsByDimension(ItemStat.DIM_LOCATION);
+    }
+
+    // 临期物品条数（days天内到期）
+    public LiveData<Integer> getExpiringCount(int days) {
+        return mRepository.getExpiringCount(days);
+    }
+
+    // 过期物品条数
+    public LiveData<Integer> getExpiredCount() {
+        return mRepository.getExpiredCount();
+    }
+
     // ==================== 分类相关操作 ====================
     public void insertCategory(Category category) {
         mRepository.insertCategory(category);
@@ -214,25 +467,14 @@ public class InventoryViewModel extends AndroidViewModel {
         return mRepository.getCategoryByName(name);
     }
 
-    // ==================== 子分类相关操作 ====================
-    public void insertSubCategory(SubCategory subCategory) {
-        mRepository.insertSubCategory(subCategory);
-    }
-
-    public void updateSubCategory(SubCategory subCategory) {
-        mRepository.updateSubCategory(subCategory);
-    }
-
-    public void deleteSubCategory(SubCategory subCategory) {
-        mRepository.deleteSubCategory(subCategory);
+    // 直接下级分类
+    public LiveData<List<Category>> getChildCategories(long parentId) {
+        return mRepository.getChildCategories(parentId);
     }
 
-    public LiveData<List<SubCategory>> getSubCategoriesByCategoryId(long categoryId) {
-        return mRepository.getSubCategoriesByCategoryId(categoryId);
-    }
-
-    public SubCategory getSubCategoryByName(long categoryId, String name) {
-        return mRepository.getSubCategoryByName(categoryId, name);
+    // 分类及其全部下级分类中的物品（分页）
+    public LiveData<List<Item>> getItemsUnderCategory(long categoryId, int pageSize, int offset) {
+        return mRepository.getItemsUnderCategory(categoryId, pageSize, offset);
     }
 
     // ==================== 位置相关操作 ====================
@@ -252,9 +494,30 @@ public class InventoryViewModel extends AndroidViewModel {
         return mRepository.getLocationByName(name);
     }
 
+    // 移动位置（连同其下所有位置）到新的上级位置下（parentId为空时移到顶层）
+    public void moveLocation(long locationId, Long parentId) {
+        mRepository.moveLocation(locationId, parentId);
+    }
+
+    // 位置树及各位置（含下级位置）的物品汇总
+    public LiveData<List<LocationNode>> getLocationTree() {
+        return mRepository.getLocationTree();
+    }
+
+    // 位置及其全部下级位置中的物品（分页）
+    public LiveData<List<Item>> getItemsUnderLocation(long locationId, int pageSize, int offset) {
+        return mRepository.getItemsUnderLocation(locationId, pageSize, offset);
+    }
+
     // ==================== LiveData getter（UI层观察） ====================
-    public LiveData<List<Item>> getItemListLiveData() {
-        return itemListLiveData;
+    // 列表数据（适配器直接持有，已丢弃的页对应位置为null）
+    public ItemWindow getItemWindow() {
+        return mWindow;
+    }
+
+    // 列表的每次修改（适配器据此局部或整体刷新）
+    public LiveData<ItemWindow.Update> getItemUpdateLiveData() {
+        return itemUpdateLiveData;
     }
 
     public LiveData<Boolean> getIsLoadingLiveData() {
@@ -265,15 +528,20 @@ public class InventoryViewModel extends AndroidViewModel {
         return isEmptyLiveData;
     }
 
+    // 分类、位置列表（全局共享，各页面观察同一查询）
     public LiveData<List<Category>> getAllCategories() {
-        return allCategories;
+        return mRepository.getAllCategories();
     }
 
     public LiveData<List<Location>> getAllLocations() {
-        return allLocations;
+        return mRepository.getAllLocations();
     }
 
     public boolean isHasMoreData() {
         return hasMoreData;
     }
+
+    public boolean isShowingSnapshot() {
+        return showingSnapshot;
+    }
 }
\ No newline at end of file
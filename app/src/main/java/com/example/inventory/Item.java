@@ -1,9 +1,9 @@
 package com.example.inventory;
 
 import androidx.annotation.NonNull;
-import androidx.room.Entity;
+import androidx.room.ColumnInfo;
+import androidx.room.DatabaseView;
 import androidx.room.Ignore;
-import androidx.room.PrimaryKey;
 import androidx.room.TypeConverters;
 
 import java.util.UUID;
@@ -11,15 +11,22 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
- * 物品实体类
- * 对应Room数据库的item表
+ * 物品（界面与查询使用的模型）
+ * 对应Room数据库的item_detail视图：item表的全部列 + 通过外键关联出的分类名称路径（如"食品/乳制品"）与位置名称
+ * 存储结构见 {@link ItemRecord}；写入时以名称为准（仓库在写入前把名称解析为ID）
  */
 // 添加类型转换器，支持List<String>存储
 @TypeConverters({Item.ImagePathConverter.class})
-@Entity(tableName = "item")
+@DatabaseView(viewName = Item.VIEW_NAME, value = Item.VIEW_QUERY)
 public class Item {
+    static final String VIEW_NAME = "item_detail";
+    // 外键都是主键查找；SQLite会把视图展开进外层查询，筛选/排序仍走item表上的索引
+    static final String VIEW_QUERY = "SELECT item.*, category.fullName AS category, "
+            + "location.name AS location FROM item "
+            + "LEFT JOIN category ON category.id = item.categoryId "
+            + "LEFT JOIN location ON location.id = item.locationId";
+
     // UUID作为主键，唯一标识物品（强制非空）
-    @PrimaryKey
     @NonNull
     private String id = UUID.randomUUID().toString();
 
@@ -27,18 +34,20 @@ public class Item {
     @NonNull
     private String name;
 
-    // 分类（可选，可空）
+    // 分类名称路径（可选，可空，各级以"/"分隔）
     private String category;
-
-    // 子分类（可选，可空）
-    private String subCategory;
+    private Long categoryId;
 
     // 位置（可选，可空）
     private String location;
+    private Long locationId;
 
     // 数量（基本数据类型，默认0，非空）
     private int quantity;
 
+    // 条码/SKU（可选，非空时全表唯一）
+    private String barcode;
+
     // 有效期（格式：yyyy-MM-dd，可选，可空）
     private String expiryDate;
 
@@ -56,18 +65,20 @@ public class Item {
     @NonNull
     private String updateTime;
 
+    // 名称排序键（按拼音排序的ICU排序键，字节序即拼音序；写入前由NameSortKey根据name生成）
+    @ColumnInfo(typeAffinity = ColumnInfo.BLOB)
+    private byte[] nameSortKey;
+
     // 空构造函数（Room要求，必须保留）
     public Item() {}
 
     // 全参构造函数（添加@Ignore，Room忽略该构造函数）
     @Ignore
-    public Item(@NonNull String id, @NonNull String name, String category, String subCategory,
-                String location, int quantity, String expiryDate, String description,
+    public Item(@NonNull String id, @NonNull String name, String category, String location, int quantity, String expiryDate, String description,
                 String imagePaths, @NonNull String createTime, @NonNull String updateTime) {
         this.id = id;
         this.name = name;
         this.category = category;
-        this.subCategory = subCategory;
         this.location = location;
         this.quantity = quantity;
         this.expiryDate = expiryDate;
@@ -104,12 +115,12 @@ public class Item {
         this.category = category;
     }
 
-    public String getSubCategory() {
-        return subCategory;
+    public Long getCategoryId() {
+        return categoryId;
     }
 
-    public void setSubCategory(String subCategory) {
-        this.subCategory = subCategory;
+    public void setCategoryId(Long categoryId) {
+        this.categoryId = categoryId;
     }
 
     public String getLocation() {
@@ -120,6 +131,14 @@ public class Item {
         this.location = location;
     }
 
+    public Long getLocationId() {
+        return locationId;
+    }
+
+    public void setLocationId(Long locationId) {
+        this.locationId = locationId;
+    }
+
     public int getQuantity() {
         return quantity;
     }
@@ -171,6 +190,22 @@ public class Item {
         this.updateTime = updateTime;
     }
 
+    public String getBarcode() {
+        return barcode;
+    }
+
+    public void setBarcode(String barcode) {
+        this.barcode = barcode;
+    }
+
+    public byte[] getNameSortKey() {
+        return nameSortKey;
+    }
+
+    public void setNameSortKey(byte[] nameSortKey) {
+        this.nameSortKey = nameSortKey;
+    }
+
     // ======== 辅助方法：处理List<String>格式的图片路径 ========
 
     /**
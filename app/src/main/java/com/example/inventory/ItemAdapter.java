@@ -9,36 +9,46 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
-import java.util.Date;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Locale;
+import java.util.Set;
 
 /**
  * 物品列表适配器
+ * 列表为窗口化数据（{@link ItemWindow}）：已丢弃的页对应位置为null，绑定为占位条目，重新载入后局部刷新
+ * 长按条目进入多选：选中状态按物品ID保存（列表刷新、分页追加后保持），选中变化只重绑条目背景
  */
 public class ItemAdapter extends RecyclerView.Adapter<ItemAdapter.ItemViewHolder> {
+    // 局部刷新标记：只更新选中状态
+    private static final Object PAYLOAD_SELECTION = new Object();
+
     private Context mContext;
     private List<Item> mItemList;
+    // 已应用的列表修改版本（窗口化数据）
+    private long mWindowVersion;
     private OnItemClickListener mOnItemClickListener;
-
-    // 日期格式化器（解析有效期）
-    private SimpleDateFormat expiryFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-    private SimpleDateFormat displayFormat = new SimpleDateFormat("yyyy.MM.dd", Locale.getDefault());
-
-    // 临期天数阈值（7天内算临期）
-    private static final int NEAR_EXPIRE_DAYS = 7;
+    private OnSelectionChangedListener mOnSelectionChangedListener;
+    // 多选状态
+    private boolean mSelectionMode;
+    private final Set<String> mSelectedIds = new LinkedHashSet<>();
 
     public interface OnItemClickListener {
         void onItemClick(Item item);
     }
 
+    public interface OnSelectionChangedListener {
+        // 选中数量变化（进入多选时为1，全部取消时为0）
+        void onSelectionChanged(int selectedCount);
+    }
+
     public ItemAdapter(Context context, List<Item> itemList, OnItemClickListener listener) {
         this.mContext = context;
         this.mItemList = itemList;
         this.mOnItemClickListener = listener;
+        if (itemList instanceof ItemWindow) {
+            mWindowVersion = ((ItemWindow) itemList).getVersion();
+        }
     }
 
     @NonNull
@@ -48,10 +58,34 @@ public class ItemAdapter extends RecyclerView.Adapter<ItemAdapter.ItemViewHolder
         return new ItemViewHolder(view);
     }
 
+    public void setOnSelectionChangedListener(OnSelectionChangedListener listener) {
+        this.mOnSelectionChangedListener = listener;
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ItemViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.contains(PAYLOAD_SELECTION)) {
+            bindSelection(holder, mItemList.get(position));
+            return;
+        }
+        super.onBindViewHolder(holder, position, payloads);
+    }
+
     @Override
     public void onBindViewHolder(@NonNull ItemViewHolder holder, int position) {
-        Item item = mItemList.get(position);
-        if (item == null) return;
+        long start = UiMetrics.beginSection(UiMetrics.SECTION_ITEM_BIND);
+        try {
+            bindItem(holder, mItemList.get(position));
+        } finally {
+            UiMetrics.endSection(UiMetrics.SECTION_ITEM_BIND, start);
+        }
+    }
+
+    private void bindItem(@NonNull ItemViewHolder holder, Item item) {
+        if (item == null) {
+            bindPlaceholder(holder);
+            return;
+        }
 
         // 绑定基础数据
         holder.tvItemName.setText(item.getName());
@@ -62,51 +96,104 @@ public class ItemAdapter extends RecyclerView.Adapter<ItemAdapter.ItemViewHolder
         holder.tvUpdateTime.setText(item.getUpdateTime());
 
         // 处理有效期显示和临期提醒
-        String expiryDate = item.getExpiryDate();
-        if (expiryDate == null || expiryDate.isEmpty()) {
-            holder.tvExpiryDate.setText("无");
-            holder.tvExpireTip.setVisibility(View.GONE);
-        } else {
-            try {
-                // 格式化有效期显示（yyyy-MM-dd → yyyy.MM.dd）
-                Date expiryDateObj = expiryFormat.parse(expiryDate);
-                holder.tvExpiryDate.setText(displayFormat.format(expiryDateObj));
-
-                // 判断是否临期/过期
-                Calendar today = Calendar.getInstance();
-                Calendar expiryCal = Calendar.getInstance();
-                expiryCal.setTime(expiryDateObj);
-
-                long diff = expiryCal.getTimeInMillis() - today.getTimeInMillis();
-                long diffDays = diff / (1000 * 60 * 60 * 24);
-
-                if (diffDays < 0) {
-                    // 过期
-                    holder.tvExpireTip.setText("过期");
-                    holder.tvExpireTip.setBackgroundColor(mContext.getResources().getColor(R.color.warning_expired));
-                    holder.tvExpireTip.setVisibility(View.VISIBLE);
-                } else if (diffDays <= NEAR_EXPIRE_DAYS) {
-                    // 临期
-                    holder.tvExpireTip.setText("临期");
-                    holder.tvExpireTip.setBackgroundColor(mContext.getResources().getColor(R.color.warning_near_expire));
-                    holder.tvExpireTip.setVisibility(View.VISIBLE);
-                } else {
-                    // 正常
-                    holder.tvExpireTip.setVisibility(View.GONE);
-                }
-            } catch (ParseException e) {
-                e.printStackTrace();
-                holder.tvExpiryDate.setText(expiryDate);
+        ExpiryStatus expiry = ExpiryStatus.of(item.getExpiryDate(), System.currentTimeMillis());
+        holder.tvExpiryDate.setText(expiry.getDisplayDate());
+        switch (expiry.getStatus()) {
+            case ExpiryStatus.EXPIRED:
+                // 过期
+                holder.tvExpireTip.setText("过期");
+                holder.tvExpireTip.setBackgroundColor(mContext.getResources().getColor(R.color.warning_expired));
+                holder.tvExpireTip.setVisibility(View.VISIBLE);
+                break;
+            case ExpiryStatus.NEAR_EXPIRE:
+                // 临期
+                holder.tvExpireTip.setText("临期");
+                holder.tvExpireTip.setBackgroundColor(mContext.getResources().getColor(R.color.warning_near_expire));
+                holder.tvExpireTip.setVisibility(View.VISIBLE);
+                break;
+            default:
+                // 正常/无有效期/格式错误
                 holder.tvExpireTip.setVisibility(View.GONE);
-            }
+                break;
         }
 
-        // 条目点击事件
+        bindSelection(holder, item);
+
+        // 条目点击事件（多选中为切换选中）
         holder.itemView.setOnClickListener(v -> {
-            if (mOnItemClickListener != null) {
+            if (mSelectionMode) {
+                toggleSelection(holder, item);
+            } else if (mOnItemClickListener != null) {
                 mOnItemClickListener.onItemClick(item);
             }
         });
+        // 长按进入多选
+        holder.itemView.setOnLongClickListener(v -> {
+            if (mSelectionMode) {
+                return false;
+            }
+            mSelectionMode = true;
+            toggleSelection(holder, item);
+            return true;
+        });
+    }
+
+    // 占位条目（所在页已丢弃、正在重新载入）：保持条目高度，不响应点击
+    private void bindPlaceholder(@NonNull ItemViewHolder holder) {
+        holder.tvItemName.setText("加载中…");
+        holder.tvCategory.setText("");
+        holder.tvLocation.setText("");
+        holder.tvQuantity.setText("");
+        holder.tvCreateTime.setText("");
+        holder.tvUpdateTime.setText("");
+        holder.tvExpiryDate.setText("");
+        holder.tvExpireTip.setVisibility(View.GONE);
+        bindSelection(holder, null);
+        holder.itemView.setOnClickListener(null);
+        holder.itemView.setOnLongClickListener(null);
+    }
+
+    private void bindSelection(@NonNull ItemViewHolder holder, Item item) {
+        boolean selected = item != null && mSelectedIds.contains(item.getId());
+        holder.itemView.setBackgroundColor(mContext.getResources().getColor(
+                selected ? R.color.item_selected : R.color.surface));
+    }
+
+    private void toggleSelection(@NonNull ItemViewHolder holder, Item item) {
+        if (!mSelectedIds.remove(item.getId())) {
+            mSelectedIds.add(item.getId());
+        }
+        int position = holder.getBindingAdapterPosition();
+        if (position != RecyclerView.NO_POSITION) {
+            notifyItemChanged(position, PAYLOAD_SELECTION);
+        }
+        if (mSelectedIds.isEmpty()) {
+            mSelectionMode = false;
+        }
+        if (mOnSelectionChangedListener != null) {
+            mOnSelectionChangedListener.onSelectionChanged(mSelectedIds.size());
+        }
+    }
+
+    // ==================== 多选 ====================
+
+    public boolean isSelectionMode() {
+        return mSelectionMode;
+    }
+
+    // 选中物品的ID（按选中顺序）
+    public List<String> getSelectedIds() {
+        return new ArrayList<>(mSelectedIds);
+    }
+
+    // 退出多选（只重绑可见条目的背景）
+    public void clearSelection() {
+        if (!mSelectionMode && mSelectedIds.isEmpty()) {
+            return;
+        }
+        mSelectionMode = false;
+        mSelectedIds.clear();
+        notifyItemRangeChanged(0, getItemCount(), PAYLOAD_SELECTION);
     }
 
     @Override
@@ -114,17 +201,20 @@ public class ItemAdapter extends RecyclerView.Adapter<ItemAdapter.ItemViewHolder
         return mItemList == null ? 0 : mItemList.size();
     }
 
-    // 更新列表数据
-    public void updateData(List<Item> newList) {
-        this.mItemList = newList;
-        notifyDataSetChanged();
-    }
-
-    // 追加列表数据（分页加载）
-    public void addData(List<Item> newData) {
-        int startPos = mItemList.size();
-        mItemList.addAll(newData);
-        notifyItemRangeInserted(startPos, newData.size());
+    /**
+     * 应用窗口化数据的一次修改：与上次应用的版本连续时局部刷新，
+     * 否则（界面不可见期间错过了中间的修改）整体刷新
+     */
+    public void applyUpdate(ItemWindow.Update update) {
+        boolean consecutive = update.version == mWindowVersion + 1;
+        mWindowVersion = update.version;
+        if (!consecutive || update.type == ItemWindow.Update.RESET) {
+            notifyDataSetChanged();
+        } else if (update.type == ItemWindow.Update.INSERTED) {
+            notifyItemRangeInserted(update.start, update.count);
+        } else {
+            notifyItemRangeChanged(update.start, update.count);
+        }
     }
 
     static class ItemViewHolder extends RecyclerView.ViewHolder {
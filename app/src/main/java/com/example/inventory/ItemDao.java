@@ -2,61 +2,148 @@ package com.example.inventory;
 
 import androidx.lifecycle.LiveData;
 import androidx.room.Dao;
-import androidx.room.Delete;
 import androidx.room.Insert;
 import androidx.room.Query;
+import androidx.room.RawQuery;
 import androidx.room.Update;
+import androidx.sqlite.db.SupportSQLiteQuery;
 
 import java.util.List;
 
 /**
  * 物品数据访问接口
+ * 读取走item_detail视图（带分类/子分类/位置名称），写入item表（分类/子分类/位置为外键ID）
  */
 @Dao
 public interface ItemDao {
-    // 插入单条物品
     @Insert
-    void insert(Item item);
+    void insertRecord(ItemRecord record);
 
-    // 更新物品
     @Update
-    void update(Item item);
+    void updateRecord(ItemRecord record);
+
+    @Query("DELETE FROM item WHERE id = :itemId")
+    void deleteById(String itemId);
+
+    // 只刷新修改时间（批次变化后调用，数量/有效期已由触发器更新）
+    @Query("UPDATE item SET updateTime = :updateTime WHERE id = :itemId")
+    void touch(String itemId, String updateTime);
+
+    // 批量刷新修改时间（扫码批次写入后调用，itemIds不超过SQLite参数上限）
+    @Query("UPDATE item SET updateTime = :updateTime WHERE id IN (:itemIds)")
+    int touchAll(List<String> itemIds, String updateTime);
+
+    // ==================== 批量修改（BulkItemEditor调用，itemIds每批不超过其CHUNK_SIZE） ====================
+    // 只改写位置实际变化的物品
+    @Query("UPDATE item SET locationId = :locationId, updateTime = :updateTime "
+            + "WHERE id IN (:itemIds) AND locationId IS NOT :locationId")
+    int moveToLocation(List<String> itemIds, Long locationId, String updateTime);
+
+    // 只改写分类实际变化的物品
+    @Query("UPDATE item SET categoryId = :categoryId, updateTime = :updateTime "
+            + "WHERE id IN (:itemIds) AND categoryId IS NOT :categoryId")
+    int recategorize(List<String> itemIds, Long categoryId, String updateTime);
+
+    @Query("DELETE FROM item WHERE id IN (:itemIds)")
+    int deleteByIds(List<String> itemIds);
+
+    @Query("SELECT name FROM item WHERE id IN (:itemIds)")
+    List<String> getNamesSync(List<String> itemIds);
+
+    // 插入单条物品（分类/子分类/位置需已解析为ID；直接写入数量与有效期，不建批次，界面写入经由仓库）
+    default void insert(Item item) {
+        insertRecord(ItemRecord.from(item));
+    }
+
+    // 更新物品（分类/子分类/位置需已解析为ID）
+    default void update(Item item) {
+        updateRecord(ItemRecord.from(item));
+    }
 
     // 删除物品
-    @Delete
-    void delete(Item item);
+    default void delete(Item item) {
+        deleteById(item.getId());
+    }
+
+    // 根据ID同步查询物品（仅限子线程调用）
+    @Query("SELECT * FROM item_detail WHERE id = :itemId LIMIT 1")
+    Item getItemByIdSync(String itemId);
+
+    // 按条码定位物品ID（唯一索引查找，仅限子线程调用）
+    @Query("SELECT id FROM item WHERE barcode = :barcode")
+    String getItemIdByBarcodeSync(String barcode);
 
-    // 根据ID查询物品
+    // 全部已录入的条码及物品ID（扫码会话开始时载入内存，仅限子线程调用）
+    @Query("SELECT barcode, id AS itemId FROM item WHERE barcode IS NOT NULL")
+    List<ScanSession.CodeEntry> getBarcodesSync();
+
+    // 物品当前的最近有效期（仅限子线程调用）
+    @Query("SELECT expiryDate FROM item WHERE id = :itemId")
+    String getExpiryDateSync(String itemId);
 
     // 查询所有物品（按创建时间倒序）
-    @Query("SELECT * FROM item ORDER BY createTime DESC")
+    @Query("SELECT * FROM item_detail ORDER BY createTime DESC")
     LiveData<List<Item>> getAllItems();
 
     // 新增：根据ID查询单个物品
-    @Query("SELECT * FROM item WHERE id = :itemId LIMIT 1")
+    @Query("SELECT * FROM item_detail WHERE id = :itemId LIMIT 1")
     LiveData<Item> getItemById(String itemId);
 
-    // 新增：更新物品
-    @Update
-    void updateItem(Item item);
-
     // 分页查询物品（按创建时间倒序）
-    @Query("SELECT * FROM item ORDER BY createTime DESC LIMIT :pageSize OFFSET :offset")
+    @Query("SELECT * FROM item_detail ORDER BY createTime DESC LIMIT :pageSize OFFSET :offset")
     LiveData<List<Item>> getItemsByPage(int pageSize, int offset);
 
     // 模糊查询物品名称（分页）
-    @Query("SELECT * FROM item WHERE name LIKE '%' || :keyword || '%' ORDER BY createTime DESC LIMIT :pageSize OFFSET :offset")
+    @Query("SELECT * FROM item_detail WHERE name LIKE '%' || :keyword || '%' ORDER BY createTime DESC LIMIT :pageSize OFFSET :offset")
     LiveData<List<Item>> searchItemsByName(String keyword, int pageSize, int offset);
 
-    // 筛选临期/过期物品（分页）—— 修复SQL参数绑定语法
-    @Query("SELECT * FROM item WHERE expiryDate IS NOT NULL AND expiryDate != '' AND " +
-            "strftime('%s', expiryDate) <= strftime('%s', datetime('now', '+' || :days || ' day')) " +
+    // 拼音/首字母搜索（分页）：检索键主键上的前缀范围扫描，再按主键取物品
+    @Query("SELECT * FROM item_detail WHERE id IN (SELECT itemId FROM item_search_key "
+            + "WHERE searchKey >= :prefix AND searchKey < :prefixEnd) "
+            + "ORDER BY createTime DESC LIMIT :pageSize OFFSET :offset")
+    LiveData<List<Item>> searchItemsByKey(String prefix, String prefixEnd, int pageSize, int offset);
+
+    // ASCII关键词搜索（分页）：检索键前缀匹配与名称子串匹配的并集（"ml"既能按拼音命中，也能命中"500ml"）
+    @Query("SELECT * FROM item_detail WHERE id IN (SELECT itemId FROM item_search_key "
+            + "WHERE searchKey >= :prefix AND searchKey < :prefixEnd "
+            + "UNION SELECT id FROM item WHERE name LIKE '%' || :keyword || '%') "
+            + "ORDER BY createTime DESC LIMIT :pageSize OFFSET :offset")
+    LiveData<List<Item>> searchItemsByKeyOrName(String prefix, String prefixEnd, String keyword,
+                                                int pageSize, int offset);
+
+    // 按ID顺序分批读取物品（后台回填用，仅限子线程调用）
+    @Query("SELECT * FROM item_detail WHERE id > :afterId ORDER BY id LIMIT :limit")
+    List<Item> getItemsAfterIdSync(String afterId, int limit);
+
+    // 各物品名称及同名物品数（输入联想索引加载用，仅限子线程调用）
+    @Query("SELECT name AS text, COUNT(*) AS count FROM item GROUP BY name")
+    List<NameSuggestionIndex.NameCount> getNameCountsSync();
+
+    // 筛选临期/过期物品（分页）—— 直接比较yyyy-MM-dd字符串，可走expiryDate索引范围扫描
+    @Query("SELECT * FROM item_detail WHERE expiryDate > '' AND " +
+            "expiryDate <= date('now', 'localtime', '+' || :days || ' day') " +
             "ORDER BY expiryDate ASC LIMIT :pageSize OFFSET :offset")
     LiveData<List<Item>> getExpiringItems(int days, int pageSize, int offset);
 
-    // 查询过期物品（分页）
-    @Query("SELECT * FROM item WHERE expiryDate IS NOT NULL AND expiryDate != '' AND " +
-            "strftime('%s', expiryDate) < strftime('%s', 'now') " +
+    // 查询过期物品（分页）：有效期早于今天
+    @Query("SELECT * FROM item_detail WHERE expiryDate > '' AND " +
+            "expiryDate < date('now', 'localtime') " +
             "ORDER BY expiryDate ASC LIMIT :pageSize OFFSET :offset")
     LiveData<List<Item>> getExpiredItems(int pageSize, int offset);
+
+    // 分类及其全部下级分类中的物品（分页）：path索引前缀范围取出子树内的分类，再按物品的categoryId索引关联
+    @Query("SELECT i.* FROM category a JOIN category d "
+            + "ON d.path >= a.path AND d.path < a.path || '" + Category.PATH_END + "' "
+            + "JOIN item_detail i ON i.categoryId = d.id "
+            + "WHERE a.id = :categoryId ORDER BY i.createTime DESC LIMIT :pageSize OFFSET :offset")
+    LiveData<List<Item>> getItemsUnderCategory(long categoryId, int pageSize, int offset);
+
+    // 位置及其全部下级位置中的物品（分页）：闭包表按祖先取出后代位置，再按物品的locationId索引关联
+    @Query("SELECT d.* FROM location_closure c JOIN item_detail d ON d.locationId = c.descendantId "
+            + "WHERE c.ancestorId = :locationId ORDER BY d.createTime DESC LIMIT :pageSize OFFSET :offset")
+    LiveData<List<Item>> getItemsUnderLocation(long locationId, int pageSize, int offset);
+
+    // 组合筛选（由ItemFilter编译的参数化查询，键集分页）
+    @RawQuery(observedEntities = {ItemRecord.class, Category.class, Location.class, LocationClosure.class})
+    LiveData<List<Item>> filterItems(SupportSQLiteQuery query);
 }
\ No newline at end of file
@@ -9,18 +9,15 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.text.InputType;
 import android.view.View;
 import android.widget.Button;
+import android.widget.EditText;
 import android.widget.TextView;
 import android.widget.Toast;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.Date;
 import java.util.List;
-import java.util.Locale;
 
 public class ItemDetailActivity extends AppCompatActivity {
     // 传递物品ID的Key
@@ -31,11 +28,14 @@ public class ItemDetailActivity extends AppCompatActivity {
     private TextView mTvCategory;
     private TextView mTvLocation;
     private TextView mTvQuantity;
+    private TextView mTvBarcode;
     private TextView mTvExpiryDate;
     private TextView mTvExpireTip;
+    private TextView mTvLots;
     private TextView mTvDescription;
     private TextView mTvCreateTime;
     private TextView mTvUpdateTime;
+    private Button mBtnConsume;
     private Button mBtnEdit;
     private Button mBtnDelete;
 
@@ -48,11 +48,6 @@ public class ItemDetailActivity extends AppCompatActivity {
     // 当前物品
     private Item mCurrentItem;
 
-    // 日期格式化器
-    private SimpleDateFormat mExpiryFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-    private SimpleDateFormat mDisplayFormat = new SimpleDateFormat("yyyy.MM.dd", Locale.getDefault());
-    private static final int NEAR_EXPIRE_DAYS = 7;
-
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -79,11 +74,14 @@ public class ItemDetailActivity extends AppCompatActivity {
         mTvCategory = findViewById(R.id.tv_category);
         mTvLocation = findViewById(R.id.tv_location);
         mTvQuantity = findViewById(R.id.tv_quantity);
+        mTvBarcode = findViewById(R.id.tv_barcode);
         mTvExpiryDate = findViewById(R.id.tv_expiry_date);
         mTvExpireTip = findViewById(R.id.tv_expire_tip);
+        mTvLots = findViewById(R.id.tv_lots);
         mTvDescription = findViewById(R.id.tv_description);
         mTvCreateTime = findViewById(R.id.tv_create_time);
         mTvUpdateTime = findViewById(R.id.tv_update_time);
+        mBtnConsume = findViewById(R.id.btn_consume);
         mBtnEdit = findViewById(R.id.btn_edit);
         mBtnDelete = findViewById(R.id.btn_delete);
 
@@ -123,6 +121,26 @@ public class ItemDetailActivity extends AppCompatActivity {
                 mImageAdapter.refreshData(imagePaths);
             }
         });
+
+        // 批次明细（按先进先出顺序）
+        mViewModel.getLotsByItemId(itemId).observe(this, this::bindLots);
+    }
+
+    /**
+     * 绑定批次明细：只有一个批次时与数量/有效期重复，不显示
+     */
+    private void bindLots(List<ItemLot> lots) {
+        if (lots == null || lots.size() <= 1) {
+            mTvLots.setVisibility(View.GONE);
+            return;
+        }
+        StringBuilder sb = new StringBuilder("批次：");
+        for (ItemLot lot : lots) {
+            sb.append("\n").append(lot.getExpiryEpochDay() == null ? "无有效期" : lot.getExpiryDate())
+                    .append(" × ").append(lot.getQuantity());
+        }
+        mTvLots.setText(sb.toString());
+        mTvLots.setVisibility(View.VISIBLE);
     }
 
     /**
@@ -132,10 +150,8 @@ public class ItemDetailActivity extends AppCompatActivity {
         // 基础信息
         mTvItemName.setText(item.getName());
 
-        // 分类（拼接子分类）
-        String category = item.getCategory() == null || item.getCategory().isEmpty() ? "未分类" : item.getCategory();
-        String subCategory = item.getSubCategory() == null || item.getSubCategory().isEmpty() ? "" : "/" + item.getSubCategory();
-        mTvCategory.setText(category + subCategory);
+        // 分类（完整路径，如"食品/乳制品"）
+        mTvCategory.setText(item.getCategory() == null || item.getCategory().isEmpty() ? "未分类" : item.getCategory());
 
         // 位置
         mTvLocation.setText(item.getLocation() == null || item.getLocation().isEmpty() ? "未指定" : item.getLocation());
@@ -143,40 +159,22 @@ public class ItemDetailActivity extends AppCompatActivity {
         // 数量
         mTvQuantity.setText(item.getQuantity() + "");
 
+        // 条码
+        mTvBarcode.setText(item.getBarcode() == null ? "无" : item.getBarcode());
+
         // 有效期 + 临期/过期提醒
-        String expiryDate = item.getExpiryDate();
-        if (expiryDate == null || expiryDate.isEmpty()) {
-            mTvExpiryDate.setText("无");
-            mTvExpireTip.setVisibility(View.GONE);
+        ExpiryStatus expiry = ExpiryStatus.of(item.getExpiryDate(), System.currentTimeMillis());
+        mTvExpiryDate.setText(expiry.getDisplayDate());
+        if (expiry.getStatus() == ExpiryStatus.EXPIRED) {
+            mTvExpireTip.setText("已过期");
+            mTvExpireTip.setBackgroundColor(getResources().getColor(R.color.warning_expired));
+            mTvExpireTip.setVisibility(View.VISIBLE);
+        } else if (expiry.getStatus() == ExpiryStatus.NEAR_EXPIRE) {
+            mTvExpireTip.setText("临期");
+            mTvExpireTip.setBackgroundColor(getResources().getColor(R.color.warning_near_expire));
+            mTvExpireTip.setVisibility(View.VISIBLE);
         } else {
-            try {
-                Date expiryDateObj = mExpiryFormat.parse(expiryDate);
-                mTvExpiryDate.setText(mDisplayFormat.format(expiryDateObj));
-
-                // 判断临期/过期
-                Calendar today = Calendar.getInstance();
-                Calendar expiryCal = Calendar.getInstance();
-                expiryCal.setTime(expiryDateObj);
-
-                long diff = expiryCal.getTimeInMillis() - today.getTimeInMillis();
-                long diffDays = diff / (1000 * 60 * 60 * 24);
-
-                if (diffDays < 0) {
-                    mTvExpireTip.setText("已过期");
-                    mTvExpireTip.setBackgroundColor(getResources().getColor(R.color.warning_expired));
-                    mTvExpireTip.setVisibility(View.VISIBLE);
-                } else if (diffDays <= NEAR_EXPIRE_DAYS) {
-                    mTvExpireTip.setText("临期");
-                    mTvExpireTip.setBackgroundColor(getResources().getColor(R.color.warning_near_expire));
-                    mTvExpireTip.setVisibility(View.VISIBLE);
-                } else {
-                    mTvExpireTip.setVisibility(View.GONE);
-                }
-            } catch (ParseException e) {
-                e.printStackTrace();
-                mTvExpiryDate.setText(expiryDate);
-                mTvExpireTip.setVisibility(View.GONE);
-            }
+            mTvExpireTip.setVisibility(View.GONE);
         }
 
         // 描述
@@ -191,6 +189,35 @@ public class ItemDetailActivity extends AppCompatActivity {
      * 设置点击事件
      */
     private void setClickEvents() {
+        // 消耗按钮：输入数量，从最早到期的批次开始扣减
+        mBtnConsume.setOnClickListener(v -> {
+            if (mCurrentItem == null) {
+                return;
+            }
+            EditText input = new EditText(this);
+            input.setInputType(InputType.TYPE_CLASS_NUMBER);
+            input.setText("1");
+            input.setSelectAllOnFocus(true);
+            new AlertDialog.Builder(this)
+                    .setTitle("消耗数量")
+                    .setView(input)
+                    .setPositiveButton("确定", (dialog, which) -> {
+                        int amount;
+                        try {
+                            amount = Integer.parseInt(input.getText().toString().trim());
+                        } catch (NumberFormatException e) {
+                            amount = 0;
+                        }
+                        if (amount <= 0) {
+                            Toast.makeText(ItemDetailActivity.this, "请输入大于0的数量！", Toast.LENGTH_SHORT).show();
+                            return;
+                        }
+                        mViewModel.consumeItem(mCurrentItem.getId(), amount);
+                    })
+                    .setNegativeButton("取消", null)
+                    .show();
+        });
+
         // 编辑按钮：跳转到AddItemActivity（携带物品数据）
         mBtnEdit.setOnClickListener(v -> {
             Intent intent = new Intent(ItemDetailActivity.this, AddItemActivity.class);
@@ -0,0 +1,282 @@
+package com.example.inventory;
+
+import androidx.sqlite.db.SimpleSQLiteQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 物品组合筛选/排序条件，编译为一条参数化SQL，按键集（排序键 + id）分页
+ * 用法：new ItemFilter().categoryId(食品ID).locationId(冰箱ID).expiringWithinDays(14).quantityBelow(3).nameContains("奶")
+ * 按子树筛选用 underCategory(乳制品ID)（“食品/乳制品/*”）、underLocation(车库ID)（车库及其下所有货架）
+ *
+ * 谓词顺序与索引配合：
+ * 1. 分类/位置外键等值条件 + 创建时间排序 → 走 (categoryId|locationId, createTime, id) 索引，按索引顺序取前N条
+ * 2. 有效期条件/有效期排序 → 走 (expiryDate, id) 索引范围扫描，日期边界在Java中算好，不对列套函数
+ * 3. 数量、名称子串（LIKE '%..%'）无法走索引，作为剩余条件过滤
+ * 每种排序方式都有 (排序列, id) 索引，无筛选条件时切换排序只是换一个索引遍历，不会对全表做临时B树排序
+ */
+public class ItemFilter {
+    // 排序方式：最新录入
+    public static final int SORT_CREATE_TIME_DESC = 0;
+    // 最近到期（只包含有有效期的物品）
+    public static final int SORT_EXPIRY_DATE_ASC = 1;
+    // 名称拼音顺序
+    public static final int SORT_NAME_ASC = 2;
+    // 数量从少到多
+    public static final int SORT_QUANTITY_ASC = 3;
+    // 最近修改
+    public static final int SORT_UPDATE_TIME_DESC = 4;
+
+    // 各排序方式的排序列与方向（下标即SORT_*）
+    private static final String[] SORT_COLUMNS = {"createTime", "expiryDate", "nameSortKey", "quantity", "updateTime"};
+    private static final boolean[] SORT_ASCENDING = {false, true, true, true, false};
+
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    private Long categoryId;
+    private Long ancestorCategoryId;
+    private Long locationId;
+    private Long ancestorLocationId;
+    private String nameKeyword;
+    private Integer expiringWithinDays;
+    private boolean expiredOnly;
+    private Integer quantityBelow;
+    private Integer quantityAtLeast;
+    private int sort = SORT_CREATE_TIME_DESC;
+
+    // ==================== 条件设置（链式调用） ====================
+
+    public ItemFilter categoryId(long categoryId) {
+        this.categoryId = categoryId;
+        return this;
+    }
+
+    // 分类及其全部下级分类
+    public ItemFilter underCategory(long categoryId) {
+        this.ancestorCategoryId = categoryId;
+        return this;
+    }
+
+    public ItemFilter locationId(long locationId) {
+        this.locationId = locationId;
+        return this;
+    }
+
+    // 位置及其全部下级位置
+    public ItemFilter underLocation(long locationId) {
+        this.ancestorLocationId = locationId;
+        return this;
+    }
+
+    // 名称包含关键词
+    public ItemFilter nameContains(String keyword) {
+        this.nameKeyword = keyword;
+        return this;
+    }
+
+    // days天内到期（含已过期，与临期筛选口径一致）
+    public ItemFilter expiringWithinDays(int days) {
+        this.expiringWithinDays = days;
+        return this;
+    }
+
+    // 仅已过期
+    public ItemFilter expiredOnly() {
+        this.expiredOnly = true;
+        return this;
+    }
+
+    // 数量 < quantity
+    public ItemFilter quantityBelow(int quantity) {
+        this.quantityBelow = quantity;
+        return this;
+    }
+
+    // 数量 >= quantity
+    public ItemFilter quantityAtLeast(int quantity) {
+        this.quantityAtLeast = quantity;
+        return this;
+    }
+
+    public ItemFilter sortBy(int sort) {
+        if (sort < 0 || sort >= SORT_COLUMNS.length) {
+            throw new IllegalArgumentException("未知的排序方式：" + sort);
+        }
+        this.sort = sort;
+        return this;
+    }
+
+    /**
+     * 复制当前条件并改为指定排序（原对象不变）
+     */
+    public ItemFilter withSort(int sort) {
+        ItemFilter copy = new ItemFilter();
+        copy.categoryId = categoryId;
+        copy.ancestorCategoryId = ancestorCategoryId;
+        copy.locationId = locationId;
+        copy.ancestorLocationId = ancestorLocationId;
+        copy.nameKeyword = nameKeyword;
+        copy.expiringWithinDays = expiringWithinDays;
+        copy.expiredOnly = expiredOnly;
+        copy.quantityBelow = quantityBelow;
+        copy.quantityAtLeast = quantityAtLeast;
+        return copy.sortBy(sort);
+    }
+
+    public int getSort() {
+        return sort;
+    }
+
+    // ==================== 编译 ====================
+
+    /**
+     * 编译为分页查询
+     * @param lastItem 上一页的最后一个物品（为空时查询第一页）
+     * @param pageSize 每页数量
+     * @param nowMillis 当前时间（用于计算有效期边界）
+     */
+    public SimpleSQLiteQuery toQuery(Item lastItem, int pageSize, long nowMillis) {
+        return toQuery(lastItem, null, pageSize, nowMillis);
+    }
+
+    /**
+     * 编译为键集范围查询：排序位置在lastItem之后（不含）、upTo之前（含）的物品
+     * 已加载的页按自身范围重新查询时，中间插入/删除的物品只影响所在的页，不会在页与页之间丢失或重复
+     * @param lastItem 范围起点（为空时从第一条开始）
+     * @param upTo 范围终点（为空时不限，按limit取前若干条）
+     * @param limit 最多返回的条数（0表示不限，仅在upTo不为空时使用）
+     */
+    public SimpleSQLiteQuery toQuery(Item lastItem, Item upTo, int limit, long nowMillis) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM " + Item.VIEW_NAME);
+        List<Object> args = new ArrayList<>();
+        List<String> where = new ArrayList<>();
+
+        // 1. 外键等值条件（整数比较，可走索引前缀）
+        addEquals(where, args, "categoryId", categoryId);
+        addEquals(where, args, "locationId", locationId);
+        if (ancestorCategoryId != null) {
+            // 分类子树是path索引上的一段前缀范围，再逐个走 (categoryId, createTime, id) 索引
+            where.add("categoryId IN (SELECT d.id FROM category a JOIN category d ON d.path >= a.path "
+                    + "AND d.path < a.path || '" + Category.PATH_END + "' WHERE a.id = ?)");
+            args.add(ancestorCategoryId);
+        }
+        if (ancestorLocationId != null) {
+            // 闭包表主键前缀取出子树内的位置ID，再逐个走 (locationId, createTime, id) 索引
+            where.add("locationId IN (SELECT descendantId FROM location_closure WHERE ancestorId = ?)");
+            args.add(ancestorLocationId);
+        }
+
+        // 2. 有效期范围（字符串比较，可走expiryDate索引）
+        boolean hasExpiryRange = expiredOnly || expiringWithinDays != null || sort == SORT_EXPIRY_DATE_ASC;
+        if (hasExpiryRange) {
+            where.add("expiryDate > ''");
+        }
+        if (expiredOnly) {
+            where.add("expiryDate < ?");
+            args.add(InventoryTime.formatExpiryDate(nowMillis));
+        }
+        if (expiringWithinDays != null) {
+            where.add("expiryDate <= ?");
+            args.add(InventoryTime.formatExpiryDate(nowMillis + expiringWithinDays * DAY_MILLIS));
+        }
+
+        // 3. 剩余条件
+        if (quantityBelow != null) {
+            where.add("quantity < ?");
+            args.add(quantityBelow);
+        }
+        if (quantityAtLeast != null) {
+            where.add("quantity >= ?");
+            args.add(quantityAtLeast);
+        }
+        if (nameKeyword != null && !nameKeyword.isEmpty()) {
+            where.add("name LIKE ? ESCAPE '\\'");
+            args.add("%" + escapeLike(nameKeyword) + "%");
+        }
+
+        // 4. 键集游标：(排序键, id) 严格位于上一页最后一条之后（行值比较，可直接定位索引）
+        String sortColumn = SORT_COLUMNS[sort];
+        if (lastItem != null) {
+            where.add("(" + sortColumn + ", id) " + (SORT_ASCENDING[sort] ? ">" : "<") + " (?, ?)");
+            args.add(sortKeyOf(lastItem));
+            args.add(lastItem.getId());
+        }
+        if (upTo != null) {
+            where.add("(" + sortColumn + ", id) " + (SORT_ASCENDING[sort] ? "<=" : ">=") + " (?, ?)");
+            args.add(sortKeyOf(upTo));
+            args.add(upTo.getId());
+        }
+
+        for (int i = 0; i < where.size(); i++) {
+            sql.append(i == 0 ? " WHERE " : " AND ").append(where.get(i));
+        }
+        sql.append(" ORDER BY ").append(orderBy());
+        if (upTo == null || limit > 0) {
+            sql.append(" LIMIT ").append(limit);
+        }
+        return new SimpleSQLiteQuery(sql.toString(), args.toArray());
+    }
+
+    /**
+     * 当前排序方式的ORDER BY子句（不含ORDER BY），与(排序键, id)索引的顺序一致
+     */
+    String orderBy() {
+        String direction = SORT_ASCENDING[sort] ? "ASC" : "DESC";
+        return SORT_COLUMNS[sort] + " " + direction + ", id " + direction;
+    }
+
+    /**
+     * 键集游标：只保留当前排序方式的排序键与id（窗口化列表丢弃页数据后用它重新查询该页）
+     */
+    public Item cursorOf(Item item) {
+        Item cursor = new Item();
+        cursor.setId(item.getId());
+        switch (sort) {
+            case SORT_EXPIRY_DATE_ASC:
+                cursor.setExpiryDate(item.getExpiryDate());
+                break;
+            case SORT_NAME_ASC:
+                cursor.setNameSortKey(item.getNameSortKey());
+                break;
+            case SORT_QUANTITY_ASC:
+                cursor.setQuantity(item.getQuantity());
+                break;
+            case SORT_UPDATE_TIME_DESC:
+                cursor.setUpdateTime(item.getUpdateTime());
+                break;
+            default:
+                cursor.setCreateTime(item.getCreateTime());
+                break;
+        }
+        return cursor;
+    }
+
+    // 物品在当前排序方式下的排序键
+    private Object sortKeyOf(Item item) {
+        switch (sort) {
+            case SORT_EXPIRY_DATE_ASC:
+                return item.getExpiryDate();
+            case SORT_NAME_ASC:
+                return item.getNameSortKey();
+            case SORT_QUANTITY_ASC:
+                return item.getQuantity();
+            case SORT_UPDATE_TIME_DESC:
+                return item.getUpdateTime();
+            default:
+                return item.getCreateTime();
+        }
+    }
+
+    private static void addEquals(List<String> where, List<Object> args, String column, Long value) {
+        if (value != null) {
+            where.add(column + " = ?");
+            args.add(value);
+        }
+    }
+
+    // 转义LIKE通配符，关键词按字面匹配
+    private static String escapeLike(String keyword) {
+        return keyword.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.inventory;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Ignore;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * 物品批次实体类
+ * 对应Room数据库的item_lot表：同一物品的每一批（如三箱不同有效期的牛奶）各一行，
+ * 有效期存为纪元日（1970-01-01起的天数，无有效期为空），按 (itemId, expiryEpochDay) 索引，
+ * 先进先出消耗时按此顺序取批次，物品最近有效期是该索引上的一次定位
+ *
+ * 物品行的quantity与expiryDate由item_lot表上的触发器增量维护（数量按差值加减，有效期取最早批次），
+ * 列表查询直接读物品行，无需聚合批次；删除物品时批次随外键级联删除
+ */
+@Entity(tableName = "item_lot",
+        foreignKeys = @ForeignKey(entity = ItemRecord.class, parentColumns = "id", childColumns = "itemId",
+                onDelete = ForeignKey.CASCADE, onUpdate = ForeignKey.CASCADE),
+        indices = {@Index(value = {"itemId", "expiryEpochDay"}), @Index(value = {"expiryEpochDay"}),
+                @Index(value = {"notifiedStage", "expiryEpochDay"})})
+public class ItemLot {
+    @PrimaryKey(autoGenerate = true)
+    private long id;
+
+    // 所属物品ID
+    @NonNull
+    private String itemId = "";
+
+    // 本批剩余数量
+    private int quantity;
+
+    // 有效期（纪元日，无有效期为空）
+    private Long expiryEpochDay;
+
+    // 入库时间（yyyy.MM.dd HH:mm）
+    @NonNull
+    private String receivedTime = "";
+
+    // 已提醒到的阶段（ExpiryReminder.STAGE_*，重新入库的批次从未提醒开始）
+    @ColumnInfo(defaultValue = "0")
+    private int notifiedStage;
+
+    // 空构造函数（Room要求，必须保留）
+    public ItemLot() {}
+
+    @Ignore
+    public ItemLot(@NonNull String itemId, int quantity, Long expiryEpochDay, @NonNull String receivedTime) {
+        this.itemId = itemId;
+        this.quantity = quantity;
+        this.expiryEpochDay = expiryEpochDay;
+        this.receivedTime = receivedTime;
+    }
+
+    /**
+     * 按物品表单中的数量和有效期生成一个批次
+     */
+    public static ItemLot from(Item item, @NonNull String receivedTime) {
+        return new ItemLot(item.getId(), item.getQuantity(),
+                InventoryTime.toEpochDay(item.getExpiryDate()), receivedTime);
+    }
+
+    // ==================== Getter/Setter方法 ====================
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    @NonNull
+    public String getItemId() {
+        return itemId;
+    }
+
+    public void setItemId(@NonNull String itemId) {
+        this.itemId = itemId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public Long getExpiryEpochDay() {
+        return expiryEpochDay;
+    }
+
+    public void setExpiryEpochDay(Long expiryEpochDay) {
+        this.expiryEpochDay = expiryEpochDay;
+    }
+
+    @NonNull
+    public String getReceivedTime() {
+        return receivedTime;
+    }
+
+    public void setReceivedTime(@NonNull String receivedTime) {
+        this.receivedTime = receivedTime;
+    }
+
+    public int getNotifiedStage() {
+        return notifiedStage;
+    }
+
+    public void setNotifiedStage(int notifiedStage) {
+        this.notifiedStage = notifiedStage;
+    }
+
+    // 有效期（yyyy-MM-dd，无有效期为空串）
+    public String getExpiryDate() {
+        return expiryEpochDay == null ? "" : InventoryTime.formatEpochDay(expiryEpochDay);
+    }
+
+    // ==================== 触发器维护 ====================
+
+    // 物品最近有效期：(itemId, expiryEpochDay)索引上取第一个非空值，转为yyyy-MM-dd（%s为物品ID表达式）
+    private static final String NEAREST_EXPIRY = "IFNULL((SELECT date(expiryEpochDay * 86400, 'unixepoch') "
+            + "FROM item_lot WHERE itemId = %s AND expiryEpochDay IS NOT NULL "
+            + "ORDER BY expiryEpochDay LIMIT 1), '')";
+
+    /**
+     * 创建维护物品数量与最近有效期的触发器（建库及迁移时调用）
+     */
+    static void createTriggers(SupportSQLiteDatabase db) {
+        db.execSQL("DROP TRIGGER IF EXISTS item_lot_after_insert");
+        db.execSQL("DROP TRIGGER IF EXISTS item_lot_after_update");
+        db.execSQL("DROP TRIGGER IF EXISTS item_lot_after_delete");
+        db.execSQL("CREATE TRIGGER item_lot_after_insert AFTER INSERT ON item_lot BEGIN "
+                + "UPDATE item SET quantity = quantity + NEW.quantity, "
+                + "expiryDate = " + String.format(NEAREST_EXPIRY, "NEW.itemId") + " "
+                + "WHERE id = NEW.itemId; END");
+        db.execSQL("CREATE TRIGGER item_lot_after_update AFTER UPDATE OF quantity, expiryEpochDay ON item_lot BEGIN "
+                + "UPDATE item SET quantity = quantity + NEW.quantity - OLD.quantity, "
+                + "expiryDate = " + String.format(NEAREST_EXPIRY, "NEW.itemId") + " "
+                + "WHERE id = NEW.itemId; END");
+        // 物品被删除时级联删除的批次也会触发，此时物品行已不存在，UPDATE不影响任何行
+        db.execSQL("CREATE TRIGGER item_lot_after_delete AFTER DELETE ON item_lot BEGIN "
+                + "UPDATE item SET quantity = quantity - OLD.quantity, "
+                + "expiryDate = " + String.format(NEAREST_EXPIRY, "OLD.itemId") + " "
+                + "WHERE id = OLD.itemId; END");
+    }
+
+    /**
+     * 为已有物品补建批次：每个有库存或有效期的物品一个批次（迁移时在创建触发器之前调用，物品行保持不变）
+     */
+    static void backfill(SupportSQLiteDatabase db) {
+        db.execSQL("INSERT INTO item_lot (itemId, quantity, expiryEpochDay, receivedTime) "
+                + "SELECT id, quantity, CASE WHEN expiryDate GLOB '[0-9][0-9][0-9][0-9]-[0-9][0-9]-[0-9][0-9]' "
+                + "THEN CAST(julianday(expiryDate) - 2440587.5 AS INTEGER) END, createTime "
+                + "FROM item WHERE quantity > 0 OR IFNULL(expiryDate, '') <> ''");
+    }
+}
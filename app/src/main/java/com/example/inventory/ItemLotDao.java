@@ -0,0 +1,118 @@
+package com.example.inventory;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import java.util.List;
+
+/**
+ * 物品批次数据访问接口
+ * 批次的增删改由触发器同步到物品行的数量与最近有效期，调用方不再直接改写物品的这两列
+ */
+@Dao
+public interface ItemLotDao {
+    // 入库一个批次
+    @Insert
+    long insert(ItemLot lot);
+
+    // 物品的全部批次（先进先出顺序：有效期早的在前，无有效期的最后，同有效期按入库先后）
+    @Query("SELECT * FROM item_lot WHERE itemId = :itemId "
+            + "ORDER BY expiryEpochDay IS NULL, expiryEpochDay, id")
+    LiveData<List<ItemLot>> getLotsByItemId(String itemId);
+
+    // 同上（仅限子线程调用）
+    @Query("SELECT * FROM item_lot WHERE itemId = :itemId "
+            + "ORDER BY expiryEpochDay IS NULL, expiryEpochDay, id")
+    List<ItemLot> getLotsByItemIdSync(String itemId);
+
+    @Query("UPDATE item_lot SET quantity = :quantity WHERE id = :lotId")
+    void updateQuantity(long lotId, int quantity);
+
+    // 追加到物品最近入库的无有效期批次（扫码入库合并为一个批次），没有这样的批次时返回0
+    @Query("UPDATE item_lot SET quantity = quantity + :amount WHERE id = (SELECT id FROM item_lot "
+            + "WHERE itemId = :itemId AND expiryEpochDay IS NULL ORDER BY id DESC LIMIT 1)")
+    int addToUndatedLot(String itemId, int amount);
+
+    // 批量追加到各物品最近入库的无有效期批次
+    @Query("UPDATE item_lot SET quantity = quantity + :amount WHERE id IN (SELECT MAX(id) FROM item_lot "
+            + "WHERE itemId IN (:itemIds) AND expiryEpochDay IS NULL GROUP BY itemId)")
+    int addToUndatedLots(List<String> itemIds, int amount);
+
+    // 为还没有无有效期批次的物品各新建一个
+    @Query("INSERT INTO item_lot (itemId, quantity, expiryEpochDay, receivedTime, notifiedStage) "
+            + "SELECT id, :amount, NULL, :receivedTime, " + ExpiryReminder.STAGE_NONE + " FROM item "
+            + "WHERE id IN (:itemIds) AND NOT EXISTS (SELECT 1 FROM item_lot l "
+            + "WHERE l.itemId = item.id AND l.expiryEpochDay IS NULL)")
+    void insertUndatedLots(List<String> itemIds, int amount, String receivedTime);
+
+    @Query("DELETE FROM item_lot WHERE id = :lotId")
+    void deleteById(long lotId);
+
+    @Query("DELETE FROM item_lot WHERE itemId = :itemId")
+    void deleteByItemId(String itemId);
+
+    // ==================== 临期/过期提醒（仅限子线程调用，走notifiedStage+expiryEpochDay索引） ====================
+    @Query("SELECT l.id AS lotId, l.itemId, i.name, l.expiryEpochDay, l.quantity "
+            + "FROM item_lot l JOIN item i ON i.id = l.itemId "
+            + "WHERE l.notifiedStage IN (" + ExpiryReminder.STAGE_NONE + ", " + ExpiryReminder.STAGE_NEAR + ") "
+            + "AND l.expiryEpochDay < :today AND l.quantity > 0 "
+            + "AND (l.expiryEpochDay, l.id) > (:afterExpiry, :afterLotId) "
+            + "ORDER BY l.expiryEpochDay, l.id LIMIT :limit")
+    List<ExpiryReminder.DueLot> getExpiredLotsSync(long today, long afterExpiry, long afterLotId, int limit);
+
+    @Query("SELECT l.id AS lotId, l.itemId, i.name, l.expiryEpochDay, l.quantity "
+            + "FROM item_lot l JOIN item i ON i.id = l.itemId "
+            + "WHERE l.notifiedStage = " + ExpiryReminder.STAGE_NONE + " "
+            + "AND l.expiryEpochDay >= :today AND l.expiryEpochDay <= :horizon AND l.quantity > 0 "
+            + "AND (l.expiryEpochDay, l.id) > (:afterExpiry, :afterLotId) "
+            + "ORDER BY l.expiryEpochDay, l.id LIMIT :limit")
+    List<ExpiryReminder.DueLot> getNearLotsSync(long today, long horizon, long afterExpiry, long afterLotId,
+                                                int limit);
+
+    @Query("UPDATE item_lot SET notifiedStage = :stage WHERE id IN (:lotIds)")
+    void markNotified(List<Long> lotIds, int stage);
+
+    @Query("SELECT MIN(expiryEpochDay) FROM item_lot WHERE notifiedStage = " + ExpiryReminder.STAGE_NONE
+            + " AND expiryEpochDay > :horizon")
+    Long getNextNearExpirySync(long horizon);
+
+    @Query("SELECT MIN(expiryEpochDay) FROM item_lot WHERE notifiedStage = " + ExpiryReminder.STAGE_NEAR
+            + " AND expiryEpochDay >= :today")
+    Long getNextExpirySync(long today);
+
+    /**
+     * 先进先出消耗：从最早到期的批次开始扣减，扣完的批次删除，整个过程在一个事务中完成
+     * @return 实际消耗的数量（库存不足时小于amount）
+     */
+    @Transaction
+    default int consume(String itemId, int amount) {
+        int remaining = amount;
+        for (ItemLot lot : getLotsByItemIdSync(itemId)) {
+            if (remaining <= 0) {
+                break;
+            }
+            int taken = Math.min(remaining, lot.getQuantity());
+            remaining -= taken;
+            if (taken == lot.getQuantity()) {
+                deleteById(lot.getId());
+            } else {
+                updateQuantity(lot.getId(), lot.getQuantity() - taken);
+            }
+        }
+        return amount - remaining;
+    }
+
+    /**
+     * 用一个批次替换物品的全部批次（编辑表单直接修改了数量或有效期时）
+     */
+    @Transaction
+    default void replaceAll(String itemId, ItemLot lot) {
+        deleteByItemId(itemId);
+        if (lot.getQuantity() > 0 || lot.getExpiryEpochDay() != null) {
+            insert(lot);
+        }
+    }
+}
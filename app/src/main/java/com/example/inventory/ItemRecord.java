@@ -0,0 +1,183 @@
+package com.example.inventory;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * 物品表实体类（存储结构）
+ * 对应Room数据库的item表：分类、位置只存整数外键，改名只需更新对应的一行；
+ * 被引用的分类/位置删除时外键置空，主键变化时级联更新
+ * 界面与查询使用带名称的 {@link Item}（item_detail视图），写入前由 {@link #from(Item)} 转换
+ */
+@Entity(tableName = "item",
+        foreignKeys = {
+                @ForeignKey(entity = Category.class, parentColumns = "id", childColumns = "categoryId",
+                        onDelete = ForeignKey.SET_NULL, onUpdate = ForeignKey.CASCADE),
+                @ForeignKey(entity = Location.class, parentColumns = "id", childColumns = "locationId",
+                        onDelete = ForeignKey.SET_NULL, onUpdate = ForeignKey.CASCADE)},
+        indices = {@Index(value = {"expiryDate", "id"}), @Index(value = {"createTime", "id"}),
+                @Index(value = {"categoryId", "createTime", "id"}), @Index(value = {"locationId", "createTime", "id"}),
+                @Index(value = {"nameSortKey", "id"}), @Index(value = {"quantity", "id"}),
+                @Index(value = {"updateTime", "id"}), @Index(value = {"barcode"}, unique = true)})
+public class ItemRecord {
+    @PrimaryKey
+    @NonNull
+    private String id = "";
+
+    @NonNull
+    private String name = "";
+
+    // 分类ID（未分类为空，可以是任意层级的分类）
+    private Long categoryId;
+
+    // 位置ID（未指定为空）
+    private Long locationId;
+
+    private int quantity;
+
+    // 条码/SKU（未录入为空；唯一索引允许多个空值，扫码时按索引定位物品）
+    private String barcode;
+
+    private String expiryDate;
+
+    private String description;
+
+    private String imagePaths;
+
+    @NonNull
+    private String createTime = "";
+
+    @NonNull
+    private String updateTime = "";
+
+    @ColumnInfo(typeAffinity = ColumnInfo.BLOB)
+    private byte[] nameSortKey;
+
+    // 空构造函数（Room要求，必须保留）
+    public ItemRecord() {}
+
+    /**
+     * 由界面模型生成存储行（分类/位置取其ID，名称不落库）
+     */
+    public static ItemRecord from(Item item) {
+        ItemRecord record = new ItemRecord();
+        record.id = item.getId();
+        record.name = item.getName();
+        record.categoryId = item.getCategoryId();
+        record.locationId = item.getLocationId();
+        record.quantity = item.getQuantity();
+        record.barcode = Barcodes.normalize(item.getBarcode());
+        record.expiryDate = item.getExpiryDate();
+        record.description = item.getDescription();
+        record.imagePaths = item.getImagePaths();
+        record.createTime = item.getCreateTime();
+        record.updateTime = item.getUpdateTime();
+        record.nameSortKey = item.getNameSortKey();
+        return record;
+    }
+
+    // ==================== Getter/Setter方法 ====================
+    @NonNull
+    public String getId() {
+        return id;
+    }
+
+    public void setId(@NonNull String id) {
+        this.id = id;
+    }
+
+    @NonNull
+    public String getName() {
+        return name;
+    }
+
+    public void setName(@NonNull String name) {
+        this.name = name;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(Long categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public Long getLocationId() {
+        return locationId;
+    }
+
+    public void setLocationId(Long locationId) {
+        this.locationId = locationId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public String getBarcode() {
+        return barcode;
+    }
+
+    public void setBarcode(String barcode) {
+        this.barcode = barcode;
+    }
+
+    public String getExpiryDate() {
+        return expiryDate;
+    }
+
+    public void setExpiryDate(String expiryDate) {
+        this.expiryDate = expiryDate;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getImagePaths() {
+        return imagePaths;
+    }
+
+    public void setImagePaths(String imagePaths) {
+        this.imagePaths = imagePaths;
+    }
+
+    @NonNull
+    public String getCreateTime() {
+        return createTime;
+    }
+
+    public void setCreateTime(@NonNull String createTime) {
+        this.createTime = createTime;
+    }
+
+    @NonNull
+    public String getUpdateTime() {
+        return updateTime;
+    }
+
+    public void setUpdateTime(@NonNull String updateTime) {
+        this.updateTime = updateTime;
+    }
+
+    public byte[] getNameSortKey() {
+        return nameSortKey;
+    }
+
+    public void setNameSortKey(byte[] nameSortKey) {
+        this.nameSortKey = nameSortKey;
+    }
+}
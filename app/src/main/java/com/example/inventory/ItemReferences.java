@@ -0,0 +1,58 @@
+package com.example.inventory;
+
+/**
+ * 把物品上的分类/位置名称解析为外键ID（仅限子线程调用）
+ * 表单提交的物品只有名称：名称为空串表示未设置（ID置空），名称不存在时自动创建对应记录；
+ * 名称为null表示未加载名称，保留已有ID不变
+ * 分类名称是名称路径（"食品/乳制品"），逐级在上级分类下查找或创建
+ */
+class ItemReferences {
+    private final CategoryDao categoryDao;
+    private final LocationDao locationDao;
+
+    ItemReferences(CategoryDao categoryDao, LocationDao locationDao) {
+        this.categoryDao = categoryDao;
+        this.locationDao = locationDao;
+    }
+
+    void resolve(Item item) {
+        MainThreadGuard.assertNotMainThread("ItemReferences.resolve");
+        if (item.getCategory() != null) {
+            item.setCategoryId(categoryId(item.getCategory()));
+        }
+        if (item.getLocation() != null) {
+            item.setLocationId(item.getLocation().isEmpty() ? null : locationId(item.getLocation()));
+        }
+    }
+
+    // 批量修改用：分类名称路径/位置名称 → ID（空串表示置空，不存在时自动创建）
+    Long resolveCategory(String fullName) {
+        MainThreadGuard.assertNotMainThread("ItemReferences.resolveCategory");
+        return categoryId(fullName);
+    }
+
+    Long resolveLocation(String name) {
+        MainThreadGuard.assertNotMainThread("ItemReferences.resolveLocation");
+        return name.isEmpty() ? null : locationId(name);
+    }
+
+    // 名称路径 → 最末一级分类的ID（路径为空时返回null）
+    private Long categoryId(String fullName) {
+        Long parentId = null;
+        for (String segment : fullName.split(Category.PATH_SEPARATOR)) {
+            String name = segment.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            Category category = parentId == null
+                    ? categoryDao.getCategoryByName(name) : categoryDao.getChildByName(parentId, name);
+            parentId = category != null ? category.getId() : categoryDao.insert(new Category(name, parentId));
+        }
+        return parentId;
+    }
+
+    private long locationId(String name) {
+        Location location = locationDao.getLocationByName(name);
+        return location != null ? location.getId() : locationDao.insert(new Location(name));
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.inventory;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * 物品拼音检索键实体类
+ * 对应Room数据库的item_search_key表，每个物品若干行（见 {@link PinyinKeys}），
+ * 主键以检索键开头，拼音/首字母前缀搜索是主键上的范围扫描；物品删除时由触发器同步删除
+ */
+@Entity(tableName = "item_search_key", primaryKeys = {"searchKey", "itemId"},
+        indices = {@Index(value = {"itemId"})})
+public class ItemSearchKey {
+    // 检索键（小写全拼或首字母）
+    @NonNull
+    private String searchKey = "";
+
+    // 所属物品ID
+    @NonNull
+    private String itemId = "";
+
+    // 空构造函数（Room要求，必须保留）
+    public ItemSearchKey() {}
+
+    @Ignore
+    public ItemSearchKey(@NonNull String searchKey, @NonNull String itemId) {
+        this.searchKey = searchKey;
+        this.itemId = itemId;
+    }
+
+    // ==================== Getter/Setter方法 ====================
+    @NonNull
+    public String getSearchKey() {
+        return searchKey;
+    }
+
+    public void setSearchKey(@NonNull String searchKey) {
+        this.searchKey = searchKey;
+    }
+
+    @NonNull
+    public String getItemId() {
+        return itemId;
+    }
+
+    public void setItemId(@NonNull String itemId) {
+        this.itemId = itemId;
+    }
+
+    // ==================== 触发器维护 ====================
+
+    /**
+     * 创建物品删除时清理检索键的触发器（建库及每次重建item表后调用）
+     */
+    static void createTriggers(SupportSQLiteDatabase db) {
+        db.execSQL("DROP TRIGGER IF EXISTS item_search_key_after_delete");
+        db.execSQL("CREATE TRIGGER item_search_key_after_delete AFTER DELETE ON item BEGIN "
+                + "DELETE FROM item_search_key WHERE itemId = OLD.id; END");
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.inventory;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 物品拼音检索键数据访问接口（仅限子线程调用）
+ */
+@Dao
+public interface ItemSearchKeyDao {
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void insertAll(List<ItemSearchKey> keys);
+
+    @Query("DELETE FROM item_search_key WHERE itemId = :itemId")
+    void deleteByItemId(String itemId);
+
+    // 某个物品的全部检索键
+    @Query("SELECT searchKey FROM item_search_key WHERE itemId = :itemId")
+    List<String> getKeysByItemId(String itemId);
+
+    /**
+     * 按物品名称重新生成检索键（新增/改名/回填时调用，同一事务内先删后插）
+     */
+    @Transaction
+    default void replaceKeys(List<Item> items) {
+        List<ItemSearchKey> keys = new ArrayList<>();
+        for (Item item : items) {
+            deleteByItemId(item.getId());
+            for (String key : PinyinKeys.of(item.getName())) {
+                keys.add(new ItemSearchKey(key, item.getId()));
+            }
+        }
+        insertAll(keys);
+    }
+}
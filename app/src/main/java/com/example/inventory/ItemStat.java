@@ -0,0 +1,150 @@
+package com.example.inventory;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * 库存汇总实体类（物化聚合表）
+ * 对应Room数据库的item_stat表，由item表上的触发器在插入/更新/删除时增量维护，
+ * 首页统计、角标数字只需读取少量行，与物品总数无关
+ */
+@Entity(tableName = "item_stat", primaryKeys = {"dimension", "statKey"})
+public class ItemStat {
+    // ==================== 统计维度 ====================
+    public static final int DIM_TOTAL = 0;       // 全部物品（statKey为空串）
+    public static final int DIM_CATEGORY = 1;    // 按分类（statKey为分类ID，分类改名无需更新）
+    public static final int DIM_LOCATION = 2;    // 按位置（statKey为位置ID）
+    public static final int DIM_EXPIRY_DATE = 3; // 按有效期（statKey为yyyy-MM-dd，无有效期为空串）
+
+    // 统计维度
+    private int dimension;
+
+    // 维度取值（空串表示未设置）
+    @NonNull
+    private String statKey = "";
+
+    // 物品条数
+    private int itemCount;
+
+    // 数量合计
+    private long totalQuantity;
+
+    // 空构造函数（Room要求，必须保留）
+    public ItemStat() {}
+
+    @Ignore
+    public ItemStat(int dimension, @NonNull String statKey, int itemCount, long totalQuantity) {
+        this.dimension = dimension;
+        this.statKey = statKey;
+        this.itemCount = itemCount;
+        this.totalQuantity = totalQuantity;
+    }
+
+    // ==================== Getter/Setter方法 ====================
+    public int getDimension() {
+        return dimension;
+    }
+
+    public void setDimension(int dimension) {
+        this.dimension = dimension;
+    }
+
+    @NonNull
+    public String getStatKey() {
+        return statKey;
+    }
+
+    public void setStatKey(@NonNull String statKey) {
+        this.statKey = statKey;
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public void setItemCount(int itemCount) {
+        this.itemCount = itemCount;
+    }
+
+    public long getTotalQuantity() {
+        return totalQuantity;
+    }
+
+    public void setTotalQuantity(long totalQuantity) {
+        this.totalQuantity = totalQuantity;
+    }
+
+    // ==================== 触发器维护 ====================
+
+    // 各维度在item表上对应的取值表达式（%s为NEW或OLD）
+    private static final int[] DIMENSIONS = {DIM_TOTAL, DIM_CATEGORY, DIM_LOCATION, DIM_EXPIRY_DATE};
+    private static final String[] KEY_EXPRESSIONS = {
+            "''", "IFNULL(%s.categoryId, '')", "IFNULL(%s.locationId, '')", "IFNULL(%s.expiryDate, '')"
+    };
+
+    /**
+     * 创建维护item_stat的触发器（建库及每次重建item表后调用）
+     */
+    static void createTriggers(SupportSQLiteDatabase db) {
+        db.execSQL("DROP TRIGGER IF EXISTS item_stat_after_insert");
+        db.execSQL("DROP TRIGGER IF EXISTS item_stat_after_delete");
+        db.execSQL("DROP TRIGGER IF EXISTS item_stat_after_update");
+        db.execSQL("CREATE TRIGGER item_stat_after_insert AFTER INSERT ON item BEGIN "
+                + addSql("NEW") + " END");
+        db.execSQL("CREATE TRIGGER item_stat_after_delete AFTER DELETE ON item BEGIN "
+                + removeSql("OLD") + " END");
+        db.execSQL("CREATE TRIGGER item_stat_after_update "
+                + "AFTER UPDATE OF categoryId, locationId, expiryDate, quantity ON item BEGIN "
+                + removeSql("OLD") + addSql("NEW") + " END");
+    }
+
+    /**
+     * 根据item表现有数据重建汇总（建表迁移时调用）
+     */
+    static void rebuild(SupportSQLiteDatabase db) {
+        db.execSQL("DELETE FROM item_stat");
+        db.execSQL("INSERT INTO item_stat (dimension, statKey, itemCount, totalQuantity) VALUES ("
+                + DIM_TOTAL + ", '', 0, 0)");
+        db.execSQL("UPDATE item_stat SET itemCount = (SELECT COUNT(*) FROM item), "
+                + "totalQuantity = (SELECT IFNULL(SUM(quantity), 0) FROM item) "
+                + "WHERE dimension = " + DIM_TOTAL);
+        for (int i = 1; i < DIMENSIONS.length; i++) {
+            String key = String.format(KEY_EXPRESSIONS[i], "item");
+            db.execSQL("INSERT INTO item_stat (dimension, statKey, itemCount, totalQuantity) "
+                    + "SELECT " + DIMENSIONS[i] + ", " + key + ", COUNT(*), IFNULL(SUM(quantity), 0) "
+                    + "FROM item GROUP BY " + key);
+        }
+    }
+
+    // 物品计入各维度（SQLite 3.22不支持UPSERT，先INSERT OR IGNORE再UPDATE）
+    private static String addSql(String row) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < DIMENSIONS.length; i++) {
+            String key = String.format(KEY_EXPRESSIONS[i], row);
+            sb.append("INSERT OR IGNORE INTO item_stat (dimension, statKey, itemCount, totalQuantity) VALUES (")
+                    .append(DIMENSIONS[i]).append(", ").append(key).append(", 0, 0); ");
+            sb.append("UPDATE item_stat SET itemCount = itemCount + 1, totalQuantity = totalQuantity + ")
+                    .append(row).append(".quantity WHERE dimension = ").append(DIMENSIONS[i])
+                    .append(" AND statKey = ").append(key).append("; ");
+        }
+        return sb.toString();
+    }
+
+    // 物品从各维度扣除，计数归零的分组行随之删除（总计行保留）
+    private static String removeSql(String row) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < DIMENSIONS.length; i++) {
+            String key = String.format(KEY_EXPRESSIONS[i], row);
+            sb.append("UPDATE item_stat SET itemCount = itemCount - 1, totalQuantity = totalQuantity - ")
+                    .append(row).append(".quantity WHERE dimension = ").append(DIMENSIONS[i])
+                    .append(" AND statKey = ").append(key).append("; ");
+            if (DIMENSIONS[i] != DIM_TOTAL) {
+                sb.append("DELETE FROM item_stat WHERE dimension = ").append(DIMENSIONS[i])
+                        .append(" AND statKey = ").append(key).append(" AND itemCount <= 0; ");
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.inventory;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Query;
+
+import java.util.List;
+
+/**
+ * 库存汇总数据访问接口（只读，数据由item表触发器维护）
+ */
+@Dao
+public interface ItemStatDao {
+    // 全部物品的条数与数量合计（单行读取）
+    @Query("SELECT * FROM item_stat WHERE dimension = " + ItemStat.DIM_TOTAL + " AND statKey = '' LIMIT 1")
+    LiveData<ItemStat> getTotal();
+
+    // 某一维度下各分组的统计（如各分类、各位置的物品数）
+    @Query("SELECT * FROM item_stat WHERE dimension = :dimension ORDER BY itemCount DESC")
+    LiveData<List<ItemStat>> getStatsByDimension(int dimension);
+
+    // 某一维度下单个分组的统计
+    @Query("SELECT * FROM item_stat WHERE dimension = :dimension AND statKey = :statKey LIMIT 1")
+    LiveData<ItemStat> getStat(int dimension, String statKey);
+
+    // 有效期不晚于toDate的物品条数（含已过期，与临期列表的筛选规则一致；主键范围扫描，行数不超过天数）
+    @Query("SELECT IFNULL(SUM(itemCount), 0) FROM item_stat WHERE dimension = " + ItemStat.DIM_EXPIRY_DATE
+            + " AND statKey > '' AND statKey <= :toDate")
+    LiveData<Integer> countExpiryUpTo(String toDate);
+
+    // 有效期早于beforeDate的物品条数（已过期）
+    @Query("SELECT IFNULL(SUM(itemCount), 0) FROM item_stat WHERE dimension = " + ItemStat.DIM_EXPIRY_DATE
+            + " AND statKey > '' AND statKey < :beforeDate")
+    LiveData<Integer> countExpiryBefore(String beforeDate);
+}
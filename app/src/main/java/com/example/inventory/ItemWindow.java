@@ -0,0 +1,252 @@
+package com.example.inventory;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * 首页物品列表的窗口化数据（只在主线程访问）
+ *
+ * 列表按页组织，每页记录条数和最后一条的键集游标（只含排序键与id）；
+ * 内存中只保留视口附近的maxPages页，视口外的页丢弃数据、只留条数，对应位置返回null（适配器绑定为占位条目），
+ * 列表总条数与各条目位置不变，滚动位置保持稳定；滚回时按“上一页的游标之后、本页游标为止”重新查询该页
+ *
+ * 每次修改返回一个{@link Update}，按版本号连续时适配器做局部刷新，否则整体刷新
+ */
+public class ItemWindow extends AbstractList<Item> {
+    // 默认保留的页数（视口所在页及前后各若干页）
+    public static final int DEFAULT_MAX_PAGES = 6;
+
+    /**
+     * 一次修改：版本号比上一次修改大1
+     */
+    public static final class Update {
+        public static final int RESET = 0;     // 整体刷新
+        public static final int INSERTED = 1;  // [start, start + count)为新追加的条目
+        public static final int CHANGED = 2;   // [start, start + count)的内容变化，位置不变
+
+        public final int type;
+        public final int start;
+        public final int count;
+        public final long version;
+
+        Update(int type, int start, int count, long version) {
+            this.type = type;
+            this.start = start;
+            this.count = count;
+            this.version = version;
+        }
+    }
+
+    private static final class Page {
+        List<Item> items;   // 被丢弃时为空
+        int size;
+        Item last;          // 最后一条的键集游标
+
+        Page(List<Item> items, Item last) {
+            this.items = items;
+            this.size = items.size();
+            this.last = last;
+        }
+    }
+
+    private final int maxPages;
+    private final List<Page> pages = new ArrayList<>();
+    // 各页第一条的位置（pageStarts[i]，有效范围[0, pages.size())）
+    private int[] pageStarts = new int[16];
+    // 数据仍在内存中的页
+    private final TreeSet<Integer> loadedPages = new TreeSet<>();
+    private Function<Item, Item> cursorOf = Function.identity();
+    private int size;
+    private long version;
+
+    public ItemWindow() {
+        this(DEFAULT_MAX_PAGES);
+    }
+
+    public ItemWindow(int maxPages) {
+        if (maxPages < 2) {
+            throw new IllegalArgumentException("至少保留2页：" + maxPages);
+        }
+        this.maxPages = maxPages;
+    }
+
+    // ==================== List ====================
+
+    /**
+     * @return 该位置的物品，所在页已被丢弃时返回null（占位）
+     */
+    @Override
+    public Item get(int position) {
+        if (position < 0 || position >= size) {
+            throw new IndexOutOfBoundsException("position " + position + ", size " + size);
+        }
+        int index = pageOf(position);
+        Page page = pages.get(index);
+        return page.items == null ? null : page.items.get(position - pageStarts[index]);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // ==================== 页 ====================
+
+    public int getPageCount() {
+        return pages.size();
+    }
+
+    // 数据仍在内存中的页数
+    public int getLoadedPageCount() {
+        return loadedPages.size();
+    }
+
+    public boolean isPageLoaded(int index) {
+        return pages.get(index).items != null;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 位置所在的页（二分查找各页起始位置）
+     */
+    public int pageOf(int position) {
+        int index = Arrays.binarySearch(pageStarts, 0, pages.size(), position);
+        if (index < 0) {
+            index = -index - 2;
+        }
+        // 空页与下一页起始位置相同，取最后一个起始于此的页
+        while (index + 1 < pages.size() && pageStarts[index + 1] == position) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * 页的键集范围起点（不含）：上一页最后一条的游标，第一页为null
+     */
+    public Item lowerBoundOf(int index) {
+        return index == 0 ? null : pages.get(index - 1).last;
+    }
+
+    /**
+     * 页的键集范围终点（含）：本页最后一条的游标
+     */
+    public Item upperBoundOf(int index) {
+        return pages.get(index).last;
+    }
+
+    // 页的条数（已丢弃的页为丢弃前的条数）
+    public int sizeOf(int index) {
+        return pages.get(index).size;
+    }
+
+    /**
+     * 页第一条的位置（index为页数时返回总条数，即追加位置）
+     */
+    public int startOf(int index) {
+        return index == pages.size() ? size : pageStarts[index];
+    }
+
+    /**
+     * 最后一页之后的游标（追加下一页时的查询起点）
+     */
+    public Item tailCursor() {
+        return pages.isEmpty() ? null : pages.get(pages.size() - 1).last;
+    }
+
+    /**
+     * 应保留的页范围[first, last]：覆盖视口，并在前后平均分配剩余的页数
+     */
+    public int[] retainedRange(int firstVisible, int lastVisible) {
+        if (pages.isEmpty()) {
+            return new int[]{0, -1};
+        }
+        int first = pageOf(Math.max(0, Math.min(firstVisible, size - 1)));
+        int last = pageOf(Math.max(0, Math.min(lastVisible, size - 1)));
+        int spare = Math.max(0, maxPages - (last - first + 1));
+        first = Math.max(0, first - spare / 2);
+        last = Math.min(pages.size() - 1, last + spare - spare / 2);
+        return new int[]{first, last};
+    }
+
+    // ==================== 修改 ====================
+
+    /**
+     * 清空（切换列表来源时）
+     * @param cursorOf 由物品生成键集游标（只保留当前排序方式的排序键与id）
+     */
+    public Update reset(Function<Item, Item> cursorOf) {
+        this.cursorOf = cursorOf;
+        pages.clear();
+        loadedPages.clear();
+        size = 0;
+        return new Update(Update.RESET, 0, 0, ++version);
+    }
+
+    /**
+     * 在末尾追加一页（不能为空页）
+     */
+    public Update append(List<Item> items) {
+        if (items.isEmpty()) {
+            throw new IllegalArgumentException("不能追加空页");
+        }
+        int index = pages.size();
+        if (index == pageStarts.length) {
+            pageStarts = Arrays.copyOf(pageStarts, index * 2);
+        }
+        pageStarts[index] = size;
+        pages.add(new Page(new ArrayList<>(items), cursorOf.apply(items.get(items.size() - 1))));
+        loadedPages.add(index);
+        int start = size;
+        size += items.size();
+        return new Update(Update.INSERTED, start, items.size(), ++version);
+    }
+
+    /**
+     * 用重新查询的结果填充一页（被丢弃的页重新载入，或已载入的页数据变化）
+     * 页的游标在追加时确定后不再改变，各页的键集范围始终互不重叠：新增的物品只落入一页，不会丢失或重复；
+     * 页内条数变化时后续各页位置整体移动，返回RESET
+     */
+    public Update fill(int index, List<Item> items) {
+        Page page = pages.get(index);
+        int start = pageStarts[index];
+        page.items = new ArrayList<>(items);
+        loadedPages.add(index);
+        int delta = items.size() - page.size;
+        if (delta == 0) {
+            return new Update(Update.CHANGED, start, items.size(), ++version);
+        }
+        page.size = items.size();
+        for (int i = index + 1; i < pages.size(); i++) {
+            pageStarts[i] += delta;
+        }
+        size += delta;
+        return new Update(Update.RESET, 0, size, ++version);
+    }
+
+    /**
+     * 丢弃[first, last]之外的页的数据（位置不变，不需要刷新界面）
+     * @return 被丢弃的页
+     */
+    public List<Integer> evictOutside(int first, int last) {
+        List<Integer> evicted = new ArrayList<>();
+        Iterator<Integer> iterator = loadedPages.iterator();
+        while (iterator.hasNext()) {
+            int index = iterator.next();
+            if (index < first || index > last) {
+                pages.get(index).items = null;
+                iterator.remove();
+                evicted.add(index);
+            }
+        }
+        return evicted;
+    }
+}
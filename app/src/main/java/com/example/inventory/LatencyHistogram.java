@@ -0,0 +1,97 @@
+package com.example.inventory;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 无锁耗时直方图（对数分桶，每个2的幂区间再分4个子桶，相对误差约19%）
+ * 记录单位为纳秒，按微秒分桶，覆盖1us ~ 约9分钟
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int OCTAVES = 30;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(OCTAVES * SUB_BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long nanos) {
+        long micros = Math.max(1, nanos / 1000);
+        buckets.incrementAndGet(bucketIndex(micros));
+        count.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        long max;
+        while (nanos > (max = maxNanos.get()) && !maxNanos.compareAndSet(max, nanos)) {
+            // 重试直到更新成功
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public double getMeanMillis() {
+        long n = count.get();
+        return n == 0 ? 0 : totalNanos.get() / 1_000_000.0 / n;
+    }
+
+    public double getMaxMillis() {
+        return maxNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * 百分位耗时（毫秒，取所在桶的上界）
+     * @param percentile 0~100
+     */
+    public double percentileMillis(double percentile) {
+        long n = count.get();
+        if (n == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(n * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < buckets.length(); i++) {
+            seen += buckets.get(i);
+            if (seen >= target) {
+                return Math.min(bucketUpperMicros(i) / 1000.0, getMaxMillis());
+            }
+        }
+        return getMaxMillis();
+    }
+
+    public void reset() {
+        for (int i = 0; i < buckets.length(); i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        totalNanos.set(0);
+        maxNanos.set(0);
+    }
+
+    /**
+     * 一行摘要：次数、均值、p50/p95/p99、最大值
+     */
+    public String summary() {
+        return String.format(Locale.US, "n=%d avg=%.2fms p50=%.2fms p95=%.2fms p99=%.2fms max=%.2fms",
+                getCount(), getMeanMillis(), percentileMillis(50), percentileMillis(95),
+                percentileMillis(99), getMaxMillis());
+    }
+
+    private static int bucketIndex(long micros) {
+        int octave = 63 - Long.numberOfLeadingZeros(micros);
+        int sub = octave >= SUB_BUCKET_BITS
+                ? (int) ((micros >>> (octave - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1))
+                : (int) ((micros << (SUB_BUCKET_BITS - octave)) & (SUB_BUCKETS - 1));
+        return Math.min(octave * SUB_BUCKETS + sub, OCTAVES * SUB_BUCKETS - 1);
+    }
+
+    private static long bucketUpperMicros(int index) {
+        int octave = index / SUB_BUCKETS;
+        int sub = index % SUB_BUCKETS;
+        long base = 1L << octave;
+        return base + ((base * (sub + 1)) >>> SUB_BUCKET_BITS);
+    }
+}
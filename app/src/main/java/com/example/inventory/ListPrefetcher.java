@@ -0,0 +1,117 @@
+package com.example.inventory;
+
+/**
+ * 列表预加载策略（只在主线程访问）：距列表末尾不到预加载距离时在后台加载下一页，用户到达末尾前数据已就绪
+ *
+ * 预加载距离 = 配置的基础距离 + 按当前滚动速度在两次加载耗时内会滑过的条数；
+ * 下一页的条数同样随滚动速度增大（快速滑动时一次取够多屏，减少查询次数），慢速浏览时保持最小页大小。
+ * 滚动速度按每帧可见位置的变化做指数平滑，加载耗时按实际测得的耗时平滑
+ */
+public class ListPrefetcher {
+    // 默认基础预加载距离（条）：静止时也保证末尾之后还有这么多条已加载
+    public static final int DEFAULT_PREFETCH_DISTANCE = 30;
+    public static final int DEFAULT_MIN_PAGE_SIZE = 20;
+    public static final int DEFAULT_MAX_PAGE_SIZE = 100;
+
+    // 加载耗时的初始估计（毫秒）
+    static final long DEFAULT_LOAD_MILLIS = 150;
+    // 下一页至少覆盖多少次加载耗时内滑过的条数
+    private static final int LOADS_PER_PAGE = 4;
+    // 两次滚动回调间隔超过此值视为新一次滑动，按一帧计算速度（毫秒）
+    private static final long GESTURE_GAP_MILLIS = 100;
+    private static final long FRAME_MILLIS = 16;
+    // 指数平滑系数
+    private static final double VELOCITY_SMOOTHING = 0.3;
+    private static final double LOAD_SMOOTHING = 0.3;
+
+    private final int prefetchDistance;
+    private final int minPageSize;
+    private final int maxPageSize;
+
+    // 向列表末尾方向的滚动速度（条/毫秒）
+    private double velocity;
+    private int lastPosition = -1;
+    private long lastMillis;
+    private double loadMillis = DEFAULT_LOAD_MILLIS;
+    private long loadStartMillis = -1;
+
+    public ListPrefetcher() {
+        this(DEFAULT_PREFETCH_DISTANCE, DEFAULT_MIN_PAGE_SIZE, DEFAULT_MAX_PAGE_SIZE);
+    }
+
+    /**
+     * @param prefetchDistance 基础预加载距离（条）
+     * @param minPageSize 慢速浏览时的页大小
+     * @param maxPageSize 快速滑动时的页大小上限
+     */
+    public ListPrefetcher(int prefetchDistance, int minPageSize, int maxPageSize) {
+        if (prefetchDistance < 0 || minPageSize <= 0 || maxPageSize < minPageSize) {
+            throw new IllegalArgumentException("预加载参数无效：" + prefetchDistance + ", "
+                    + minPageSize + ", " + maxPageSize);
+        }
+        this.prefetchDistance = prefetchDistance;
+        this.minPageSize = minPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * 列表滚动或数据变化时调用
+     * @param lastVisible 最后一个可见条目的位置
+     * @param itemCount 列表当前条数
+     * @param nowMillis 当前时间（SystemClock.uptimeMillis）
+     * @return 需要预加载时返回下一页的条数，否则返回0
+     */
+    public int onScrolled(int lastVisible, int itemCount, long nowMillis) {
+        updateVelocity(lastVisible, nowMillis);
+        int remaining = itemCount - 1 - lastVisible;
+        return remaining <= getPrefetchDistance() ? getNextPageSize() : 0;
+    }
+
+    /**
+     * 当前的预加载距离：基础距离 + 两次加载耗时内会滑过的条数
+     */
+    public int getPrefetchDistance() {
+        return prefetchDistance + (int) Math.ceil(velocity * loadMillis * 2);
+    }
+
+    /**
+     * 下一页的条数（按10取整，避免相近速度下的页大小零碎变化）
+     */
+    public int getNextPageSize() {
+        int size = (int) Math.ceil(velocity * loadMillis * LOADS_PER_PAGE / 10.0) * 10;
+        return Math.max(minPageSize, Math.min(maxPageSize, size));
+    }
+
+    public void onLoadStarted(long nowMillis) {
+        loadStartMillis = nowMillis;
+    }
+
+    public void onLoadFinished(long nowMillis) {
+        if (loadStartMillis < 0) {
+            return;
+        }
+        loadMillis += LOAD_SMOOTHING * ((nowMillis - loadStartMillis) - loadMillis);
+        loadStartMillis = -1;
+    }
+
+    // 列表来源切换（筛选、搜索、刷新）后重新计算速度
+    public void reset() {
+        velocity = 0;
+        lastPosition = -1;
+        loadStartMillis = -1;
+    }
+
+    // 每次回调都采样（位置未变的帧拉低速度），间隔过长视为新一次滑动，按一帧的位移重新估计
+    private void updateVelocity(int position, long nowMillis) {
+        long elapsed = nowMillis - lastMillis;
+        if (lastPosition < 0 || elapsed > GESTURE_GAP_MILLIS) {
+            velocity = lastPosition < 0 ? 0 : Math.max(0, position - lastPosition) / (double) FRAME_MILLIS;
+        } else if (elapsed > 0) {
+            // 只关心朝末尾方向的速度，往回滚动时按0计
+            double instant = Math.max(0, position - lastPosition) / (double) elapsed;
+            velocity += VELOCITY_SMOOTHING * (instant - velocity);
+        }
+        lastPosition = position;
+        lastMillis = nowMillis;
+    }
+}
@@ -2,10 +2,20 @@ package com.example.inventory;
 
 import androidx.annotation.NonNull;
 import androidx.room.Entity;
+import androidx.room.ForeignKey;
 import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
-@Entity(tableName = "location")
+/**
+ * 位置实体类
+ * 对应Room数据库的location表，位置可逐级嵌套（建筑 → 房间 → 柜子 → 层板），
+ * 子树查询走 {@link LocationClosure} 闭包表
+ */
+@Entity(tableName = "location",
+        foreignKeys = @ForeignKey(entity = Location.class, parentColumns = "id", childColumns = "parentId",
+                onDelete = ForeignKey.SET_NULL),
+        indices = {@Index(value = {"parentId"})})
 public class Location {
     @PrimaryKey(autoGenerate = true)
     private long id;
@@ -13,6 +23,9 @@ public class Location {
     @NonNull
     private String name;
 
+    // 上级位置ID（顶层位置为空）
+    private Long parentId;
+
     public Location() {}
 
     @Ignore
@@ -20,6 +33,12 @@ public class Location {
         this.name = name;
     }
 
+    @Ignore
+    public Location(@NonNull String name, Long parentId) {
+        this.name = name;
+        this.parentId = parentId;
+    }
+
     public long getId() {
         return id;
     }
@@ -36,4 +55,12 @@ public class Location {
     public void setName(@NonNull String name) {
         this.name = name;
     }
-}
\ No newline at end of file
+
+    public Long getParentId() {
+        return parentId;
+    }
+
+    public void setParentId(Long parentId) {
+        this.parentId = parentId;
+    }
+}
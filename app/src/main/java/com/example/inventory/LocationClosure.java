@@ -0,0 +1,105 @@
+package com.example.inventory;
+
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Ignore;
+import androidx.room.Index;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * 位置层级闭包表实体类
+ * 对应Room数据库的location_closure表：每对“祖先-后代”位置一行（含自身，depth为0），
+ * “车库及其下所有货架里的物品”只需按ancestorId取出后代ID再按物品的locationId索引关联，无需递归或字符串匹配
+ *
+ * 由location表上的触发器维护：新增位置时复制父节点的祖先链；移动位置时整棵子树断开旧祖先、接到新祖先下；
+ * 删除位置时其子位置先上移到被删位置的父节点，闭包行随外键级联删除
+ */
+@Entity(tableName = "location_closure", primaryKeys = {"ancestorId", "descendantId"},
+        foreignKeys = {
+                @ForeignKey(entity = Location.class, parentColumns = "id", childColumns = "ancestorId",
+                        onDelete = ForeignKey.CASCADE, onUpdate = ForeignKey.CASCADE),
+                @ForeignKey(entity = Location.class, parentColumns = "id", childColumns = "descendantId",
+                        onDelete = ForeignKey.CASCADE, onUpdate = ForeignKey.CASCADE)},
+        indices = {@Index(value = {"descendantId"})})
+public class LocationClosure {
+    // 祖先位置ID
+    private long ancestorId;
+
+    // 后代位置ID
+    private long descendantId;
+
+    // 层级距离（自身为0，直接子位置为1）
+    private int depth;
+
+    // 空构造函数（Room要求，必须保留）
+    public LocationClosure() {}
+
+    @Ignore
+    public LocationClosure(long ancestorId, long descendantId, int depth) {
+        this.ancestorId = ancestorId;
+        this.descendantId = descendantId;
+        this.depth = depth;
+    }
+
+    // ==================== Getter/Setter方法 ====================
+    public long getAncestorId() {
+        return ancestorId;
+    }
+
+    public void setAncestorId(long ancestorId) {
+        this.ancestorId = ancestorId;
+    }
+
+    public long getDescendantId() {
+        return descendantId;
+    }
+
+    public void setDescendantId(long descendantId) {
+        this.descendantId = descendantId;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
+    // ==================== 触发器维护 ====================
+
+    // NEW.id的整棵子树（含自身）
+    private static final String SUBTREE = "(SELECT descendantId FROM location_closure WHERE ancestorId = NEW.id)";
+
+    /**
+     * 创建维护闭包表的触发器（建库及迁移时调用）
+     */
+    static void createTriggers(SupportSQLiteDatabase db) {
+        db.execSQL("DROP TRIGGER IF EXISTS location_closure_after_insert");
+        db.execSQL("DROP TRIGGER IF EXISTS location_closure_before_move");
+        db.execSQL("DROP TRIGGER IF EXISTS location_closure_after_move");
+        db.execSQL("DROP TRIGGER IF EXISTS location_closure_before_delete");
+        // 新位置：自身一行 + 父节点的每个祖先各一行
+        db.execSQL("CREATE TRIGGER location_closure_after_insert AFTER INSERT ON location BEGIN "
+                + "INSERT INTO location_closure (ancestorId, descendantId, depth) VALUES (NEW.id, NEW.id, 0); "
+                + "INSERT INTO location_closure (ancestorId, descendantId, depth) "
+                + "SELECT ancestorId, NEW.id, depth + 1 FROM location_closure WHERE descendantId = NEW.parentId; END");
+        // 不允许移动到自身或自己的后代下
+        db.execSQL("CREATE TRIGGER location_closure_before_move BEFORE UPDATE OF parentId ON location "
+                + "WHEN NEW.parentId IS NOT NULL AND NEW.parentId IS NOT OLD.parentId AND EXISTS ("
+                + "SELECT 1 FROM location_closure WHERE ancestorId = NEW.id AND descendantId = NEW.parentId) BEGIN "
+                + "SELECT RAISE(ABORT, 'location cannot be moved into its own subtree'); END");
+        // 移动：子树与旧祖先断开，再与新父节点的每个祖先两两相连
+        db.execSQL("CREATE TRIGGER location_closure_after_move AFTER UPDATE OF parentId ON location "
+                + "WHEN NEW.parentId IS NOT OLD.parentId BEGIN "
+                + "DELETE FROM location_closure WHERE descendantId IN " + SUBTREE
+                + " AND ancestorId NOT IN " + SUBTREE + "; "
+                + "INSERT INTO location_closure (ancestorId, descendantId, depth) "
+                + "SELECT up.ancestorId, down.descendantId, up.depth + down.depth + 1 "
+                + "FROM location_closure up, location_closure down "
+                + "WHERE up.descendantId = NEW.parentId AND down.ancestorId = NEW.id; END");
+        // 删除：子位置上移一层（经由移动触发器更新闭包），被删位置自身的闭包行由外键级联删除
+        db.execSQL("CREATE TRIGGER location_closure_before_delete BEFORE DELETE ON location BEGIN "
+                + "UPDATE location SET parentId = OLD.parentId WHERE parentId = OLD.id; END");
+    }
+}
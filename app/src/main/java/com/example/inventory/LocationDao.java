@@ -15,7 +15,7 @@ import java.util.List;
 @Dao
 public interface LocationDao {
     @Insert
-    void insert(Location location);
+    long insert(Location location);
 
     @Update
     void update(Location location);
@@ -28,4 +28,36 @@ public interface LocationDao {
 
     @Query("SELECT * FROM location WHERE name = :name LIMIT 1")
     Location getLocationByName(String name);
+
+    // 全部位置名称（输入联想索引用，仅限子线程调用）
+    @Query("SELECT name FROM location")
+    List<String> getAllNamesSync();
+
+    // ==================== 位置层级 ====================
+
+    // 移动位置（连同整棵子树）到新的上级位置下，parentId为空时移到顶层；闭包表由触发器同步
+    @Query("UPDATE location SET parentId = :parentId WHERE id = :id")
+    void moveTo(long id, Long parentId);
+
+    // descendantId是否为ancestorId自身或其下级位置（仅限子线程调用）
+    @Query("SELECT EXISTS (SELECT 1 FROM location_closure "
+            + "WHERE ancestorId = :ancestorId AND descendantId = :descendantId)")
+    boolean isInSubtree(long ancestorId, long descendantId);
+
+    // 位置自身及全部下级位置ID（仅限子线程调用）
+    @Query("SELECT descendantId FROM location_closure WHERE ancestorId = :ancestorId")
+    List<Long> getSubtreeIdsSync(long ancestorId);
+
+    /**
+     * 位置树：每个位置及其整棵子树的物品汇总
+     * 直接取各位置在item_stat中的计数，经闭包表累加到每个祖先上，只读取位置数量级的行，与物品总数无关
+     */
+    @Query("SELECT l.id, l.name, l.parentId, "
+            + "(SELECT COUNT(*) - 1 FROM location_closure a WHERE a.descendantId = l.id) AS level, "
+            + "IFNULL(SUM(s.itemCount), 0) AS itemCount, IFNULL(SUM(s.totalQuantity), 0) AS totalQuantity "
+            + "FROM location l JOIN location_closure c ON c.ancestorId = l.id "
+            + "LEFT JOIN item_stat s ON s.dimension = " + ItemStat.DIM_LOCATION
+            + " AND s.statKey = CAST(c.descendantId AS TEXT) "
+            + "GROUP BY l.id ORDER BY l.name ASC")
+    LiveData<List<LocationNode>> getLocationTree();
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.example.inventory;
+
+/**
+ * 位置树节点及其子树汇总（Room查询结果）
+ * 物品条数、数量合计包含所有下级位置中的物品
+ */
+public class LocationNode {
+    public long id;
+    public String name;
+    public Long parentId;
+    // 所在层级（顶层为0）
+    public int level;
+    // 整棵子树中的物品条数
+    public int itemCount;
+    // 整棵子树中的数量合计
+    public long totalQuantity;
+}
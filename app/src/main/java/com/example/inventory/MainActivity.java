@@ -1,22 +1,40 @@
 package com.example.inventory;
 
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.appcompat.view.ActionMode;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import android.content.Intent; // 新增导入
 
 import android.os.Bundle;
+import android.os.SystemClock;
+import android.text.InputType;
+import android.view.KeyEvent;
+import android.view.Menu;
+import android.view.MenuItem;
 import android.view.View;
+import android.view.Window;
+import android.widget.EditText;
 import android.widget.LinearLayout;
 import android.widget.ProgressBar;
+import android.widget.RadioButton;
+import android.widget.RadioGroup;
 import android.widget.TextView;
+import android.widget.Toast;
 
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 
+import java.io.FileDescriptor;
+import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 public class MainActivity extends AppCompatActivity {
     // UI控件
@@ -25,17 +43,36 @@ public class MainActivity extends AppCompatActivity {
     private RecyclerView mRvItemList;
     private TextView mTvLoadMore;
     private FloatingActionButton mFabAddItem;
+    private TextView mTvTitle;
+    private TextView mTvScan;
 
     // ViewModel
     private InventoryViewModel mViewModel;
 
     // 适配器
     private ItemAdapter mItemAdapter;
+    // 列表预加载（按滚动速度提前加载下一页）
+    private final ListPrefetcher mPrefetcher = new ListPrefetcher();
+
+    // 多选操作栏（长按条目进入，全部取消或操作完成后退出）
+    private ActionMode mActionMode;
+    // 批量移动/修改分类的可选项（全局共享的分类、位置列表）
+    private List<Category> mCategories;
+    private List<Location> mLocations;
+
+    // 进行中的连续扫码会话（扫码对话框关闭时结束）
+    private ScanSession mScanSession;
+
+    // 帧统计监听（调试包开启界面统计时）
+    private Window.OnFrameMetricsAvailableListener mFrameListener;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
+        if (BuildConfig.DEBUG && UiMetrics.loadEnabled(this)) {
+            mFrameListener = UiMetrics.startFrameTracking(this);
+        }
 
         // 初始化UI控件
         initView();
@@ -51,6 +88,27 @@ public class MainActivity extends AppCompatActivity {
 
         // 加载第一页数据
         mViewModel.loadFirstPage();
+
+        // 临期提醒需要通知权限（新建界面时检查；用户拒绝两次后系统不再弹出）
+        if (savedInstanceState == null) {
+            PermissionUtils.checkAndRequestNotificationPermission(this);
+        }
+    }
+
+    @Override
+    public void onRequestPermissionsResult(int requestCode, @NonNull String[] permissions, @NonNull int[] grantResults) {
+        super.onRequestPermissionsResult(requestCode, permissions, grantResults);
+        if (requestCode == PermissionUtils.REQUEST_CODE_NOTIFICATIONS && PermissionUtils.verifyPermissions(grantResults)) {
+            // 补发授权前未能发出的提醒
+            ExpiryReminderScheduler.init(this);
+        }
+    }
+
+    @Override
+    protected void onDestroy() {
+        closeScanSession();
+        UiMetrics.stopFrameTracking(this, mFrameListener);
+        super.onDestroy();
     }
 
     /**
@@ -62,6 +120,8 @@ public class MainActivity extends AppCompatActivity {
         mRvItemList = findViewById(R.id.rv_item_list);
         mTvLoadMore = findViewById(R.id.tv_load_more);
         mFabAddItem = findViewById(R.id.fab_add_item);
+        mTvTitle = findViewById(R.id.tv_title);
+        mTvScan = findViewById(R.id.tv_scan);
     }
 
     /**
@@ -73,14 +133,17 @@ public class MainActivity extends AppCompatActivity {
         // 观察加载状态
         mViewModel.getIsLoadingLiveData().observe(this, isLoading -> {
             if (isLoading) {
-                mProgressBar.setVisibility(View.VISIBLE);
-                if (mViewModel.getItemListLiveData().getValue() == null || mViewModel.getItemListLiveData().getValue().isEmpty()) {
+                mPrefetcher.onLoadStarted(SystemClock.uptimeMillis());
+                if (mViewModel.getItemWindow().isEmpty()) {
+                    mProgressBar.setVisibility(View.VISIBLE);
                     mLlEmpty.setVisibility(View.GONE);
                     mRvItemList.setVisibility(View.GONE);
                 } else {
-                    mTvLoadMore.setVisibility(View.VISIBLE);
+                    // 后台预加载不显示加载框，只在用户已到达末尾时显示底部提示
+                    updateLoadMoreFooter();
                 }
             } else {
+                mPrefetcher.onLoadFinished(SystemClock.uptimeMillis());
                 mProgressBar.setVisibility(View.GONE);
                 mTvLoadMore.setVisibility(View.GONE);
             }
@@ -97,18 +160,27 @@ public class MainActivity extends AppCompatActivity {
             }
         });
 
-        // 观察物品列表数据
-        mViewModel.getItemListLiveData().observe(this, items -> {
-            if (items == null || items.isEmpty()) {
+        // 批量操作对话框的可选分类、位置
+        mViewModel.getAllCategories().observe(this, categories -> mCategories = categories);
+        mViewModel.getAllLocations().observe(this, locations -> mLocations = locations);
+
+        // 观察物品列表的修改（窗口化数据，适配器直接持有）
+        mViewModel.getItemUpdateLiveData().observe(this, update -> {
+            mItemAdapter.applyUpdate(update);
+            if (mViewModel.getItemWindow().isEmpty()) {
+                // 列表来源切换（刷新/筛选/搜索）
+                mPrefetcher.reset();
                 return;
             }
+            // 布局完成后检查：新追加的页仍在预加载距离内时继续加载
+            mRvItemList.post(this::prefetchIfNeeded);
 
-            // 第一页数据：更新适配器
-            if (mViewModel.getItemListLiveData().getValue() != null && mViewModel.getItemListLiveData().getValue().size() == items.size()) {
-                mItemAdapter.updateData(items);
-            } else {
-                // 后续页数据：追加
-                mItemAdapter.addData(items);
+            // 记录冷启动首屏耗时：快照先到时先隐藏加载框，实时数据到达即完全绘制
+            if (mViewModel.isShowingSnapshot()) {
+                mProgressBar.setVisibility(View.GONE);
+                UiMetrics.recordStartupMilestone(mRvItemList, UiMetrics.STARTUP_SNAPSHOT_FRAME);
+            } else if (UiMetrics.recordStartupMilestone(mRvItemList, UiMetrics.STARTUP_LIVE_FRAME)) {
+                reportFullyDrawn();
             }
         });
     }
@@ -119,33 +191,78 @@ public class MainActivity extends AppCompatActivity {
     private void initRecyclerView() {
         LinearLayoutManager layoutManager = new LinearLayoutManager(this);
         mRvItemList.setLayoutManager(layoutManager);
-        mItemAdapter = new ItemAdapter(this, new ArrayList<>(), item -> {
+        mItemAdapter = new ItemAdapter(this, mViewModel.getItemWindow(), item -> {
             // 物品条目点击事件（后续跳转到详情页）
             Intent intent = new Intent(MainActivity.this, ItemDetailActivity.class);
             intent.putExtra(ItemDetailActivity.EXTRA_ITEM_ID, item.getId());
             startActivity(intent);
         });
+        mItemAdapter.setOnSelectionChangedListener(count -> {
+            if (count == 0) {
+                if (mActionMode != null) {
+                    mActionMode.finish();
+                }
+                return;
+            }
+            if (mActionMode == null) {
+                mActionMode = startSupportActionMode(mBulkActionCallback);
+            }
+            if (mActionMode != null) {
+                mActionMode.setTitle("已选择" + count + "项");
+            }
+        });
         mRvItemList.setAdapter(mItemAdapter);
 
-        // 监听滑动到底部，加载下一页
+        // 监听滑动：更新视口（丢弃/重新载入视口附近之外的页），滑动到底部时加载下一页
         mRvItemList.addOnScrollListener(new RecyclerView.OnScrollListener() {
             @Override
             public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
                 super.onScrolled(recyclerView, dx, dy);
                 LinearLayoutManager lm = (LinearLayoutManager) recyclerView.getLayoutManager();
+                int firstVisibleItemPos = lm.findFirstVisibleItemPosition();
                 int lastVisibleItemPos = lm.findLastVisibleItemPosition();
                 int totalItemCount = lm.getItemCount();
+                if (firstVisibleItemPos != RecyclerView.NO_POSITION) {
+                    mViewModel.onViewportChanged(firstVisibleItemPos, lastVisibleItemPos);
+                }
 
-                // 滑动到底部 + 有更多数据 + 不在加载中
-                if (lastVisibleItemPos == totalItemCount - 1
+                // 距末尾不到预加载距离时后台加载下一页（页大小随滑动速度增大）
+                int nextPageSize = mPrefetcher.onScrolled(lastVisibleItemPos, totalItemCount, SystemClock.uptimeMillis());
+                if (nextPageSize > 0
                         && mViewModel.isHasMoreData()
                         && (mViewModel.getIsLoadingLiveData().getValue() == null || !mViewModel.getIsLoadingLiveData().getValue())) {
-                    mViewModel.loadNextPage();
+                    mViewModel.loadNextPage(nextPageSize);
                 }
+                updateLoadMoreFooter();
             }
         });
     }
 
+    /**
+     * 列表数据变化后（未滚动时）按当前位置检查是否需要预加载
+     */
+    private void prefetchIfNeeded() {
+        LinearLayoutManager lm = (LinearLayoutManager) mRvItemList.getLayoutManager();
+        int lastVisibleItemPos = lm.findLastVisibleItemPosition();
+        if (lastVisibleItemPos == RecyclerView.NO_POSITION) {
+            return;
+        }
+        int nextPageSize = mPrefetcher.onScrolled(lastVisibleItemPos, lm.getItemCount(), SystemClock.uptimeMillis());
+        if (nextPageSize > 0 && mViewModel.isHasMoreData()) {
+            mViewModel.loadNextPage(nextPageSize);
+        }
+    }
+
+    /**
+     * 底部“加载中”提示：只在下一页仍在加载且用户已滑到末尾时显示
+     */
+    private void updateLoadMoreFooter() {
+        LinearLayoutManager lm = (LinearLayoutManager) mRvItemList.getLayoutManager();
+        boolean loading = Boolean.TRUE.equals(mViewModel.getIsLoadingLiveData().getValue());
+        boolean atEnd = lm.getItemCount() > 0 && lm.findLastVisibleItemPosition() >= lm.getItemCount() - 1;
+        mTvLoadMore.setVisibility(loading && atEnd ? View.VISIBLE : View.GONE);
+    }
+
     /**
      * 设置点击事件
      */
@@ -155,5 +272,211 @@ public class MainActivity extends AppCompatActivity {
             Intent intent = new Intent(MainActivity.this, AddItemActivity.class);
             startActivity(intent);
         });
+
+        // 连续扫码入库/出库
+        mTvScan.setOnClickListener(v -> showScanDialog());
+
+        // 调试包：长按标题进入调试工具页
+        if (BuildConfig.DEBUG) {
+            mTvTitle.setOnLongClickListener(v -> {
+                startActivity(new Intent(MainActivity.this, DebugActivity.class));
+                return true;
+            });
+        }
+    }
+
+    // ==================== 多选批量操作 ====================
+
+    private final ActionMode.Callback mBulkActionCallback = new ActionMode.Callback() {
+        @Override
+        public boolean onCreateActionMode(ActionMode mode, Menu menu) {
+            mode.getMenuInflater().inflate(R.menu.menu_item_bulk, menu);
+            return true;
+        }
+
+        @Override
+        public boolean onPrepareActionMode(ActionMode mode, Menu menu) {
+            return false;
+        }
+
+        @Override
+        public boolean onActionItemClicked(ActionMode mode, MenuItem menuItem) {
+            List<String> itemIds = mItemAdapter.getSelectedIds();
+            int id = menuItem.getItemId();
+            if (id == R.id.action_bulk_move) {
+                showBulkMoveDialog(itemIds);
+            } else if (id == R.id.action_bulk_category) {
+                showBulkCategoryDialog(itemIds);
+            } else if (id == R.id.action_bulk_quantity) {
+                showBulkQuantityDialog(itemIds);
+            } else if (id == R.id.action_bulk_delete) {
+                showBulkDeleteDialog(itemIds);
+            } else {
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public void onDestroyActionMode(ActionMode mode) {
+            mActionMode = null;
+            mItemAdapter.clearSelection();
+        }
+    };
+
+    private void showBulkMoveDialog(List<String> itemIds) {
+        Set<String> options = new LinkedHashSet<>(Arrays.asList(getResources().getStringArray(R.array.default_location)));
+        if (mLocations != null) {
+            for (Location location : mLocations) {
+                options.add(location.getName());
+            }
+        }
+        String[] names = options.toArray(new String[0]);
+        new AlertDialog.Builder(this)
+                .setTitle("移动" + itemIds.size() + "件物品到")
+                .setItems(names, (dialog, which) -> {
+                    mViewModel.moveItems(itemIds, names[which].equals("未指定") ? "" : names[which]);
+                    finishBulkAction("已移动" + itemIds.size() + "件物品");
+                })
+                .setNegativeButton("取消", null)
+                .show();
+    }
+
+    private void showBulkCategoryDialog(List<String> itemIds) {
+        Set<String> options = new LinkedHashSet<>(Arrays.asList(getResources().getStringArray(R.array.default_category)));
+        if (mCategories != null) {
+            for (Category category : mCategories) {
+                options.add(category.getFullName());
+            }
+        }
+        String[] names = options.toArray(new String[0]);
+        new AlertDialog.Builder(this)
+                .setTitle("修改" + itemIds.size() + "件物品的分类")
+                .setItems(names, (dialog, which) -> {
+                    mViewModel.recategorizeItems(itemIds, names[which].equals("未分类") ? "" : names[which]);
+                    finishBulkAction("已修改" + itemIds.size() + "件物品的分类");
+                })
+                .setNegativeButton("取消", null)
+                .show();
+    }
+
+    private void showBulkQuantityDialog(List<String> itemIds) {
+        EditText etDelta = new EditText(this);
+        etDelta.setInputType(InputType.TYPE_CLASS_NUMBER | InputType.TYPE_NUMBER_FLAG_SIGNED);
+        etDelta.setHint("增加输入正数，减少输入负数");
+        new AlertDialog.Builder(this)
+                .setTitle("调整" + itemIds.size() + "件物品的数量")
+                .setView(etDelta)
+                .setPositiveButton("确定", (dialog, which) -> {
+                    int delta;
+                    try {
+                        delta = Integer.parseInt(etDelta.getText().toString().trim());
+                    } catch (NumberFormatException e) {
+                        delta = 0;
+                    }
+                    if (delta == 0) {
+                        Toast.makeText(this, "请输入非0的整数", Toast.LENGTH_SHORT).show();
+                        return;
+                    }
+                    mViewModel.adjustItemQuantities(itemIds, delta);
+                    finishBulkAction("已调整" + itemIds.size() + "件物品的数量");
+                })
+                .setNegativeButton("取消", null)
+                .show();
+    }
+
+    private void showBulkDeleteDialog(List<String> itemIds) {
+        new AlertDialog.Builder(this)
+                .setTitle("确认删除")
+                .setMessage("是否确定删除选中的" + itemIds.size() + "件物品？删除后无法恢复！")
+                .setPositiveButton("删除", (dialog, which) -> {
+                    mViewModel.deleteItems(itemIds);
+                    finishBulkAction("已删除" + itemIds.size() + "件物品");
+                })
+                .setNegativeButton("取消", null)
+                .show();
+    }
+
+    private void finishBulkAction(String message) {
+        Toast.makeText(this, message, Toast.LENGTH_SHORT).show();
+        if (mActionMode != null) {
+            mActionMode.finish();
+        }
+    }
+
+    /**
+     * 连续扫码对话框：每个条码（扫码枪输入以回车结束）只在内存中累加，按批写入数据库；
+     * 第一次扫码时按所选模式开始会话，关闭对话框时写入剩余扫码
+     */
+    private void showScanDialog() {
+        View view = getLayoutInflater().inflate(R.layout.dialog_scan, null);
+        RadioGroup rgMode = view.findViewById(R.id.rg_scan_mode);
+        RadioButton rbReceive = view.findViewById(R.id.rb_scan_receive);
+        EditText etCode = view.findViewById(R.id.et_scan_code);
+        TextView tvStatus = view.findViewById(R.id.tv_scan_status);
+        // [0]已扫码次数 [1]已写入次数
+        int[] counts = new int[2];
+        List<String> unknownCodes = new ArrayList<>();
+
+        ScanSession.Listener listener = (scans, items, unknown) -> runOnUiThread(() -> {
+            counts[1] += scans;
+            unknownCodes.addAll(unknown);
+            tvStatus.setText(scanStatus(counts, unknownCodes));
+        });
+
+        etCode.setOnEditorActionListener((v, actionId, event) -> {
+            // 回车的按下与抬起都会回调，只处理一次
+            if (event != null && event.getAction() != KeyEvent.ACTION_DOWN) {
+                return true;
+            }
+            String text = etCode.getText().toString();
+            etCode.setText("");
+            if (mScanSession == null) {
+                int mode = rbReceive.isChecked() ? ScanSession.MODE_RECEIVE : ScanSession.MODE_CONSUME;
+                mScanSession = mViewModel.startScanSession(mode, listener);
+                for (int i = 0; i < rgMode.getChildCount(); i++) {
+                    rgMode.getChildAt(i).setEnabled(false);
+                }
+            }
+            counts[0] += mScanSession.onInput(text);
+            tvStatus.setText(scanStatus(counts, unknownCodes));
+            return true;
+        });
+
+        new AlertDialog.Builder(this)
+                .setTitle("连续扫码")
+                .setView(view)
+                .setPositiveButton("完成", null)
+                .setOnDismissListener(dialog -> closeScanSession())
+                .show();
+        etCode.requestFocus();
+    }
+
+    private static String scanStatus(int[] counts, List<String> unknownCodes) {
+        String status = "已扫码" + counts[0] + "次，已写入" + counts[1] + "次";
+        if (!unknownCodes.isEmpty()) {
+            status += "\n未识别的条码：" + String.join("、", unknownCodes);
+        }
+        return status;
+    }
+
+    // 结束扫码会话（剩余扫码在写队列上写入）
+    private void closeScanSession() {
+        if (mScanSession != null) {
+            mScanSession.close();
+            mScanSession = null;
+        }
+    }
+
+    /**
+     * 调试包：adb shell dumpsys activity com.example.inventory/.MainActivity 输出调试报告
+     */
+    @Override
+    public void dump(@NonNull String prefix, @Nullable FileDescriptor fd, @NonNull PrintWriter writer,
+                     @Nullable String[] args) {
+        super.dump(prefix, fd, writer, args);
+        if (BuildConfig.DEBUG) {
+            DebugActivity.dumpReports(writer);
+        }
     }
 }
\ No newline at end of file
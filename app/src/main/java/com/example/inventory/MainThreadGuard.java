@@ -0,0 +1,146 @@
+package com.example.inventory;
+
+import android.os.Looper;
+import android.os.StrictMode;
+import android.os.strictmode.Violation;
+import android.util.Log;
+
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 主线程I/O检测（仅调试包生效）
+ * 1. StrictMode：系统层面检测主线程磁盘读写、泄漏的游标/数据库对象
+ * 2. 仓库/图片工具中的同步方法入口断言：在主线程调用时按调用点计数并保留首次调用栈
+ * 单元测试可开启抛异常模式，让主线程I/O直接导致用例失败
+ */
+public final class MainThreadGuard {
+    private static final String TAG = "MainThreadGuard";
+
+    private static final Map<String, Violations> sViolations = new ConcurrentHashMap<>();
+    private static volatile boolean sThrowOnViolation;
+
+    private MainThreadGuard() {}
+
+    /**
+     * 单个调用点的违规记录
+     */
+    static final class Violations {
+        final AtomicInteger count = new AtomicInteger();
+        final Throwable firstStack;
+
+        Violations(Throwable firstStack) {
+            this.firstStack = firstStack;
+        }
+    }
+
+    // ==================== 安装 ====================
+
+    /**
+     * 开启StrictMode（Application.onCreate 中调用，仅调试包）
+     */
+    public static void installStrictMode() {
+        StrictMode.setThreadPolicy(new StrictMode.ThreadPolicy.Builder()
+                .detectDiskReads()
+                .detectDiskWrites()
+                .detectCustomSlowCalls()
+                .penaltyLog()
+                .penaltyListener(Executors.newSingleThreadExecutor(), MainThreadGuard::onStrictModeViolation)
+                .build());
+        StrictMode.setVmPolicy(new StrictMode.VmPolicy.Builder()
+                .detectLeakedSqlLiteObjects()
+                .detectLeakedClosableObjects()
+                .penaltyLog()
+                .build());
+    }
+
+    /**
+     * 抛异常模式（测试用）：主线程调用时直接抛出 IllegalStateException
+     */
+    public static void setThrowOnViolation(boolean throwOnViolation) {
+        sThrowOnViolation = throwOnViolation;
+    }
+
+    // ==================== 断言 ====================
+
+    /**
+     * 断言当前不在主线程（同步数据库查询、文件读写、图片解码入口调用）
+     * @param callSite 调用点名称，如 "InventoryRepository.getCategoryByName"
+     */
+    public static void assertNotMainThread(String callSite) {
+        if (!BuildConfig.DEBUG || Looper.myLooper() != Looper.getMainLooper()) {
+            return;
+        }
+        IllegalStateException stack = new IllegalStateException("主线程执行I/O: " + callSite);
+        record(callSite, stack);
+        if (sThrowOnViolation) {
+            throw stack;
+        }
+    }
+
+    private static void onStrictModeViolation(Violation violation) {
+        record("StrictMode " + violation.getClass().getSimpleName() + " @ " + appFrame(violation), violation);
+    }
+
+    private static void record(String callSite, Throwable stack) {
+        Violations violations = sViolations.get(callSite);
+        if (violations == null) {
+            sViolations.putIfAbsent(callSite, new Violations(stack));
+            violations = sViolations.get(callSite);
+        }
+        // 同一调用点只打印首次调用栈，避免刷屏
+        if (violations.count.incrementAndGet() == 1) {
+            Log.w(TAG, callSite, stack);
+        }
+    }
+
+    /**
+     * 取调用栈中第一个本应用的栈帧作为调用点
+     */
+    private static String appFrame(Throwable stack) {
+        String prefix = MainThreadGuard.class.getPackage().getName() + ".";
+        for (StackTraceElement element : stack.getStackTrace()) {
+            if (element.getClassName().startsWith(prefix)) {
+                return element.getClassName().substring(prefix.length()) + "." + element.getMethodName()
+                        + ":" + element.getLineNumber();
+            }
+        }
+        return "unknown";
+    }
+
+    // ==================== 报告 ====================
+
+    /**
+     * 各调用点的违规次数
+     */
+    public static Map<String, Integer> getViolationCounts() {
+        Map<String, Integer> counts = new TreeMap<>();
+        for (Map.Entry<String, Violations> entry : sViolations.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().count.get());
+        }
+        return counts;
+    }
+
+    public static void reset() {
+        sViolations.clear();
+    }
+
+    /**
+     * 输出违规报告（含每个调用点的首次调用栈）
+     */
+    public static void dump(PrintWriter writer) {
+        writer.println("== 主线程I/O ==" + (sViolations.isEmpty() ? "（无）" : ""));
+        for (Map.Entry<String, Violations> entry : new TreeMap<>(sViolations).entrySet()) {
+            writer.println(entry.getKey() + " x" + entry.getValue().count.get());
+            StackTraceElement[] frames = entry.getValue().firstStack.getStackTrace();
+            for (int i = 0; i < Math.min(frames.length, 8); i++) {
+                writer.println("    at " + frames[i]);
+            }
+        }
+        writer.flush();
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.inventory;
+
+import android.icu.text.Collator;
+
+import java.util.Locale;
+
+/**
+ * 物品名称的拼音排序键
+ * 使用简体中文ICU排序规则生成排序键，按字节比较的顺序即拼音顺序，
+ * 存为BLOB列并建索引后，按名称排序即为索引遍历（SQLite对BLOB按memcmp比较）
+ */
+final class NameSortKey {
+    // Collator非线程安全，每个线程一个实例
+    private static final ThreadLocal<Collator> COLLATOR =
+            ThreadLocal.withInitial(() -> Collator.getInstance(Locale.CHINA));
+
+    private NameSortKey() {}
+
+    static byte[] of(String name) {
+        return COLLATOR.get().getCollationKey(name == null ? "" : name).toByteArray();
+    }
+
+    /**
+     * 写入前为物品补全排序键
+     */
+    static void fill(Item item) {
+        item.setNameSortKey(of(item.getName()));
+    }
+}
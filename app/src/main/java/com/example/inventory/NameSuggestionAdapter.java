@@ -0,0 +1,86 @@
+package com.example.inventory;
+
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ArrayAdapter;
+import android.widget.Filter;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+
+import java.util.List;
+
+/**
+ * 物品名称输入框的联想适配器
+ * 过滤在AutoCompleteTextView的过滤线程中执行，直接查询内存中的 {@link NameSuggestionIndex}
+ */
+public class NameSuggestionAdapter extends ArrayAdapter<NameSuggestionIndex.Suggestion> {
+    // 下拉列表最多显示的联想条数
+    private static final int MAX_SUGGESTIONS = 8;
+
+    private final NameSuggestionIndex index;
+    private final Filter filter = new Filter() {
+        @Override
+        protected FilterResults performFiltering(CharSequence constraint) {
+            FilterResults results = new FilterResults();
+            if (constraint != null) {
+                List<NameSuggestionIndex.Suggestion> suggestions = index.suggest(constraint.toString(), MAX_SUGGESTIONS);
+                results.values = suggestions;
+                results.count = suggestions.size();
+            }
+            return results;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected void publishResults(CharSequence constraint, FilterResults results) {
+            setNotifyOnChange(false);
+            clear();
+            if (results.values != null) {
+                addAll((List<NameSuggestionIndex.Suggestion>) results.values);
+            }
+            notifyDataSetChanged();
+        }
+
+        @Override
+        public CharSequence convertResultToString(Object resultValue) {
+            return ((NameSuggestionIndex.Suggestion) resultValue).text;
+        }
+    };
+
+    public NameSuggestionAdapter(Context context, NameSuggestionIndex index) {
+        super(context, android.R.layout.simple_dropdown_item_1line);
+        this.index = index;
+    }
+
+    @NonNull
+    @Override
+    public Filter getFilter() {
+        return filter;
+    }
+
+    @NonNull
+    @Override
+    public View getView(int position, View convertView, @NonNull ViewGroup parent) {
+        TextView view = (TextView) super.getView(position, convertView, parent);
+        NameSuggestionIndex.Suggestion suggestion = getItem(position);
+        if (suggestion != null) {
+            view.setText(label(suggestion));
+        }
+        return view;
+    }
+
+    // 物品名称附带已有数量，分类/位置名称标注类型
+    private static String label(NameSuggestionIndex.Suggestion suggestion) {
+        switch (suggestion.type) {
+            case NameSuggestionIndex.TYPE_CATEGORY:
+                return suggestion.text + "（分类）";
+            case NameSuggestionIndex.TYPE_LOCATION:
+                return suggestion.text + "（位置）";
+            default:
+                return suggestion.getCount() > 1
+                        ? suggestion.text + "（已有" + suggestion.getCount() + "件）" : suggestion.text;
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.example.inventory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 名称输入联想的内存前缀索引（物品名称、分类名称、位置名称）
+ * 有序映射按“匹配键 + 类型 + 名称”排序，前缀查询是一次子区间遍历，与名称总数基本无关；
+ * 匹配键包括规范化后的名称（小写、去空白）以及名称的全拼和首字母，输入"xyy"也能联想出"洗衣液"
+ *
+ * 由仓库在写队列上首次加载、随后随各写操作增量更新；所有方法线程安全（输入联想在过滤线程中查询）
+ */
+public class NameSuggestionIndex {
+    public static final int TYPE_ITEM = 0;
+    public static final int TYPE_CATEGORY = 1;
+    public static final int TYPE_LOCATION = 2;
+    private static final int TYPE_COUNT = 3;
+    // beginLoad的返回值：无需提交加载任务
+    static final int NO_LOAD = -1;
+
+    // 每次查询最多检查的匹配项数（同一名称的多个匹配键会重复命中）
+    private static final int MAX_SCANNED = 256;
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private static final NameSuggestionIndex INSTANCE = new NameSuggestionIndex();
+
+    /**
+     * 一条联想结果
+     */
+    public static final class Suggestion {
+        public final String text;
+        public final int type;
+        // 同名物品数量（分类/位置恒为1）
+        int count;
+
+        Suggestion(String text, int type) {
+            this.text = text;
+            this.type = type;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
+    /**
+     * 加载用的名称计数（Room查询结果）
+     */
+    public static class NameCount {
+        public String text;
+        public int count;
+    }
+
+    // 匹配键 + 类型 + 名称 → 联想项（同一联想项对应多个匹配键）
+    private final TreeMap<String, Suggestion> entries = new TreeMap<>();
+    // 各类型下：名称 → 联想项
+    private final List<Map<String, Suggestion>> byText = new ArrayList<>();
+    private boolean loaded;
+    private boolean loading;
+    // 加载代数：每次作废递增，作废前开始的加载结果被丢弃
+    private int generation;
+
+    private NameSuggestionIndex() {
+        for (int i = 0; i < TYPE_COUNT; i++) {
+            byText.add(new HashMap<>());
+        }
+    }
+
+    public static NameSuggestionIndex getInstance() {
+        return INSTANCE;
+    }
+
+    // ==================== 加载与增量更新 ====================
+
+    /**
+     * 标记开始加载
+     * @return 本次加载的代数（传给finishLoad）；已加载或正在加载时返回NO_LOAD，调用方无需再提交加载任务
+     */
+    synchronized int beginLoad() {
+        if (loaded || loading) {
+            return NO_LOAD;
+        }
+        loading = true;
+        return generation;
+    }
+
+    /**
+     * 加载完成：用数据库中的全部名称替换索引内容
+     * @param generation beginLoad返回的代数；期间索引被作废时忽略这次结果（可能读到作废前的数据）
+     */
+    synchronized void finishLoad(int generation, List<NameCount> itemNames, Collection<String> categories,
+                                 Collection<String> locations) {
+        if (generation != this.generation) {
+            return;
+        }
+        clear();
+        for (NameCount name : itemNames) {
+            add(TYPE_ITEM, name.text, name.count);
+        }
+        replaceAll(TYPE_CATEGORY, categories);
+        replaceAll(TYPE_LOCATION, locations);
+        loading = false;
+        loaded = true;
+    }
+
+    /**
+     * 数据被批量改写（如调试造数）后丢弃索引，下次使用时重新加载
+     */
+    public synchronized void invalidate() {
+        clear();
+        loaded = false;
+        loading = false;
+        generation++;
+    }
+
+    public synchronized boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * 物品名称变化（新增时oldName为null，删除时newName为null）
+     * 索引尚未加载时忽略：加载任务排在这次写入之后，会直接读到最新数据
+     */
+    synchronized void onItemNameChanged(String oldName, String newName) {
+        if (!loaded || (oldName != null && oldName.equals(newName))) {
+            return;
+        }
+        if (oldName != null) {
+            add(TYPE_ITEM, oldName, -1);
+        }
+        if (newName != null) {
+            add(TYPE_ITEM, newName, 1);
+        }
+    }
+
+    /**
+     * 用最新的分类/位置名称替换该类型的全部索引项（数量少，直接整体替换）
+     */
+    synchronized void replaceAll(int type, Collection<String> names) {
+        Set<String> latest = new LinkedHashSet<>(names);
+        for (String text : new ArrayList<>(byText.get(type).keySet())) {
+            if (!latest.remove(text)) {
+                add(type, text, -1);
+            }
+        }
+        for (String text : latest) {
+            add(type, text, 1);
+        }
+    }
+
+    // ==================== 查询 ====================
+
+    /**
+     * 前缀联想：物品名称在前（同名物品多的优先），其次分类、位置
+     * @param input 用户输入（支持中文前缀、全拼与首字母）
+     * @param limit 最多返回条数
+     */
+    public synchronized List<Suggestion> suggest(String input, int limit) {
+        String prefix = normalize(input);
+        if (prefix.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Set<Suggestion> matched = new LinkedHashSet<>();
+        int scanned = 0;
+        for (Suggestion suggestion : entries.subMap(prefix, true, prefix + '\uffff', false).values()) {
+            matched.add(suggestion);
+            if (++scanned >= MAX_SCANNED) {
+                break;
+            }
+        }
+        List<Suggestion> result = new ArrayList<>(matched);
+        Collections.sort(result, (a, b) -> {
+            if (a.type != b.type) {
+                return a.type - b.type;
+            }
+            if (a.count != b.count) {
+                return b.count - a.count;
+            }
+            return a.text.compareTo(b.text);
+        });
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    /**
+     * 查找疑似重复的已有物品名称（忽略大小写与空白，如"洗衣液 3kg"与"洗衣液3KG"）
+     * @return 已有的同名物品，没有时返回null
+     */
+    public synchronized Suggestion findDuplicate(String name) {
+        String key = normalize(name);
+        if (key.isEmpty()) {
+            return null;
+        }
+        // 同一匹配键下也可能是其他名称的拼音键（如输入"xyy"），需再核对规范化名称
+        String from = key + KEY_SEPARATOR + TYPE_ITEM + KEY_SEPARATOR;
+        for (Suggestion suggestion : entries.subMap(from, true, from + '\uffff', false).values()) {
+            if (normalize(suggestion.text).equals(key)) {
+                return suggestion;
+            }
+        }
+        return null;
+    }
+
+    // ==================== 内部维护 ====================
+
+    // 名称计数增减，计数归零时移除其全部匹配键
+    private void add(int type, String text, int delta) {
+        if (text == null || text.trim().isEmpty()) {
+            return;
+        }
+        Map<String, Suggestion> texts = byText.get(type);
+        Suggestion suggestion = texts.get(text);
+        if (suggestion == null) {
+            if (delta <= 0) {
+                return;
+            }
+            suggestion = new Suggestion(text, type);
+            texts.put(text, suggestion);
+            for (String key : matchKeys(text)) {
+                entries.put(entryKey(key, suggestion), suggestion);
+            }
+        }
+        suggestion.count += delta;
+        if (suggestion.count <= 0) {
+            texts.remove(text);
+            for (String key : matchKeys(text)) {
+                entries.remove(entryKey(key, suggestion));
+            }
+        }
+    }
+
+    private void clear() {
+        entries.clear();
+        for (Map<String, Suggestion> texts : byText) {
+            texts.clear();
+        }
+    }
+
+    // 规范化名称与名称的全拼、首字母
+    private static Set<String> matchKeys(String text) {
+        Set<String> keys = new LinkedHashSet<>();
+        keys.add(normalize(text));
+        keys.addAll(PinyinKeys.leading(text));
+        keys.remove("");
+        return keys;
+    }
+
+    private static String entryKey(String matchKey, Suggestion suggestion) {
+        return matchKey + KEY_SEPARATOR + suggestion.type + KEY_SEPARATOR + suggestion.text;
+    }
+
+    // 小写并去掉所有空白
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                sb.append(c);
+            }
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+}
@@ -16,6 +16,7 @@ import java.util.List;
 public class PermissionUtils {
     // 权限请求码
     public static final int REQUEST_CODE_PERMISSIONS = 1001;
+    public static final int REQUEST_CODE_NOTIFICATIONS = 1002;
     // 需要申请的权限
     public static final String[] REQUIRED_PERMISSIONS = {
             android.Manifest.permission.CAMERA,
@@ -45,6 +46,22 @@ public class PermissionUtils {
         return true;
     }
 
+    /**
+     * 检查并申请通知权限（Android 13+ 运行时权限，临期提醒需要）
+     * @return 已有权限或系统版本无需申请时返回true
+     */
+    public static boolean checkAndRequestNotificationPermission(Activity activity) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.TIRAMISU) {
+            return true;
+        }
+        String permission = android.Manifest.permission.POST_NOTIFICATIONS;
+        if (ContextCompat.checkSelfPermission(activity, permission) == PackageManager.PERMISSION_GRANTED) {
+            return true;
+        }
+        ActivityCompat.requestPermissions(activity, new String[]{permission}, REQUEST_CODE_NOTIFICATIONS);
+        return false;
+    }
+
     /**
      * 检查权限申请结果
      */
@@ -0,0 +1,173 @@
+package com.example.inventory;
+
+import android.icu.text.Collator;
+import android.icu.text.Transliterator;
+import android.os.Build;
+
+import androidx.annotation.RequiresApi;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 物品名称的拼音检索键
+ * 名称先转为拼音音节（"蒙牛纯牛奶 500ml" → meng niu chun niu nai 500ml），再从前几个音节起各生成
+ * 一个全拼键与一个首字母键（mengniuchunniunai500ml / mncnn5、niuchunniunai500ml / ncnn5 …），
+ * 存入item_search_key表，输入"nn"、"niunai"时对检索键做前缀范围查询即可命中"牛奶"
+ *
+ * API 29+ 使用ICU的Han-Latin转写得到全拼；API 28没有Transliterator，
+ * 退化为按拼音排序规则取汉字首字母（只支持首字母检索）
+ */
+final class PinyinKeys {
+    // 转写规则版本：规则或键的生成方式变化时递增，SearchKeyBackfill据此重新回填
+    static final int VERSION = 1;
+    // 最多从前几个音节起生成后缀键（控制每个物品的键数量）
+    private static final int MAX_SUFFIX_STARTS = 8;
+    // 单个键的最大长度（过长的全拼只保留前缀）
+    private static final int MAX_KEY_LENGTH = 32;
+    // 检索键只包含小写字母和数字，前缀范围的上界取比它们都大的字符
+    private static final char PREFIX_END = '\uffff';
+
+    private PinyinKeys() {}
+
+    /**
+     * 名称对应的全部检索键（已去重，名称中没有字母/数字/汉字时为空）
+     */
+    static Set<String> of(String name) {
+        List<String> syllables = syllables(name);
+        Set<String> keys = new LinkedHashSet<>();
+        int starts = Math.min(syllables.size(), MAX_SUFFIX_STARTS);
+        for (int start = 0; start < starts; start++) {
+            addKeys(syllables, start, keys);
+        }
+        return keys;
+    }
+
+    /**
+     * 只从第一个音节起生成的全拼键与首字母键（用于名称开头匹配，如输入联想）
+     */
+    static Set<String> leading(String name) {
+        List<String> syllables = syllables(name);
+        Set<String> keys = new LinkedHashSet<>();
+        if (!syllables.isEmpty()) {
+            addKeys(syllables, 0, keys);
+        }
+        return keys;
+    }
+
+    private static void addKeys(List<String> syllables, int start, Set<String> keys) {
+        StringBuilder full = new StringBuilder();
+        StringBuilder initials = new StringBuilder();
+        for (int i = start; i < syllables.size(); i++) {
+            full.append(syllables.get(i));
+            initials.append(syllables.get(i).charAt(0));
+        }
+        keys.add(truncate(full));
+        keys.add(truncate(initials));
+    }
+
+    /**
+     * 将搜索关键词规范化为检索键前缀
+     * @return 关键词只含ASCII字符时返回小写字母数字前缀；含汉字等其他字符（或规范化后为空）时返回null，
+     *         由调用方改用名称子串匹配
+     */
+    static String normalizeQuery(String keyword) {
+        if (keyword == null) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < keyword.length(); i++) {
+            char c = keyword.charAt(i);
+            if (c > 0x7f) {
+                return null;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(Character.toLowerCase(c));
+            }
+        }
+        return sb.length() == 0 ? null : truncate(sb);
+    }
+
+    /**
+     * 前缀范围查询的上界（searchKey >= prefix AND searchKey < upperBound(prefix)）
+     */
+    static String upperBound(String prefix) {
+        return prefix + PREFIX_END;
+    }
+
+    // 名称 → 小写拼音音节与字母数字词
+    static List<String> syllables(String name) {
+        List<String> result = new ArrayList<>();
+        if (name == null || name.isEmpty()) {
+            return result;
+        }
+        String latin = Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q
+                ? Api29.toLatin(name) : Initials.toLatin(name);
+        for (String token : latin.toLowerCase(Locale.ROOT).split("[^a-z0-9]+")) {
+            if (!token.isEmpty()) {
+                result.add(token);
+            }
+        }
+        return result;
+    }
+
+    private static String truncate(CharSequence key) {
+        return key.length() <= MAX_KEY_LENGTH ? key.toString() : key.subSequence(0, MAX_KEY_LENGTH).toString();
+    }
+
+    // ==================== API 29+：ICU全拼转写 ====================
+
+    @RequiresApi(Build.VERSION_CODES.Q)
+    private static final class Api29 {
+        // Transliterator非线程安全，每个线程一个实例（创建开销较大，只创建一次）
+        private static final ThreadLocal<Transliterator> TRANSLITERATOR =
+                ThreadLocal.withInitial(() -> Transliterator.getInstance("Han-Latin; Latin-ASCII"));
+
+        // "牛奶" → "niu nai"（音节之间以空格分隔，非汉字原样保留）
+        static String toLatin(String name) {
+            return TRANSLITERATOR.get().transliterate(name);
+        }
+    }
+
+    // ==================== API 28：按排序规则取首字母 ====================
+
+    private static final class Initials {
+        // 简体中文排序规则下各拼音首字母的第一个汉字（i、u、v不作声母）
+        private static final String LETTERS = "abcdefghjklmnopqrstwxyz";
+        private static final String[] BOUNDARIES = {"阿", "芭", "擦", "搭", "蛾", "发", "噶", "哈", "击", "喀",
+                "垃", "妈", "拿", "哦", "啪", "期", "然", "撒", "塌", "挖", "昔", "压", "匝"};
+        private static final ThreadLocal<Collator> COLLATOR =
+                ThreadLocal.withInitial(() -> Collator.getInstance(Locale.CHINA));
+
+        // "牛奶" → " n  n "（每个汉字替换为独立的首字母音节）
+        static String toLatin(String name) {
+            Collator collator = COLLATOR.get();
+            StringBuilder sb = new StringBuilder(name.length() * 3);
+            for (int i = 0; i < name.length(); ) {
+                int codePoint = name.codePointAt(i);
+                i += Character.charCount(codePoint);
+                if (Character.UnicodeScript.of(codePoint) != Character.UnicodeScript.HAN) {
+                    sb.appendCodePoint(codePoint);
+                    continue;
+                }
+                String han = new String(Character.toChars(codePoint));
+                int letter = -1;
+                for (int b = BOUNDARIES.length - 1; b >= 0; b--) {
+                    if (collator.compare(han, BOUNDARIES[b]) >= 0) {
+                        letter = b;
+                        break;
+                    }
+                }
+                sb.append(' ');
+                if (letter >= 0) {
+                    sb.append(LETTERS.charAt(letter));
+                }
+                sb.append(' ');
+            }
+            return sb.toString();
+        }
+    }
+}
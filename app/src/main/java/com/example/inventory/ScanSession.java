@@ -0,0 +1,269 @@
+package com.example.inventory;
+
+import android.os.Process;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 连续扫码会话（盘点入库/出库）：扫码枪（按键盘输入，每个条码以回车结束）或手动输入的条码逐个送入
+ * {@link #onScan(String)}，扫码时只在内存中按条码累加次数，不访问数据库；
+ * 累计到maxPendingScans次，或距本批第一次扫码超过flushDelayMillis后，在写队列上用一个事务写入这一批：
+ * 入库合并到物品的无有效期批次，出库按先进先出扣减，同一物品每批只刷新一次修改时间、只写一条修改记录
+ *
+ * 条码到物品ID的映射在首次写入时按唯一索引一次性载入内存，之后每次解析都是一次哈希查找；
+ * 会话期间新录入条码的物品在未命中时再按唯一索引查一次（会话期间修改或删除已有条码时需重新开始会话）
+ */
+public class ScanSession {
+    private static final String TAG = "ScanSession";
+
+    // ==================== 扫码模式（每扫一次的数量变化） ====================
+    public static final int MODE_RECEIVE = 1;   // 入库：数量+1
+    public static final int MODE_CONSUME = -1;  // 出库：数量-1
+
+    // 每批最多累计的扫码次数（同时限制了一批中的物品数，批量更新的IN列表不超过SQLite参数上限）
+    static final int DEFAULT_MAX_PENDING_SCANS = 200;
+    // 本批第一次扫码后多久写入
+    static final long DEFAULT_FLUSH_DELAY_MILLIS = 2000;
+
+    // 定时写入共用的后台线程（只负责把到期的批次交给写队列）
+    private static final ScheduledExecutorService sTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(() -> {
+            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+            r.run();
+        }, "scan-session");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 条码与物品ID（Room查询结果）
+     */
+    public static class CodeEntry {
+        public String barcode;
+        public String itemId;
+    }
+
+    /**
+     * 批次写入结果回调（在写线程回调，更新界面需切回主线程）
+     */
+    public interface Listener {
+        /**
+         * @param scans 本批扫码次数（含未识别的条码）
+         * @param items 本批实际改变了数量的物品数
+         * @param unknownCodes 本批中没有对应物品的条码
+         */
+        void onFlushed(int scans, int items, List<String> unknownCodes);
+    }
+
+    private final InventoryDatabase database;
+    private final int mode;
+    private final Listener listener;
+    private final Executor writeExecutor;
+    private final ScheduledExecutorService timer;
+    private final int maxPendingScans;
+    private final long flushDelayMillis;
+
+    // 待写入的扫码：条码 → 次数（以下四项受this锁保护）
+    private Map<String, Integer> pending = new HashMap<>();
+    private int pendingScans;
+    private ScheduledFuture<?> scheduledFlush;
+    private boolean closed;
+
+    // 条码 → 物品ID（只在写线程访问）
+    private Map<String, String> itemIdByCode;
+
+    /**
+     * @param mode MODE_RECEIVE或MODE_CONSUME
+     * @param writeExecutor 写队列（与其他写操作串行执行）
+     */
+    public ScanSession(InventoryDatabase database, int mode, Listener listener, Executor writeExecutor) {
+        this(database, mode, listener, writeExecutor, sTimer, DEFAULT_MAX_PENDING_SCANS, DEFAULT_FLUSH_DELAY_MILLIS);
+    }
+
+    /**
+     * @param timer 定时写入用的线程，为空时只在累计满一批和结束会话时写入
+     */
+    ScanSession(InventoryDatabase database, int mode, Listener listener, Executor writeExecutor,
+                ScheduledExecutorService timer, int maxPendingScans, long flushDelayMillis) {
+        if (mode != MODE_RECEIVE && mode != MODE_CONSUME) {
+            throw new IllegalArgumentException("未知的扫码模式：" + mode);
+        }
+        this.database = database;
+        this.mode = mode;
+        this.listener = listener;
+        this.writeExecutor = writeExecutor;
+        this.timer = timer;
+        this.maxPendingScans = maxPendingScans;
+        this.flushDelayMillis = flushDelayMillis;
+    }
+
+    // ==================== 扫码输入 ====================
+
+    /**
+     * 送入一次扫码（可在主线程调用，只做内存累加）
+     * @return 条码为空时返回false
+     */
+    public boolean onScan(String code) {
+        String barcode = Barcodes.normalize(code);
+        if (barcode == null) {
+            return false;
+        }
+        Map<String, Integer> batch = null;
+        synchronized (this) {
+            if (closed) {
+                throw new IllegalStateException("扫码会话已结束");
+            }
+            Integer count = pending.get(barcode);
+            pending.put(barcode, count == null ? 1 : count + 1);
+            pendingScans++;
+            if (pendingScans >= maxPendingScans) {
+                batch = takePending();
+            } else if (scheduledFlush == null && timer != null) {
+                scheduledFlush = timer.schedule(this::flush, flushDelayMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        submit(batch);
+        return true;
+    }
+
+    /**
+     * 送入一段文本输入（扫码枪连续输入或粘贴的多行条码），按行拆分为多次扫码
+     * @return 本次送入的扫码次数
+     */
+    public int onInput(CharSequence text) {
+        int scans = 0;
+        for (String line : text.toString().split("[\\r\\n]+")) {
+            if (onScan(line)) {
+                scans++;
+            }
+        }
+        return scans;
+    }
+
+    /**
+     * 立即把已累计的扫码交给写队列
+     */
+    public void flush() {
+        Map<String, Integer> batch;
+        synchronized (this) {
+            batch = takePending();
+        }
+        submit(batch);
+    }
+
+    /**
+     * 结束会话：写入剩余的扫码，之后不再接受扫码
+     */
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+        flush();
+    }
+
+    // 取出待写入的扫码并取消定时写入（调用方持有this锁）
+    private Map<String, Integer> takePending() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        if (pending.isEmpty()) {
+            return null;
+        }
+        Map<String, Integer> batch = pending;
+        pending = new HashMap<>();
+        pendingScans = 0;
+        return batch;
+    }
+
+    private void submit(Map<String, Integer> batch) {
+        if (batch == null) {
+            return;
+        }
+        long enqueuedNanos = DbMetrics.onWriteEnqueued();
+        writeExecutor.execute(() -> {
+            long start = DbMetrics.onWriteStarted(enqueuedNanos);
+            try {
+                write(batch);
+            } catch (RuntimeException e) {
+                Log.e(TAG, "扫码批次写入失败：" + e.getMessage());
+            } finally {
+                DbMetrics.onWriteFinished(start);
+            }
+        });
+    }
+
+    // ==================== 批次写入（写线程） ====================
+
+    private void write(Map<String, Integer> batch) {
+        String updateTime = InventoryTime.formatRecordTime(System.currentTimeMillis());
+        List<String> unknownCodes = new ArrayList<>();
+        List<String> changedItemIds = new ArrayList<>();
+        int[] scans = {0};
+        database.runInTransaction(() -> {
+            ItemDao itemDao = database.itemDao();
+            ItemLotDao itemLotDao = database.itemLotDao();
+            if (itemIdByCode == null) {
+                itemIdByCode = new HashMap<>();
+                for (CodeEntry entry : itemDao.getBarcodesSync()) {
+                    itemIdByCode.put(entry.barcode, entry.itemId);
+                }
+            }
+            List<UsageRecord> records = new ArrayList<>();
+            for (Map.Entry<String, Integer> scan : batch.entrySet()) {
+                scans[0] += scan.getValue();
+                String itemId = resolve(itemDao, scan.getKey());
+                if (itemId == null) {
+                    unknownCodes.add(scan.getKey());
+                    continue;
+                }
+                int modifiedFields = mode == MODE_RECEIVE
+                        ? receive(itemLotDao, itemId, scan.getValue(), updateTime)
+                        : BulkItemEditor.consume(itemDao, itemLotDao, itemId, scan.getValue());
+                if (modifiedFields != 0) {
+                    changedItemIds.add(itemId);
+                    records.add(new UsageRecord(itemId, UsageRecord.TYPE_UPDATE, updateTime, modifiedFields));
+                }
+            }
+            if (!changedItemIds.isEmpty()) {
+                itemDao.touchAll(changedItemIds, updateTime);
+                database.usageRecordDao().insertAll(records);
+            }
+        });
+        if (!unknownCodes.isEmpty()) {
+            Log.w(TAG, "未识别的条码：" + unknownCodes);
+        }
+        if (listener != null) {
+            listener.onFlushed(scans[0], changedItemIds.size(), unknownCodes);
+        }
+    }
+
+    // 内存映射未命中时按唯一索引查一次（会话期间新录入的条码）
+    private String resolve(ItemDao itemDao, String barcode) {
+        String itemId = itemIdByCode.get(barcode);
+        if (itemId == null) {
+            itemId = itemDao.getItemIdByBarcodeSync(barcode);
+            if (itemId != null) {
+                itemIdByCode.put(barcode, itemId);
+            }
+        }
+        return itemId;
+    }
+
+    // 入库：合并到物品最近的无有效期批次（没有时新建），最近有效期不变
+    private static int receive(ItemLotDao itemLotDao, String itemId, int amount, String receivedTime) {
+        if (itemLotDao.addToUndatedLot(itemId, amount) == 0) {
+            itemLotDao.insert(new ItemLot(itemId, amount, null, receivedTime));
+        }
+        return UsageRecord.FIELD_QUANTITY;
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.inventory;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Process;
+import android.util.Log;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 拼音检索键后台回填
+ * 升级到带item_search_key表的版本后，已有物品的检索键不在迁移中生成（逐条转写拼音会拖慢首次打开），
+ * 而是在后台按ID顺序分批补齐；每批的读取与写入在同一个事务中（期间改名的写事务只能排在整批之前或之后，
+ * 不会被旧名称的检索键覆盖），批次之间让出写锁
+ * 回填完成前，ASCII关键词仍按名称子串搜索（见 InventoryRepository.searchItemsByName）
+ */
+public class SearchKeyBackfill {
+    private static final String TAG = "SearchKeyBackfill";
+    private static final String PREFS_NAME = "search_key_backfill";
+    // 已完成回填的检索键版本（PinyinKeys.VERSION）
+    private static final String KEY_DONE_VERSION = "done_version";
+    private static final int BATCH_SIZE = 200;
+    // 批次之间让出写锁的时间
+    private static final long BATCH_PAUSE_MILLIS = 20;
+    // 启动后稍作延迟，避开首页查询
+    private static final long STARTUP_DELAY_MILLIS = 2_000;
+
+    private static final AtomicBoolean sRunning = new AtomicBoolean(false);
+    private static volatile boolean sDone;
+    private static final ScheduledExecutorService sExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(() -> {
+            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+            r.run();
+        }, "search-key-backfill");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final InventoryDatabase database;
+    private final ItemDao itemDao;
+    private final ItemSearchKeyDao searchKeyDao;
+
+    public SearchKeyBackfill(InventoryDatabase database) {
+        this.database = database;
+        this.itemDao = database.itemDao();
+        this.searchKeyDao = database.itemSearchKeyDao();
+    }
+
+    /**
+     * 当前版本的检索键是否已全部生成（未完成时拼音搜索结果不完整）
+     */
+    public static boolean isDone() {
+        return sDone;
+    }
+
+    /**
+     * 检索键未回填（或版本过旧）时，在后台线程执行一次回填
+     */
+    public static void scheduleIfNeeded(Context context) {
+        Context appContext = context.getApplicationContext();
+        SharedPreferences prefs = appContext.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        if (prefs.getInt(KEY_DONE_VERSION, 0) == PinyinKeys.VERSION) {
+            sDone = true;
+            return;
+        }
+        if (!sRunning.compareAndSet(false, true)) {
+            return;
+        }
+        sExecutor.schedule(() -> {
+            try {
+                new SearchKeyBackfill(InventoryDatabase.getInstance(appContext)).runOnce();
+                prefs.edit().putInt(KEY_DONE_VERSION, PinyinKeys.VERSION).apply();
+                sDone = true;
+            } catch (RuntimeException e) {
+                Log.e(TAG, "检索键回填失败：" + e.getMessage());
+            } finally {
+                sRunning.set(false);
+            }
+        }, STARTUP_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 同步为全部物品重新生成检索键（仅限子线程调用，可重复执行）
+     * @return 处理的物品数
+     */
+    public int runOnce() {
+        MainThreadGuard.assertNotMainThread("SearchKeyBackfill.runOnce");
+        int processed = 0;
+        String lastId = "";
+        List<Item> batch;
+        while (!(batch = replaceBatch(lastId)).isEmpty()) {
+            processed += batch.size();
+            lastId = batch.get(batch.size() - 1).getId();
+            pause();
+        }
+        Log.d(TAG, "检索键回填完成，物品数量：" + processed);
+        return processed;
+    }
+
+    // 在一个写事务内读取afterId之后的一批物品并重新生成其检索键
+    private List<Item> replaceBatch(String afterId) {
+        return database.runInTransaction(() -> {
+            List<Item> batch = itemDao.getItemsAfterIdSync(afterId, BATCH_SIZE);
+            if (!batch.isEmpty()) {
+                searchKeyDao.replaceKeys(batch);
+            }
+            return batch;
+        });
+    }
+
+    // 批次间短暂休眠，让界面的写事务优先获得写锁
+    private void pause() {
+        try {
+            Thread.sleep(BATCH_PAUSE_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.inventory;
+
+import android.app.Activity;
+import android.content.Context;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.os.SystemClock;
+import android.os.Trace;
+import android.util.Log;
+import android.view.Display;
+import android.view.FrameMetrics;
+import android.view.View;
+import android.view.ViewTreeObserver;
+import android.view.Window;
+
+import java.io.PrintWriter;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 界面性能统计（可选开启）
+ * 通过 FrameMetrics 记录每帧耗时并统计卡顿/冻帧，通过 Trace 分段记录列表绑定与图片解码耗时
+ * Trace 分段始终打点（未抓取systrace时系统开销极小），耗时直方图仅在开启后记录
+ */
+public final class UiMetrics {
+    private static final String TAG = "UiMetrics";
+    private static final String PREFS_NAME = "debug_settings";
+    private static final String KEY_ENABLED = "ui_metrics_enabled";
+    // 冻帧阈值（Android vitals 口径）
+    private static final long FROZEN_FRAME_NANOS = 700_000_000L;
+
+    // 分段名称（同时作为 systrace 中的 section 名）
+    public static final String SECTION_ITEM_BIND = "ItemAdapter.bind";
+    public static final String SECTION_THUMBNAIL_DECODE = "ImagePreviewAdapter.decode";
+    public static final String SECTION_PAGER_DECODE = "ImagePagerAdapter.decode";
+
+    // 启动里程碑（始终记录，每个进程每项只记一次）
+    public static final String STARTUP_SNAPSHOT_FRAME = "首屏（快照）";
+    public static final String STARTUP_LIVE_FRAME = "首屏（实时数据）";
+
+    private static volatile boolean sEnabled;
+
+    private static final Map<String, FrameStats> sFrames = new ConcurrentHashMap<>();
+    private static final Map<String, LatencyHistogram> sSections = new ConcurrentHashMap<>();
+    // 里程碑 → 距进程启动的毫秒数（仅主线程访问）
+    private static final Map<String, Long> sStartupMillis = new LinkedHashMap<>();
+    // 帧数据回调线程（避免占用主线程）
+    private static Handler sFrameHandler;
+
+    private UiMetrics() {}
+
+    /**
+     * 单个页面的帧统计
+     */
+    static final class FrameStats {
+        final LatencyHistogram frames = new LatencyHistogram();
+        final AtomicLong jankFrames = new AtomicLong();
+        final AtomicLong frozenFrames = new AtomicLong();
+
+        void reset() {
+            frames.reset();
+            jankFrames.set(0);
+            frozenFrames.set(0);
+        }
+    }
+
+    // ==================== 开关 ====================
+
+    public static boolean loadEnabled(Context context) {
+        sEnabled = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).getBoolean(KEY_ENABLED, false);
+        return sEnabled;
+    }
+
+    /**
+     * 修改开关（分段耗时立即生效，帧统计在重新进入页面后生效）
+     */
+    public static void setEnabled(Context context, boolean enabled) {
+        sEnabled = enabled;
+        context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE).edit()
+                .putBoolean(KEY_ENABLED, enabled).apply();
+    }
+
+    public static boolean isEnabled() {
+        return sEnabled;
+    }
+
+    // ==================== 帧统计 ====================
+
+    /**
+     * 开始统计页面帧耗时（onCreate 中调用），返回的监听需在 onDestroy 中传给 {@link #stopFrameTracking}
+     * @return 未开启时返回null
+     */
+    public static Window.OnFrameMetricsAvailableListener startFrameTracking(Activity activity) {
+        if (!sEnabled) {
+            return null;
+        }
+        final String screen = activity.getClass().getSimpleName();
+        FrameStats stats = sFrames.get(screen);
+        if (stats == null) {
+            sFrames.putIfAbsent(screen, new FrameStats());
+            stats = sFrames.get(screen);
+        }
+        // 超过一个刷新周期即视为掉帧
+        Display display = activity.getWindowManager().getDefaultDisplay();
+        float refreshRate = display.getRefreshRate() > 0 ? display.getRefreshRate() : 60f;
+        final long frameBudgetNanos = (long) (1_000_000_000L / refreshRate);
+        final FrameStats target = stats;
+        Window.OnFrameMetricsAvailableListener listener = (window, frameMetrics, dropCount) -> {
+            if (!sEnabled || frameMetrics.getMetric(FrameMetrics.FIRST_DRAW_FRAME) == 1) {
+                // 首帧包含布局加载，计入启动耗时而非卡顿
+                return;
+            }
+            long total = frameMetrics.getMetric(FrameMetrics.TOTAL_DURATION);
+            target.frames.record(total);
+            if (total > frameBudgetNanos) {
+                target.jankFrames.incrementAndGet();
+            }
+            if (total > FROZEN_FRAME_NANOS) {
+                target.frozenFrames.incrementAndGet();
+            }
+        };
+        activity.getWindow().addOnFrameMetricsAvailableListener(listener, frameHandler());
+        return listener;
+    }
+
+    public static void stopFrameTracking(Activity activity, Window.OnFrameMetricsAvailableListener listener) {
+        if (listener != null) {
+            activity.getWindow().removeOnFrameMetricsAvailableListener(listener);
+        }
+    }
+
+    private static synchronized Handler frameHandler() {
+        if (sFrameHandler == null) {
+            HandlerThread thread = new HandlerThread("ui-metrics");
+            thread.start();
+            sFrameHandler = new Handler(thread.getLooper());
+        }
+        return sFrameHandler;
+    }
+
+    // ==================== 启动耗时 ====================
+
+    /**
+     * 记录启动里程碑：在view下一次绘制前取距进程启动的耗时（主线程调用）
+     * @return 该里程碑此前未记录过时返回true
+     */
+    public static boolean recordStartupMilestone(View view, String milestone) {
+        if (sStartupMillis.containsKey(milestone)) {
+            return false;
+        }
+        sStartupMillis.put(milestone, -1L);
+        view.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                view.getViewTreeObserver().removeOnPreDrawListener(this);
+                long elapsed = SystemClock.uptimeMillis() - Process.getStartUptimeMillis();
+                sStartupMillis.put(milestone, elapsed);
+                Log.i(TAG, milestone + ": " + elapsed + "ms");
+                return true;
+            }
+        });
+        return true;
+    }
+
+    // ==================== 分段耗时 ====================
+
+    /**
+     * 开始一个分段（与 {@link #endSection} 在同一线程成对调用）
+     * @return 开始时间，未开启时为0
+     */
+    public static long beginSection(String section) {
+        Trace.beginSection(section);
+        return sEnabled ? System.nanoTime() : 0;
+    }
+
+    public static void endSection(String section, long startNanos) {
+        Trace.endSection();
+        if (startNanos == 0 || !sEnabled) {
+            return;
+        }
+        LatencyHistogram histogram = sSections.get(section);
+        if (histogram == null) {
+            sSections.putIfAbsent(section, new LatencyHistogram());
+            histogram = sSections.get(section);
+        }
+        histogram.record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * 清空统计：帧统计原地清零（已注册的帧监听持有各页面的FrameStats，不能替换实例）
+     */
+    public static void reset() {
+        for (FrameStats stats : sFrames.values()) {
+            stats.reset();
+        }
+        sSections.clear();
+    }
+
+    // ==================== 报告 ====================
+
+    /**
+     * 输出卡顿报告（调试页面展示，或通过 adb shell dumpsys activity 导出）
+     */
+    public static void dump(PrintWriter writer) {
+        writer.println("== 界面统计 ==" + (sEnabled ? "" : "（未开启）"));
+        for (Map.Entry<String, Long> entry : sStartupMillis.entrySet()) {
+            writer.println("启动 " + entry.getKey() + ": " + entry.getValue() + "ms");
+        }
+        for (Map.Entry<String, FrameStats> entry : new TreeMap<>(sFrames).entrySet()) {
+            FrameStats stats = entry.getValue();
+            long count = stats.frames.getCount();
+            writer.println(entry.getKey() + " 帧: " + stats.frames.summary());
+            writer.println(String.format(Locale.US, "  掉帧=%d (%.1f%%)  冻帧=%d",
+                    stats.jankFrames.get(), count == 0 ? 0 : stats.jankFrames.get() * 100.0 / count,
+                    stats.frozenFrames.get()));
+        }
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(sSections).entrySet()) {
+            writer.println(entry.getKey() + ": " + entry.getValue().summary());
+        }
+        writer.flush();
+    }
+}
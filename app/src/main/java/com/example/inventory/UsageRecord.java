@@ -1,16 +1,64 @@
 package com.example.inventory;
 
 import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.ForeignKey;
 import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
+import java.util.Objects;
+
 /**
  * 使用记录实体类
  * 对应Room数据库的usage_record表
+ * type和modifiedFields均以整数编码存储，仅在界面展示时解码为文字
+ * 物品删除时其使用记录由外键级联删除（itemId + time索引同时作为外键索引）
  */
-@Entity(tableName = "usage_record")
+@Entity(tableName = "usage_record",
+        foreignKeys = @ForeignKey(entity = ItemRecord.class, parentColumns = "id", childColumns = "itemId",
+                onDelete = ForeignKey.CASCADE, onUpdate = ForeignKey.CASCADE),
+        indices = {@Index(value = {"itemId", "time"}), @Index(value = {"type", "time"})})
 public class UsageRecord {
+    // ==================== 操作类型编码 ====================
+    public static final int TYPE_CREATE = 0; // 创建
+    public static final int TYPE_UPDATE = 1; // 修改
+    public static final int TYPE_DAILY_ROLLUP = 2; // 按天汇总（由保留策略压缩旧的修改记录生成）
+
+    // ==================== 修改字段位掩码（对应Item的列） ====================
+    public static final int FIELD_NAME = 1;
+    public static final int FIELD_CATEGORY = 1 << 1;
+    // 子分类已并入分类树，仅保留用于展示历史记录
+    public static final int FIELD_SUB_CATEGORY = 1 << 2;
+    public static final int FIELD_LOCATION = 1 << 3;
+    public static final int FIELD_QUANTITY = 1 << 4;
+    public static final int FIELD_EXPIRY_DATE = 1 << 5;
+    public static final int FIELD_DESCRIPTION = 1 << 6;
+    public static final int FIELD_IMAGE_PATHS = 1 << 7;
+    public static final int FIELD_BARCODE = 1 << 8;
+
+    // 位掩码与展示名称的对应关系（顺序即展示顺序）
+    static final int[] FIELD_BITS = {
+            FIELD_NAME, FIELD_CATEGORY, FIELD_SUB_CATEGORY, FIELD_LOCATION,
+            FIELD_QUANTITY, FIELD_EXPIRY_DATE, FIELD_DESCRIPTION, FIELD_IMAGE_PATHS,
+            FIELD_BARCODE
+    };
+    private static final String[] FIELD_LABELS = {
+            "名称", "分类", "子分类", "位置", "数量", "有效期", "描述", "图片", "条码"
+    };
+
+    // SQL表达式：对modifiedFields列做按位或聚合（SQLite无BIT_OR聚合函数，逐位取MAX）
+    static final String SQL_BIT_OR_FIELDS = "MAX(modifiedFields & " + FIELD_NAME + ")"
+            + " | MAX(modifiedFields & " + FIELD_CATEGORY + ")"
+            + " | MAX(modifiedFields & " + FIELD_SUB_CATEGORY + ")"
+            + " | MAX(modifiedFields & " + FIELD_LOCATION + ")"
+            + " | MAX(modifiedFields & " + FIELD_QUANTITY + ")"
+            + " | MAX(modifiedFields & " + FIELD_EXPIRY_DATE + ")"
+            + " | MAX(modifiedFields & " + FIELD_DESCRIPTION + ")"
+            + " | MAX(modifiedFields & " + FIELD_IMAGE_PATHS + ")"
+            + " | MAX(modifiedFields & " + FIELD_BARCODE + ")";
+
     @PrimaryKey(autoGenerate = true)
     private long id;
 
@@ -18,23 +66,26 @@ public class UsageRecord {
     @NonNull
     private String itemId;
 
-    // 操作类型：create（创建）、update（修改）（必填，标记非空）
-    @NonNull
-    private String type;
+    // 操作类型：TYPE_CREATE / TYPE_UPDATE / TYPE_DAILY_ROLLUP
+    private int type;
 
     // 操作时间（格式：yyyy.MM.dd HH:mm，必填，标记非空）
     @NonNull
     private String time;
 
-    // 修改的字段（如：name,category；create类型时为空，可选）
-    private String modifiedFields;
+    // 修改的字段位掩码（FIELD_*按位或；create类型时为0）
+    private int modifiedFields;
+
+    // 本条记录代表的修改次数（普通记录为1，按天汇总记录为当天修改次数之和）
+    @ColumnInfo(defaultValue = "1")
+    private int editCount = 1;
 
     // 空构造函数（Room要求，必须保留）
     public UsageRecord() {}
 
     // 带参构造函数（添加@Ignore，消除Room构造函数歧义警告）
     @Ignore
-    public UsageRecord(@NonNull String itemId, @NonNull String type, @NonNull String time, String modifiedFields) {
+    public UsageRecord(@NonNull String itemId, int type, @NonNull String time, int modifiedFields) {
         this.itemId = itemId;
         this.type = type;
         this.time = time;
@@ -59,12 +110,11 @@ public class UsageRecord {
         this.itemId = itemId;
     }
 
-    @NonNull
-    public String getType() {
+    public int getType() {
         return type;
     }
 
-    public void setType(@NonNull String type) {
+    public void setType(int type) {
         this.type = type;
     }
 
@@ -77,11 +127,83 @@ public class UsageRecord {
         this.time = time;
     }
 
-    public String getModifiedFields() {
+    public int getModifiedFields() {
         return modifiedFields;
     }
 
-    public void setModifiedFields(String modifiedFields) {
+    public void setModifiedFields(int modifiedFields) {
         this.modifiedFields = modifiedFields;
     }
-}
\ No newline at end of file
+
+    public int getEditCount() {
+        return editCount;
+    }
+
+    public void setEditCount(int editCount) {
+        this.editCount = editCount;
+    }
+
+    // ==================== 展示时解码 ====================
+
+    /**
+     * 操作类型的展示文字
+     */
+    @Ignore
+    public String getTypeLabel() {
+        if (type == TYPE_CREATE) {
+            return "创建";
+        }
+        return type == TYPE_DAILY_ROLLUP ? "修改（当天" + editCount + "次）" : "修改";
+    }
+
+    /**
+     * 修改字段的展示文字（如：名称、数量）
+     */
+    @Ignore
+    public String getModifiedFieldsLabel() {
+        return describeFields(modifiedFields);
+    }
+
+    /**
+     * 将字段位掩码解码为以“、”分隔的字段名称
+     */
+    public static String describeFields(int fields) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < FIELD_BITS.length; i++) {
+            if ((fields & FIELD_BITS[i]) != 0) {
+                if (sb.length() > 0) {
+                    sb.append("、");
+                }
+                sb.append(FIELD_LABELS[i]);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 对比新旧物品，计算被修改字段的位掩码
+     * @param oldItem 修改前的物品（为空时视为全部字段被修改）
+     * @param newItem 修改后的物品
+     */
+    public static int diffFields(Item oldItem, Item newItem) {
+        if (oldItem == null) {
+            int all = 0;
+            for (int bit : FIELD_BITS) {
+                all |= bit;
+            }
+            return all;
+        }
+        int fields = 0;
+        if (!Objects.equals(oldItem.getName(), newItem.getName())) fields |= FIELD_NAME;
+        if (!Objects.equals(oldItem.getCategory(), newItem.getCategory())) fields |= FIELD_CATEGORY;
+        if (!Objects.equals(oldItem.getLocation(), newItem.getLocation())) fields |= FIELD_LOCATION;
+        if (oldItem.getQuantity() != newItem.getQuantity()) fields |= FIELD_QUANTITY;
+        if (!Objects.equals(oldItem.getExpiryDate(), newItem.getExpiryDate())) fields |= FIELD_EXPIRY_DATE;
+        if (!Objects.equals(oldItem.getDescription(), newItem.getDescription())) fields |= FIELD_DESCRIPTION;
+        if (!Objects.equals(oldItem.getImagePaths(), newItem.getImagePaths())) fields |= FIELD_IMAGE_PATHS;
+        if (!Objects.equals(Barcodes.normalize(oldItem.getBarcode()), Barcodes.normalize(newItem.getBarcode()))) {
+            fields |= FIELD_BARCODE;
+        }
+        return fields;
+    }
+}
@@ -4,6 +4,7 @@ import androidx.lifecycle.LiveData;
 import androidx.room.Dao;
 import androidx.room.Insert;
 import androidx.room.Query;
+import androidx.room.Transaction;
 
 import java.util.List;
 
@@ -15,11 +16,75 @@ public interface UsageRecordDao {
     @Insert
     void insert(UsageRecord record);
 
-    // 根据物品ID查询所有记录（按时间倒序）
+    @Insert
+    void insertAll(List<UsageRecord> records);
+
+    // ==================== 批量修改记录（在改写物品之前调用，只为实际变化的物品各写一条） ====================
+    @Query("INSERT INTO usage_record (itemId, type, time, modifiedFields, editCount) "
+            + "SELECT id, " + UsageRecord.TYPE_UPDATE + ", :time, " + UsageRecord.FIELD_LOCATION + ", 1 FROM item "
+            + "WHERE id IN (:itemIds) AND locationId IS NOT :locationId")
+    void insertLocationChanges(List<String> itemIds, Long locationId, String time);
+
+    @Query("INSERT INTO usage_record (itemId, type, time, modifiedFields, editCount) "
+            + "SELECT id, " + UsageRecord.TYPE_UPDATE + ", :time, " + UsageRecord.FIELD_CATEGORY + ", 1 FROM item "
+            + "WHERE id IN (:itemIds) AND categoryId IS NOT :categoryId")
+    void insertCategoryChanges(List<String> itemIds, Long categoryId, String time);
+
+    @Query("INSERT INTO usage_record (itemId, type, time, modifiedFields, editCount) "
+            + "SELECT id, " + UsageRecord.TYPE_UPDATE + ", :time, " + UsageRecord.FIELD_QUANTITY + ", 1 FROM item "
+            + "WHERE id IN (:itemIds)")
+    void insertQuantityChanges(List<String> itemIds, String time);
+
+    // 根据物品ID查询所有记录（按时间倒序，走itemId+time索引）
     @Query("SELECT * FROM usage_record WHERE itemId = :itemId ORDER BY time DESC")
     LiveData<List<UsageRecord>> getRecordsByItemId(String itemId);
 
-    // 删除物品关联的所有记录
-    @Query("DELETE FROM usage_record WHERE itemId = :itemId")
-    void deleteRecordsByItemId(String itemId);
-}
\ No newline at end of file
+    // 按修改字段位掩码筛选记录（如：所有数量变更 FIELD_QUANTITY）
+    @Query("SELECT * FROM usage_record WHERE (modifiedFields & :fieldMask) != 0 ORDER BY time DESC")
+    LiveData<List<UsageRecord>> getRecordsByModifiedFields(int fieldMask);
+
+    // ==================== 键集分页（按时间倒序） ====================
+    // 第一页
+    @Query("SELECT * FROM usage_record WHERE itemId = :itemId ORDER BY time DESC, id DESC LIMIT :pageSize")
+    LiveData<List<UsageRecord>> getRecordsFirstPage(String itemId, int pageSize);
+
+    // 后续页：从上一页最后一条记录（beforeTime, beforeId）之后继续
+    @Query("SELECT * FROM usage_record WHERE itemId = :itemId "
+            + "AND (time < :beforeTime OR (time = :beforeTime AND id < :beforeId)) "
+            + "ORDER BY time DESC, id DESC LIMIT :pageSize")
+    LiveData<List<UsageRecord>> getRecordsPageBefore(String itemId, String beforeTime, long beforeId, int pageSize);
+
+    // ==================== 保留策略（仅限子线程调用） ====================
+    // 查找存在待压缩修改记录的物品（每批有限数量）
+    @Query("SELECT DISTINCT itemId FROM usage_record WHERE type = " + UsageRecord.TYPE_UPDATE
+            + " AND time < :cutoffTime LIMIT :limit")
+    List<String> getItemIdsWithUpdatesBefore(String cutoffTime, int limit);
+
+    // 将指定物品cutoffTime之前的修改记录按天汇总为一条记录
+    @Query("INSERT INTO usage_record (itemId, type, time, modifiedFields, editCount) "
+            + "SELECT itemId, " + UsageRecord.TYPE_DAILY_ROLLUP + ", substr(time, 1, 10) || ' 00:00', "
+            + UsageRecord.SQL_BIT_OR_FIELDS + ", SUM(editCount) "
+            + "FROM usage_record WHERE itemId IN (:itemIds) AND type = " + UsageRecord.TYPE_UPDATE
+            + " AND time < :cutoffTime GROUP BY itemId, substr(time, 1, 10)")
+    void insertDailyRollups(List<String> itemIds, String cutoffTime);
+
+    // 删除已被汇总的修改记录
+    @Query("DELETE FROM usage_record WHERE itemId IN (:itemIds) AND type = " + UsageRecord.TYPE_UPDATE
+            + " AND time < :cutoffTime")
+    void deleteUpdatesBefore(List<String> itemIds, String cutoffTime);
+
+    /**
+     * 在一个事务内完成一批物品的按天汇总（汇总插入与原记录删除原子生效）
+     */
+    @Transaction
+    default void compactItems(List<String> itemIds, String cutoffTime) {
+        insertDailyRollups(itemIds, cutoffTime);
+        deleteUpdatesBefore(itemIds, cutoffTime);
+    }
+
+    // 删除超出保留期限的修改/汇总记录（创建记录始终保留），每次最多limit条，返回删除条数
+    @Query("DELETE FROM usage_record WHERE id IN (SELECT id FROM usage_record "
+            + "WHERE type IN (" + UsageRecord.TYPE_UPDATE + ", " + UsageRecord.TYPE_DAILY_ROLLUP + ") "
+            + "AND time < :horizonTime LIMIT :limit)")
+    int deleteRecordsBefore(String horizonTime, int limit);
+}
@@ -0,0 +1,147 @@
+package com.example.inventory;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Process;
+import android.util.Log;
+
+import java.util.Calendar;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 使用记录保留策略：在后台线程中
+ * 1. 将超过compactAfterDays天的逐条修改记录按“物品+天”压缩为一条汇总记录
+ * 2. 删除超过deleteAfterDays天的修改/汇总记录（创建记录始终保留）
+ * 每批只处理少量数据并单独提交事务，避免长时间占用写锁阻塞界面写入
+ */
+public class UsageRecordRetention {
+    private static final String TAG = "UsageRecordRetention";
+    private static final String PREFS_NAME = "usage_record_retention";
+    private static final String KEY_LAST_RUN = "last_run_millis";
+    // 两次执行的最小间隔（1天）
+    private static final long RUN_INTERVAL_MILLIS = 24L * 60 * 60 * 1000;
+    // 批次之间让出写锁的时间
+    private static final long BATCH_PAUSE_MILLIS = 20;
+    // 启动后延迟执行，避免与首页查询争抢数据库打开/迁移
+    private static final long STARTUP_DELAY_MILLIS = 10_000;
+
+    // 每个进程最多同时执行一次
+    private static final AtomicBoolean sRunning = new AtomicBoolean(false);
+    private static final ScheduledExecutorService sExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(() -> {
+            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+            r.run();
+        }, "usage-record-retention");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 保留策略参数
+     */
+    public static class Policy {
+        // 默认：30天后按天压缩，365天后删除，每批50个物品/500条记录
+        public static final Policy DEFAULT = new Policy(30, 365, 50, 500);
+
+        final int compactAfterDays;
+        final int deleteAfterDays;
+        final int itemBatchSize;
+        final int deleteBatchSize;
+
+        public Policy(int compactAfterDays, int deleteAfterDays, int itemBatchSize, int deleteBatchSize) {
+            if (compactAfterDays < 1 || deleteAfterDays < compactAfterDays) {
+                throw new IllegalArgumentException("需满足 1 <= compactAfterDays <= deleteAfterDays");
+            }
+            this.compactAfterDays = compactAfterDays;
+            this.deleteAfterDays = deleteAfterDays;
+            this.itemBatchSize = itemBatchSize;
+            this.deleteBatchSize = deleteBatchSize;
+        }
+    }
+
+    private final UsageRecordDao usageRecordDao;
+    private final Policy policy;
+
+    public UsageRecordRetention(InventoryDatabase database, Policy policy) {
+        this.usageRecordDao = database.usageRecordDao();
+        this.policy = policy;
+    }
+
+    /**
+     * 距上次执行超过一天时，在后台线程执行一次默认保留策略（启动后延迟执行）
+     */
+    public static void scheduleIfDue(Context context) {
+        Context appContext = context.getApplicationContext();
+        if (!sRunning.compareAndSet(false, true)) {
+            return;
+        }
+        sExecutor.schedule(() -> {
+            try {
+                SharedPreferences prefs = appContext.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+                long now = System.currentTimeMillis();
+                if (now - prefs.getLong(KEY_LAST_RUN, 0) < RUN_INTERVAL_MILLIS) {
+                    return;
+                }
+                new UsageRecordRetention(InventoryDatabase.getInstance(appContext), Policy.DEFAULT).runOnce(now);
+                prefs.edit().putLong(KEY_LAST_RUN, now).apply();
+            } catch (RuntimeException e) {
+                Log.e(TAG, "使用记录保留策略执行失败：" + e.getMessage());
+            } finally {
+                sRunning.set(false);
+            }
+        }, STARTUP_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 同步执行一次保留策略（仅限子线程调用）
+     * @param nowMillis 当前时间
+     * @return 本次压缩的物品数与删除的记录数之和
+     */
+    public int runOnce(long nowMillis) {
+        String compactCutoff = dayStart(nowMillis, policy.compactAfterDays);
+        String deleteHorizon = dayStart(nowMillis, policy.deleteAfterDays);
+        int processed = 0;
+
+        // 1. 按天压缩：每批若干物品，一个事务
+        List<String> itemIds;
+        while (!(itemIds = usageRecordDao.getItemIdsWithUpdatesBefore(compactCutoff, policy.itemBatchSize)).isEmpty()) {
+            usageRecordDao.compactItems(itemIds, compactCutoff);
+            processed += itemIds.size();
+            pause();
+        }
+
+        // 2. 删除超出保留期限的记录：每批有限条数
+        int deleted;
+        while ((deleted = usageRecordDao.deleteRecordsBefore(deleteHorizon, policy.deleteBatchSize)) > 0) {
+            processed += deleted;
+            pause();
+        }
+        Log.d(TAG, "保留策略执行完成，处理数量：" + processed);
+        return processed;
+    }
+
+    // 批次间短暂休眠，让界面的写事务优先获得写锁
+    private void pause() {
+        try {
+            Thread.sleep(BATCH_PAUSE_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // days天前当天0点的时间字符串（与UsageRecord.time格式一致，保证按天边界切分）
+    private static String dayStart(long nowMillis, int days) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(nowMillis);
+        calendar.add(Calendar.DAY_OF_MONTH, -days);
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        return InventoryTime.formatRecordTime(calendar.getTimeInMillis());
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.inventory;
+
+import android.database.Cursor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.inventory.DaoPerfSupport.inBackground;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 批量操作测试：超过一个分块的选中物品在一个事务中集合式改写，修改记录只为实际变化的物品各写一条
+ */
+@RunWith(RobolectricTestRunner.class)
+public class BulkItemEditorTest {
+    private static final String TIME = "2025.03.01 10:00";
+    // 跨越多个分块
+    private static final int SELECTED = BulkItemEditor.CHUNK_SIZE * 2 + 37;
+
+    @Rule
+    public MainThreadIoRule mainThreadIoRule = new MainThreadIoRule();
+
+    private DaoPerfSupport support;
+    private ItemDao itemDao;
+    private BulkItemEditor editor;
+    private List<String> selected;
+
+    @Before
+    public void setUp() {
+        support = new DaoPerfSupport();
+        itemDao = support.db.itemDao();
+        editor = new BulkItemEditor(support.db);
+        selected = support.seedItems(SELECTED + 500, 48).subList(0, SELECTED);
+    }
+
+    @After
+    public void tearDown() {
+        support.close();
+    }
+
+    @Test
+    public void move_updatesOnlyChangedItemsAndRecordsThem() throws Exception {
+        long locationId = support.db.locationDao().insert(new Location("新仓库"));
+        int recordsBefore = countRows("usage_record");
+
+        int moved = inBackground(() -> editor.moveToLocation(selected, locationId, TIME));
+        assertEquals(SELECTED, moved);
+        assertEquals(SELECTED, countRows("usage_record") - recordsBefore);
+        for (String itemId : selected) {
+            Item item = itemDao.getItemByIdSync(itemId);
+            assertEquals("新仓库", item.getLocation());
+            assertEquals(TIME, item.getUpdateTime());
+        }
+
+        // 再次移动到同一位置：没有物品变化，不写记录
+        int movedAgain = inBackground(() -> editor.moveToLocation(selected, locationId, TIME));
+        assertEquals(0, movedAgain);
+        assertEquals(SELECTED, countRows("usage_record") - recordsBefore);
+    }
+
+    @Test
+    public void recategorize_toNoneClearsCategory() throws Exception {
+        int changed = inBackground(() -> editor.recategorize(selected, null, TIME));
+        assertEquals(changed, queryInt("SELECT COUNT(*) FROM usage_record WHERE modifiedFields = "
+                + UsageRecord.FIELD_CATEGORY));
+        for (String itemId : selected) {
+            assertNull(itemDao.getItemByIdSync(itemId).getCategoryId());
+        }
+    }
+
+    @Test
+    public void adjustQuantity_addsToUndatedLotsAndConsumesFifo() throws Exception {
+        Map<String, Integer> before = new HashMap<>();
+        for (String itemId : selected) {
+            before.put(itemId, itemDao.getItemByIdSync(itemId).getQuantity());
+        }
+
+        int adjusted = inBackground(() -> editor.adjustQuantity(selected, 5, TIME));
+        assertEquals(SELECTED, adjusted);
+        for (String itemId : selected) {
+            assertEquals(before.get(itemId) + 5, itemDao.getItemByIdSync(itemId).getQuantity());
+        }
+        assertEquals(1, queryInt("SELECT MAX(c) FROM (SELECT COUNT(*) AS c FROM item_lot "
+                + "WHERE expiryEpochDay IS NULL GROUP BY itemId)"));
+
+        // 减少超过库存的数量：扣完为止，不出现负数
+        inBackground(() -> editor.adjustQuantity(selected, -(before.get(selected.get(0)) + 10), TIME));
+        assertEquals(0, itemDao.getItemByIdSync(selected.get(0)).getQuantity());
+        assertEquals(0, queryInt("SELECT COUNT(*) FROM item WHERE quantity < 0"));
+        assertEquals(SELECTED * 2, queryInt("SELECT COUNT(*) FROM usage_record WHERE (modifiedFields & "
+                + UsageRecord.FIELD_QUANTITY + ") != 0"));
+    }
+
+    @Test
+    public void delete_cascadesToLotsAndRecords() throws Exception {
+        List<String> names = inBackground(() -> editor.delete(selected));
+        assertEquals(SELECTED, names.size());
+        assertEquals(500, countRows("item"));
+        assertEquals(0, queryInt("SELECT COUNT(*) FROM item_lot WHERE itemId NOT IN (SELECT id FROM item)"));
+        assertTrue(itemDao.getNamesSync(selected.subList(0, 10)).isEmpty());
+    }
+
+    @Test
+    public void bulkUpdate_locatesItemsByPrimaryKey() throws Exception {
+        List<String> plan = support.planOf(() -> itemDao.moveToLocation(selected.subList(0, 50), null, TIME));
+        DaoPerfSupport.assertIndexedSearch(plan, "item");
+    }
+
+    private int countRows(String table) {
+        return queryInt("SELECT COUNT(*) FROM " + table);
+    }
+
+    private int queryInt(String sql) {
+        try (Cursor cursor = support.db.query(sql, null)) {
+            cursor.moveToFirst();
+            return cursor.getInt(0);
+        }
+    }
+}
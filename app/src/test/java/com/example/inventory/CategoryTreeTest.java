@@ -0,0 +1,127 @@
+package com.example.inventory;
+
+import android.database.sqlite.SQLiteConstraintException;
+
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.inventory.LiveDataTestUtil.getOrAwaitValue;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 分类树测试：食品 → 饮料 → 果汁，子树查询是path索引上的范围扫描；移动/改名后整棵子树的路径同步更新
+ */
+@RunWith(RobolectricTestRunner.class)
+public class CategoryTreeTest {
+    private static final int ALL = Integer.MAX_VALUE;
+
+    @Rule
+    public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
+    @Rule
+    public MainThreadIoRule mainThreadIoRule = new MainThreadIoRule();
+
+    private DaoPerfSupport support;
+    private CategoryDao categoryDao;
+    private ItemDao itemDao;
+    private long food;
+    private long drink;
+    private long juice;
+
+    @Before
+    public void setUp() {
+        support = new DaoPerfSupport();
+        categoryDao = support.db.categoryDao();
+        itemDao = support.db.itemDao();
+        support.seedItems(1000, 23);
+
+        food = categoryDao.getCategoryByName("食品").getId();
+        drink = categoryDao.getChildByName(food, "饮料").getId();
+        juice = categoryDao.insert(new Category("果汁", drink));
+    }
+
+    @After
+    public void tearDown() {
+        support.close();
+    }
+
+    @Test
+    public void insert_buildsPathFromParent() {
+        Category category = categoryDao.getCategoryById(juice);
+        assertEquals("食品/饮料/果汁", category.getFullName());
+        assertEquals("/" + food + "/" + drink + "/" + juice + "/", category.getPath());
+        assertEquals(2, categoryDao.getSubtreeSync(drink).size());
+    }
+
+    @Test
+    public void subtree_isPathRangeOnIndex() throws Exception {
+        List<String> plan = support.planOf(() -> categoryDao.getSubtreeSync(food));
+        boolean rangeSeek = false;
+        for (String detail : plan) {
+            rangeSeek |= detail.matches(".*USING (COVERING )?INDEX index_category_path \\(path>\\? AND path<\\?\\).*");
+        }
+        assertTrue("子树未按path范围查询：" + plan, rangeSeek);
+
+        List<Item> items = getOrAwaitValue(itemDao.getItemsUnderCategory(food, ALL, 0));
+        assertFalse(items.isEmpty());
+        for (Item item : items) {
+            assertTrue(item.getCategory(), item.getCategory().startsWith("食品/"));
+        }
+    }
+
+    @Test
+    public void move_rewritesSubtreeAndRejectsCycles() throws InterruptedException {
+        long household = categoryDao.getCategoryByName("日用品").getId();
+        int drinkItems = getOrAwaitValue(itemDao.getItemsUnderCategory(drink, ALL, 0)).size();
+        int householdItems = getOrAwaitValue(itemDao.getItemsUnderCategory(household, ALL, 0)).size();
+
+        categoryDao.moveTo(drink, household);
+
+        assertEquals("日用品/饮料/果汁", categoryDao.getCategoryById(juice).getFullName());
+        assertEquals(householdItems + drinkItems,
+                getOrAwaitValue(itemDao.getItemsUnderCategory(household, ALL, 0)).size());
+        assertThrows(SQLiteConstraintException.class, () -> categoryDao.moveTo(household, juice));
+        assertNull(categoryDao.getCategoryById(household).getParentId());
+    }
+
+    @Test
+    public void rename_updatesDescendantNames() {
+        categoryDao.rename(food, "食物");
+
+        List<String> names = new ArrayList<>();
+        for (Category category : categoryDao.getSubtreeSync(food)) {
+            names.add(category.getFullName());
+        }
+        assertTrue(names.toString(), names.contains("食物/饮料/果汁"));
+        for (String name : names) {
+            assertTrue(name, name.equals("食物") || name.startsWith("食物/"));
+        }
+    }
+
+    @Test
+    public void renameAndMove_isAppliedTogetherOrNotAtAll() {
+        long household = categoryDao.getCategoryByName("日用品").getId();
+
+        categoryDao.renameAndMove(drink, "饮品", household);
+        assertEquals("日用品/饮品/果汁", categoryDao.getCategoryById(juice).getFullName());
+
+        // 移到自身子树下：改名同样不生效
+        assertThrows(SQLiteConstraintException.class, () -> categoryDao.renameAndMove(drink, "酒水", juice));
+        Category unchanged = categoryDao.getCategoryById(drink);
+        assertEquals("饮品", unchanged.getName());
+        assertEquals(Long.valueOf(household), unchanged.getParentId());
+        assertEquals("日用品/饮品/果汁", categoryDao.getCategoryById(juice).getFullName());
+    }
+}
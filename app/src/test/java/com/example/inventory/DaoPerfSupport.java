@@ -0,0 +1,266 @@
+package com.example.inventory;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+import androidx.test.core.app.ApplicationProvider;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * DAO性能回归测试的公共支持：
+ * 建库、按真实分布批量造数、记录DAO实际执行的SQL、EXPLAIN QUERY PLAN断言、耗时统计
+ */
+final class DaoPerfSupport {
+    private static final String TAG = "DaoPerf";
+    // 计时的重复次数（取中位数）
+    private static final int TIMED_RUNS = 5;
+
+    private final List<String> executedSql = Collections.synchronizedList(new ArrayList<>());
+    private final List<List<Object>> executedArgs = Collections.synchronizedList(new ArrayList<>());
+    final InventoryDatabase db;
+
+    DaoPerfSupport() {
+        Context context = ApplicationProvider.getApplicationContext();
+        db = Room.inMemoryDatabaseBuilder(context, InventoryDatabase.class)
+                .allowMainThreadQueries()
+                .addCallback(InventoryDatabase.CREATE_CALLBACK)
+                .setQueryCallback((sql, args) -> {
+                    executedSql.add(sql);
+                    executedArgs.add(new ArrayList<>(args));
+                }, Runnable::run)
+                .build();
+    }
+
+    void close() {
+        db.close();
+    }
+
+    /**
+     * 测试规模（系统属性inventory.perf.sizes，逗号分隔）
+     */
+    static List<Object[]> sizes() {
+        List<Object[]> params = new ArrayList<>();
+        for (String size : System.getProperty("inventory.perf.sizes", "10000").split(",")) {
+            params.add(new Object[]{Integer.parseInt(size.trim())});
+        }
+        return params;
+    }
+
+    // ==================== 造数 ====================
+
+    /**
+     * 批量插入count条物品（InventoryDataGenerator生成：分类/位置偏斜分布，30%无有效期，10%已过期，
+     * 10%两周内到期，其余分布在两年内），不含使用记录；触发器照常维护item_stat
+     * @return 插入的物品ID（按插入顺序）
+     */
+    List<String> seedItems(int count, long seed) {
+        InventoryDataGenerator generator = new InventoryDataGenerator(
+                new InventoryDataGenerator.Config(count, 5, 4, 8, 0, 0, 0), seed, System.currentTimeMillis(), null);
+        return new InventoryDataSeeder(db.getOpenHelper().getWritableDatabase(), false).seed(generator);
+    }
+
+    /**
+     * 为指定物品批量插入使用记录：每个物品1条创建记录 + perItem条修改记录，时间分布在过去两年
+     */
+    void seedUsageRecords(List<String> itemIds, int perItem, long seed) {
+        Random random = new Random(seed);
+        SimpleDateFormat timeFormat = new SimpleDateFormat("yyyy.MM.dd HH:mm", Locale.US);
+        long now = System.currentTimeMillis();
+        long day = 24L * 60 * 60 * 1000;
+        SupportSQLiteDatabase sqlite = db.getOpenHelper().getWritableDatabase();
+        SupportSQLiteStatement insert = sqlite.compileStatement(
+                "INSERT INTO usage_record (itemId, type, time, modifiedFields, editCount) VALUES (?, ?, ?, ?, 1)");
+        sqlite.beginTransaction();
+        try {
+            for (String itemId : itemIds) {
+                insert.bindString(1, itemId);
+                insert.bindLong(2, UsageRecord.TYPE_CREATE);
+                insert.bindString(3, timeFormat.format(now - 730 * day));
+                insert.bindLong(4, 0);
+                insert.executeInsert();
+                for (int i = 0; i < perItem; i++) {
+                    insert.bindString(1, itemId);
+                    insert.bindLong(2, UsageRecord.TYPE_UPDATE);
+                    insert.bindString(3, timeFormat.format(now - (long) (random.nextDouble() * 730 * day)));
+                    insert.bindLong(4, 1 << random.nextInt(8));
+                    insert.executeInsert();
+                }
+            }
+            sqlite.setTransactionSuccessful();
+        } finally {
+            sqlite.endTransaction();
+        }
+    }
+
+    // ==================== SQL捕获与查询计划 ====================
+
+    /**
+     * 执行一次DAO调用，返回其实际执行的SQL的EXPLAIN QUERY PLAN明细
+     */
+    List<String> planOf(Callable<?> daoCall) throws Exception {
+        executedSql.clear();
+        executedArgs.clear();
+        daoCall.call();
+        // 取最后一条业务SQL（跳过Room内部的失效跟踪语句）
+        for (int i = executedSql.size() - 1; i >= 0; i--) {
+            String sql = executedSql.get(i);
+            String upper = sql.trim().toUpperCase(Locale.US);
+            if (sql.contains("room_table_modification_log")
+                    || !(upper.startsWith("SELECT") || upper.startsWith("UPDATE")
+                    || upper.startsWith("DELETE") || upper.startsWith("INSERT"))) {
+                continue;
+            }
+            return explain(sql, executedArgs.get(i).toArray());
+        }
+        throw new AssertionError("未捕获到DAO执行的SQL");
+    }
+
+    List<String> explain(String sql, Object[] args) {
+        List<String> details = new ArrayList<>();
+        try (Cursor cursor = db.query(new SimpleSQLiteQuery("EXPLAIN QUERY PLAN " + sql, args))) {
+            int detailIndex = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                details.add(cursor.getString(detailIndex));
+            }
+        }
+        return details;
+    }
+
+    /**
+     * 直接执行SQL并读完所有行（对照查询计时用），返回行数
+     */
+    int queryCount(String sql) {
+        try (Cursor cursor = db.query(new SimpleSQLiteQuery(sql))) {
+            int count = 0;
+            while (cursor.moveToNext()) {
+                count++;
+            }
+            return count;
+        }
+    }
+
+    /**
+     * 断言查询计划对table使用索引查找（SEARCH），且没有全表扫描和临时B树排序
+     */
+    static void assertIndexedSearch(List<String> plan, String table) {
+        boolean searched = false;
+        for (String detail : plan) {
+            assertFalse("出现全表扫描：" + plan, isFullScan(detail, table));
+            assertFalse("出现临时B树排序：" + plan, detail.contains("USE TEMP B-TREE"));
+            if (detail.matches("SEARCH (TABLE )?" + table + "\\b.*")) {
+                searched = true;
+            }
+        }
+        assertTrue("未使用索引查找" + table + "：" + plan, searched);
+    }
+
+    /**
+     * 断言查询计划按索引顺序遍历table（允许SCAN ... USING INDEX，不允许临时B树排序）
+     */
+    static void assertIndexOrderedWalk(List<String> plan, String table) {
+        for (String detail : plan) {
+            assertFalse("出现无索引的全表扫描：" + plan, isFullScan(detail, table));
+            assertFalse("出现临时B树排序：" + plan, detail.contains("USE TEMP B-TREE"));
+        }
+    }
+
+    // SCAN table 且未使用任何索引
+    private static boolean isFullScan(String detail, String table) {
+        return detail.matches("SCAN (TABLE )?" + table + "\\b.*") && !detail.contains("INDEX");
+    }
+
+    // ==================== 线程 ====================
+
+    /**
+     * 在子线程中执行并等待结果（仓库写队列中的操作不允许在主线程调用，见MainThreadIoRule）
+     */
+    static <T> T inBackground(Callable<T> call) throws Exception {
+        Object[] result = new Object[1];
+        Throwable[] error = new Throwable[1];
+        Thread thread = new Thread(() -> {
+            try {
+                result[0] = call.call();
+            } catch (Throwable e) {
+                error[0] = e;
+            }
+        }, "test-background");
+        thread.start();
+        thread.join();
+        if (error[0] instanceof Error) {
+            throw (Error) error[0];
+        } else if (error[0] != null) {
+            throw (Exception) error[0];
+        }
+        @SuppressWarnings("unchecked")
+        T value = (T) result[0];
+        return value;
+    }
+
+    /**
+     * 同步的写队列：任务在子线程中执行，提交方等待其完成后再继续
+     */
+    static final Executor BACKGROUND_WRITES = command -> {
+        try {
+            inBackground(() -> {
+                command.run();
+                return null;
+            });
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    };
+
+    // ==================== 计时 ====================
+
+    /**
+     * 预热一次后执行TIMED_RUNS次，返回耗时中位数（毫秒）
+     */
+    static double medianMillis(Callable<?> call) throws Exception {
+        call.call();
+        double[] samples = new double[TIMED_RUNS];
+        for (int i = 0; i < TIMED_RUNS; i++) {
+            long start = System.nanoTime();
+            call.call();
+            samples[i] = (System.nanoTime() - start) / 1_000_000.0;
+        }
+        Arrays.sort(samples);
+        return samples[TIMED_RUNS / 2];
+    }
+
+    static void assertWithinBudget(String name, double millis, double budgetMillis) {
+        report(name, millis, String.format(Locale.US, "预算 %.0f ms", budgetMillis));
+        assertTrue(name + " 耗时" + millis + "ms 超出预算" + budgetMillis + "ms", millis <= budgetMillis);
+    }
+
+    /**
+     * 输出一项耗时（与UiMetrics一样走Log，Robolectric下可用ShadowLog查看）
+     */
+    static void report(String name, double millis, String note) {
+        Log.i(TAG, String.format(Locale.US, "%-40s %8.2f ms (%s)", name, millis, note));
+    }
+
+    // days天后的日期（yyyy-MM-dd）
+    static String dateAfterDays(int days) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.add(Calendar.DAY_OF_MONTH, days);
+        return new SimpleDateFormat("yyyy-MM-dd", Locale.US).format(calendar.getTime());
+    }
+}
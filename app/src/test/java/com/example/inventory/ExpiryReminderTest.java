@@ -0,0 +1,270 @@
+package com.example.inventory;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 临期提醒调度测试（纯JVM，假时钟）：每个批次每个阶段只提醒一次，下次唤醒取最近的阶段边界
+ */
+public class ExpiryReminderTest {
+    private static final ZoneId ZONE = ZoneId.of("Asia/Shanghai");
+    private static final LocalDate TODAY = LocalDate.of(2025, 3, 1);
+
+    private FakeClock clock;
+    private FakeStore store;
+    private List<String> notifications;
+    // 模拟通知开关（关闭或无权限时通知不发出）
+    private boolean notificationsEnabled;
+    private FakeAlarm alarm;
+    private ExpiryReminder reminder;
+
+    @Before
+    public void setUp() {
+        clock = new FakeClock(millisAt(TODAY, 8));
+        store = new FakeStore();
+        notifications = new ArrayList<>();
+        notificationsEnabled = true;
+        alarm = new FakeAlarm();
+        reminder = new ExpiryReminder(clock, store,
+                (stage, names, total) -> notificationsEnabled && notifications.add(stage + ":" + total + ":" + names),
+                alarm);
+    }
+
+    @Test
+    public void dueLots_areNotifiedOnceAndGroupedByStage() {
+        store.add("牛奶", TODAY.minusDays(2));
+        store.add("面包", TODAY.minusDays(1));
+        store.add("酸奶", TODAY.plusDays(3));
+        store.add("大米", TODAY.plusDays(60));
+
+        assertEquals(3, reminder.runOnce());
+        assertEquals(2, notifications.size());
+        assertEquals(ExpiryReminder.STAGE_EXPIRED + ":2:[牛奶, 面包]", notifications.get(0));
+        assertEquals(ExpiryReminder.STAGE_NEAR + ":1:[酸奶]", notifications.get(1));
+
+        // 同一天再次唤醒：没有新的到期批次，不重复提醒
+        notifications.clear();
+        assertEquals(0, reminder.runOnce());
+        assertTrue(notifications.isEmpty());
+    }
+
+    @Test
+    public void notificationNotPosted_keepsStageForRetry() {
+        store.add("牛奶", TODAY.minusDays(2));
+        store.add("酸奶", TODAY.plusDays(3));
+
+        notificationsEnabled = false;
+        assertEquals(0, reminder.runOnce());
+        assertTrue(notifications.isEmpty());
+
+        // 授予权限后重新执行：此前未发出的提醒照常发出
+        notificationsEnabled = true;
+        assertEquals(2, reminder.runOnce());
+        assertEquals(ExpiryReminder.STAGE_EXPIRED + ":1:[牛奶]", notifications.get(0));
+        assertEquals(ExpiryReminder.STAGE_NEAR + ":1:[酸奶]", notifications.get(1));
+    }
+
+    @Test
+    public void nextWake_isEarliestStageBoundary() {
+        store.add("酸奶", TODAY.plusDays(3));
+        store.add("大米", TODAY.plusDays(60));
+        reminder.runOnce();
+
+        // 酸奶过期后次日提醒，早于大米进入临期窗口
+        assertEquals(millisAt(TODAY.plusDays(4), ExpiryReminder.REMIND_HOUR), alarm.scheduledAt);
+
+        clock.millis = alarm.scheduledAt;
+        notifications.clear();
+        assertEquals(1, reminder.runOnce());
+        assertEquals(ExpiryReminder.STAGE_EXPIRED + ":1:[酸奶]", notifications.get(0));
+        assertEquals(millisAt(TODAY.plusDays(60 - ExpiryStatus.NEAR_EXPIRE_DAYS), ExpiryReminder.REMIND_HOUR),
+                alarm.scheduledAt);
+    }
+
+    @Test
+    public void nothingPending_cancelsAlarm() {
+        store.add("牛奶", TODAY.minusDays(1));
+        reminder.runOnce();
+        assertEquals(0, alarm.scheduledAt);
+    }
+
+    @Test
+    public void lotWritten_bringsWakeForwardOnlyWhenEarlier() {
+        store.add("大米", TODAY.plusDays(60));
+        reminder.runOnce();
+        long farWake = alarm.scheduledAt;
+
+        reminder.onLotWritten(TODAY.plusDays(90).toEpochDay());
+        assertEquals(farWake, alarm.scheduledAt);
+
+        reminder.onLotWritten(TODAY.plusDays(20).toEpochDay());
+        assertEquals(millisAt(TODAY.plusDays(20 - ExpiryStatus.NEAR_EXPIRE_DAYS), ExpiryReminder.REMIND_HOUR),
+                alarm.scheduledAt);
+
+        // 已在临期窗口内：立即唤醒
+        reminder.onLotWritten(TODAY.plusDays(2).toEpochDay());
+        assertEquals(clock.millis(), alarm.scheduledAt);
+    }
+
+    @Test
+    public void largeBacklog_isReadInBatches() {
+        for (int i = 0; i < ExpiryReminder.BATCH_SIZE * 3 + 7; i++) {
+            store.add("物品" + i, TODAY.minusDays(1 + i % 30));
+        }
+        assertEquals(ExpiryReminder.BATCH_SIZE * 3 + 7, reminder.runOnce());
+        assertEquals(1, notifications.size());
+        assertEquals(4, store.expiredQueries);
+    }
+
+    private static long millisAt(LocalDate day, int hour) {
+        return day.atTime(hour, 0).atZone(ZONE).toInstant().toEpochMilli();
+    }
+
+    // ==================== 测试替身 ====================
+
+    private static final class FakeClock extends Clock {
+        long millis;
+
+        FakeClock(long millis) {
+            this.millis = millis;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZONE;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+    }
+
+    private static final class FakeAlarm implements ExpiryReminder.Alarm {
+        long scheduledAt;
+
+        @Override
+        public long getScheduledAt() {
+            return scheduledAt;
+        }
+
+        @Override
+        public void schedule(long atMillis) {
+            scheduledAt = atMillis;
+        }
+
+        @Override
+        public void cancel() {
+            scheduledAt = 0;
+        }
+    }
+
+    // 按ItemLotDao中查询的语义在内存中实现
+    private static final class FakeStore implements ExpiryReminder.Store {
+        private final List<ExpiryReminder.DueLot> lots = new ArrayList<>();
+        private final List<Integer> stages = new ArrayList<>();
+        int expiredQueries;
+
+        void add(String name, LocalDate expiry) {
+            ExpiryReminder.DueLot lot = new ExpiryReminder.DueLot();
+            lot.lotId = lots.size();
+            lot.itemId = "item-" + lot.lotId;
+            lot.name = name;
+            lot.expiryEpochDay = expiry.toEpochDay();
+            lot.quantity = 1;
+            lots.add(lot);
+            stages.add(ExpiryReminder.STAGE_NONE);
+        }
+
+        @Override
+        public List<ExpiryReminder.DueLot> getExpiredLots(long today, ExpiryReminder.DueLot after, int limit) {
+            expiredQueries++;
+            List<ExpiryReminder.DueLot> result = new ArrayList<>();
+            for (ExpiryReminder.DueLot lot : sorted()) {
+                if (stages.get((int) lot.lotId) < ExpiryReminder.STAGE_EXPIRED && lot.expiryEpochDay < today
+                        && isAfter(lot, after) && result.size() < limit) {
+                    result.add(lot);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public List<ExpiryReminder.DueLot> getNearLots(long today, long horizon, ExpiryReminder.DueLot after,
+                                                       int limit) {
+            List<ExpiryReminder.DueLot> result = new ArrayList<>();
+            for (ExpiryReminder.DueLot lot : sorted()) {
+                if (stages.get((int) lot.lotId) == ExpiryReminder.STAGE_NONE && lot.expiryEpochDay >= today
+                        && lot.expiryEpochDay <= horizon && isAfter(lot, after) && result.size() < limit) {
+                    result.add(lot);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public void markNotified(List<Long> lotIds, int stage) {
+            for (long id : lotIds) {
+                stages.set((int) id, stage);
+            }
+        }
+
+        @Override
+        public Long getNextNearExpiry(long horizon) {
+            Long next = null;
+            for (ExpiryReminder.DueLot lot : lots) {
+                if (stages.get((int) lot.lotId) == ExpiryReminder.STAGE_NONE && lot.expiryEpochDay > horizon
+                        && (next == null || lot.expiryEpochDay < next)) {
+                    next = lot.expiryEpochDay;
+                }
+            }
+            return next;
+        }
+
+        @Override
+        public Long getNextExpiry(long today) {
+            Long next = null;
+            for (ExpiryReminder.DueLot lot : lots) {
+                if (stages.get((int) lot.lotId) == ExpiryReminder.STAGE_NEAR && lot.expiryEpochDay >= today
+                        && (next == null || lot.expiryEpochDay < next)) {
+                    next = lot.expiryEpochDay;
+                }
+            }
+            return next;
+        }
+
+        private List<ExpiryReminder.DueLot> sorted() {
+            List<ExpiryReminder.DueLot> sorted = new ArrayList<>(lots);
+            Collections.sort(sorted, (a, b) -> a.expiryEpochDay != b.expiryEpochDay
+                    ? Long.compare(a.expiryEpochDay, b.expiryEpochDay) : Long.compare(a.lotId, b.lotId));
+            return sorted;
+        }
+
+        // (expiryEpochDay, lotId) > (after.expiryEpochDay, after.lotId)
+        private static boolean isAfter(ExpiryReminder.DueLot lot, ExpiryReminder.DueLot after) {
+            return after == null || lot.expiryEpochDay > after.expiryEpochDay
+                    || (lot.expiryEpochDay == after.expiryEpochDay && lot.lotId > after.lotId);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.inventory;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * FirstPageSnapshot 编解码测试：展示字段完整往返，空字段保持为null，旧版本文件被拒绝
+ */
+public class FirstPageSnapshotTest {
+
+    @Test
+    public void encodeDecodeRoundTripsDisplayFields() throws IOException {
+        Item full = new Item("id-1", "纯牛奶 250ml", "食品/乳制品", "厨房-冰箱", 6, "2025-01-01",
+                "开封后冷藏", "/a.jpg", "2024.01.01 10:00", "2024.02.01 12:30");
+        Item sparse = new Item();
+        sparse.setId("id-2");
+        sparse.setName("签字笔");
+
+        byte[] bytes = FirstPageSnapshot.encode(Arrays.asList(full, sparse));
+        List<Item> items = FirstPageSnapshot.decode(bytes);
+
+        assertEquals(2, items.size());
+        Item first = items.get(0);
+        assertEquals("id-1", first.getId());
+        assertEquals("纯牛奶 250ml", first.getName());
+        assertEquals("食品/乳制品", first.getCategory());
+        assertEquals("厨房-冰箱", first.getLocation());
+        assertEquals(6, first.getQuantity());
+        assertEquals("2025-01-01", first.getExpiryDate());
+        assertEquals("2024.01.01 10:00", first.getCreateTime());
+        assertEquals("2024.02.01 12:30", first.getUpdateTime());
+        assertNull(items.get(1).getCategory());
+        assertNull(items.get(1).getExpiryDate());
+
+        // 相同内容编码结果一致（用于跳过重复写入）
+        assertArrayEquals(bytes, FirstPageSnapshot.encode(items));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsUnknownFormatVersion() throws IOException {
+        byte[] bytes = FirstPageSnapshot.encode(Arrays.<Item>asList());
+        bytes[3]++;
+        FirstPageSnapshot.decode(bytes);
+    }
+}
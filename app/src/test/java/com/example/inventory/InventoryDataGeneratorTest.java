@@ -0,0 +1,104 @@
+package com.example.inventory;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * InventoryDataGenerator 测试：同一种子生成相同数据，规模与分布符合配置
+ */
+public class InventoryDataGeneratorTest {
+    private static final long NOW = 1_700_000_000_000L;
+    private static final InventoryDataGenerator.Config CONFIG =
+            new InventoryDataGenerator.Config(2000, 20, 3, 30, 4, 0.25, 5);
+
+    @Test
+    public void sameSeedProducesIdenticalData() {
+        assertEquals(record(42), record(42));
+        assertTrue(!record(42).equals(record(43)));
+    }
+
+    @Test
+    public void outputMatchesConfig() {
+        RecordingSink sink = new RecordingSink();
+        new InventoryDataGenerator(CONFIG, 1, NOW, "/images").generate(sink);
+
+        assertEquals(20, sink.categories.size());
+        assertEquals(20, new HashSet<>(sink.categories).size());
+        assertEquals(20 * 3, sink.subCategoryCount);
+        assertEquals(30, new HashSet<>(sink.locations).size());
+        assertEquals(2000, sink.items.size());
+
+        int withoutExpiry = 0;
+        int withImages = 0;
+        Set<String> ids = new HashSet<>();
+        for (Item item : sink.items) {
+            ids.add(item.getId());
+            if (item.getExpiryDate().isEmpty()) {
+                withoutExpiry++;
+            }
+            if (!item.getImagePaths().isEmpty()) {
+                withImages++;
+                assertTrue(item.getImagePaths().startsWith("/images/placeholder_"));
+            }
+        }
+        assertEquals(2000, ids.size());
+        // 约30%无有效期、约25%带图片
+        assertTrue(withoutExpiry > 500 && withoutExpiry < 700);
+        assertTrue(withImages > 400 && withImages < 600);
+        // 每个物品1条创建记录 + 平均4条修改记录
+        assertTrue(sink.recordCount > 2000 * 4 && sink.recordCount < 2000 * 6);
+    }
+
+    private static List<String> record(long seed) {
+        RecordingSink sink = new RecordingSink();
+        new InventoryDataGenerator(CONFIG, seed, NOW, null).generate(sink);
+        return sink.log;
+    }
+
+    private static class RecordingSink implements InventoryDataGenerator.Sink {
+        final List<String> log = new ArrayList<>();
+        final List<String> categories = new ArrayList<>();
+        final List<String> locations = new ArrayList<>();
+        final List<Item> items = new ArrayList<>();
+        int subCategoryCount;
+        int recordCount;
+
+        @Override
+        public void onCategory(long id, String name) {
+            categories.add(name);
+            log.add(id + name);
+        }
+
+        @Override
+        public void onSubCategory(long id, long categoryId, String name) {
+            subCategoryCount++;
+            log.add(id + "/" + categoryId + name);
+        }
+
+        @Override
+        public void onLocation(long id, long parentId, String name) {
+            locations.add(name);
+            log.add(id + "/" + parentId + name);
+        }
+
+        @Override
+        public void onItem(Item item) {
+            items.add(item);
+            log.add(item.getId() + item.getName() + item.getCategory() + item.getLocation() + item.getQuantity()
+                    + item.getExpiryDate() + item.getImagePaths() + item.getCreateTime());
+        }
+
+        @Override
+        public void onUsageRecord(UsageRecord record) {
+            recordCount++;
+            log.add(record.getItemId() + record.getType() + record.getTime() + record.getModifiedFields());
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.inventory;
+
+import android.app.Application;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import static org.junit.Assert.assertSame;
+
+/**
+ * InventoryRepository 共享测试：多个页面的ViewModel拿到同一仓库与同一组LiveData
+ */
+@RunWith(RobolectricTestRunner.class)
+public class InventoryRepositoryTest {
+    @Rule
+    public MainThreadIoRule mainThreadIoRule = new MainThreadIoRule();
+
+    @Test
+    public void viewModelsShareRepositoryStreams() {
+        Application application = ApplicationProvider.getApplicationContext();
+        InventoryViewModel main = new InventoryViewModel(application);
+        InventoryViewModel detail = new InventoryViewModel(application);
+
+        assertSame(InventoryRepository.getInstance(application), InventoryRepository.getInstance(application));
+        assertSame(main.getAllCategories(), detail.getAllCategories());
+        assertSame(main.getAllLocations(), detail.getAllLocations());
+        assertSame(main.getInventoryTotal(), detail.getInventoryTotal());
+        assertSame(main.getCategoryStats(), detail.getCategoryStats());
+        assertSame(main.getExpiringCount(7), detail.getExpiringCount(7));
+        assertSame(main.getExpiredCount(), detail.getExpiredCount());
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.inventory;
+
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.ParameterizedRobolectricTestRunner;
+
+import java.util.Collection;
+import java.util.List;
+
+import static com.example.inventory.DaoPerfSupport.assertIndexOrderedWalk;
+import static com.example.inventory.DaoPerfSupport.assertIndexedSearch;
+import static com.example.inventory.DaoPerfSupport.assertWithinBudget;
+import static com.example.inventory.DaoPerfSupport.medianMillis;
+import static com.example.inventory.LiveDataTestUtil.getOrAwaitValue;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+/**
+ * ItemDao / ItemStatDao 性能回归测试
+ * 按真实分布造数后，断言每个查询的执行计划形态，并检查查询与写入耗时不超出预算
+ */
+@RunWith(ParameterizedRobolectricTestRunner.class)
+public class ItemDaoPerformanceTest {
+    // 走索引的查询/单行写入：与数据量基本无关的固定预算（含Robolectric开销）
+    private static final double INDEXED_BUDGET_MS = 50;
+
+    @Rule
+    public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
+    @Rule
+    public MainThreadIoRule mainThreadIoRule = new MainThreadIoRule();
+
+    @ParameterizedRobolectricTestRunner.Parameters(name = "items={0}")
+    public static Collection<Object[]> data() {
+        return DaoPerfSupport.sizes();
+    }
+
+    private final int itemCount;
+    private DaoPerfSupport support;
+    private ItemDao itemDao;
+    private ItemStatDao itemStatDao;
+    private List<String> itemIds;
+
+    public ItemDaoPerformanceTest(int itemCount) {
+        this.itemCount = itemCount;
+    }
+
+    @Before
+    public void setUp() {
+        support = new DaoPerfSupport();
+        itemDao = support.db.itemDao();
+        itemStatDao = support.db.itemStatDao();
+        itemIds = support.seedItems(itemCount, 42);
+    }
+
+    @After
+    public void tearDown() {
+        support.close();
+    }
+
+    // 全表扫描类查询的预算：随数据量线性增长
+    private double scanBudget() {
+        return INDEXED_BUDGET_MS + itemCount * 0.002;
+    }
+
+    @Test
+    public void getItemById_usesPrimaryKey() throws Exception {
+        String id = itemIds.get(itemCount / 2);
+        assertIndexedSearch(support.planOf(() -> getOrAwaitValue(itemDao.getItemById(id))), "item");
+        assertWithinBudget("getItemById@" + itemCount,
+                medianMillis(() -> getOrAwaitValue(itemDao.getItemById(id))), INDEXED_BUDGET_MS);
+    }
+
+    @Test
+    public void getItemsByPage_walksCreateTimeIndex() throws Exception {
+        assertIndexOrderedWalk(support.planOf(() -> getOrAwaitValue(itemDao.getItemsByPage(20, 0))), "item");
+        assertWithinBudget("getItemsByPage(first)@" + itemCount,
+                medianMillis(() -> getOrAwaitValue(itemDao.getItemsByPage(20, 0))), INDEXED_BUDGET_MS);
+    }
+
+    @Test
+    public void getExpiringItems_usesExpiryIndexRange() throws Exception {
+        assertIndexedSearch(support.planOf(() -> getOrAwaitValue(itemDao.getExpiringItems(7, 20, 0))), "item");
+        assertWithinBudget("getExpiringItems@" + itemCount,
+                medianMillis(() -> getOrAwaitValue(itemDao.getExpiringItems(7, 20, 0))), INDEXED_BUDGET_MS);
+    }
+
+    @Test
+    public void getExpiredItems_usesExpiryIndexRange() throws Exception {
+        assertIndexedSearch(support.planOf(() -> getOrAwaitValue(itemDao.getExpiredItems(20, 0))), "item");
+        assertWithinBudget("getExpiredItems@" + itemCount,
+                medianMillis(() -> getOrAwaitValue(itemDao.getExpiredItems(20, 0))), INDEXED_BUDGET_MS);
+    }
+
+    @Test
+    public void searchItemsByName_substringScanStaysWithinLinearBudget() throws Exception {
+        // '%关键词%'子串匹配无法走索引，这里只约束其线性耗时
+        assertWithinBudget("searchItemsByName@" + itemCount,
+                medianMillis(() -> getOrAwaitValue(itemDao.searchItemsByName("洗衣液", 20, 0))), scanBudget());
+    }
+
+    @Test
+    public void itemStatQueries_arePrimaryKeyLookups() throws Exception {
+        ItemStat total = getOrAwaitValue(itemStatDao.getTotal());
+        assertEquals(itemCount, total.getItemCount());
+
+        String today = DaoPerfSupport.dateAfterDays(0);
+        String inAWeek = DaoPerfSupport.dateAfterDays(7);
+        assertIndexedSearch(support.planOf(() -> getOrAwaitValue(itemStatDao.getTotal())), "item_stat");
+        assertIndexedSearch(support.planOf(() -> getOrAwaitValue(itemStatDao.countExpiryUpTo(inAWeek))),
+                "item_stat");
+        assertIndexedSearch(support.planOf(() -> getOrAwaitValue(itemStatDao.countExpiryBefore(today))),
+                "item_stat");
+        assertWithinBudget("itemStat.getTotal@" + itemCount,
+                medianMillis(() -> getOrAwaitValue(itemStatDao.getTotal())), INDEXED_BUDGET_MS);
+        assertWithinBudget("itemStat.countExpiryUpTo@" + itemCount,
+                medianMillis(() -> getOrAwaitValue(itemStatDao.countExpiryUpTo(inAWeek))),
+                INDEXED_BUDGET_MS);
+
+        // 临期条数与临期列表按同一规则统计（含已过期）
+        assertEquals(getOrAwaitValue(itemDao.getExpiringItems(7, Integer.MAX_VALUE, 0)).size(),
+                (int) getOrAwaitValue(itemStatDao.countExpiryUpTo(inAWeek)));
+    }
+
+    @Test
+    public void singleRowWrites_stayConstantWithTriggers() throws Exception {
+        Item item = itemDao.getItemByIdSync(itemIds.get(0));
+        assertNotNull(item);
+        assertWithinBudget("ItemDao.update@" + itemCount, medianMillis(() -> {
+            item.setQuantity(item.getQuantity() + 1);
+            itemDao.update(item);
+            return null;
+        }), INDEXED_BUDGET_MS);
+
+        int[] sequence = {0};
+        assertWithinBudget("ItemDao.insert+delete@" + itemCount, medianMillis(() -> {
+            Item extra = new Item();
+            extra.setId("perf-" + sequence[0]++);
+            extra.setName("性能测试物品");
+            extra.setCategory("食品");
+            extra.setLocation("厨房");
+            extra.setQuantity(1);
+            extra.setExpiryDate(DaoPerfSupport.dateAfterDays(3));
+            extra.setCreateTime("2025.01.01 12:00");
+            extra.setUpdateTime("2025.01.01 12:00");
+            itemDao.insert(extra);
+            itemDao.delete(extra);
+            return null;
+        }), INDEXED_BUDGET_MS);
+
+        // 触发器维护的汇总与实际数据一致
+        ItemStat total = getOrAwaitValue(itemStatDao.getTotal());
+        assertEquals(itemCount, total.getItemCount());
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.inventory;
+
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.example.inventory.DaoPerfSupport.assertIndexOrderedWalk;
+import static com.example.inventory.DaoPerfSupport.assertIndexedSearch;
+import static com.example.inventory.LiveDataTestUtil.getOrAwaitValue;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * ItemFilter 测试：键集分页遍历结果与逐条过滤一致，常用组合走索引
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ItemFilterTest {
+    private static final int ITEM_COUNT = 3000;
+    private static final int PAGE_SIZE = 50;
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    @Rule
+    public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
+    @Rule
+    public MainThreadIoRule mainThreadIoRule = new MainThreadIoRule();
+
+    private DaoPerfSupport support;
+    private ItemDao itemDao;
+    private List<Item> allItems;
+    private long now;
+
+    @Before
+    public void setUp() throws InterruptedException {
+        support = new DaoPerfSupport();
+        itemDao = support.db.itemDao();
+        support.seedItems(ITEM_COUNT, 11);
+        allItems = getOrAwaitValue(itemDao.getAllItems());
+        now = System.currentTimeMillis();
+    }
+
+    @After
+    public void tearDown() {
+        support.close();
+    }
+
+    @Test
+    public void combinedFilter_pagesMatchBruteForce() throws InterruptedException {
+        String expiryLimit = InventoryTime.formatExpiryDate(now + 14 * DAY_MILLIS);
+        List<Item> expected = new ArrayList<>();
+        for (Item item : allItems) {
+            if (item.getCategory() != null && item.getCategory().startsWith("食品/") && "厨房".equals(item.getLocation())
+                    && !item.getExpiryDate().isEmpty() && item.getExpiryDate().compareTo(expiryLimit) <= 0
+                    && item.getQuantity() < 6 && item.getName().contains("奶")) {
+                expected.add(item);
+            }
+        }
+        sortByCreateTimeDesc(expected);
+        assertFalse("造数中应有符合组合条件的物品", expected.isEmpty());
+
+        ItemFilter filter = new ItemFilter().underCategory(categoryId("食品")).locationId(locationId("厨房"))
+                .expiringWithinDays(14)
+                .quantityBelow(6).nameContains("奶");
+        assertEquals(ids(expected), ids(pageThrough(filter, 5)));
+    }
+
+    @Test
+    public void expirySort_pagesThroughAllItemsWithExpiry() throws InterruptedException {
+        List<Item> expected = new ArrayList<>();
+        for (Item item : allItems) {
+            if (!item.getExpiryDate().isEmpty()) {
+                expected.add(item);
+            }
+        }
+        Collections.sort(expected, Comparator.comparing(Item::getExpiryDate).thenComparing(Item::getId));
+
+        List<Item> actual = pageThrough(new ItemFilter().sortBy(ItemFilter.SORT_EXPIRY_DATE_ASC), PAGE_SIZE);
+        assertEquals(ids(expected), ids(actual));
+    }
+
+    @Test
+    public void categoryFilter_walksCompositeIndexWithoutSorting() throws Exception {
+        // 造数中的物品都挂在下级分类上
+        ItemFilter filter = new ItemFilter().categoryId(support.db.categoryDao()
+                .getChildByName(categoryId("日用品"), "洗护用品").getId());
+        List<Item> firstPage = getOrAwaitValue(itemDao.filterItems(filter.toQuery(null, PAGE_SIZE, now)));
+        assertFalse(firstPage.isEmpty());
+        Item last = firstPage.get(firstPage.size() - 1);
+
+        assertIndexedSearch(support.planOf(() -> getOrAwaitValue(
+                itemDao.filterItems(filter.toQuery(null, PAGE_SIZE, now)))), "item");
+        // 后续页通过行值比较直接定位到游标位置
+        assertIndexedSearch(support.planOf(() -> getOrAwaitValue(
+                itemDao.filterItems(filter.toQuery(last, PAGE_SIZE, now)))), "item");
+        assertIndexOrderedWalk(support.planOf(() -> getOrAwaitValue(
+                itemDao.filterItems(new ItemFilter().toQuery(last, PAGE_SIZE, now)))), "item");
+    }
+
+    @Test
+    public void renameCategory_isVisibleOnItemsWithoutRewritingThem() throws InterruptedException {
+        Category category = support.db.categoryDao().getCategoryByName("食品");
+        int before = getOrAwaitValue(itemDao.filterItems(new ItemFilter().underCategory(category.getId())
+                .toQuery(null, Integer.MAX_VALUE, now))).size();
+        support.db.categoryDao().rename(category.getId(), "食物");
+
+        // 下级分类的完整路径随之更新
+        List<Item> renamed = getOrAwaitValue(itemDao.filterItems(new ItemFilter().underCategory(category.getId())
+                .toQuery(null, Integer.MAX_VALUE, now)));
+        assertEquals(before, renamed.size());
+        for (Item item : renamed) {
+            assertTrue(item.getCategory(), item.getCategory().startsWith("食物/"));
+        }
+    }
+
+    @Test
+    public void nameKeyword_isMatchedLiterally() throws InterruptedException {
+        List<Item> page = getOrAwaitValue(itemDao.filterItems(
+                new ItemFilter().nameContains("%").toQuery(null, PAGE_SIZE, now)));
+        assertTrue(page.isEmpty());
+    }
+
+    @Test
+    public void rangeQuery_refetchesExactlyOnePageFromCursors() throws InterruptedException {
+        for (int sort = ItemFilter.SORT_CREATE_TIME_DESC; sort <= ItemFilter.SORT_UPDATE_TIME_DESC; sort++) {
+            ItemFilter filter = new ItemFilter().sortBy(sort);
+            List<Item> first = getOrAwaitValue(itemDao.filterItems(filter.toQuery(null, PAGE_SIZE, now)));
+            Item lower = filter.cursorOf(first.get(first.size() - 1));
+            List<Item> second = getOrAwaitValue(itemDao.filterItems(filter.toQuery(lower, PAGE_SIZE, now)));
+            Item upper = filter.cursorOf(second.get(second.size() - 1));
+
+            // 只凭两个游标（排序键 + id）重新查询第二页
+            assertEquals(ids(second), ids(getOrAwaitValue(
+                    itemDao.filterItems(filter.toQuery(lower, upper, 0, now)))));
+            assertIndexOrderedWalk(support.planOf(() -> getOrAwaitValue(
+                    itemDao.filterItems(filter.toQuery(lower, upper, 0, now)))), "item");
+        }
+    }
+
+    private List<Item> pageThrough(ItemFilter filter, int pageSize) throws InterruptedException {
+        List<Item> result = new ArrayList<>();
+        Item last = null;
+        while (true) {
+            List<Item> page = getOrAwaitValue(itemDao.filterItems(filter.toQuery(last, pageSize, now)));
+            result.addAll(page);
+            if (page.size() < pageSize) {
+                return result;
+            }
+            last = page.get(page.size() - 1);
+        }
+    }
+
+    private static void sortByCreateTimeDesc(List<Item> items) {
+        Collections.sort(items, Comparator.comparing(Item::getCreateTime).thenComparing(Item::getId).reversed());
+    }
+
+    private long categoryId(String name) {
+        return support.db.categoryDao().getCategoryByName(name).getId();
+    }
+
+    private long locationId(String name) {
+        return support.db.locationDao().getLocationByName(name).getId();
+    }
+
+    private static List<String> ids(List<Item> items) {
+        List<String> ids = new ArrayList<>();
+        for (Item item : items) {
+            ids.add(item.getId());
+        }
+        return ids;
+    }
+}
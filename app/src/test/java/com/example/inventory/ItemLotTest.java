@@ -0,0 +1,109 @@
+package com.example.inventory;
+
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.List;
+
+import static com.example.inventory.LiveDataTestUtil.getOrAwaitValue;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 批次测试：同一物品三箱不同有效期，消耗先扣最早到期的批次；物品的数量与最近有效期随批次增量更新
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ItemLotTest {
+    private static final String EARLY = "2025-03-01";
+    private static final String MIDDLE = "2025-06-01";
+    private static final String LATE = "2025-09-01";
+
+    @Rule
+    public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
+    @Rule
+    public MainThreadIoRule mainThreadIoRule = new MainThreadIoRule();
+
+    private DaoPerfSupport support;
+    private ItemDao itemDao;
+    private ItemLotDao itemLotDao;
+    private String itemId;
+
+    @Before
+    public void setUp() {
+        support = new DaoPerfSupport();
+        itemDao = support.db.itemDao();
+        itemLotDao = support.db.itemLotDao();
+        itemId = support.seedItems(200, 41).get(0);
+
+        // 替换为三个批次（入库顺序与到期顺序不同）
+        itemLotDao.replaceAll(itemId, lot(5, MIDDLE));
+        itemLotDao.insert(lot(3, LATE));
+        itemLotDao.insert(lot(4, EARLY));
+    }
+
+    @After
+    public void tearDown() {
+        support.close();
+    }
+
+    @Test
+    public void item_tracksTotalQuantityAndNearestExpiry() {
+        Item item = itemDao.getItemByIdSync(itemId);
+        assertEquals(12, item.getQuantity());
+        assertEquals(EARLY, item.getExpiryDate());
+    }
+
+    @Test
+    public void consume_drawsDownEarliestExpiringLotFirst() {
+        assertEquals(6, itemLotDao.consume(itemId, 6));
+
+        List<ItemLot> lots = itemLotDao.getLotsByItemIdSync(itemId);
+        assertEquals(2, lots.size());
+        assertEquals(MIDDLE, lots.get(0).getExpiryDate());
+        assertEquals(3, lots.get(0).getQuantity());
+        assertEquals(LATE, lots.get(1).getExpiryDate());
+
+        Item item = itemDao.getItemByIdSync(itemId);
+        assertEquals(6, item.getQuantity());
+        assertEquals(MIDDLE, item.getExpiryDate());
+    }
+
+    @Test
+    public void consume_beyondStockEmptiesAllLots() {
+        assertEquals(12, itemLotDao.consume(itemId, 20));
+
+        assertTrue(itemLotDao.getLotsByItemIdSync(itemId).isEmpty());
+        Item item = itemDao.getItemByIdSync(itemId);
+        assertEquals(0, item.getQuantity());
+        assertEquals("", item.getExpiryDate());
+    }
+
+    @Test
+    public void stats_followLotChanges() throws InterruptedException {
+        long before = getOrAwaitValue(support.db.itemStatDao().getTotal()).getTotalQuantity();
+        itemLotDao.consume(itemId, 4);
+        assertEquals(before - 4, getOrAwaitValue(support.db.itemStatDao().getTotal()).getTotalQuantity());
+    }
+
+    @Test
+    public void lots_areLocatedByItemIndex() throws Exception {
+        List<String> plan = support.planOf(() -> itemLotDao.getLotsByItemIdSync(itemId));
+        DaoPerfSupport.assertIndexedSearch(plan, "item_lot");
+    }
+
+    @Test
+    public void deleteItem_cascadesToLots() {
+        itemDao.deleteById(itemId);
+        assertTrue(itemLotDao.getLotsByItemIdSync(itemId).isEmpty());
+    }
+
+    private ItemLot lot(int quantity, String expiryDate) {
+        return new ItemLot(itemId, quantity, InventoryTime.toEpochDay(expiryDate), "2025.01.01 10:00");
+    }
+}
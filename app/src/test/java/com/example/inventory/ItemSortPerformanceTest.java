@@ -0,0 +1,110 @@
+package com.example.inventory;
+
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.ParameterizedRobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static com.example.inventory.DaoPerfSupport.assertIndexOrderedWalk;
+import static com.example.inventory.DaoPerfSupport.assertWithinBudget;
+import static com.example.inventory.DaoPerfSupport.medianMillis;
+import static com.example.inventory.DaoPerfSupport.report;
+import static com.example.inventory.LiveDataTestUtil.getOrAwaitValue;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 排序方式性能回归测试（含10万行）
+ * 每种排序的首页与键集后续页都应是索引遍历；同时在item表上对比同一排序走索引与强制不走索引（NOT INDEXED，全表临时B树排序）的耗时
+ */
+@RunWith(ParameterizedRobolectricTestRunner.class)
+public class ItemSortPerformanceTest {
+    private static final int PAGE_SIZE = 20;
+    private static final double INDEXED_BUDGET_MS = 50;
+    private static final int[] SORTS = {ItemFilter.SORT_CREATE_TIME_DESC, ItemFilter.SORT_EXPIRY_DATE_ASC,
+            ItemFilter.SORT_NAME_ASC, ItemFilter.SORT_QUANTITY_ASC, ItemFilter.SORT_UPDATE_TIME_DESC};
+
+    @Rule
+    public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
+    @Rule
+    public MainThreadIoRule mainThreadIoRule = new MainThreadIoRule();
+
+    @ParameterizedRobolectricTestRunner.Parameters(name = "items={0}")
+    public static Collection<Object[]> data() {
+        List<Object[]> sizes = new ArrayList<>(DaoPerfSupport.sizes());
+        boolean hasLarge = false;
+        for (Object[] size : sizes) {
+            hasLarge |= (Integer) size[0] >= 100_000;
+        }
+        if (!hasLarge) {
+            sizes.add(new Object[]{100_000});
+        }
+        return sizes;
+    }
+
+    private final int itemCount;
+    private DaoPerfSupport support;
+    private ItemDao itemDao;
+    private long now;
+
+    public ItemSortPerformanceTest(int itemCount) {
+        this.itemCount = itemCount;
+    }
+
+    @Before
+    public void setUp() {
+        support = new DaoPerfSupport();
+        itemDao = support.db.itemDao();
+        support.seedItems(itemCount, 99);
+        now = System.currentTimeMillis();
+    }
+
+    @After
+    public void tearDown() {
+        support.close();
+    }
+
+    @Test
+    public void everySortMode_isIndexWalk() throws Exception {
+        for (int sort : SORTS) {
+            ItemFilter filter = new ItemFilter().sortBy(sort);
+            List<Item> firstPage = getOrAwaitValue(itemDao.filterItems(filter.toQuery(null, PAGE_SIZE, now)));
+            assertEquals(PAGE_SIZE, firstPage.size());
+            // 以首页最后一条为游标，验证键集定位同样不排序
+            Item cursor = firstPage.get(PAGE_SIZE - 1);
+
+            assertIndexOrderedWalk(support.planOf(() -> getOrAwaitValue(
+                    itemDao.filterItems(filter.toQuery(null, PAGE_SIZE, now)))), "item");
+            assertIndexOrderedWalk(support.planOf(() -> getOrAwaitValue(
+                    itemDao.filterItems(filter.toQuery(cursor, PAGE_SIZE, now)))), "item");
+
+            double indexed = medianMillis(() -> getOrAwaitValue(
+                    itemDao.filterItems(filter.toQuery(null, PAGE_SIZE, now))));
+            assertWithinBudget("sort" + sort + "(indexed)@" + itemCount, indexed, INDEXED_BUDGET_MS);
+            assertWithinBudget("sort" + sort + "(keyset)@" + itemCount, medianMillis(() -> getOrAwaitValue(
+                    itemDao.filterItems(filter.toQuery(cursor, PAGE_SIZE, now)))), INDEXED_BUDGET_MS);
+
+            // 对照：直接在item表上按同样的排序取首页，分别走索引和强制不走索引（NOT INDEXED只能用于表，不能用于item_detail视图）
+            String indexedSql = "SELECT * FROM item ORDER BY " + filter.orderBy() + " LIMIT " + PAGE_SIZE;
+            String notIndexedSql = indexedSql.replace("FROM item ", "FROM item NOT INDEXED ");
+            assertIndexOrderedWalk(support.explain(indexedSql, new Object[0]), "item");
+            assertTrue("对照查询应使用临时B树排序", String.valueOf(support.explain(notIndexedSql, new Object[0]))
+                    .contains("USE TEMP B-TREE"));
+            double tableIndexed = medianMillis(() -> support.queryCount(indexedSql));
+            double sorted = medianMillis(() -> support.queryCount(notIndexedSql));
+            report("sort" + sort + "(temp b-tree)@" + itemCount, sorted, "对照");
+            if (itemCount >= 100_000) {
+                assertTrue("排序" + sort + "走索引(" + tableIndexed + "ms)应明显快于全表排序(" + sorted + "ms)",
+                        tableIndexed * 5 < sorted);
+            }
+        }
+    }
+}
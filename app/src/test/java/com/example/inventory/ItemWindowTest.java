@@ -0,0 +1,146 @@
+package com.example.inventory;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 窗口化列表测试（纯JVM）：长列表滚动时内存中只保留视口附近的页，被丢弃的页为占位、位置不变，按游标重新载入
+ */
+public class ItemWindowTest {
+    private static final int PAGE_SIZE = 20;
+    private static final int TOTAL = 50_000;
+    private static final int MAX_PAGES = 6;
+
+    private List<Item> source;
+    private ItemWindow window;
+
+    @Before
+    public void setUp() {
+        source = new ArrayList<>(TOTAL);
+        for (int i = 0; i < TOTAL; i++) {
+            Item item = new Item();
+            item.setId(String.format("item-%05d", i));
+            item.setName("物品" + i);
+            source.add(item);
+        }
+        window = new ItemWindow(MAX_PAGES);
+        window.reset(ItemWindowTest::cursorOf);
+    }
+
+    @Test
+    public void scrollingFiftyThousandItems_keepsBoundedPagesInMemory() {
+        int maxLoaded = 0;
+        for (int first = 0; first < TOTAL; first += 7) {
+            int last = Math.min(first + 9, TOTAL - 1);
+            // 滑动到底部时追加下一页
+            while (window.size() <= last + PAGE_SIZE && window.size() < TOTAL) {
+                window.append(source.subList(window.size(), Math.min(window.size() + PAGE_SIZE, TOTAL)));
+            }
+            int[] range = window.retainedRange(first, last);
+            window.evictOutside(range[0], range[1]);
+            maxLoaded = Math.max(maxLoaded, window.getLoadedPageCount());
+            assertSame(source.get(first), window.get(first));
+        }
+        assertEquals(TOTAL, window.size());
+        assertTrue("内存中的页数超过上限：" + maxLoaded, maxLoaded <= MAX_PAGES);
+        assertNull(window.get(0));
+
+        // 滚回顶部：被丢弃的页按上一页游标之后、本页游标为止重新查询
+        int[] range = window.retainedRange(0, 9);
+        window.evictOutside(range[0], range[1]);
+        for (int index = range[0]; index <= range[1]; index++) {
+            if (!window.isPageLoaded(index)) {
+                window.fill(index, query(window.lowerBoundOf(index), window.upperBoundOf(index)));
+            }
+        }
+        assertSame(source.get(0), window.get(0));
+        assertSame(source.get(PAGE_SIZE * range[1]), window.get(PAGE_SIZE * range[1]));
+        assertTrue(window.getLoadedPageCount() <= MAX_PAGES);
+    }
+
+    @Test
+    public void evictedPage_isPlaceholderAndKeepsPositions() {
+        appendPages(10);
+        long version = window.getVersion();
+        assertEquals(Arrays.asList(0, 1, 2, 3), window.evictOutside(4, 9));
+        // 丢弃不改变位置，也不产生修改
+        assertEquals(version, window.getVersion());
+        assertEquals(PAGE_SIZE * 10, window.size());
+        assertNull(window.get(PAGE_SIZE * 2 + 5));
+        assertSame(source.get(PAGE_SIZE * 4), window.get(PAGE_SIZE * 4));
+
+        ItemWindow.Update update = window.fill(2, query(window.lowerBoundOf(2), window.upperBoundOf(2)));
+        assertEquals(ItemWindow.Update.CHANGED, update.type);
+        assertEquals(PAGE_SIZE * 2, update.start);
+        assertEquals(PAGE_SIZE, update.count);
+        assertEquals(version + 1, update.version);
+        assertSame(source.get(PAGE_SIZE * 2 + 5), window.get(PAGE_SIZE * 2 + 5));
+    }
+
+    @Test
+    public void pageSizeChange_shiftsLaterPages() {
+        appendPages(3);
+        Item firstOfPage2 = window.get(PAGE_SIZE * 2);
+
+        // 第一页中删除两条
+        List<Item> shrunk = new ArrayList<>(source.subList(0, PAGE_SIZE));
+        shrunk.remove(3);
+        shrunk.remove(3);
+        ItemWindow.Update update = window.fill(0, shrunk);
+        assertEquals(ItemWindow.Update.RESET, update.type);
+        assertEquals(PAGE_SIZE * 3 - 2, window.size());
+        assertSame(firstOfPage2, window.get(PAGE_SIZE * 2 - 2));
+        assertEquals(2, window.pageOf(PAGE_SIZE * 2 - 2));
+
+        // 页被清空：游标不变，后续页的范围不受影响
+        window.fill(1, new ArrayList<>());
+        assertEquals(2, window.pageOf(PAGE_SIZE - 2));
+        assertSame(firstOfPage2, window.get(PAGE_SIZE - 2));
+        assertEquals("item-00039", window.lowerBoundOf(2).getId());
+    }
+
+    @Test
+    public void retainedRange_centersOnViewport() {
+        appendPages(20);
+        int[] range = window.retainedRange(PAGE_SIZE * 10, PAGE_SIZE * 10 + 9);
+        assertEquals(8, range[0]);
+        assertEquals(13, range[1]);
+
+        range = window.retainedRange(0, 9);
+        assertEquals(0, range[0]);
+        assertEquals(MAX_PAGES / 2, range[1]);
+    }
+
+    private void appendPages(int pages) {
+        for (int i = 0; i < pages; i++) {
+            window.append(source.subList(window.size(), window.size() + PAGE_SIZE));
+        }
+    }
+
+    // 按ItemFilter范围查询的语义在内存中实现：(after, upTo]
+    private List<Item> query(Item after, Item upTo) {
+        List<Item> result = new ArrayList<>();
+        for (Item item : source) {
+            if ((after == null || item.getId().compareTo(after.getId()) > 0)
+                    && item.getId().compareTo(upTo.getId()) <= 0) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    private static Item cursorOf(Item item) {
+        Item cursor = new Item();
+        cursor.setId(item.getId());
+        return cursor;
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.inventory;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 列表预加载测试（纯JVM，模拟时钟）：快速滑过1000条时下一页总在到达末尾前加载完成，页大小随滑动速度增大
+ */
+public class ListPrefetcherTest {
+    private static final long FRAME_MILLIS = 16;
+    // 模拟的单页查询耗时（慢速设备）
+    private static final long LOAD_MILLIS = 150;
+    // 一屏可见条数
+    private static final int VISIBLE = 10;
+
+    private ListPrefetcher prefetcher;
+    private FakeList list;
+
+    @Before
+    public void setUp() {
+        prefetcher = new ListPrefetcher();
+        list = new FakeList(5000);
+    }
+
+    @Test
+    public void fastFlingThroughThousandItems_neverReachesLoadingEnd() {
+        // 首屏静止一秒后开始滑动
+        long now = list.loadFirstPage(0) + 1000;
+
+        // 惯性滑动：初速度0.3条/毫秒，匀减速，共滑过约1000条
+        double velocity = 0.3;
+        double deceleration = velocity * velocity / (2 * 1000);
+        double position = VISIBLE - 1;
+        while (velocity > 0) {
+            now += FRAME_MILLIS;
+            list.advance(now);
+            position = Math.min(position + velocity * FRAME_MILLIS, list.itemCount - 1);
+            velocity -= deceleration * FRAME_MILLIS;
+            int lastVisible = (int) position;
+            assertTrue("第" + now + "毫秒到达列表末尾（显示加载中）：" + lastVisible + "/" + list.itemCount,
+                    lastVisible < list.itemCount - 1);
+            list.onScrolled(lastVisible, now);
+        }
+        assertTrue(position >= 990);
+        // 快速滑动时增大页大小，查询次数远少于按20条一页
+        assertTrue("查询次数：" + list.loads, list.loads < 1000 / ListPrefetcher.DEFAULT_MIN_PAGE_SIZE / 2);
+    }
+
+    @Test
+    public void slowBrowsing_usesMinimumPageSizeAndBaseDistance() {
+        // 每秒滑过5条，每帧回调一次
+        long now = 0;
+        int position = 0;
+        for (; now < 10_000; now += FRAME_MILLIS) {
+            position = (int) (now / 200);
+            prefetcher.onScrolled(position, 1000, now);
+        }
+        assertEquals(ListPrefetcher.DEFAULT_MIN_PAGE_SIZE, prefetcher.getNextPageSize());
+        assertTrue(prefetcher.getPrefetchDistance() < ListPrefetcher.DEFAULT_PREFETCH_DISTANCE + 10);
+        assertEquals(0, prefetcher.onScrolled(position, position + 100, now));
+        assertEquals(ListPrefetcher.DEFAULT_MIN_PAGE_SIZE, prefetcher.onScrolled(position, position + 20, now));
+    }
+
+    @Test
+    public void pageSize_isCappedAndRecoversAfterReset() {
+        long now = 0;
+        for (int position = 0; position < 5000; position += 50) {
+            now += FRAME_MILLIS;
+            prefetcher.onScrolled(position, 10_000, now);
+        }
+        assertEquals(ListPrefetcher.DEFAULT_MAX_PAGE_SIZE, prefetcher.getNextPageSize());
+
+        prefetcher.reset();
+        assertEquals(ListPrefetcher.DEFAULT_MIN_PAGE_SIZE, prefetcher.getNextPageSize());
+        assertEquals(ListPrefetcher.DEFAULT_PREFETCH_DISTANCE, prefetcher.getPrefetchDistance());
+    }
+
+    /**
+     * 按MainActivity与InventoryViewModel的调用方式模拟：同时只有一个加载，加载完成后（布局后）按当前位置再检查一次
+     */
+    private final class FakeList {
+        final int total;
+        int itemCount;
+        int loads;
+        int lastVisible = VISIBLE - 1;
+        long loadDoneAt = -1;
+        int pendingSize;
+
+        FakeList(int total) {
+            this.total = total;
+        }
+
+        // 返回首屏静止时的预加载全部完成的时间
+        long loadFirstPage(long now) {
+            itemCount = ListPrefetcher.DEFAULT_MIN_PAGE_SIZE;
+            check(now);
+            long t = now;
+            while (loadDoneAt >= 0) {
+                t += FRAME_MILLIS;
+                advance(t);
+            }
+            return t;
+        }
+
+        void onScrolled(int lastVisible, long now) {
+            this.lastVisible = lastVisible;
+            check(now);
+        }
+
+        void advance(long now) {
+            if (loadDoneAt >= 0 && now >= loadDoneAt) {
+                itemCount = Math.min(total, itemCount + pendingSize);
+                loadDoneAt = -1;
+                prefetcher.onLoadFinished(now);
+                check(now);
+            }
+        }
+
+        private void check(long now) {
+            int size = prefetcher.onScrolled(lastVisible, itemCount, now);
+            if (size > 0 && loadDoneAt < 0 && itemCount < total) {
+                loads++;
+                pendingSize = size;
+                loadDoneAt = now + LOAD_MILLIS;
+                prefetcher.onLoadStarted(now);
+            }
+        }
+    }
+}
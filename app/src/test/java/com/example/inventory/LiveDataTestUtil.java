@@ -0,0 +1,35 @@
+package com.example.inventory;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单元测试中同步读取LiveData的值（配合InstantTaskExecutorRule使用）
+ */
+public final class LiveDataTestUtil {
+    private LiveDataTestUtil() {}
+
+    public static <T> T getOrAwaitValue(LiveData<T> liveData) throws InterruptedException {
+        Object[] data = new Object[1];
+        CountDownLatch latch = new CountDownLatch(1);
+        Observer<T> observer = new Observer<T>() {
+            @Override
+            public void onChanged(T value) {
+                data[0] = value;
+                latch.countDown();
+                liveData.removeObserver(this);
+            }
+        };
+        liveData.observeForever(observer);
+        if (!latch.await(10, TimeUnit.SECONDS)) {
+            liveData.removeObserver(observer);
+            throw new AssertionError("LiveData未在10秒内返回数据");
+        }
+        @SuppressWarnings("unchecked")
+        T value = (T) data[0];
+        return value;
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.inventory;
+
+import android.database.sqlite.SQLiteConstraintException;
+
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.example.inventory.LiveDataTestUtil.getOrAwaitValue;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 位置层级测试：车库 → 货架 → 层板，子树查询包含所有下级位置中的物品；移动/删除后闭包表保持一致
+ */
+@RunWith(RobolectricTestRunner.class)
+public class LocationTreeTest {
+    private static final int ITEM_COUNT = 2000;
+    private static final int ALL = Integer.MAX_VALUE;
+
+    @Rule
+    public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
+    @Rule
+    public MainThreadIoRule mainThreadIoRule = new MainThreadIoRule();
+
+    private DaoPerfSupport support;
+    private LocationDao locationDao;
+    private ItemDao itemDao;
+    private long garage;
+    private long shelf;
+    private long layer;
+    // 造数中的两个顶层位置，分别挂到货架、层板下
+    private long storeroom;
+    private long balcony;
+
+    @Before
+    public void setUp() {
+        support = new DaoPerfSupport();
+        locationDao = support.db.locationDao();
+        itemDao = support.db.itemDao();
+        support.seedItems(ITEM_COUNT, 17);
+
+        garage = locationDao.insert(new Location("车库"));
+        shelf = locationDao.insert(new Location("货架", garage));
+        layer = locationDao.insert(new Location("第1层", shelf));
+        storeroom = locationDao.getLocationByName("储物间").getId();
+        balcony = locationDao.getLocationByName("阳台").getId();
+        locationDao.moveTo(storeroom, shelf);
+        locationDao.moveTo(balcony, layer);
+    }
+
+    @After
+    public void tearDown() {
+        support.close();
+    }
+
+    @Test
+    public void subtree_containsItemsOfAllDescendants() throws InterruptedException {
+        assertEquals(new HashSet<>(Arrays.asList(garage, shelf, layer, storeroom, balcony)),
+                new HashSet<>(locationDao.getSubtreeIdsSync(garage)));
+        Set<String> expected = idsIn(storeroom, balcony);
+        assertFalse(expected.isEmpty());
+
+        assertEquals(expected, ids(getOrAwaitValue(itemDao.getItemsUnderLocation(garage, ALL, 0))));
+        assertEquals(expected, ids(getOrAwaitValue(itemDao.filterItems(
+                new ItemFilter().underLocation(garage).toQuery(null, ALL, System.currentTimeMillis())))));
+        assertEquals(idsIn(balcony), ids(getOrAwaitValue(itemDao.getItemsUnderLocation(layer, ALL, 0))));
+    }
+
+    @Test
+    public void subtree_isIndexedJoin() throws Exception {
+        List<String> plan = support.planOf(() -> getOrAwaitValue(itemDao.getItemsUnderLocation(garage, 20, 0)));
+        boolean closureSeek = false;
+        boolean itemSeek = false;
+        for (String detail : plan) {
+            assertFalse("出现全表扫描：" + plan, detail.matches("SCAN (TABLE )?(item|location_closure)\\b.*")
+                    && !detail.contains("INDEX"));
+            closureSeek |= detail.matches("SEARCH (TABLE )?location_closure\\b.*ancestorId=\\?.*");
+            itemSeek |= detail.matches("SEARCH (TABLE )?item USING .*locationId=\\?.*");
+        }
+        assertTrue("闭包表未按祖先定位：" + plan, closureSeek);
+        assertTrue("物品未按位置索引关联：" + plan, itemSeek);
+    }
+
+    @Test
+    public void tree_aggregatesCountsOverSubtree() throws InterruptedException {
+        int storeroomCount = idsIn(storeroom).size();
+        int balconyCount = idsIn(balcony).size();
+        for (LocationNode node : getOrAwaitValue(locationDao.getLocationTree())) {
+            if (node.id == garage) {
+                assertEquals(0, node.level);
+                assertEquals(storeroomCount + balconyCount, node.itemCount);
+            } else if (node.id == layer) {
+                assertEquals(2, node.level);
+                assertEquals(balconyCount, node.itemCount);
+            } else if (node.id == balcony) {
+                assertEquals(3, node.level);
+            }
+        }
+    }
+
+    @Test
+    public void move_rejectsCyclesAndRelinksSubtree() throws InterruptedException {
+        assertTrue(locationDao.isInSubtree(shelf, balcony));
+        assertThrows(SQLiteConstraintException.class, () -> locationDao.moveTo(garage, balcony));
+
+        // 层板（连同阳台）移到顶层后不再属于车库
+        locationDao.moveTo(layer, null);
+        assertFalse(locationDao.isInSubtree(garage, balcony));
+        assertTrue(locationDao.isInSubtree(layer, balcony));
+        assertEquals(idsIn(storeroom), ids(getOrAwaitValue(itemDao.getItemsUnderLocation(garage, ALL, 0))));
+    }
+
+    @Test
+    public void delete_promotesChildrenToParent() {
+        locationDao.delete(locationDao.getLocationByName("货架"));
+
+        assertTrue(locationDao.isInSubtree(garage, storeroom));
+        assertTrue(locationDao.isInSubtree(garage, balcony));
+        assertEquals(Long.valueOf(garage), locationDao.getLocationByName("储物间").getParentId());
+        assertEquals(new HashSet<>(Arrays.asList(garage, layer, storeroom, balcony)),
+                new HashSet<>(locationDao.getSubtreeIdsSync(garage)));
+    }
+
+    // 直接位于指定位置的物品
+    private Set<String> idsIn(Long... locationIds) throws InterruptedException {
+        Set<Long> wanted = new HashSet<>(Arrays.asList(locationIds));
+        Set<String> ids = new HashSet<>();
+        for (Item item : getOrAwaitValue(itemDao.getAllItems())) {
+            if (wanted.contains(item.getLocationId())) {
+                ids.add(item.getId());
+            }
+        }
+        return ids;
+    }
+
+    private static Set<String> ids(List<Item> items) {
+        Set<String> ids = new HashSet<>();
+        for (Item item : items) {
+            ids.add(item.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.inventory;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * MainThreadGuard 测试：主线程调用被检测并计数，子线程调用放行
+ */
+@RunWith(RobolectricTestRunner.class)
+public class MainThreadGuardTest {
+    private static final String MISSING_IMAGE = "/nonexistent/image.jpg";
+
+    @Rule
+    public MainThreadIoRule mainThreadIoRule = new MainThreadIoRule();
+
+    @Test
+    public void mainThreadDecodeIsRejectedAndCountedPerCallSite() {
+        mainThreadIoRule.expectViolation("ImageUtils.loadImage");
+        for (int i = 0; i < 3; i++) {
+            try {
+                ImageUtils.loadImage(MISSING_IMAGE, 200, 200);
+                fail("主线程解码图片应被拒绝");
+            } catch (IllegalStateException expected) {
+                // 预期
+            }
+        }
+        assertEquals(Integer.valueOf(3), MainThreadGuard.getViolationCounts().get("ImageUtils.loadImage"));
+    }
+
+    @Test
+    public void backgroundDecodeIsAllowed() throws InterruptedException {
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Thread worker = new Thread(() -> {
+            try {
+                ImageUtils.loadImage(MISSING_IMAGE, 200, 200);
+            } catch (Throwable t) {
+                error.set(t);
+            }
+        });
+        worker.start();
+        worker.join();
+        assertNull(error.get());
+    }
+}
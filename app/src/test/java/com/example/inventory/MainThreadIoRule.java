@@ -0,0 +1,45 @@
+package com.example.inventory;
+
+import org.junit.rules.ExternalResource;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 主线程I/O检测规则：用例中在主线程调用同步查询/文件读写/图片解码时直接失败
+ * 用例结束后再核对一次违规记录，防止异常被业务代码吞掉
+ */
+public class MainThreadIoRule extends ExternalResource {
+    private final Set<String> expectedCallSites = new HashSet<>();
+
+    /**
+     * 声明本用例预期出现的违规调用点（用于验证检测本身）
+     */
+    public void expectViolation(String callSite) {
+        expectedCallSites.add(callSite);
+    }
+
+    @Override
+    protected void before() {
+        MainThreadGuard.reset();
+        MainThreadGuard.setThrowOnViolation(true);
+    }
+
+    @Override
+    protected void after() {
+        MainThreadGuard.setThrowOnViolation(false);
+        Map<String, Integer> violations = MainThreadGuard.getViolationCounts();
+        MainThreadGuard.reset();
+        for (String callSite : expectedCallSites) {
+            assertTrue("预期的主线程I/O未被检测到: " + callSite, violations.containsKey(callSite));
+        }
+        violations.keySet().removeAll(expectedCallSites);
+        if (!violations.isEmpty()) {
+            fail("主线程执行了I/O: " + violations);
+        }
+    }
+}
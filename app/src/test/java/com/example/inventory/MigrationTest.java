@@ -0,0 +1,219 @@
+package com.example.inventory;
+
+import android.content.Context;
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.room.Room;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteOpenHelper;
+import androidx.sqlite.db.framework.FrameworkSQLiteOpenHelperFactory;
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 数据库迁移测试：按版本1（首个发布版本）的表结构建库并写入数据，依次执行全部迁移到当前版本，
+ * Room打开时校验迁移后的表结构与实体一致；再核对数据换算、汇总表与外键
+ */
+@RunWith(RobolectricTestRunner.class)
+public class MigrationTest {
+    private static final String DB_NAME = "migration-test";
+
+    private static final Migration[] MIGRATIONS = {
+            InventoryDatabase.MIGRATION_1_2, InventoryDatabase.MIGRATION_2_3, InventoryDatabase.MIGRATION_3_4,
+            InventoryDatabase.MIGRATION_4_5, InventoryDatabase.MIGRATION_5_6, InventoryDatabase.MIGRATION_6_7,
+            InventoryDatabase.MIGRATION_7_8, InventoryDatabase.MIGRATION_8_9, InventoryDatabase.MIGRATION_9_10,
+            InventoryDatabase.MIGRATION_10_11, InventoryDatabase.MIGRATION_11_12, InventoryDatabase.MIGRATION_12_13,
+            InventoryDatabase.MIGRATION_13_14, InventoryDatabase.MIGRATION_14_15
+    };
+
+    // 版本1由Room按当时的实体生成的建表语句
+    private static final String[] V1_SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS `item` (`id` TEXT NOT NULL, `name` TEXT NOT NULL, `category` TEXT, "
+                    + "`subCategory` TEXT, `location` TEXT, `quantity` INTEGER NOT NULL, `expiryDate` TEXT, "
+                    + "`description` TEXT, `imagePaths` TEXT, `createTime` TEXT NOT NULL, "
+                    + "`updateTime` TEXT NOT NULL, PRIMARY KEY(`id`))",
+            "CREATE TABLE IF NOT EXISTS `category` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`name` TEXT NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS `sub_category` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`categoryId` INTEGER NOT NULL, `name` TEXT NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS `location` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`name` TEXT NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS `usage_record` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, "
+                    + "`itemId` TEXT NOT NULL, `type` TEXT NOT NULL, `time` TEXT NOT NULL, `modifiedFields` TEXT)"
+    };
+
+    // 版本1的数据：分类/位置按名称保存，其中“水果”“储物间”在分类/位置表中不存在
+    private static final String[] V1_DATA = {
+            "INSERT INTO category (id, name) VALUES (1, '食品'), (2, '日用品')",
+            "INSERT INTO sub_category (id, categoryId, name) VALUES (1, 1, '乳制品')",
+            "INSERT INTO location (id, name) VALUES (1, '冰箱')",
+            "INSERT INTO item VALUES ('milk', '牛奶', '食品', '乳制品', '冰箱', 2, '2025-01-10', NULL, NULL, "
+                    + "'2025.01.01 10:00', '2025.01.01 10:00')",
+            "INSERT INTO item VALUES ('tissue', '纸巾', '日用品', NULL, '储物间', 5, '', NULL, NULL, "
+                    + "'2025.01.02 10:00', '2025.01.02 10:00')",
+            "INSERT INTO item VALUES ('apple', '苹果', '水果', NULL, NULL, 0, NULL, NULL, NULL, "
+                    + "'2025.01.03 10:00', '2025.01.03 10:00')",
+            "INSERT INTO usage_record (itemId, type, time, modifiedFields) VALUES "
+                    + "('milk', 'create', '2025.01.01 10:00', NULL), "
+                    + "('milk', 'update', '2025.01.05 10:00', '名称、子分类'), "
+                    + "('deleted', 'update', '2025.01.05 10:00', '分类')"
+    };
+
+    @Rule
+    public MainThreadIoRule mainThreadIoRule = new MainThreadIoRule();
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void migrateFromVersion1_matchesCurrentSchemaAndKeepsData() {
+        createVersion1().close();
+
+        // Room在迁移后按实体校验表结构，不一致时抛出IllegalStateException
+        InventoryDatabase database = Room.databaseBuilder(context, InventoryDatabase.class, DB_NAME)
+                .addMigrations(MIGRATIONS)
+                .addCallback(InventoryDatabase.CREATE_CALLBACK)
+                .allowMainThreadQueries()
+                .build();
+        try {
+            SupportSQLiteDatabase db = database.getOpenHelper().getWritableDatabase();
+            assertEquals(0, queryInt(db, "SELECT COUNT(*) FROM pragma_foreign_key_check"));
+
+            // 名称换算为外键，缺失的分类/位置已补建，子分类成为下级分类
+            assertEquals(3, queryInt(db, "SELECT COUNT(*) FROM item"));
+            assertEquals("食品" + Category.PATH_SEPARATOR + "乳制品",
+                    queryString(db, "SELECT category FROM item_detail WHERE id = 'milk'"));
+            assertEquals("水果", queryString(db, "SELECT category FROM item_detail WHERE id = 'apple'"));
+            assertEquals("储物间", queryString(db, "SELECT location FROM item_detail WHERE id = 'tissue'"));
+
+            // 修改记录：字段列表换算为位掩码，孤儿记录被清理
+            assertEquals(2, queryInt(db, "SELECT COUNT(*) FROM usage_record"));
+            assertEquals(UsageRecord.FIELD_NAME | UsageRecord.FIELD_SUB_CATEGORY, queryInt(db,
+                    "SELECT modifiedFields FROM usage_record WHERE type = " + UsageRecord.TYPE_UPDATE));
+
+            // 批次补建后数量与物品一致
+            assertEquals(0, queryInt(db, "SELECT COUNT(*) FROM item i WHERE quantity != "
+                    + "(SELECT IFNULL(SUM(quantity), 0) FROM item_lot WHERE itemId = i.id)"));
+
+            // 汇总表与按当前数据重建的结果一致，迁移后的触发器继续维护
+            assertStatMatchesRebuild(db);
+            db.execSQL("INSERT INTO item_lot (itemId, quantity, expiryEpochDay, receivedTime) "
+                    + "VALUES ('apple', 4, NULL, '2025.02.01 10:00')");
+            db.execSQL("DELETE FROM item WHERE id = 'tissue'");
+            assertStatMatchesRebuild(db);
+        } finally {
+            database.close();
+        }
+    }
+
+    @Test
+    public void version4Stats_areKeyedByNameAndMaintainedByTriggers() {
+        SupportSQLiteOpenHelper helper = createVersion1();
+        SupportSQLiteDatabase db = helper.getWritableDatabase();
+        for (int i = 0; i < 3; i++) {
+            MIGRATIONS[i].migrate(db);
+        }
+
+        // 版本4的item表仍按名称保存分类/位置
+        assertEquals(1, queryInt(db, "SELECT itemCount FROM item_stat WHERE dimension = "
+                + ItemStat.DIM_CATEGORY + " AND statKey = '日用品'"));
+        db.execSQL("UPDATE item SET category = '日用品', quantity = 3 WHERE id = 'apple'");
+        assertEquals(2, queryInt(db, "SELECT itemCount FROM item_stat WHERE dimension = "
+                + ItemStat.DIM_CATEGORY + " AND statKey = '日用品'"));
+        assertEquals(8, queryInt(db, "SELECT totalQuantity FROM item_stat WHERE dimension = "
+                + ItemStat.DIM_CATEGORY + " AND statKey = '日用品'"));
+        assertEquals(0, queryInt(db, "SELECT COUNT(*) FROM item_stat WHERE dimension = "
+                + ItemStat.DIM_CATEGORY + " AND statKey = '水果'"));
+        assertEquals(10, queryInt(db, "SELECT totalQuantity FROM item_stat WHERE dimension = "
+                + ItemStat.DIM_TOTAL));
+        helper.close();
+    }
+
+    // 按版本1的表结构建库并写入数据
+    private SupportSQLiteOpenHelper createVersion1() {
+        SupportSQLiteOpenHelper helper = new FrameworkSQLiteOpenHelperFactory().create(
+                SupportSQLiteOpenHelper.Configuration.builder(context)
+                        .name(DB_NAME)
+                        .callback(new SupportSQLiteOpenHelper.Callback(1) {
+                            @Override
+                            public void onCreate(@NonNull SupportSQLiteDatabase db) {
+                                for (String sql : V1_SCHEMA) {
+                                    db.execSQL(sql);
+                                }
+                            }
+
+                            @Override
+                            public void onUpgrade(@NonNull SupportSQLiteDatabase db, int oldVersion, int newVersion) {
+                            }
+                        })
+                        .build());
+        SupportSQLiteDatabase db = helper.getWritableDatabase();
+        for (String sql : V1_DATA) {
+            db.execSQL(sql);
+        }
+        return helper;
+    }
+
+    private static void assertStatMatchesRebuild(SupportSQLiteDatabase db) {
+        List<String> maintained = statRows(db);
+        db.beginTransaction();
+        try {
+            ItemStat.rebuild(db);
+            assertEquals(maintained, statRows(db));
+        } finally {
+            // 只用于比较，不提交重建结果
+            db.endTransaction();
+        }
+        assertTrue(maintained.size() > 1);
+    }
+
+    private static List<String> statRows(SupportSQLiteDatabase db) {
+        List<String> rows = new ArrayList<>();
+        try (Cursor cursor = db.query("SELECT dimension, statKey, itemCount, totalQuantity FROM item_stat "
+                + "ORDER BY dimension, statKey")) {
+            while (cursor.moveToNext()) {
+                rows.add(cursor.getInt(0) + ":" + cursor.getString(1) + ":"
+                        + cursor.getInt(2) + ":" + cursor.getLong(3));
+            }
+        }
+        return rows;
+    }
+
+    private static int queryInt(SupportSQLiteDatabase db, String sql) {
+        try (Cursor cursor = db.query(sql)) {
+            cursor.moveToFirst();
+            return cursor.getInt(0);
+        }
+    }
+
+    private static String queryString(SupportSQLiteDatabase db, String sql) {
+        try (Cursor cursor = db.query(sql)) {
+            cursor.moveToFirst();
+            return cursor.getString(0);
+        }
+    }
+}
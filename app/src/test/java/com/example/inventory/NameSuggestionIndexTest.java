@@ -0,0 +1,165 @@
+package com.example.inventory;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static com.example.inventory.DaoPerfSupport.assertWithinBudget;
+import static com.example.inventory.DaoPerfSupport.medianMillis;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 名称输入联想索引测试：中文/拼音/首字母前缀联想、按同名数量排序、增量更新与疑似重复检测
+ */
+@RunWith(RobolectricTestRunner.class)
+public class NameSuggestionIndexTest {
+    // 宽松上限（含Robolectric与CI机器抖动），只用于发现退化为全量遍历的情况
+    private static final double SUGGEST_BUDGET_MS = 20;
+
+    private final NameSuggestionIndex index = NameSuggestionIndex.getInstance();
+
+    @Before
+    public void setUp() {
+        load(Arrays.asList(nameCount("洗衣液 3kg", 3), nameCount("洗衣凝珠", 1), nameCount("洗洁精", 5),
+                nameCount("纯牛奶", 2)), Collections.singletonList("日用品"), Collections.singletonList("洗衣房"));
+    }
+
+    @After
+    public void tearDown() {
+        index.invalidate();
+    }
+
+    @Test
+    public void suggest_matchesChinesePinyinAndInitialsPrefixes() {
+        assertEquals(Arrays.asList("洗洁精", "洗衣液 3kg", "洗衣凝珠", "洗衣房"), texts(index.suggest("洗", 10)));
+        assertEquals(Arrays.asList("洗衣液 3kg", "洗衣凝珠", "洗衣房"), texts(index.suggest("洗衣", 10)));
+        assertEquals(Collections.singletonList("洗衣液 3kg"), texts(index.suggest("xyy", 10)));
+        assertEquals(Collections.singletonList("纯牛奶"), texts(index.suggest("Chun Niu", 10)));
+        assertTrue(index.suggest("", 10).isEmpty());
+    }
+
+    @Test
+    public void incrementalUpdates_keepCountsAndEntries() {
+        for (int i = 0; i < 3; i++) {
+            index.onItemNameChanged(null, "洗衣凝珠");
+        }
+        // 数量多的排在前面
+        assertEquals("洗衣凝珠", index.suggest("洗衣", 10).get(0).text);
+
+        index.onItemNameChanged("纯牛奶", "脱脂牛奶");
+        assertEquals(Collections.singletonList("纯牛奶"), texts(index.suggest("纯", 10)));
+        index.onItemNameChanged("纯牛奶", null);
+        assertTrue(index.suggest("纯", 10).isEmpty());
+        assertEquals(Collections.singletonList("脱脂牛奶"), texts(index.suggest("tzn", 10)));
+
+        index.replaceAll(NameSuggestionIndex.TYPE_LOCATION, Collections.singletonList("阳台"));
+        assertEquals(Arrays.asList("洗衣凝珠", "洗衣液 3kg"), texts(index.suggest("洗衣", 10)));
+    }
+
+    @Test
+    public void findDuplicate_ignoresCaseAndWhitespaceOnly() {
+        NameSuggestionIndex.Suggestion duplicate = index.findDuplicate("洗衣液3KG");
+        assertNotNull(duplicate);
+        assertEquals("洗衣液 3kg", duplicate.text);
+        assertEquals(3, duplicate.getCount());
+        // 拼音键相同不算重复
+        assertNull(index.findDuplicate("xyy3kg"));
+        // 分类/位置名称不算重复物品
+        assertNull(index.findDuplicate("洗衣房"));
+    }
+
+    @Test
+    public void suggest_staysFastOnLargeIndex() throws Exception {
+        List<NameSuggestionIndex.NameCount> names = new ArrayList<>();
+        // 线上规模的物品数，不生成使用记录
+        InventoryDataGenerator generator = new InventoryDataGenerator(
+                new InventoryDataGenerator.Config(50_000, 300, 6, 120, 0, 0, 0), 7, System.currentTimeMillis(), null);
+        generator.generate(new CollectingSink(names));
+        load(names, Collections.emptyList(), Collections.emptyList());
+
+        for (String input : new String[]{"洗", "meng", "nf", "sanzhi"}) {
+            List<NameSuggestionIndex.Suggestion> suggestions = index.suggest(input, 8);
+            assertTrue(input, !suggestions.isEmpty() && suggestions.size() <= 8);
+            double millis = medianMillis(() -> index.suggest(input, 8));
+            assertWithinBudget("suggest(" + input + ") @" + names.size() + "条物品", millis, SUGGEST_BUDGET_MS);
+        }
+    }
+
+    @Test
+    public void invalidateDuringLoad_discardsStaleResult() {
+        index.invalidate();
+        int stale = index.beginLoad();
+        assertTrue(stale != NameSuggestionIndex.NO_LOAD);
+        // 加载进行中数据被批量改写：旧的加载结果不能覆盖
+        index.invalidate();
+        index.finishLoad(stale, Collections.singletonList(nameCount("旧名称", 1)),
+                Collections.emptyList(), Collections.emptyList());
+        assertFalse(index.isLoaded());
+        assertTrue(index.suggest("旧", 10).isEmpty());
+
+        int fresh = index.beginLoad();
+        assertTrue(fresh != NameSuggestionIndex.NO_LOAD && fresh != stale);
+        index.finishLoad(fresh, Collections.singletonList(nameCount("新名称", 1)),
+                Collections.emptyList(), Collections.emptyList());
+        assertEquals(Collections.singletonList("新名称"), texts(index.suggest("新", 10)));
+    }
+
+    private void load(List<NameSuggestionIndex.NameCount> items, List<String> categories, List<String> locations) {
+        index.invalidate();
+        int generation = index.beginLoad();
+        assertTrue(generation != NameSuggestionIndex.NO_LOAD);
+        index.finishLoad(generation, items, categories, locations);
+    }
+
+    private static NameSuggestionIndex.NameCount nameCount(String text, int count) {
+        NameSuggestionIndex.NameCount nameCount = new NameSuggestionIndex.NameCount();
+        nameCount.text = text;
+        nameCount.count = count;
+        return nameCount;
+    }
+
+    private static List<String> texts(List<NameSuggestionIndex.Suggestion> suggestions) {
+        List<String> texts = new ArrayList<>();
+        for (NameSuggestionIndex.Suggestion suggestion : suggestions) {
+            texts.add(suggestion.text);
+        }
+        return texts;
+    }
+
+    // 只收集物品名称（同名物品分别计入，由索引累加数量）
+    private static final class CollectingSink implements InventoryDataGenerator.Sink {
+        private final List<NameSuggestionIndex.NameCount> names;
+
+        CollectingSink(List<NameSuggestionIndex.NameCount> names) {
+            this.names = names;
+        }
+
+        @Override
+        public void onCategory(long id, String name) {}
+
+        @Override
+        public void onSubCategory(long id, long categoryId, String name) {}
+
+        @Override
+        public void onLocation(long id, long parentId, String name) {}
+
+        @Override
+        public void onItem(Item item) {
+            names.add(nameCount(item.getName(), 1));
+        }
+
+        @Override
+        public void onUsageRecord(UsageRecord record) {}
+    }
+}
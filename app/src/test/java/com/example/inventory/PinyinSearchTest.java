@@ -0,0 +1,174 @@
+package com.example.inventory;
+
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.example.inventory.DaoPerfSupport.assertWithinBudget;
+import static com.example.inventory.DaoPerfSupport.medianMillis;
+import static com.example.inventory.LiveDataTestUtil.getOrAwaitValue;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 拼音/首字母搜索测试："nn"、"niunai"能搜到"牛奶"，"ml"仍能按名称子串命中，检索键走主键范围扫描，删除/回填后检索键保持一致
+ */
+@RunWith(RobolectricTestRunner.class)
+public class PinyinSearchTest {
+    private static final int ITEM_COUNT = 3000;
+    private static final int ALL = Integer.MAX_VALUE;
+    private static final double SEARCH_BUDGET_MS = 50;
+
+    @Rule
+    public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
+    @Rule
+    public MainThreadIoRule mainThreadIoRule = new MainThreadIoRule();
+
+    private DaoPerfSupport support;
+    private ItemDao itemDao;
+    private ItemSearchKeyDao searchKeyDao;
+    private List<Item> allItems;
+
+    @Before
+    public void setUp() throws InterruptedException {
+        support = new DaoPerfSupport();
+        itemDao = support.db.itemDao();
+        searchKeyDao = support.db.itemSearchKeyDao();
+        support.seedItems(ITEM_COUNT, 23);
+        allItems = getOrAwaitValue(itemDao.getAllItems());
+    }
+
+    @After
+    public void tearDown() {
+        support.close();
+    }
+
+    @Test
+    public void keys_containFullPinyinAndInitialsOfEverySuffix() {
+        Set<String> keys = PinyinKeys.of("牛奶");
+        assertTrue(keys.toString(), keys.contains("niunai"));
+        assertTrue(keys.toString(), keys.contains("nn"));
+        assertTrue(keys.toString(), keys.contains("nai"));
+
+        Set<String> branded = PinyinKeys.of("蒙牛纯牛奶 500ml");
+        assertTrue(branded.toString(), branded.contains("mengniuchunniunai500ml"));
+        assertTrue(branded.toString(), branded.contains("mncnn5"));
+        assertTrue(branded.toString(), branded.contains("niunai500ml"));
+    }
+
+    @Test
+    public void normalizeQuery_onlyAsciiKeywordsUseSearchKeys() {
+        assertEquals("niunai", PinyinKeys.normalizeQuery(" Niu Nai "));
+        assertNull(PinyinKeys.normalizeQuery("牛奶"));
+        assertNull(PinyinKeys.normalizeQuery("--"));
+    }
+
+    @Test
+    public void search_matchesBruteForce() throws InterruptedException {
+        for (String keyword : new String[]{"nn", "niunai", "cnn", "xfs"}) {
+            Set<String> expected = new HashSet<>();
+            for (Item item : allItems) {
+                for (String key : PinyinKeys.of(item.getName())) {
+                    if (key.startsWith(keyword)) {
+                        expected.add(item.getId());
+                        break;
+                    }
+                }
+            }
+            assertFalse("造数中应有匹配" + keyword + "的物品", expected.isEmpty());
+            assertEquals(keyword, expected, ids(search(keyword)));
+        }
+        for (Item item : search("niunai")) {
+            assertTrue(item.getName(), item.getName().contains("牛奶"));
+        }
+    }
+
+    @Test
+    public void search_isPrimaryKeyRangeScan() throws Exception {
+        String prefix = "nn";
+        List<String> plan = support.planOf(() ->
+                getOrAwaitValue(itemDao.searchItemsByKey(prefix, PinyinKeys.upperBound(prefix), 20, 0)));
+        boolean keyRange = false;
+        for (String detail : plan) {
+            assertFalse("出现全表扫描：" + plan, detail.matches("SCAN (TABLE )?item(_search_key)?\\b.*")
+                    && !detail.contains("INDEX"));
+            keyRange |= detail.matches("SEARCH (TABLE )?item_search_key USING .*searchKey>\\? AND searchKey<\\?.*");
+        }
+        assertTrue("检索键未走主键范围扫描：" + plan, keyRange);
+
+        double millis = medianMillis(() ->
+                getOrAwaitValue(itemDao.searchItemsByKey(prefix, PinyinKeys.upperBound(prefix), 20, 0)));
+        assertWithinBudget("searchItemsByKey(nn) @" + ITEM_COUNT, millis, SEARCH_BUDGET_MS);
+    }
+
+    @Test
+    public void asciiKeyword_alsoMatchesNameSubstring() throws InterruptedException {
+        Item item = allItems.get(0);
+        item.setName("蒙牛纯牛奶 500ml");
+        itemDao.update(item);
+        searchKeyDao.replaceKeys(Collections.singletonList(item));
+
+        // "ml"不是任何检索键的前缀，只能靠名称子串命中
+        String prefix = PinyinKeys.normalizeQuery("ml");
+        assertFalse(ids(search("ml")).contains(item.getId()));
+        List<Item> result = getOrAwaitValue(
+                itemDao.searchItemsByKeyOrName(prefix, PinyinKeys.upperBound(prefix), "ml", ALL, 0));
+        assertTrue(ids(result).contains(item.getId()));
+        // 拼音前缀命中的结果仍在其中
+        assertTrue(ids(result).containsAll(ids(search("ml"))));
+    }
+
+    @Test
+    public void deleteAndRename_keepKeysInSync() throws InterruptedException {
+        Item item = allItems.get(0);
+        item.setName("牛奶");
+        itemDao.update(item);
+        searchKeyDao.replaceKeys(Collections.singletonList(item));
+        assertTrue(ids(search("niunai")).contains(item.getId()));
+
+        itemDao.delete(item);
+        assertTrue("删除物品后检索键应被触发器清理", searchKeyDao.getKeysByItemId(item.getId()).isEmpty());
+        assertFalse(ids(search("niunai")).contains(item.getId()));
+    }
+
+    @Test
+    public void backfill_regeneratesAllKeys() throws Exception {
+        Set<String> before = ids(search("nn"));
+        support.db.getOpenHelper().getWritableDatabase().execSQL("DELETE FROM item_search_key");
+        assertTrue(search("nn").isEmpty());
+
+        // 回填只允许在子线程执行
+        int[] processed = new int[1];
+        Thread thread = new Thread(() -> processed[0] = new SearchKeyBackfill(support.db).runOnce());
+        thread.start();
+        thread.join();
+
+        assertEquals(ITEM_COUNT, processed[0]);
+        assertEquals(before, ids(search("nn")));
+    }
+
+    private List<Item> search(String keyword) throws InterruptedException {
+        String prefix = PinyinKeys.normalizeQuery(keyword);
+        return getOrAwaitValue(itemDao.searchItemsByKey(prefix, PinyinKeys.upperBound(prefix), ALL, 0));
+    }
+
+    private static Set<String> ids(List<Item> items) {
+        Set<String> ids = new HashSet<>();
+        for (Item item : items) {
+            ids.add(item.getId());
+        }
+        return ids;
+    }
+}
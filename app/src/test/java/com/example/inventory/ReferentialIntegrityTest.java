@@ -0,0 +1,75 @@
+package com.example.inventory;
+
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.inventory.LiveDataTestUtil.getOrAwaitValue;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 外键级联测试：删除分类连带删除下级分类、物品分类置空；删除物品连带删除使用记录，均由一条DELETE完成
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ReferentialIntegrityTest {
+    @Rule
+    public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
+    @Rule
+    public MainThreadIoRule mainThreadIoRule = new MainThreadIoRule();
+
+    private DaoPerfSupport support;
+    private List<String> itemIds;
+
+    @Before
+    public void setUp() {
+        support = new DaoPerfSupport();
+        itemIds = support.seedItems(500, 31);
+    }
+
+    @After
+    public void tearDown() {
+        support.close();
+    }
+
+    @Test
+    public void deleteCategory_cascadesToChildCategoriesAndClearsItems() throws InterruptedException {
+        Category category = support.db.categoryDao().getCategoryByName("食品");
+        List<Long> subtree = new ArrayList<>();
+        for (Category node : support.db.categoryDao().getSubtreeSync(category.getId())) {
+            subtree.add(node.getId());
+        }
+        assertTrue(subtree.size() > 1);
+
+        support.db.categoryDao().delete(category);
+
+        assertTrue(getOrAwaitValue(support.db.categoryDao().getChildren(category.getId())).isEmpty());
+        for (Item item : getOrAwaitValue(support.db.itemDao().getAllItems())) {
+            assertFalse(item.getId(), subtree.contains(item.getCategoryId()));
+            if (item.getCategoryId() == null) {
+                assertNull(item.getCategory());
+            }
+        }
+    }
+
+    @Test
+    public void deleteItem_cascadesToUsageRecords() throws InterruptedException {
+        String id = itemIds.get(0);
+        support.seedUsageRecords(itemIds.subList(0, 1), 5, 7);
+        assertEquals(6, getOrAwaitValue(support.db.usageRecordDao().getRecordsByItemId(id)).size());
+
+        support.db.itemDao().deleteById(id);
+
+        assertTrue(getOrAwaitValue(support.db.usageRecordDao().getRecordsByItemId(id)).isEmpty());
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.inventory;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteConstraintException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 连续扫码测试：1万次扫码只在内存中累加，按批在一个事务中写入批次表；条码按唯一索引定位物品
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ScanSessionTest {
+    private static final int ITEM_COUNT = 1000;
+    private static final int SCAN_COUNT = 10_000;
+    private static final int BATCH = 200;
+
+    @Rule
+    public MainThreadIoRule mainThreadIoRule = new MainThreadIoRule();
+
+    private DaoPerfSupport support;
+    private ItemDao itemDao;
+    private ItemLotDao itemLotDao;
+    private List<ScanSession.CodeEntry> codes;
+
+    // 每批写入的回调结果
+    private int flushes;
+    private int flushedScans;
+    private int changedItems;
+    private final List<String> unknownCodes = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        support = new DaoPerfSupport();
+        itemDao = support.db.itemDao();
+        itemLotDao = support.db.itemLotDao();
+        support.seedItems(ITEM_COUNT, 47);
+        support.db.getOpenHelper().getWritableDatabase()
+                .execSQL("UPDATE item SET barcode = '690' || substr('0000000000' || rowid, -10)");
+        codes = itemDao.getBarcodesSync();
+    }
+
+    @After
+    public void tearDown() {
+        support.close();
+    }
+
+    @Test
+    public void tenThousandScans_areWrittenInBatches() {
+        Random random = new Random(47);
+        Map<String, Integer> expected = new HashMap<>();
+        Map<String, Integer> before = new HashMap<>();
+        List<String> scans = new ArrayList<>(SCAN_COUNT);
+        for (int i = 0; i < SCAN_COUNT; i++) {
+            // 约1%的扫码是库中没有的条码
+            if (random.nextInt(100) == 0) {
+                scans.add("unknown-" + random.nextInt(5));
+                continue;
+            }
+            // 偏斜分布：少数热门商品被反复扫码
+            ScanSession.CodeEntry entry = codes.get((int) (Math.pow(random.nextDouble(), 3) * codes.size()));
+            scans.add(entry.barcode);
+            expected.merge(entry.itemId, 1, Integer::sum);
+            before.computeIfAbsent(entry.itemId, id -> itemDao.getItemByIdSync(id).getQuantity());
+        }
+        int recordsBefore = countRows("usage_record");
+
+        long start = System.nanoTime();
+        ScanSession session = newSession(ScanSession.MODE_RECEIVE);
+        for (String code : scans) {
+            session.onScan(code);
+        }
+        session.close();
+        DaoPerfSupport.assertWithinBudget("连续扫码 " + SCAN_COUNT + " 次（入库）",
+                (System.nanoTime() - start) / 1_000_000.0, 5000);
+
+        assertEquals(SCAN_COUNT / BATCH, flushes);
+        assertEquals(SCAN_COUNT, flushedScans);
+        assertTrue(unknownCodes.contains("unknown-0"));
+        for (Map.Entry<String, Integer> entry : expected.entrySet()) {
+            assertEquals((int) before.get(entry.getKey()) + entry.getValue(),
+                    itemDao.getItemByIdSync(entry.getKey()).getQuantity());
+        }
+        // 每批每个物品一条修改记录；入库合并到同一个无有效期批次
+        assertEquals(changedItems, countRows("usage_record") - recordsBefore);
+        assertEquals(1, queryInt("SELECT MAX(c) FROM (SELECT COUNT(*) AS c FROM item_lot "
+                + "WHERE expiryEpochDay IS NULL GROUP BY itemId)"));
+    }
+
+    @Test
+    public void consumeScans_drawDownFifoAndStopAtZero() {
+        ScanSession.CodeEntry entry = codes.get(0);
+        itemLotDao.replaceAll(entry.itemId, new ItemLot(entry.itemId, 2, InventoryTime.toEpochDay("2025-03-01"), "2025.01.01 10:00"));
+        itemLotDao.insert(new ItemLot(entry.itemId, 3, InventoryTime.toEpochDay("2025-06-01"), "2025.01.01 10:00"));
+
+        ScanSession session = newSession(ScanSession.MODE_CONSUME);
+        session.onScan(entry.barcode);
+        session.onScan(entry.barcode);
+        session.flush();
+        Item item = itemDao.getItemByIdSync(entry.itemId);
+        assertEquals(3, item.getQuantity());
+        assertEquals("2025-06-01", item.getExpiryDate());
+
+        for (int i = 0; i < 10; i++) {
+            session.onScan(entry.barcode);
+        }
+        session.close();
+        assertEquals(0, itemDao.getItemByIdSync(entry.itemId).getQuantity());
+        assertEquals(2, changedItems);
+    }
+
+    @Test
+    public void textInput_isSplitIntoScansByLine() {
+        ScanSession session = newSession(ScanSession.MODE_RECEIVE);
+        String code = codes.get(1).barcode;
+        assertEquals(3, session.onInput(code + "\r\n" + code + "\n\n  " + code + "  \n"));
+        session.close();
+        assertEquals(3, flushedScans);
+    }
+
+    @Test
+    public void barcode_isUniqueButOptional() {
+        Item first = newItem(null);
+        Item second = newItem(null);
+        itemDao.insert(first);
+        itemDao.insert(second);
+        assertNull(itemDao.getItemByIdSync(second.getId()).getBarcode());
+
+        try {
+            itemDao.insert(newItem(codes.get(0).barcode));
+            fail("重复条码应被唯一索引拒绝");
+        } catch (SQLiteConstraintException expectedException) {
+            // 期望抛出
+        }
+    }
+
+    @Test
+    public void barcodeLookup_isIndexSeek() throws Exception {
+        List<String> plan = support.planOf(() -> itemDao.getItemIdByBarcodeSync(codes.get(0).barcode));
+        DaoPerfSupport.assertIndexedSearch(plan, "item");
+    }
+
+    private ScanSession newSession(int mode) {
+        return new ScanSession(support.db, mode, (scans, items, unknown) -> {
+            flushes++;
+            flushedScans += scans;
+            changedItems += items;
+            unknownCodes.addAll(unknown);
+        }, DaoPerfSupport.BACKGROUND_WRITES, null, BATCH, 0);
+    }
+
+    private static Item newItem(String barcode) {
+        Item item = new Item();
+        item.setName("扫码测试");
+        item.setBarcode(barcode);
+        item.setExpiryDate("");
+        item.setCreateTime("2025.01.01 10:00");
+        item.setUpdateTime("2025.01.01 10:00");
+        NameSortKey.fill(item);
+        return item;
+    }
+
+    private int countRows(String table) {
+        return queryInt("SELECT COUNT(*) FROM " + table);
+    }
+
+    private int queryInt(String sql) {
+        try (Cursor cursor = support.db.query(sql, null)) {
+            cursor.moveToFirst();
+            return cursor.getInt(0);
+        }
+    }
+}
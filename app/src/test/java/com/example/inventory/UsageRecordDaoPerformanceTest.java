@@ -0,0 +1,127 @@
+package com.example.inventory;
+
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.ParameterizedRobolectricTestRunner;
+
+import java.util.Collection;
+import java.util.List;
+
+import static com.example.inventory.DaoPerfSupport.assertIndexedSearch;
+import static com.example.inventory.DaoPerfSupport.assertWithinBudget;
+import static com.example.inventory.DaoPerfSupport.medianMillis;
+import static com.example.inventory.LiveDataTestUtil.getOrAwaitValue;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * UsageRecordDao 性能回归测试：按物品的历史查询、键集分页与保留策略
+ */
+@RunWith(ParameterizedRobolectricTestRunner.class)
+public class UsageRecordDaoPerformanceTest {
+    private static final double INDEXED_BUDGET_MS = 50;
+    // 每个物品的修改记录数
+    private static final int UPDATES_PER_ITEM = 10;
+
+    @Rule
+    public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
+    @Rule
+    public MainThreadIoRule mainThreadIoRule = new MainThreadIoRule();
+
+    @ParameterizedRobolectricTestRunner.Parameters(name = "items={0}")
+    public static Collection<Object[]> data() {
+        return DaoPerfSupport.sizes();
+    }
+
+    private final int itemCount;
+    private DaoPerfSupport support;
+    private UsageRecordDao usageRecordDao;
+    private List<String> itemIds;
+
+    public UsageRecordDaoPerformanceTest(int itemCount) {
+        this.itemCount = itemCount;
+    }
+
+    @Before
+    public void setUp() {
+        support = new DaoPerfSupport();
+        usageRecordDao = support.db.usageRecordDao();
+        // 历史记录规模为物品数的11倍，百万级时只为十分之一的物品造历史
+        itemIds = support.seedItems(itemCount, 7);
+        support.seedUsageRecords(itemIds.subList(0, Math.min(itemCount, 100_000)), UPDATES_PER_ITEM, 7);
+    }
+
+    @After
+    public void tearDown() {
+        support.close();
+    }
+
+    @Test
+    public void getRecordsByItemId_usesItemTimeIndex() throws Exception {
+        String id = itemIds.get(0);
+        assertIndexedSearch(support.planOf(() -> getOrAwaitValue(usageRecordDao.getRecordsByItemId(id))),
+                "usage_record");
+        assertWithinBudget("getRecordsByItemId@" + itemCount,
+                medianMillis(() -> getOrAwaitValue(usageRecordDao.getRecordsByItemId(id))), INDEXED_BUDGET_MS);
+    }
+
+    @Test
+    public void keysetPages_useItemTimeIndex() throws Exception {
+        String id = itemIds.get(1);
+        List<UsageRecord> first = getOrAwaitValue(usageRecordDao.getRecordsFirstPage(id, 5));
+        assertEquals(5, first.size());
+        UsageRecord last = first.get(first.size() - 1);
+
+        assertIndexedSearch(support.planOf(() -> getOrAwaitValue(usageRecordDao.getRecordsFirstPage(id, 5))),
+                "usage_record");
+        assertIndexedSearch(support.planOf(() -> getOrAwaitValue(
+                usageRecordDao.getRecordsPageBefore(id, last.getTime(), last.getId(), 5))), "usage_record");
+        assertWithinBudget("getRecordsPageBefore@" + itemCount, medianMillis(() -> getOrAwaitValue(
+                usageRecordDao.getRecordsPageBefore(id, last.getTime(), last.getId(), 5))), INDEXED_BUDGET_MS);
+
+        List<UsageRecord> second = getOrAwaitValue(
+                usageRecordDao.getRecordsPageBefore(id, last.getTime(), last.getId(), 5));
+        assertTrue(second.get(0).getTime().compareTo(last.getTime()) <= 0);
+    }
+
+    @Test
+    public void insert_staysConstant() throws Exception {
+        String id = itemIds.get(2);
+        assertWithinBudget("UsageRecordDao.insert@" + itemCount, medianMillis(() -> {
+            usageRecordDao.insert(new UsageRecord(id, UsageRecord.TYPE_UPDATE, "2025.01.01 12:00",
+                    UsageRecord.FIELD_QUANTITY));
+            return null;
+        }), INDEXED_BUDGET_MS);
+    }
+
+    @Test
+    public void retention_compactsInSmallBatches() throws Exception {
+        // 每批的事务耗时不随总量增长；这里约束整次执行的线性预算
+        int historyItems = Math.min(itemCount, 100_000);
+        UsageRecordRetention retention = new UsageRecordRetention(support.db,
+                new UsageRecordRetention.Policy(30, 365, 200, 2000));
+        long start = System.nanoTime();
+        retention.runOnce(System.currentTimeMillis());
+        double millis = (System.nanoTime() - start) / 1_000_000.0;
+        assertWithinBudget("UsageRecordRetention.runOnce@" + historyItems, millis,
+                historyItems * UPDATES_PER_ITEM * 0.05 + 1000);
+
+        // 压缩后不再有早于压缩期限的修改记录（取31天前，留出策略按零点取期限的余量），旧记录已汇总为按天记录
+        String cutoff = InventoryTime.formatRecordTime(System.currentTimeMillis() - 31L * 24 * 60 * 60 * 1000);
+        assertTrue(usageRecordDao.getItemIdsWithUpdatesBefore(cutoff, 1).isEmpty());
+        assertTrue("应生成按天汇总记录", support.queryCount("SELECT id FROM usage_record WHERE type = "
+                + UsageRecord.TYPE_DAILY_ROLLUP) > 0);
+
+        // 某物品的历史只剩创建记录、近期的修改记录与按天汇总记录
+        List<UsageRecord> records = getOrAwaitValue(usageRecordDao.getRecordsByItemId(itemIds.get(0)));
+        for (UsageRecord record : records) {
+            assertTrue(record.getType() + " " + record.getTime(), record.getType() != UsageRecord.TYPE_UPDATE
+                    || record.getTime().compareTo(cutoff) >= 0);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.inventory.benchmark;
+
+import com.example.inventory.ExpiryStatus;
+import com.example.inventory.InventoryDataGenerator;
+import com.example.inventory.InventoryTime;
+import com.example.inventory.Item;
+import com.example.inventory.UsageRecord;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ExpiryStatus.of：列表每次绑定都会执行的有效期判断
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ExpiryStatusBenchmark {
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+
+    // mixed列表的长度（2的幂，便于取模）
+    private static final int MIXED_SIZE = 1024;
+
+    // 过期 / 临期 / 正常 / 无有效期 / 按模拟数据分布混合
+    @Param({"-30", "3", "365", "none", "mixed"})
+    public String offsetDays;
+
+    private String[] expiryDates;
+    private int cursor;
+    private long now;
+
+    @Setup
+    public void setUp() {
+        now = System.currentTimeMillis();
+        if ("mixed".equals(offsetDays)) {
+            expiryDates = generatedExpiryDates(now);
+        } else {
+            expiryDates = new String[]{"none".equals(offsetDays) ? ""
+                    : InventoryTime.formatExpiryDate(now + Integer.parseInt(offsetDays) * DAY_MILLIS)};
+        }
+    }
+
+    @Benchmark
+    public ExpiryStatus classify() {
+        String expiryDate = expiryDates[cursor++ & (expiryDates.length - 1)];
+        return ExpiryStatus.of(expiryDate, now);
+    }
+
+    private static String[] generatedExpiryDates(long now) {
+        final List<String> dates = new ArrayList<>();
+        new InventoryDataGenerator(new InventoryDataGenerator.Config(MIXED_SIZE, 5, 2, 8, 0, 0, 0), 1, now, null)
+                .generate(new InventoryDataGenerator.Sink() {
+                    @Override
+                    public void onCategory(long id, String name) {}
+
+                    @Override
+                    public void onSubCategory(long id, long categoryId, String name) {}
+
+                    @Override
+                    public void onLocation(long id, long parentId, String name) {}
+
+                    @Override
+                    public void onItem(Item item) {
+                        dates.add(item.getExpiryDate());
+                    }
+
+                    @Override
+                    public void onUsageRecord(UsageRecord record) {}
+                });
+        return dates.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.inventory.benchmark;
+
+import com.example.inventory.Item;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Item.ImagePathConverter：图片路径列表与逗号分隔字符串的互转
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ImagePathConverterBenchmark {
+    // 每个物品的图片数量
+    @Param({"0", "1", "3", "9"})
+    public int pathCount;
+
+    private List<String> paths;
+    private String joined;
+
+    @Setup
+    public void setUp() {
+        paths = new ArrayList<>();
+        for (int i = 0; i < pathCount; i++) {
+            paths.add("/storage/emulated/0/Android/data/com.example.inventory/files/Pictures/IMG_20250101_12000"
+                    + i + "_123456789.jpg");
+        }
+        joined = Item.ImagePathConverter.fromList(paths);
+    }
+
+    @Benchmark
+    public String fromList() {
+        return Item.ImagePathConverter.fromList(paths);
+    }
+
+    @Benchmark
+    public List<String> toList() {
+        return Item.ImagePathConverter.toList(joined);
+    }
+}
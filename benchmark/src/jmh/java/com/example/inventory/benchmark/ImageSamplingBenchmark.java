@@ -0,0 +1,44 @@
+package com.example.inventory.benchmark;
+
+import com.example.inventory.ImageSampling;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ImageSampling.calculateInSampleSize：缩略图（200x200）与大图（1080x1920）的采样率计算
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ImageSamplingBenchmark {
+    // 原图尺寸：1200万像素相机照片 / 1080p截图
+    @Param({"4000x3000", "1080x1920"})
+    public String source;
+
+    @Param({"200", "1080"})
+    public int requested;
+
+    private int width;
+    private int height;
+
+    @Setup
+    public void setUp() {
+        int separator = source.indexOf('x');
+        width = Integer.parseInt(source.substring(0, separator));
+        height = Integer.parseInt(source.substring(separator + 1));
+    }
+
+    @Benchmark
+    public int calculateInSampleSize() {
+        return ImageSampling.calculateInSampleSize(width, height, requested, requested * 16 / 9);
+    }
+}
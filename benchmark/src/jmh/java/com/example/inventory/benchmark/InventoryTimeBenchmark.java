@@ -0,0 +1,40 @@
+package com.example.inventory.benchmark;
+
+import com.example.inventory.InventoryTime;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 时间戳格式化：仓库每次写入都会生成创建/修改时间
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class InventoryTimeBenchmark {
+    private final long now = System.currentTimeMillis();
+
+    @Benchmark
+    public String formatRecordTime() {
+        return InventoryTime.formatRecordTime(now);
+    }
+
+    // 对照组：早期仓库实现，每次调用新建SimpleDateFormat
+    @Benchmark
+    public String formatRecordTimeNewFormatter() {
+        return new SimpleDateFormat(InventoryTime.RECORD_TIME_PATTERN, Locale.getDefault()).format(now);
+    }
+
+    @Benchmark
+    public String formatExpiryDate() {
+        return InventoryTime.formatExpiryDate(now);
+    }
+}